@@ -19,17 +19,16 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import com.example.lotteryevent.data.Entrant;
 import com.example.lotteryevent.repository.FakeEventRepository;
 import com.example.lotteryevent.ui.organizer.ConfirmDrawAndNotifyFragment;
+import com.example.lotteryevent.utilities.DrawSessionStore;
 import com.example.lotteryevent.viewmodels.ConfirmDrawAndNotifyViewModel;
 import com.example.lotteryevent.viewmodels.GenericViewModelFactory;
-import com.google.gson.Gson;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Tests for valid UI shown based on which states entrants are in
@@ -56,6 +55,11 @@ public class ConfirmDrawAndNotifyFragmentTest {
         fragmentFactory.put(ConfirmDrawAndNotifyFragment.class, () -> new ConfirmDrawAndNotifyFragment(viewModelFactory));
     }
 
+    @After
+    public void tearDown() {
+        DrawSessionStore.getInstance().remove("fake-draw-id");
+    }
+
     /**
      * Test Case 1: User sees waiting, selected, and available space counts when only waiting users exist
      */
@@ -65,22 +69,16 @@ public class ConfirmDrawAndNotifyFragmentTest {
         fragmentArgs = new Bundle();
         fragmentArgs.putString("eventId", "fake-event-id");
 
-        Gson gson = new Gson();
-        Map<String, String> oldEntrantsStatus = new HashMap<>();
         ArrayList<String> newChosenEntrants = new ArrayList<>();
         ArrayList<String> newUnchosenEntrants = new ArrayList<>();
         ArrayList<Entrant> inMemoryEntrants = fakeRepository.getInMemoryEntrants();
         for (Entrant entrant : inMemoryEntrants) {
-            oldEntrantsStatus.put(String.valueOf(entrant.getUserId()), "waiting");
             newUnchosenEntrants.add(String.valueOf(entrant.getUserId()));
         }
-        String oldEntrantsStatusString = gson.toJson(oldEntrantsStatus);
-        String newChosenEntrantsString = gson.toJson(newChosenEntrants);
-        String newUnchosenEntrantsString = gson.toJson(newUnchosenEntrants);
+        DrawSessionStore.getInstance().put("fake-draw-id", new DrawSessionStore.DrawSession("fake-event-id",
+                newChosenEntrants.toArray(new String[0]), newUnchosenEntrants.toArray(new String[0])));
 
-        fragmentArgs.putString("oldEntrantsStatus", oldEntrantsStatusString);
-        fragmentArgs.putString("newChosenEntrants", newChosenEntrantsString);
-        fragmentArgs.putString("newUnchosenEntrants", newUnchosenEntrantsString);
+        fragmentArgs.putString("drawId", "fake-draw-id");
 
         // Act: Launch the fragment.
         FragmentScenario.launchInContainer(ConfirmDrawAndNotifyFragment.class, fragmentArgs, R.style.Theme_LotteryEvent, fragmentFactory);
@@ -111,23 +109,17 @@ public class ConfirmDrawAndNotifyFragmentTest {
         fragmentArgs = new Bundle();
         fragmentArgs.putString("eventId", "fake-event-id");
 
-        Gson gson = new Gson();
-        Map<String, String> oldEntrantsStatus = new HashMap<>();
         ArrayList<String> newChosenEntrants = new ArrayList<>();
         ArrayList<String> newUnchosenEntrants = new ArrayList<>();
         ArrayList<Entrant> inMemoryEntrants = fakeRepository.getInMemoryEntrants();
         for (Entrant entrant : inMemoryEntrants) {
             fakeRepository.updateEntrantAttribute("fake-event-id", entrant.getUserId(), "status", "invited");
-            oldEntrantsStatus.put(String.valueOf(entrant.getUserId()), "waiting");
             newChosenEntrants.add(String.valueOf(entrant.getUserId()));
         }
-        String oldEntrantsStatusString = gson.toJson(oldEntrantsStatus);
-        String newChosenEntrantsString = gson.toJson(newChosenEntrants);
-        String newUnchosenEntrantsString = gson.toJson(newUnchosenEntrants);
+        DrawSessionStore.getInstance().put("fake-draw-id", new DrawSessionStore.DrawSession("fake-event-id",
+                newChosenEntrants.toArray(new String[0]), newUnchosenEntrants.toArray(new String[0])));
 
-        fragmentArgs.putString("oldEntrantsStatus", oldEntrantsStatusString);
-        fragmentArgs.putString("newChosenEntrants", newChosenEntrantsString);
-        fragmentArgs.putString("newUnchosenEntrants", newUnchosenEntrantsString);
+        fragmentArgs.putString("drawId", "fake-draw-id");
 
         // Act: Launch the fragment.
         FragmentScenario.launchInContainer(ConfirmDrawAndNotifyFragment.class, fragmentArgs, R.style.Theme_LotteryEvent, fragmentFactory);
@@ -153,8 +145,6 @@ public class ConfirmDrawAndNotifyFragmentTest {
         fragmentArgs = new Bundle();
         fragmentArgs.putString("eventId", "fake-event-id");
 
-        Gson gson = new Gson();
-        Map<String, String> oldEntrantsStatus = new HashMap<>();
         ArrayList<String> newChosenEntrants = new ArrayList<>();
         ArrayList<String> newUnchosenEntrants = new ArrayList<>();
         ArrayList<Entrant> inMemoryEntrants = fakeRepository.getInMemoryEntrants();
@@ -162,20 +152,15 @@ public class ConfirmDrawAndNotifyFragmentTest {
         for (Entrant entrant : inMemoryEntrants) {
             if (singleEntrant == entrant) {
                 fakeRepository.updateEntrantAttribute("fake-event-id", entrant.getUserId(), "status", "invited");
-                oldEntrantsStatus.put(String.valueOf(entrant.getUserId()), "invited");
                 newChosenEntrants.add(String.valueOf(entrant.getUserId()));
             } else {
-                oldEntrantsStatus.put(String.valueOf(entrant.getUserId()), "waiting");
                 newUnchosenEntrants.add(String.valueOf(entrant.getUserId()));
             }
         }
-        String oldEntrantsStatusString = gson.toJson(oldEntrantsStatus);
-        String newChosenEntrantsString = gson.toJson(newChosenEntrants);
-        String newUnchosenEntrantsString = gson.toJson(newUnchosenEntrants);
+        DrawSessionStore.getInstance().put("fake-draw-id", new DrawSessionStore.DrawSession("fake-event-id",
+                newChosenEntrants.toArray(new String[0]), newUnchosenEntrants.toArray(new String[0])));
 
-        fragmentArgs.putString("oldEntrantsStatus", oldEntrantsStatusString);
-        fragmentArgs.putString("newChosenEntrants", newChosenEntrantsString);
-        fragmentArgs.putString("newUnchosenEntrants", newUnchosenEntrantsString);
+        fragmentArgs.putString("drawId", "fake-draw-id");
 
         // Act: Launch the fragment.
         FragmentScenario.launchInContainer(ConfirmDrawAndNotifyFragment.class, fragmentArgs, R.style.Theme_LotteryEvent, fragmentFactory);
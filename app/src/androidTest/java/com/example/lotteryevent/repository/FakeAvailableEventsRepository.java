@@ -6,6 +6,7 @@ import androidx.lifecycle.MutableLiveData;
 import com.example.lotteryevent.data.Event;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -32,6 +33,8 @@ public class FakeAvailableEventsRepository implements IAvailableEventsRepository
     private boolean fetchCalled = false;
     private boolean removeListenerCalled = false;
 
+    private final List<OnEventsChangedListener> changeListeners = new ArrayList<>();
+
     @Override
     public LiveData<List<Event>> getAvailableEvents() {
         return eventsLiveData;
@@ -64,14 +67,49 @@ public class FakeAvailableEventsRepository implements IAvailableEventsRepository
         if (shouldReturnError) {
             loadingLiveData.setValue(false);
             messageLiveData.setValue(errorMessage);
+            notifyReset(new ArrayList<>());
             eventsLiveData.setValue(new ArrayList<>()); // empty list on error
         } else {
             loadingLiveData.setValue(false);
             messageLiveData.setValue(null); // clear any previous message
+            notifyReset(eventsToReturn);
             eventsLiveData.setValue(new ArrayList<>(eventsToReturn));
         }
     }
 
+    /**
+     * The fake emits every event at once, so there is never another page to load.
+     */
+    @Override
+    public void loadMoreEvents() {}
+
+    /**
+     * The fake keeps every event loaded.
+     * @param eventId ID of the last visible event
+     */
+    @Override
+    public void evictEventsBelow(String eventId) {}
+
+    @Override
+    public void addOnEventsChangedListener(OnEventsChangedListener listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public void removeOnEventsChangedListener(OnEventsChangedListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * The fake always replaces every event, so listeners receive a reset with the new list,
+     * before the list is posted like in the real repository.
+     */
+    private void notifyReset(List<Event> events) {
+        for (OnEventsChangedListener listener : new ArrayList<>(changeListeners)) {
+            listener.onEventsChanged(new ArrayList<>(events), Collections.emptyList(), true);
+        }
+    }
+
     /**
      * In the real repo this removes the Firebase listener.
      * Here we just record that it was called so tests can assert on it.
@@ -131,8 +169,10 @@ public class FakeAvailableEventsRepository implements IAvailableEventsRepository
      */
     public void emitEvents(List<Event> events) {
         if (events == null) {
+            notifyReset(new ArrayList<>());
             eventsLiveData.setValue(new ArrayList<>());
         } else {
+            notifyReset(events);
             eventsLiveData.setValue(new ArrayList<>(events));
         }
     }
@@ -125,6 +125,30 @@ public class FakeEntrantListRepository implements IEntrantListRepository {
         _userMessage.postValue(null);
     }
 
+    /**
+     * Records a simulated notification call for every entrant, as a bulk send would.
+     * @param uids the user IDs of the entrants who would receive the notification
+     * @param eventId the ID of the associated event
+     * @param organizerMessage the message content intended for the entrants
+     */
+    @Override
+    public void notifyEntrants(List<String> uids, String eventId, String organizerMessage) {
+        if (uids == null || eventId == null) {
+            _userMessage.postValue("Failed to send notification.");
+            return;
+        }
+
+        for (String uid : uids) {
+            Notification notification = new Notification();
+            notification.setRecipientId(uid);
+            notification.setEventId(eventId);
+            notification.setMessage(organizerMessage);
+            notificationCalls.add(notification);
+        }
+
+        _userMessage.postValue(null);
+    }
+
     /**
      * Replaces the in-memory entrant list with the provided value and posts it to
      * LiveData so any observers receive an update. Passing {@code null} resets the
@@ -69,6 +69,28 @@ public class FakeNotificationRepository implements INotificationRepository {
         }
     }
 
+    /**
+     * Simulates marking every notification as seen by updating the in-memory objects.
+     *
+     * @param notificationCustomManager The manager context (unused in this fake implementation).
+     */
+    @Override
+    public void markAllNotificationsAsSeen(NotificationCustomManager notificationCustomManager) {
+        for (Notification n : inMemoryList) {
+            n.setSeen(true);
+        }
+        notificationsLiveData.postValue(new ArrayList<>(inMemoryList));
+    }
+
+    /**
+     * No-operation for the fake repository.
+     * Every in-memory notification is already posted, so there is no older page to load.
+     */
+    @Override
+    public void loadMoreNotifications() {
+        // No-op for fake
+    }
+
     /**
      * No-operation for the fake repository.
      * Since there are no real Firestore listeners attached, this method does nothing.
@@ -175,4 +197,4 @@ public class FakeNotificationRepository implements INotificationRepository {
             callback.onCallback("Fake Name for " + userId);
         }
     }
-}
\ No newline at end of file
+}
@@ -25,6 +25,7 @@ import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 import androidx.core.splashscreen.SplashScreen;
 
+import com.example.lotteryevent.utilities.CascadeDeleter;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.android.material.navigation.NavigationView;
@@ -230,6 +231,30 @@ public class MainActivity extends AppCompatActivity {
         notificationCustomManager.clearNotifications();
         notificationCustomManager.checkAndDisplayUnreadNotifications(uid);
         notificationCustomManager.listenForNotifications(uid);
+        resumeDeleteJobs(uid);
+    }
+
+    /**
+     * Resumes any cascading deletes this user started that were interrupted, for example by the
+     * app being killed, from their last checkpoint.
+     * @param uid the user's device id
+     */
+    private void resumeDeleteJobs(String uid) {
+        new CascadeDeleter(FirebaseFirestore.getInstance()).resumePending(uid, null)
+                /**
+                 * Logs the jobs that were finished
+                 * @param jobs resumed jobs
+                 */
+                .addOnSuccessListener(jobs -> {
+                    if (!jobs.isEmpty()) {
+                        Log.d(TAG, "Finished " + jobs.size() + " interrupted delete job(s)");
+                    }
+                })
+                /**
+                 * Logs exception thrown; the jobs stay saved and are retried on the next start
+                 * @param e exception thrown
+                 */
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to resume delete jobs", e));
     }
 
     /**
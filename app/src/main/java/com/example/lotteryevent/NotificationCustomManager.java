@@ -1,5 +1,12 @@
 package com.example.lotteryevent;
 import com.example.lotteryevent.data.Notification;
+import com.example.lotteryevent.data.NotificationTemplate;
+import com.example.lotteryevent.utilities.BannerCoalescer;
+import com.example.lotteryevent.utilities.BatchWriter;
+import com.example.lotteryevent.utilities.BroadcastResolver;
+import com.example.lotteryevent.utilities.NotificationBroadcaster;
+import com.example.lotteryevent.utilities.NotificationPreferences;
+import com.example.lotteryevent.utilities.UnreadNotifications;
 
 import static com.google.firebase.firestore.DocumentChange.Type.ADDED;
 
@@ -11,6 +18,9 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.service.notification.StatusBarNotification;
 import android.util.Log;
 import android.widget.Toast;
 
@@ -19,9 +29,11 @@ import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.Timestamp;
 import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.EventListener;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreException;
@@ -29,6 +41,14 @@ import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QuerySnapshot;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -46,6 +66,8 @@ public class NotificationCustomManager {
     private FirebaseFirestore db;
     private final static AtomicInteger c = new AtomicInteger(0);
     private ListenerRegistration listener;
+    private final BannerCoalescer coalescer = new BannerCoalescer();
+    private final Handler bannerHandler = new Handler(Looper.getMainLooper());
 
 
     /**
@@ -135,6 +157,19 @@ public class NotificationCustomManager {
                 });
     }
 
+    /**
+     * Sends the same notification to many users through batched writes, instead of one write per user.
+     * Failures are aggregated in the result rather than shown per recipient.
+     * @param recipientIds IDs of the users to notify
+     * @param template content shared by every notification
+     * @param listener receives the number of notifications sent and failed after every batch, may be null
+     * @return task resolving to the aggregated result of the broadcast
+     */
+    public Task<NotificationBroadcaster.Result> sendBroadcast(Collection<String> recipientIds, NotificationTemplate template,
+                                                              @Nullable BatchWriter.ProgressListener listener) {
+        return new NotificationBroadcaster(db).send(recipientIds, template, listener);
+    }
+
     /**
      * Creates the actual notification in the target user's device with intent on where it will navigate to
      * @param title title of the notif
@@ -145,6 +180,27 @@ public class NotificationCustomManager {
      */
     @SuppressLint("MissingPermission")
     public int generateNotification(String title, String message, String eventId, String notificationId, String notifType) {
+        NotificationCompat.Builder builder = buildBanner(title, message, eventId, notificationId, notifType);
+
+        int notifBannerId = getID();
+
+        // Display the notification
+        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this.myContext);
+        notificationManager.notify(notifBannerId, builder.build());
+
+        return notifBannerId;
+    }
+
+    /**
+     * Builds a banner with intent on where it will navigate to when tapped
+     * @param title title of the notif
+     * @param message message of the notif
+     * @param eventId event id that notif comes from
+     * @param notificationId notif id, null for banners about several notifs
+     * @param notifType notif type
+     * @return builder of the banner
+     */
+    private NotificationCompat.Builder buildBanner(String title, String message, String eventId, String notificationId, String notifType) {
         // Intent that triggers when the notification is tapped
         Intent intent = new Intent(this.myContext, MainActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP | Intent.FLAG_ACTIVITY_CLEAR_TOP);
@@ -166,7 +222,7 @@ public class NotificationCustomManager {
         );
 
         // Build the notification
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this.myContext, channelID)
+        return new NotificationCompat.Builder(this.myContext, channelID)
                 .setSmallIcon(R.drawable.ic_notifications_24)
                 .setContentTitle(title)
                 .setContentText(message)
@@ -174,31 +230,24 @@ public class NotificationCustomManager {
                 .setContentIntent(pendingIntent)
                 .setAutoCancel(true)
                 .setPriority(NotificationCompat.PRIORITY_MAX);
-
-        int notifBannerId = getID();
-
-        // Display the notification
-        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this.myContext);
-        notificationManager.notify(notifBannerId, builder.build());
-
-        return notifBannerId;
     }
 
     /**
      * Checks db for unread notifs once and either generates one notif if only one or a bulk notif
-     * of a number of unread notifs if user has notifs enabled in db
+     * of a number of unread notifs if user has notifs enabled, as cached by {@link NotificationPreferences}
      * @param uid recipient user's id
      */
     public void checkAndDisplayUnreadNotifications(String uid) {
-        db.collection("users").document(uid).get()
+        NotificationPreferences preferences = NotificationPreferences.getInstance();
+        preferences.start(db, uid);
+        preferences.getOptOut()
                 /**
                  * If opted in for notifications, gets unseen notifs and if only one, creates its banner,
                  * if multiple, creates an X number of notifs missed banner
-                 * @param doc contains user
+                 * @param optOut whether the user opted out of notifications
                  */
-            .addOnSuccessListener(doc -> {
-                Boolean optOut = doc.getBoolean("optOutNotifications");
-                if (optOut != null && optOut) {
+            .addOnSuccessListener(optOut -> {
+                if (optOut) {
                     Log.w(TAG, "User has opted out of receiving notifications");
                     return;
                 }
@@ -215,17 +264,7 @@ public class NotificationCustomManager {
                         int size = notifs.size();
                         if (size == 1) {
                             Notification notification = notifs.getDocuments().get(0).toObject(Notification.class);
-                            String title = notification.getTitle();
-                            String message = notification.getMessage();
-
-                            Timestamp timestampRaw = notification.getTimestamp();
-                            SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy HH:mm:ss");
-                            String timestamp = dateFormat.format(timestampRaw.toDate());
-
-                            String fullMessage = message + "\n" + timestamp;
-
-                            int notifBannerId = generateNotification(title, fullMessage, notification.getEventId(), notification.getNotificationId(), notification.getType());
-                            db.collection("notifications").document(notification.getNotificationId()).update("notifBannerId", notifBannerId);
+                            showBanners(Collections.singletonList(notification));
                         } else if (size > 1) {
                             // many notifs, just tell multiple unread
                             String title = "You have " + String.valueOf(size) + " unread notifications";
@@ -242,16 +281,123 @@ public class NotificationCustomManager {
                         Log.w(TAG, "Failed to get notifications for user " + uid, e);
                         Toast.makeText(myContext, "Failed to get notification for user", Toast.LENGTH_SHORT).show();
                     });
-            })
-            /**
-             * Logs of exception thrown
-             * @param e exception thrown
-             */
-            .addOnFailureListener(e -> {
-                Log.e(TAG, "Failed to get user information for user ID " + uid + " to determine whether to send notifications: ", e);
             });
     }
 
+    /**
+     * Queues a banner for each notification once the content of broadcast pointers is resolved.
+     * Notifications arriving within {@link BannerCoalescer#WINDOW_MS} of each other are posted together.
+     * @param notifications notifications to show banners for
+     */
+    private void showBanners(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        BroadcastResolver.resolve(db, notifications)
+                /**
+                 * Adds the resolved notifications to the current burst, opening a window if there is none
+                 * @param resolved notifications with their content filled in
+                 */
+                .addOnSuccessListener(resolved -> {
+                    for (Notification notification : resolved) {
+                        if (coalescer.add(notification)) {
+                            bannerHandler.postDelayed(this::flushBanners, BannerCoalescer.WINDOW_MS);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Posts the banners collected during a burst. The banners of an event are put in one group, and
+     * when a group has several only its summary alerts the user. Banner IDs are derived from the
+     * notification IDs and kept in {@link UnreadNotifications}, so nothing is written back to Firestore.
+     */
+    @SuppressLint("MissingPermission")
+    private void flushBanners() {
+        UnreadNotifications unread = UnreadNotifications.getInstance();
+        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this.myContext);
+
+        for (Map.Entry<String, List<Notification>> group : coalescer.drain().entrySet()) {
+            String groupKey = group.getKey();
+            List<Notification> notifications = new ArrayList<>();
+            for (Notification notification : group.getValue()) {
+                // skip notifs seen while the burst was being collected
+                if (!unread.isSeeded() || unread.contains(notification.getNotificationId())) {
+                    notifications.add(notification);
+                }
+            }
+            if (notifications.isEmpty()) {
+                continue;
+            }
+            boolean grouped = notifications.size() > 1;
+
+            NotificationCompat.InboxStyle summaryStyle = new NotificationCompat.InboxStyle();
+            for (Notification notification : notifications) {
+                NotificationCompat.Builder builder = buildBanner(notification.getTitle(), withTimestamp(notification),
+                        notification.getEventId(), notification.getNotificationId(), notification.getType())
+                        .setGroup(groupKey);
+                if (grouped) {
+                    builder.setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY);
+                }
+                int notifBannerId = BannerCoalescer.bannerId(notification.getNotificationId());
+                notificationManager.notify(notifBannerId, builder.build());
+                unread.setBanner(notification.getNotificationId(), notifBannerId);
+                summaryStyle.addLine(notification.getTitle());
+            }
+
+            if (grouped) {
+                String eventName = notifications.get(0).getEventName();
+                String title = eventName != null ? eventName : "Lottery notifications";
+                String message = notifications.size() + " new notifications";
+                NotificationCompat.Builder summary = buildBanner(title, message, null, null, null)
+                        .setStyle(summaryStyle.setSummaryText(message))
+                        .setGroup(groupKey)
+                        .setGroupSummary(true);
+                notificationManager.notify(BannerCoalescer.summaryId(groupKey), summary.build());
+            }
+        }
+    }
+
+    /**
+     * Appends the time a notif was sent to its message
+     * @param notification notif to show
+     * @return message followed by the formatted timestamp
+     */
+    private static String withTimestamp(Notification notification) {
+        Timestamp timestampRaw = notification.getTimestamp();
+        if (timestampRaw == null) {
+            return notification.getMessage();
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy HH:mm:ss");
+        return notification.getMessage() + "\n" + dateFormat.format(timestampRaw.toDate());
+    }
+
+    /**
+     * Removes the summaries of banner groups that no longer have any banner in them
+     * @param removedBannerId banner just removed, which may still be listed as active
+     */
+    private void clearEmptyGroupSummaries(int removedBannerId) {
+        NotificationManager notificationManager = myContext.getSystemService(NotificationManager.class);
+        Map<String, Integer> summaries = new HashMap<>();
+        Set<String> groupsWithBanners = new HashSet<>();
+        for (StatusBarNotification active : notificationManager.getActiveNotifications()) {
+            String group = active.getNotification().getGroup();
+            if (group == null || active.getId() == removedBannerId) {
+                continue;
+            }
+            if ((active.getNotification().flags & android.app.Notification.FLAG_GROUP_SUMMARY) != 0) {
+                summaries.put(group, active.getId());
+            } else {
+                groupsWithBanners.add(group);
+            }
+        }
+        for (Map.Entry<String, Integer> summary : summaries.entrySet()) {
+            if (!groupsWithBanners.contains(summary.getKey())) {
+                notificationManager.cancel(summary.getValue());
+            }
+        }
+    }
+
     /**
      * listens for new notifs while on the app, if found generates notif if user has notifs enabled in db
      * @param uid recipient user's id
@@ -262,6 +408,7 @@ public class NotificationCustomManager {
             return;
         }
         Log.d(TAG, "Attaching listener for uid=" + uid + " instance=" + this.hashCode());
+        NotificationPreferences.getInstance().start(db, uid);
         AtomicBoolean isFirstListener = new AtomicBoolean(true);
         listener = db.collection("notifications").whereEqualTo("recipientId", uid).whereEqualTo("seen", false)
                 /**
@@ -276,10 +423,6 @@ public class NotificationCustomManager {
                     @Override
                     public void onEvent(@Nullable QuerySnapshot value,
                                         @Nullable FirebaseFirestoreException e) {
-                        if (isFirstListener.get()) {
-                            isFirstListener.set(false);
-                            return;
-                        }
                         if (e != null) {
                             Log.w(TAG, "Listen failed with an error", e);
                             return;
@@ -289,49 +432,44 @@ public class NotificationCustomManager {
                             return;
                         }
 
-                        db.collection("users").document(uid).get()
-                            /**
-                             * If opted in for notifs, generates notif banner
-                             * @param doc contains user
-                             */
-                            .addOnSuccessListener(doc -> {
-                                Boolean optOut = doc.getBoolean("optOutNotifications");
-                                if (optOut == null || optOut) {
-                                    Log.w(TAG, "User has opted out of receiving notifications");
-                                    return;
-                                }
-                                for (DocumentChange dc : value.getDocumentChanges()) {
-                                    if (dc.getType() == ADDED) {
-                                        Notification notification = dc.getDocument().toObject(Notification.class);
-                                        String title = notification.getTitle();
-                                        String message = notification.getMessage();
-
-                                        Timestamp timestampRaw = notification.getTimestamp();
-                                        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy HH:mm:ss");
-                                        String timestamp = dateFormat.format(timestampRaw.toDate());
-
-                                        String fullMessage = message + "\n" + timestamp;
-
-                                        int notifBannerId = generateNotification(title, fullMessage, notification.getEventId(), notification.getNotificationId(), notification.getType());
-                                        db.collection("notifications").document(notification.getNotificationId()).update("notifBannerId", notifBannerId);
-                                    }
-                                }
-                            })
-                            /**
-                             * Logs exception thrown
-                             * @param e exception thrown
-                             */
-                            .addOnFailureListener(e2 -> {
-                                Log.e(TAG, "Failed to get user information for user ID " + uid + " to determine whether to send notifications: ", e2);
-                            });
+                        // this query holds every unseen notif, so it keeps the local unread set complete
+                        UnreadNotifications unread = UnreadNotifications.getInstance();
+                        for (DocumentChange dc : value.getDocumentChanges()) {
+                            if (dc.getType() == DocumentChange.Type.REMOVED) {
+                                unread.remove(dc.getDocument().getId());
+                            } else {
+                                unread.add(dc.getDocument().getId());
+                            }
+                        }
+                        unread.markSeeded();
+
+                        if (isFirstListener.get()) {
+                            isFirstListener.set(false);
+                            return;
+                        }
+
+                        // the preference is cached by a single user document listener, so no read is needed here
+                        if (NotificationPreferences.getInstance().isOptedOut()) {
+                            Log.w(TAG, "User has opted out of receiving notifications");
+                            return;
+                        }
+                        List<Notification> added = new ArrayList<>();
+                        for (DocumentChange dc : value.getDocumentChanges()) {
+                            if (dc.getType() == ADDED) {
+                                added.add(dc.getDocument().toObject(Notification.class));
+                            }
+                        }
+                        showBanners(added);
                     }
                 });
     }
 
     /**
-     * Stops listening for notifications
+     * Stops listening for notifications and for the user's notification preference
      */
     public void stopListener() {
+        NotificationPreferences.getInstance().stop();
+        UnreadNotifications.getInstance().clear();
         if (listener != null) {
             listener.remove();
             Log.d(TAG, "Stopped listening for notifications.");
@@ -339,11 +477,38 @@ public class NotificationCustomManager {
     }
 
     /**
-     * Marks a provided notif as seen to True
+     * Marks a provided notif as seen to True with a single write. Its banner is cleared, and all
+     * banners once no unseen notif remains, as decided by the local {@link UnreadNotifications} set.
      * @param notificationId notif id
+     * @return task of the write
      */
-    public void markNotificationAsSeen(String notificationId) {
-        db.collection("notifications")
+    public Task<Void> markNotificationAsSeen(String notificationId) {
+        return markNotificationAsSeen(notificationId, null);
+    }
+
+    /**
+     * Marks a provided notif as seen to True with a single write
+     * @param notificationId notif id
+     * @param knownBannerId banner ID stored with the notif by older versions of the app, may be null
+     * @return task of the write
+     */
+    public Task<Void> markNotificationAsSeen(String notificationId, @Nullable Integer knownBannerId) {
+        UnreadNotifications unread = UnreadNotifications.getInstance();
+        Integer notifBannerId = unread.remove(notificationId);
+        if (notifBannerId == null) {
+            notifBannerId = BannerCoalescer.bannerId(notificationId);
+        }
+        clearNotification(notifBannerId);
+        if (knownBannerId != null && !knownBannerId.equals(notifBannerId)) {
+            clearNotification(knownBannerId);
+        }
+        if (unread.isAllSeen()) {
+            clearNotifications();
+        } else {
+            clearEmptyGroupSummaries(notifBannerId);
+        }
+
+        return db.collection("notifications")
             .document(notificationId)
             .update("seen", true)
             /**
@@ -354,12 +519,66 @@ public class NotificationCustomManager {
                 Log.d("FIRESTORE_SUCCESS", "Notification updated with ID: " + notificationId);
             })
             /**
-             * Logs exception thrown
+             * Logs exception thrown and keeps the notif unseen locally
              * @param e exception thrown
              */
             .addOnFailureListener(e -> {
+                unread.add(notificationId);
                 Log.w("FIRESTORE_ERROR", "Error updating document", e);
                 Toast.makeText(myContext, "Error updating notification", Toast.LENGTH_LONG).show();
             });
     }
+
+    /**
+     * Marks every unseen notif of a user as seen through batched writes and clears all banners.
+     * The IDs come from the local {@link UnreadNotifications} set once it is complete, otherwise
+     * they are queried once.
+     * @param uid recipient user's id
+     * @param listener receives the number of notifs updated and failed after every batch, may be null
+     * @return task resolving to the outcome of the batched writes
+     */
+    public Task<BatchWriter.Result> markAllNotificationsAsSeen(String uid, @Nullable BatchWriter.ProgressListener listener) {
+        UnreadNotifications unread = UnreadNotifications.getInstance();
+        Task<List<String>> unseenIds;
+        if (unread.isSeeded()) {
+            unseenIds = Tasks.forResult(unread.getIds());
+        } else {
+            unseenIds = db.collection("notifications")
+                    .whereEqualTo("recipientId", uid)
+                    .whereEqualTo("seen", false)
+                    .get()
+                    /**
+                     * Collects the IDs of the unseen notifs
+                     * @param snapshot contains unseen notifs
+                     */
+                    .onSuccessTask(snapshot -> {
+                        List<String> ids = new ArrayList<>();
+                        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                            ids.add(doc.getId());
+                        }
+                        return Tasks.forResult(ids);
+                    });
+        }
+
+        return unseenIds
+                /**
+                 * Writes the seen flags in batches of up to 500
+                 * @param ids IDs of the unseen notifs
+                 */
+                .onSuccessTask(ids -> {
+                    BatchWriter writer = new BatchWriter(db);
+                    for (String id : ids) {
+                        writer.update(db.collection("notifications").document(id), "seen", true);
+                    }
+                    return writer.commit(listener);
+                })
+                /**
+                 * Clears all banners; the unseen listener drops the updated notifs from the local set
+                 * @param result outcome of the batched writes
+                 */
+                .addOnSuccessListener(result -> {
+                    Log.d(TAG, "Marked " + result.getCommittedOps() + " notifications as seen");
+                    clearNotifications();
+                });
+    }
 }
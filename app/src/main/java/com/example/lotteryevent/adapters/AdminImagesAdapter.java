@@ -1,30 +1,56 @@
 package com.example.lotteryevent.adapters;
 
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.data.AdminImageItem;
+import com.example.lotteryevent.utilities.PosterEncoder;
+import com.example.lotteryevent.utilities.PosterModel;
+import com.example.lotteryevent.utilities.StableIds;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * RecyclerView Adapter for displaying a grid or list of images in the Admin Dashboard.
  * <p>
  * This adapter handles the binding of {@link AdminImageItem} objects to the view.
- * It specifically handles the decoding of Base64 encoded image strings into {@link Bitmap}
- * objects for display in an {@link ImageView}.
+ * Images are loaded and decoded into {@link Bitmap} objects by Glide in the background,
+ * at the size of each {@link ImageView}.
+ * </p>
+ * <p>
+ * Lists are diffed by {@link DiffUtil}, so deleting an image only removes its own tile instead
+ * of reloading the whole grid.
  * </p>
  */
-public class AdminImagesAdapter extends RecyclerView.Adapter<AdminImagesAdapter.ImageHolder> {
+public class AdminImagesAdapter extends ListAdapter<AdminImageItem, AdminImagesAdapter.ImageHolder> {
+
+    /**
+     * Matches images by event ID and compares the poster they show
+     */
+    private static final DiffUtil.ItemCallback<AdminImageItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<AdminImageItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull AdminImageItem oldItem, @NonNull AdminImageItem newItem) {
+            return Objects.equals(oldItem.getEventId(), newItem.getEventId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull AdminImageItem oldItem, @NonNull AdminImageItem newItem) {
+            return Objects.equals(oldItem.getPosterId(), newItem.getPosterId())
+                    && Objects.equals(oldItem.getBase64Image(), newItem.getBase64Image());
+        }
+    };
 
     /**
      * Interface definition for a callback to be invoked when an image is clicked.
@@ -37,7 +63,6 @@ public class AdminImagesAdapter extends RecyclerView.Adapter<AdminImagesAdapter.
         void onClick(AdminImageItem item);
     }
 
-    private List<AdminImageItem> images = new ArrayList<>();
     private final OnItemClickListener listener;
 
     /**
@@ -46,17 +71,19 @@ public class AdminImagesAdapter extends RecyclerView.Adapter<AdminImagesAdapter.
      * @param listener The callback listener to handle item click events.
      */
     public AdminImagesAdapter(OnItemClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     /**
-     * Updates the list of images displayed by the adapter and notifies the RecyclerView to refresh.
+     * Updates the list of images displayed by the adapter, notifying only the tiles that changed.
      *
      * @param list The new list of {@link AdminImageItem} objects to display.
      */
     public void setImages(List<AdminImageItem> list) {
-        this.images = list;
-        notifyDataSetChanged();
+        // a copy, since a list already submitted is never diffed again
+        submitList(new ArrayList<>(list));
     }
 
     /**
@@ -79,7 +106,8 @@ public class AdminImagesAdapter extends RecyclerView.Adapter<AdminImagesAdapter.
     /**
      * Binds the data from the {@link AdminImageItem} at the given position to the ViewHolder.
      * <p>
-     * This method decodes the Base64 string from the item into a {@link Bitmap}.
+     * This method has Glide load the item's thumbnail, from the poster store if it is stored
+     * separately, and decode it into a {@link Bitmap} in the background.
      * If decoding fails (e.g., invalid Base64 string), a default fallback report icon is displayed.
      * It also sets up the click listener for the item.
      * </p>
@@ -90,31 +118,26 @@ public class AdminImagesAdapter extends RecyclerView.Adapter<AdminImagesAdapter.
      */
     @Override
     public void onBindViewHolder(@NonNull ImageHolder holder, int position) {
-        AdminImageItem item = images.get(position);
-        String base64Image = item.getBase64Image();
-
-        try {
-            // Decode Base64 string to Bitmap
-            byte[] decodedString = android.util.Base64.decode(base64Image, android.util.Base64.DEFAULT);
-            Bitmap decodedByte = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
-            holder.imageView.setImageBitmap(decodedByte);
-        } catch (Exception e) {
-            // Fallback if decoding fails
-            holder.imageView.setImageResource(android.R.drawable.ic_menu_report_image);
-        }
+        AdminImageItem item = getItem(position);
+
+        // Load and decode off the UI thread, falling back to a report icon if decoding fails
+        Glide.with(holder.imageView)
+                .load(PosterModel.of(item, PosterEncoder.Variant.THUMBNAIL))
+                .error(android.R.drawable.ic_menu_report_image)
+                .into(holder.imageView);
 
         holder.itemView.setOnClickListener(v -> listener.onClick(item));
     }
 
     /**
-     * Returns the total number of items in the data set held by the adapter.
+     * Returns the stable ID of the image at a position, derived from the ID of its event.
      *
-     * @return The total number of items in this adapter.
+     * @param position The position of the item within the adapter's data set.
+     * @return The item ID of the image.
      */
     @Override
-    public int getItemCount() {
-
-        return images.size();
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getEventId());
     }
 
     /**
@@ -7,20 +7,40 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.data.AdminImageItem;
 import com.example.lotteryevent.data.User;
+import com.example.lotteryevent.utilities.StableIds;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * This adapter binds user objects to UI elements in item_entrant.xml
  * Each list item shows the user's name and has a click listener for profile selection
+ * Lists are diffed by {@link DiffUtil}, so only changed rows are rebound
  */
-public class AdminProfilesAdapter extends RecyclerView.Adapter<AdminProfilesAdapter.ProfileViewHolder> {
+public class AdminProfilesAdapter extends ListAdapter<User, AdminProfilesAdapter.ProfileViewHolder> {
+
+    /**
+     * Matches users by ID and compares the name a row shows
+     */
+    private static final DiffUtil.ItemCallback<User> DIFF_CALLBACK = new DiffUtil.ItemCallback<User>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName());
+        }
+    };
 
     /**
      * Interface definition for a callback to be invoked when a profile is clicked.
@@ -34,23 +54,24 @@ public class AdminProfilesAdapter extends RecyclerView.Adapter<AdminProfilesAdap
     }
 
     private final OnItemClickListener listener;
-    private List<User> _profileList = new ArrayList<>();
 
     /**
      * Adds listener to instance
      * @param listener listener to add
      */
     public AdminProfilesAdapter(OnItemClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     /**
-     * sets profile list and notify of update
+     * sets profile list, notifying only the rows that changed
      * @param list profile list
      */
     public void setProfiles(List<User> list) {
-        this._profileList = list;
-        notifyDataSetChanged();
+        // a copy, since a list already submitted is never diffed again
+        submitList(new ArrayList<>(list));
     }
 
     /**
@@ -74,16 +95,17 @@ public class AdminProfilesAdapter extends RecyclerView.Adapter<AdminProfilesAdap
      */
     @Override
     public void onBindViewHolder(@NonNull ProfileViewHolder holder, int position) {
-        User user = _profileList.get(position);
+        User user = getItem(position);
         holder.bind(user, listener);
     }
 
     /**
-     * Gets number of users in profile list
+     * Gets the stable ID of the user at a position, derived from their user ID
+     * @param position The position of the item within the adapter's data set.
      */
     @Override
-    public int getItemCount() {
-        return _profileList.size();
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getId());
     }
 
     /**
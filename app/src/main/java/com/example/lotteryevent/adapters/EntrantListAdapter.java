@@ -7,13 +7,17 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.data.Entrant;
+import com.example.lotteryevent.utilities.StableIds;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * RecyclerView Adapter for displaying a list of {@link Entrant} objects.
@@ -23,8 +27,28 @@ import java.util.List;
  * based on the entrant's status. If an entrant has the status "invited", the
  * button is visible, allowing the organizer to revoke the invitation.
  * </p>
+ * <p>
+ * Lists are diffed against the shown one by {@link DiffUtil}, so a status change only rebinds
+ * the affected row.
+ * </p>
  */
-public class EntrantListAdapter extends RecyclerView.Adapter<EntrantListAdapter.ViewHolder> {
+public class EntrantListAdapter extends ListAdapter<Entrant, EntrantListAdapter.ViewHolder> {
+
+    /**
+     * Matches entrants by user ID and compares the fields a row shows
+     */
+    private static final DiffUtil.ItemCallback<Entrant> DIFF_CALLBACK = new DiffUtil.ItemCallback<Entrant>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Entrant oldItem, @NonNull Entrant newItem) {
+            return Objects.equals(oldItem.getUserId(), newItem.getUserId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Entrant oldItem, @NonNull Entrant newItem) {
+            return Objects.equals(oldItem.getUserName(), newItem.getUserName())
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus());
+        }
+    };
 
     /**
      * Interface definition for a callback to be invoked when an action is performed
@@ -39,7 +63,6 @@ public class EntrantListAdapter extends RecyclerView.Adapter<EntrantListAdapter.
         void onCancelInvite(String userId);
     }
 
-    private List<Entrant> entrants;
     private final OnEntrantActionListener actionListener;
 
     /**
@@ -49,19 +72,22 @@ public class EntrantListAdapter extends RecyclerView.Adapter<EntrantListAdapter.
      * @param listener The listener to handle actions (e.g., cancelling an invite).
      */
     public EntrantListAdapter(List<Entrant> entrants, OnEntrantActionListener listener) {
-        this.entrants = entrants != null ? entrants : new ArrayList<>();
+        super(DIFF_CALLBACK);
         this.actionListener = listener;
+        setHasStableIds(true);
+        updateEntrants(entrants);
     }
 
     /**
-     * Updates the data set used by the adapter and refreshes the RecyclerView.
+     * Updates the data set used by the adapter. The new list is diffed against the current one
+     * and only the changed rows are refreshed.
      * Use this method when the underlying list of entrants changes (e.g., after a filter update).
      *
      * @param newEntrants The new list of entrants to display.
      */
     public void updateEntrants(List<Entrant> newEntrants) {
-        this.entrants = newEntrants != null ? newEntrants : new ArrayList<>();
-        notifyDataSetChanged();
+        // a copy, since a list already submitted is never diffed again
+        submitList(newEntrants != null ? new ArrayList<>(newEntrants) : new ArrayList<>());
     }
 
     /**
@@ -95,7 +121,7 @@ public class EntrantListAdapter extends RecyclerView.Adapter<EntrantListAdapter.
      */
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Entrant entrant = entrants.get(position);
+        Entrant entrant = getItem(position);
 
         // Set Name
         String name = entrant.getUserName();
@@ -116,13 +142,14 @@ public class EntrantListAdapter extends RecyclerView.Adapter<EntrantListAdapter.
     }
 
     /**
-     * Returns the total number of items in the data set held by the adapter.
+     * Returns the stable ID of the entrant at a position, derived from their user ID.
      *
-     * @return The total number of entrants.
+     * @param position The position of the item within the adapter's data set.
+     * @return The item ID of the entrant.
      */
     @Override
-    public int getItemCount() {
-        return entrants.size();
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getUserId());
     }
 
     /**
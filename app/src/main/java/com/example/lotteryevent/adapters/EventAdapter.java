@@ -5,28 +5,52 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.util.Base64;
 
 import androidx.annotation.LayoutRes;
-import androidx.annotation.NonNull;import androidx.recyclerview.widget.RecyclerView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.data.Event;
+import com.example.lotteryevent.utilities.PosterEncoder;
+import com.example.lotteryevent.utilities.PosterModel;
+import com.example.lotteryevent.utilities.StableIds;
 
 import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * A {@link RecyclerView.Adapter} that is responsible for displaying a list of {@link Event}
+ * A {@link ListAdapter} that is responsible for displaying a list of {@link Event}
  * objects in a grid format. It handles the creation and binding of views for each event tile.
  * This adapter also provides a mechanism for handling click events on individual tiles.
+ * <p>
+ * New lists are compared to the shown one by {@link DiffUtil} off the main thread, so only tiles
+ * of events that were added, moved, edited or removed are rebound.
  */
-public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHolder> {
+public class EventAdapter extends ListAdapter<Event, EventAdapter.EventViewHolder> {
+
+    /**
+     * Matches events by ID and compares the fields a tile shows
+     */
+    private static final DiffUtil.ItemCallback<Event> DIFF_CALLBACK = new DiffUtil.ItemCallback<Event>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return Objects.equals(oldItem.getEventId(), newItem.getEventId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getPosterId(), newItem.getPosterId())
+                    && Objects.equals(oldItem.getPosterImageUrl(), newItem.getPosterImageUrl());
+        }
+    };
 
-    private final List<Event> eventList = new ArrayList<>();
     private OnItemClickListener listener;
 
     private final int rowLayoutResId;
@@ -36,7 +60,9 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
      * @param rowLayoutResId ID to set
      */
     public EventAdapter(@LayoutRes int rowLayoutResId) {
+        super(DIFF_CALLBACK);
         this.rowLayoutResId = rowLayoutResId;
+        setHasStableIds(true);
     }
 
     /**
@@ -92,31 +118,40 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
      */
     @Override
     public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
-        Event event = eventList.get(position);
+        Event event = getItem(position);
         holder.bind(event);
     }
 
     /**
-     * Returns the total number of items in the data set held by the adapter.
+     * Returns the stable ID of the event at a position, derived from its event ID.
      *
-     * @return The total number of events in the list.
+     * @param position The position of the item within the adapter's data set.
+     * @return The item ID of the event.
      */
     @Override
-    public int getItemCount() {
-        return eventList.size();
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getEventId());
     }
 
     /**
-     * Updates the list of events displayed by the adapter. This method clears the current
-     * list and replaces it with the new list, then notifies the RecyclerView that the
-     * data set has changed.
+     * Returns the event shown at a position.
+     *
+     * @param position The position of the item within the adapter's data set.
+     * @return The {@link Event} at that position.
+     */
+    public Event getEvent(int position) {
+        return getItem(position);
+    }
+
+    /**
+     * Updates the list of events displayed by the adapter. The new list is diffed against the
+     * current one and only the changed tiles are notified.
      *
      * @param newEvents The new list of {@link Event} objects to be displayed.
      */
     public void setEvents(List<Event> newEvents) {
-        this.eventList.clear();
-        this.eventList.addAll(newEvents);
-        notifyDataSetChanged(); // In a more complex app, consider using DiffUtil for better performance.
+        // a copy, since a list already submitted is never diffed again
+        submitList(new ArrayList<>(newEvents));
     }
 
     /**
@@ -149,7 +184,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
                 int position = getBindingAdapterPosition();
                 // Ensure the position is valid and a listener is registered before triggering the callback.
                 if (listener != null && position != RecyclerView.NO_POSITION) {
-                    listener.onItemClick(eventList.get(position));
+                    listener.onItemClick(getItem(position));
                 }
             });
         }
@@ -164,20 +199,15 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
             // Always set the event name
             titleTextView.setText(event.getName());
 
-            // Handle poster image (Base64) if available
-            String posterImageUrl = event.getPosterImageUrl();
-
-            if (posterImageUrl != null && !posterImageUrl.trim().isEmpty()) {
-                try {
-                    byte[] bytes = Base64.decode(posterImageUrl, Base64.DEFAULT);
-                    Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-                    posterImageView.setImageBitmap(bitmap);
-                } catch (IllegalArgumentException e) {
-                    // Invalid Base64 data: fall back to default icon
-                    posterImageView.setImageDrawable(null);
-                }
+            // Handle poster image if available, decoded off the UI thread by Glide.
+            // A recycled holder's previous request is cancelled by the new one.
+            if (event.hasPoster()) {
+                Glide.with(posterImageView)
+                        .load(PosterModel.of(event, PosterEncoder.Variant.CARD))
+                        .into(posterImageView);
             } else {
                 // No poster set: hide ImageView
+                Glide.with(posterImageView).clear(posterImageView);
                 posterImageView.setImageResource(R.drawable.empty_poster_image);
                 posterImageView.setImageTintList(null);
             }
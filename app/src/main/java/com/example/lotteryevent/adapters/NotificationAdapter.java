@@ -9,11 +9,14 @@ import android.widget.TextView;
 
 import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.data.Event;
 import com.example.lotteryevent.data.Notification;
+import com.example.lotteryevent.utilities.StableIds;
 import com.google.android.material.card.MaterialCardView;
 import com.google.firebase.Timestamp;
 
@@ -24,12 +27,34 @@ import java.util.List;
 import java.util.Objects;
 
 /**
- * A {@link RecyclerView.Adapter} that is responsible for displaying a list of {@link Notification}
+ * A {@link ListAdapter} that is responsible for displaying a list of {@link Notification}
  * objects in a list format. It handles the creation and binding of views for each notification.
  * This adapter also provides a mechanism for handling click events on individual notification cards.
+ * <p>
+ * New lists are compared to the shown one by {@link DiffUtil} off the main thread, so a new or
+ * newly seen notification only rebinds its own card.
  */
-public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapter.NotificationViewHolder> {
-    private final List<Notification> notificationsList = new ArrayList<>();
+public class NotificationAdapter extends ListAdapter<Notification, NotificationAdapter.NotificationViewHolder> {
+
+    /**
+     * Matches notifs by ID and compares the fields a card shows
+     */
+    private static final DiffUtil.ItemCallback<Notification> DIFF_CALLBACK = new DiffUtil.ItemCallback<Notification>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Notification oldItem, @NonNull Notification newItem) {
+            return Objects.equals(oldItem.getNotificationId(), newItem.getNotificationId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Notification oldItem, @NonNull Notification newItem) {
+            return Objects.equals(oldItem.getType(), newItem.getType())
+                    && Objects.equals(oldItem.getEventName(), newItem.getEventName())
+                    && Objects.equals(oldItem.getMessage(), newItem.getMessage())
+                    && Objects.equals(oldItem.getTimestamp(), newItem.getTimestamp())
+                    && Objects.equals(oldItem.getSeen(), newItem.getSeen());
+        }
+    };
+
     private NotificationAdapter.OnItemClickListener listener;
     private final int rowLayoutResId;
     private boolean isAdminView = false;
@@ -39,7 +64,9 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
      * @param rowLayoutResId The fragment used as the layout for each notif card
      */
     public NotificationAdapter(@LayoutRes int rowLayoutResId) {
+        super(DIFF_CALLBACK);
         this.rowLayoutResId = rowLayoutResId;
+        setHasStableIds(true);
     }
 
     /**
@@ -93,29 +120,38 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
      */
     @Override
     public void onBindViewHolder(@NonNull NotificationViewHolder holder, int position) {
-        Notification notification = notificationsList.get(position);
+        Notification notification = getItem(position);
         holder.bind(notification);
     }
 
     /**
-     * Returns the total number of items in the data set held by the adapter.
-     * @return The total number of events in the list.
+     * Returns the stable ID of the notif at a position, derived from its notification ID.
+     * @param position The position of the item within the adapter's data set.
+     * @return The item ID of the notif.
+     */
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getNotificationId());
+    }
+
+    /**
+     * Gets the notification shown at a position
+     * @param position The position of the item within the adapter's data set.
+     * @return the notification at that position
      */
     @Override
-    public int getItemCount() {
-        return notificationsList.size();
+    public Notification getItem(int position) {
+        return super.getItem(position);
     }
 
     /**
-     * Updates the list of notifs displayed by the adapter. This method clears the current
-     * list and replaces it with the new list, then notifies the RecyclerView that the
-     * data set has changed.
+     * Updates the list of notifs displayed by the adapter. The new list is diffed against the
+     * current one and only the changed cards are notified.
      * @param newNotifications The new list of {@link Notification} objects to be displayed.
      */
     public void setNotifications(List<Notification> newNotifications) {
-        this.notificationsList.clear();
-        this.notificationsList.addAll(newNotifications);
-        notifyDataSetChanged(); // In a more complex app, consider using DiffUtil for better performance.
+        // a copy, since a list already submitted is never diffed again
+        submitList(new ArrayList<>(newNotifications));
     }
 
     /**
@@ -152,7 +188,7 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
                 }
                 // Ensure the position is valid and a listener is registered before triggering the callback.
                 if (listener != null && position != RecyclerView.NO_POSITION) {
-                    listener.onItemClick(notificationsList.get(position));
+                    listener.onItemClick(getItem(position));
                 }
             });
         }
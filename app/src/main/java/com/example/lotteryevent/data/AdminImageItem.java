@@ -4,22 +4,35 @@ package com.example.lotteryevent.data;
  * A simple data model representing an image associated with an event for administrative purposes.
  * <p>
  * This class holds the minimal information required to display and manage an image
- * in the admin dashboard: the unique ID of the event it belongs to and the
- * Base64 string representation of the image itself.
+ * in the admin dashboard: the unique ID of the event it belongs to and either the ID of the
+ * image in the poster store or, for older events, the Base64 string representation of the image itself.
  * </p>
  */
 public class AdminImageItem {
     private String eventId;
+    private String posterId;
     private String base64Image;
 
     /**
-     * Constructs a new AdminImageItem.
+     * Constructs a new AdminImageItem for an image kept inline on the event.
      *
      * @param eventId     The unique identifier of the event associated with this image.
      * @param base64Image The Base64 encoded string representation of the image.
      */
     public AdminImageItem(String eventId, String base64Image) {
+        this(eventId, null, base64Image);
+    }
+
+    /**
+     * Constructs a new AdminImageItem.
+     *
+     * @param eventId     The unique identifier of the event associated with this image.
+     * @param posterId    The ID of the image in the poster store, or null if it is kept inline.
+     * @param base64Image The Base64 encoded string representation of the image, or null if it is stored separately.
+     */
+    public AdminImageItem(String eventId, String posterId, String base64Image) {
         this.eventId = eventId;
+        this.posterId = posterId;
         this.base64Image = base64Image;
     }
 
@@ -32,6 +45,15 @@ public class AdminImageItem {
         return eventId;
     }
 
+    /**
+     * Retrieves the ID of the image in the poster store.
+     *
+     * @return The poster ID, or null if the image is kept inline.
+     */
+    public String getPosterId() {
+        return posterId;
+    }
+
     /**
      * Retrieves the Base64 encoded string of the image.
      *
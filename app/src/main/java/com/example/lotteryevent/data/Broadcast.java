@@ -0,0 +1,116 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentId;
+
+/**
+ * Content of a notification sent to many users, stored once at {@code broadcasts/{broadcastId}}.
+ * <p>
+ *     Each recipient only gets a lightweight {@link Notification} in the {@code notifications}
+ *     collection holding the recipient, the seen flag and a {@code broadcastId} pointing here.
+ *     The title, message, event and sender are merged into the pointer when the inbox is read.
+ * </p>
+ * This class is a Plain Old Java Object (POJO) used for mapping Firestore documents.
+ */
+public class Broadcast {
+
+    @DocumentId
+    private String broadcastId;
+
+    private String title;
+    private String message;
+    private String type;
+    private String eventId;
+    private String eventName;
+    private String senderId;
+    private String senderName;
+    private int recipientCount;
+    private Timestamp timestamp;
+
+    /**
+     * A public no-argument constructor is required for Firestore deserialization.
+     */
+    public Broadcast() {}
+
+    /**
+     * Creates a broadcast
+     * @param title title of the notif
+     * @param message body of the notif
+     * @param type type of notif (e.g. "custom_message")
+     * @param eventId event id that notif came from
+     * @param eventName event name notif came from
+     * @param senderId ID of the user sending the notif
+     * @param senderName name of the user sending the notif
+     * @param recipientCount number of users the notif was sent to
+     * @param timestamp time the broadcast was sent
+     */
+    public Broadcast(String title, String message, String type, String eventId, String eventName,
+                     String senderId, String senderName, int recipientCount, Timestamp timestamp) {
+        this.title = title;
+        this.message = message;
+        this.type = type;
+        this.eventId = eventId;
+        this.eventName = eventName;
+        this.senderId = senderId;
+        this.senderName = senderName;
+        this.recipientCount = recipientCount;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Fills in the content of a recipient's pointer to this broadcast. The recipient, seen flag
+     * and timestamp stay those of the pointer.
+     * @param pointer the recipient's notification
+     */
+    public void applyTo(Notification pointer) {
+        pointer.setTitle(title);
+        pointer.setMessage(message);
+        pointer.setType(type);
+        pointer.setEventId(eventId);
+        pointer.setEventName(eventName);
+        pointer.setSenderId(senderId);
+        pointer.setSenderName(senderName);
+    }
+
+    // --- Getters and Setters ---
+
+    public String getBroadcastId() { return broadcastId; }
+
+    public void setBroadcastId(String broadcastId) { this.broadcastId = broadcastId; }
+
+    public String getTitle() { return title; }
+
+    public void setTitle(String title) { this.title = title; }
+
+    public String getMessage() { return message; }
+
+    public void setMessage(String message) { this.message = message; }
+
+    public String getType() { return type; }
+
+    public void setType(String type) { this.type = type; }
+
+    public String getEventId() { return eventId; }
+
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public String getEventName() { return eventName; }
+
+    public void setEventName(String eventName) { this.eventName = eventName; }
+
+    public String getSenderId() { return senderId; }
+
+    public void setSenderId(String senderId) { this.senderId = senderId; }
+
+    public String getSenderName() { return senderName; }
+
+    public void setSenderName(String senderName) { this.senderName = senderName; }
+
+    public int getRecipientCount() { return recipientCount; }
+
+    public void setRecipientCount(int recipientCount) { this.recipientCount = recipientCount; }
+
+    public Timestamp getTimestamp() { return timestamp; }
+
+    public void setTimestamp(Timestamp timestamp) { this.timestamp = timestamp; }
+}
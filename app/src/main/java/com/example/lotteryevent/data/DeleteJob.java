@@ -0,0 +1,316 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.Exclude;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checkpoint of a cascading delete, stored at {@code deleteJobs/{jobId}}.
+ * <p>
+ *     A job is an ordered list of steps, each written as {@code kind:argument} (for example
+ *     {@code entrants:event123}). The engine drains the current step page by page and saves
+ *     {@link #stepIndex}, {@link #cursor} and {@link #deletedCount} after every page, so a job
+ *     interrupted by process death resumes where it stopped instead of starting over.
+ * </p>
+ * <p>
+ *     Every run of a job counts as an attempt. A job is retried after a delay that doubles with
+ *     each attempt, and is abandoned after {@link #MAX_ATTEMPTS}, so a step that can never succeed
+ *     does not run again on every launch.
+ * </p>
+ * This class is a Plain Old Java Object (POJO) used for mapping Firestore documents.
+ */
+public class DeleteJob {
+
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_DONE = "done";
+    public static final String STATUS_FAILED = "failed";
+    public static final String STATUS_ABANDONED = "abandoned";
+
+    /**
+     * Runs a job gets before it is abandoned
+     */
+    public static final int MAX_ATTEMPTS = 5;
+
+    /**
+     * Wait before the second attempt; each later attempt waits twice as long as the one before
+     */
+    public static final long RETRY_BASE_DELAY_MS = 60_000;
+
+    public static final String TYPE_EVENT = "event";
+    public static final String TYPE_ORGANIZER = "organizer";
+    public static final String TYPE_USER = "user";
+
+    // Step kinds understood by CascadeDeleter
+    public static final String STEP_ENTRANTS = "entrants";
+    public static final String STEP_COLLECTION = "collection";
+    public static final String STEP_DOCUMENT = "doc";
+    public static final String STEP_RELEASE_POSTER = "releasePoster";
+    public static final String STEP_NOTIFICATIONS = "notifications";
+    public static final String STEP_INDEX_REGISTRATIONS = "indexRegistrations";
+    public static final String STEP_REGISTRATIONS = "registrations";
+    public static final String STEP_ORGANIZED_EVENTS = "organizedEvents";
+    public static final String STEP_CLEAR_PROFILE = "clearProfile";
+
+    @DocumentId
+    private String jobId;
+
+    private String type;
+    private String targetId;
+    private String startedBy;
+    private List<String> steps;
+    private int stepIndex;
+    private String cursor;
+    private long deletedCount;
+    private String status;
+    private int attempts;
+    private String error;
+    private Timestamp createdAt;
+    private Timestamp updatedAt;
+
+    /**
+     * A public no-argument constructor is required for Firestore deserialization.
+     */
+    public DeleteJob() {}
+
+    /**
+     * Creates a running job
+     * @param type kind of data being deleted (e.g. {@link #TYPE_EVENT})
+     * @param targetId ID of the event or user being deleted
+     * @param startedBy ID of the user running the delete
+     * @param steps steps to run, in order
+     */
+    public DeleteJob(String type, String targetId, String startedBy, List<String> steps) {
+        this.type = type;
+        this.targetId = targetId;
+        this.startedBy = startedBy;
+        this.steps = new ArrayList<>(steps);
+        this.status = STATUS_RUNNING;
+        this.createdAt = Timestamp.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    /**
+     * Creates a job deleting an event with its entrants, their registrations, draw journals, counters
+     * and its reference to its poster
+     * @param eventId event to delete
+     * @param startedBy ID of the user running the delete
+     * @return a new running job
+     */
+    public static DeleteJob forEvent(String eventId, String startedBy) {
+        return new DeleteJob(TYPE_EVENT, eventId, startedBy, eventSteps(eventId));
+    }
+
+    /**
+     * Creates a job deleting an organizer's account, notifications, registrations and every event they organized
+     * @param userId organizer to delete
+     * @param startedBy ID of the admin running the delete
+     * @return a new running job
+     */
+    public static DeleteJob forOrganizer(String userId, String startedBy) {
+        List<String> steps = new ArrayList<>(Arrays.asList(
+                step(STEP_INDEX_REGISTRATIONS, userId),
+                step(STEP_REGISTRATIONS, userId),
+                step(STEP_NOTIFICATIONS, userId),
+                step(STEP_ORGANIZED_EVENTS, userId),
+                step(STEP_COLLECTION, "users/" + userId + "/registrations"),
+                step(STEP_COLLECTION, "users/" + userId + "/eventsHistory"),
+                step(STEP_DOCUMENT, "users/" + userId)));
+        return new DeleteJob(TYPE_ORGANIZER, userId, startedBy, steps);
+    }
+
+    /**
+     * Creates a job deleting the current user's data. The profile is cleared first and the user
+     * document itself is kept so the UID stays referentially valid.
+     * @param uid user deleting their own data
+     * @return a new running job
+     */
+    public static DeleteJob forUser(String uid) {
+        List<String> steps = new ArrayList<>(Arrays.asList(
+                step(STEP_CLEAR_PROFILE, uid),
+                step(STEP_INDEX_REGISTRATIONS, uid),
+                step(STEP_REGISTRATIONS, uid),
+                step(STEP_NOTIFICATIONS, uid),
+                step(STEP_COLLECTION, "users/" + uid + "/eventsHistory"),
+                step(STEP_ORGANIZED_EVENTS, uid)));
+        return new DeleteJob(TYPE_USER, uid, uid, steps);
+    }
+
+    /**
+     * Gets the steps deleting a single event, used on their own and spliced into organizer jobs
+     * @param eventId event to delete
+     * @return the event's steps, in order
+     */
+    public static List<String> eventSteps(String eventId) {
+        String eventPath = "events/" + eventId;
+        return Arrays.asList(
+                step(STEP_ENTRANTS, eventId),
+                step(STEP_COLLECTION, eventPath + "/draws"),
+                step(STEP_COLLECTION, eventPath + "/stats"),
+                step(STEP_RELEASE_POSTER, eventId),
+                step(STEP_DOCUMENT, eventPath));
+    }
+
+    /**
+     * Encodes a step
+     * @param kind step kind (e.g. {@link #STEP_ENTRANTS})
+     * @param argument ID or path the step works on
+     * @return the encoded step
+     */
+    public static String step(String kind, String argument) {
+        return kind + ":" + argument;
+    }
+
+    /**
+     * @return the encoded step currently running, or null if the job has no steps left
+     */
+    @Exclude
+    public String getCurrentStep() {
+        return isFinished() ? null : steps.get(stepIndex);
+    }
+
+    /**
+     * @return true once every step has run
+     */
+    @Exclude
+    public boolean isFinished() {
+        return steps == null || stepIndex >= steps.size();
+    }
+
+    /**
+     * Moves on to the next step, clearing the page cursor
+     */
+    public void advance() {
+        stepIndex++;
+        cursor = null;
+    }
+
+    /**
+     * Inserts steps to run before the current step, such as the steps of an organizer's events.
+     * Steps already run are dropped, so a job expanded page after page keeps only the steps it
+     * still has to run and its saved document stays small.
+     * @param newSteps steps to insert
+     */
+    public void insertSteps(List<String> newSteps) {
+        List<String> remaining = new ArrayList<>(newSteps);
+        remaining.addAll(steps.subList(stepIndex, steps.size()));
+        steps = remaining;
+        stepIndex = 0;
+        cursor = null;
+    }
+
+    /**
+     * Records the start of a run of the job
+     */
+    public void startAttempt() {
+        attempts++;
+        status = STATUS_RUNNING;
+    }
+
+    /**
+     * Records a failed run. The job stays failed, to be retried, until it runs out of attempts.
+     * @param error message of the failure, may be null
+     */
+    public void fail(String error) {
+        this.error = error;
+        status = hasAttemptsLeft() ? STATUS_FAILED : STATUS_ABANDONED;
+    }
+
+    /**
+     * @return true if the job may run again
+     */
+    @Exclude
+    public boolean hasAttemptsLeft() {
+        return attempts < MAX_ATTEMPTS;
+    }
+
+    /**
+     * @return time to wait after the last checkpoint before running the job again
+     */
+    @Exclude
+    public long getRetryDelayMillis() {
+        if (attempts <= 0) {
+            return 0;
+        }
+        return RETRY_BASE_DELAY_MS << Math.min(attempts - 1, MAX_ATTEMPTS);
+    }
+
+    /**
+     * Checks whether an unfinished job should be resumed now. A job still running elsewhere keeps
+     * checkpointing, so it is never due while it makes progress.
+     * @param nowMillis current time in milliseconds
+     * @return true if the job has attempts left and its retry delay has passed
+     */
+    public boolean isDueForRetry(long nowMillis) {
+        if (!hasAttemptsLeft()) {
+            return false;
+        }
+        long lastUpdate = updatedAt == null ? 0 : updatedAt.toDate().getTime();
+        return nowMillis - lastUpdate >= getRetryDelayMillis();
+    }
+
+    /**
+     * Records documents deleted by the last page
+     * @param count number of documents deleted
+     */
+    public void addDeleted(long count) {
+        deletedCount += count;
+    }
+
+    // --- Getters and Setters ---
+
+    public String getJobId() { return jobId; }
+
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getType() { return type; }
+
+    public void setType(String type) { this.type = type; }
+
+    public String getTargetId() { return targetId; }
+
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+
+    public String getStartedBy() { return startedBy; }
+
+    public void setStartedBy(String startedBy) { this.startedBy = startedBy; }
+
+    public List<String> getSteps() { return steps; }
+
+    public void setSteps(List<String> steps) { this.steps = steps; }
+
+    public int getStepIndex() { return stepIndex; }
+
+    public void setStepIndex(int stepIndex) { this.stepIndex = stepIndex; }
+
+    public String getCursor() { return cursor; }
+
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public long getDeletedCount() { return deletedCount; }
+
+    public void setDeletedCount(long deletedCount) { this.deletedCount = deletedCount; }
+
+    public String getStatus() { return status; }
+
+    public void setStatus(String status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public String getError() { return error; }
+
+    public void setError(String error) { this.error = error; }
+
+    public Timestamp getCreatedAt() { return createdAt; }
+
+    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
+
+    public Timestamp getUpdatedAt() { return updatedAt; }
+
+    public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,123 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Undo record for a single lottery draw, stored at {@code events/{eventId}/draws/{drawId}}.
+ * <p>
+ *     Only the entrants whose status the draw changed are recorded, so rolling a draw back
+ *     touches exactly those entrants instead of the whole event.
+ * </p>
+ * <p>
+ *     A journal starts pending and ends either confirmed or rolled back. A rollback first moves
+ *     it to rolling back, so a draw whose entrants are being restored can no longer be confirmed.
+ *     {@link #confirm} and {@link #startRollback} apply these transitions and are meant to run
+ *     inside a transaction that read the journal.
+ * </p>
+ * This class is a Plain Old Java Object (POJO) used for mapping Firestore documents.
+ */
+public class DrawJournal {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_CONFIRMED = "confirmed";
+    public static final String STATUS_ROLLING_BACK = "rollingBack";
+    public static final String STATUS_ROLLED_BACK = "rolledBack";
+
+    @DocumentId
+    private String drawId;
+
+    private List<String> invitedEntrantIds;
+    private String previousStatus;
+    private String status;
+    private Timestamp createdAt;
+
+    /**
+     * A public no-argument constructor is required for Firestore deserialization.
+     */
+    public DrawJournal() {}
+
+    /**
+     * Creates a pending journal for a draw that moved entrants out of the waiting list
+     * @param invitedEntrantIds IDs of the entrants the draw invited
+     * @param previousStatus status the invited entrants had before the draw
+     */
+    public DrawJournal(List<String> invitedEntrantIds, String previousStatus) {
+        this.invitedEntrantIds = new ArrayList<>(invitedEntrantIds);
+        this.previousStatus = previousStatus;
+        this.status = STATUS_PENDING;
+        this.createdAt = Timestamp.now();
+    }
+
+    /**
+     * Marks the draw confirmed
+     * @throws IllegalStateException if the draw is not pending, such as when it is being or was rolled back
+     */
+    public void confirm() {
+        if (!STATUS_PENDING.equals(status)) {
+            throw new IllegalStateException("Draw " + drawId + " is " + status + " and can no longer be confirmed");
+        }
+        status = STATUS_CONFIRMED;
+    }
+
+    /**
+     * Marks the draw as being rolled back. A rollback that was interrupted can be started again.
+     * @return true if the entrants must be restored, false if the draw was already rolled back
+     * @throws IllegalStateException if the draw was confirmed
+     */
+    public boolean startRollback() {
+        if (STATUS_ROLLED_BACK.equals(status)) {
+            return false;
+        }
+        if (STATUS_CONFIRMED.equals(status)) {
+            throw new IllegalStateException("Draw " + drawId + " was already confirmed");
+        }
+        status = STATUS_ROLLING_BACK;
+        return true;
+    }
+
+    // --- Getters and Setters ---
+
+    public String getDrawId() {
+        return drawId;
+    }
+
+    public void setDrawId(String drawId) {
+        this.drawId = drawId;
+    }
+
+    public List<String> getInvitedEntrantIds() {
+        return invitedEntrantIds;
+    }
+
+    public void setInvitedEntrantIds(List<String> invitedEntrantIds) {
+        this.invitedEntrantIds = invitedEntrantIds;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(String previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Timestamp createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -22,6 +22,19 @@ public class Entrant {
     private GeoPoint geoLocation; // Firestore's GeoPoint is the correct type for this
     private String status;
 
+    /**
+     * Counter shard the entrant took its draw rank from when joining the waiting list.
+     * Together with {@link #drawSeq} it gives every entrant of an event a distinct rank, and
+     * draws pick ranks uniformly at random, so picking k winners reads about k documents
+     * instead of the whole waiting list.
+     */
+    private Integer drawShard;
+
+    /**
+     * Draw rank of the entrant within its shard, from 0
+     */
+    private Long drawSeq;
+
     /**
      * A public no-argument constructor is required for Firestore deserialization.
      */
@@ -69,4 +82,20 @@ public class Entrant {
     public void setStatus(String status) {
         this.status = status;
     }
-}
\ No newline at end of file
+
+    public Integer getDrawShard() {
+        return drawShard;
+    }
+
+    public void setDrawShard(Integer drawShard) {
+        this.drawShard = drawShard;
+    }
+
+    public Long getDrawSeq() {
+        return drawSeq;
+    }
+
+    public void setDrawSeq(Long drawSeq) {
+        this.drawSeq = drawSeq;
+    }
+}
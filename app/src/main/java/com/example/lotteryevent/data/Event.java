@@ -22,6 +22,7 @@ public class Event {
     private String location;
     private Double price;
     private String posterImageUrl;
+    private String posterId;
     private Timestamp eventStartDateTime;
     private Timestamp eventEndDateTime;
     private Timestamp registrationStartDateTime;
@@ -31,6 +32,7 @@ public class Event {
     private boolean geoLocationRequired;
     private String status;
     private Integer waitingListCount;
+    private Integer counterShards;
 
     // @ServerTimestamp tells Firestore to automatically populate this field with the
     // server's timestamp when the document is first created. It will be null until then.
@@ -152,6 +154,27 @@ public class Event {
      */
     public void setPosterImageUrl(String posterImageUrl) { this.posterImageUrl = posterImageUrl; }
 
+    /**
+     * Gets the content hash of the event poster, which is stored at {@code posters/{posterId}}.
+     * Older events keep their poster inline in {@link #getPosterImageUrl()} instead.
+     * @return The poster ID, or null if the poster is inline or absent.
+     */
+    public String getPosterId() { return posterId; }
+    /**
+     * Sets the content hash of the event poster.
+     * @param posterId The poster ID.
+     */
+    public void setPosterId(String posterId) { this.posterId = posterId; }
+
+    /**
+     * Checks whether the event has a poster, either stored separately or inline.
+     * @return True if the event has a poster.
+     */
+    public boolean hasPoster() {
+        return (posterId != null && !posterId.isEmpty())
+                || (posterImageUrl != null && !posterImageUrl.trim().isEmpty());
+    }
+
     /**
      * Gets the start date and time of the event.
      * @return The event start timestamp.
@@ -202,11 +225,24 @@ public class Event {
     public void setCapacity(Integer capacity) { this.capacity = capacity; }
 
     /**
-     * Gets the number of entrants on the waiting list for the event.
-     * @return The number of entrants on event waiting list.
+     * Gets the number of entrants on the waiting list for the event, as last published from the
+     * entrant counters by EntrantCounters.schedulePublish, which may trail the counters by a few seconds.
+     * @return The number of entrants on event waiting list, or null if never published.
      */
     public Integer getWaitingListCount() { return waitingListCount; }
 
+    /**
+     * Gets the number of shard documents the event's entrant counters are spread over.
+     * @return The shard count, or null to use a single counter document.
+     */
+    public Integer getCounterShards() { return counterShards; }
+    /**
+     * Sets the number of shard documents the event's entrant counters are spread over.
+     * Events expecting many entrants to join at once need more shards.
+     * @param counterShards The shard count.
+     */
+    public void setCounterShards(Integer counterShards) { this.counterShards = counterShards; }
+
     /**
      * Gets the waiting list limit for the event.
      * @return The waiting list limit.
@@ -0,0 +1,117 @@
+package com.example.lotteryevent.data;
+
+/**
+ * Materialized entrant counts of an event, stored as one or more shard documents in
+ * {@code events/{eventId}/stats}. The event's counts are the sum of all its shards.
+ * <p>
+ *     Every status change of an entrant adjusts these counts in the same write, so screens
+ *     showing event metrics read the few shard documents instead of counting the entrants subcollection.
+ * </p>
+ * This class is a Plain Old Java Object (POJO) used for mapping Firestore documents.
+ */
+public class EventStats {
+
+    private long waiting;
+    private long invited;
+    private long accepted;
+    private long declined;
+    private long cancelled;
+
+    // False for documents created by counter increments before the counts were first computed
+    private boolean initialized;
+
+    // Number of counter writes applied to this shard, so a backfill can tell it was written to
+    private long updates;
+
+    // Number of draw ranks this shard has handed out; entrants joining it got ranks 0 to joins - 1
+    private long joins;
+
+    /**
+     * A public no-argument constructor is required for Firestore deserialization.
+     */
+    public EventStats() {}
+
+    /**
+     * Gets the count for an entrant status
+     * @param status entrant status (e.g. "waiting")
+     * @return number of entrants with that status, 0 for untracked statuses
+     */
+    public long getCount(String status) {
+        if (status == null) {
+            return 0;
+        }
+        switch (status) {
+            case "waiting": return waiting;
+            case "invited": return invited;
+            case "accepted": return accepted;
+            case "declined": return declined;
+            case "cancelled": return cancelled;
+            default: return 0;
+        }
+    }
+
+    /**
+     * Sets the count for an entrant status, ignoring untracked statuses
+     * @param status entrant status (e.g. "waiting")
+     * @param count number of entrants with that status
+     */
+    public void setCount(String status, long count) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case "waiting": waiting = count; break;
+            case "invited": invited = count; break;
+            case "accepted": accepted = count; break;
+            case "declined": declined = count; break;
+            case "cancelled": cancelled = count; break;
+            default: break;
+        }
+    }
+
+    /**
+     * Adds the counts of another shard to this one
+     * @param other counts to add
+     */
+    public void add(EventStats other) {
+        waiting += other.waiting;
+        invited += other.invited;
+        accepted += other.accepted;
+        declined += other.declined;
+        cancelled += other.cancelled;
+    }
+
+    // --- Getters and Setters ---
+
+    public long getWaiting() { return waiting; }
+
+    public void setWaiting(long waiting) { this.waiting = waiting; }
+
+    public long getInvited() { return invited; }
+
+    public void setInvited(long invited) { this.invited = invited; }
+
+    public long getAccepted() { return accepted; }
+
+    public void setAccepted(long accepted) { this.accepted = accepted; }
+
+    public long getDeclined() { return declined; }
+
+    public void setDeclined(long declined) { this.declined = declined; }
+
+    public long getCancelled() { return cancelled; }
+
+    public void setCancelled(long cancelled) { this.cancelled = cancelled; }
+
+    public boolean isInitialized() { return initialized; }
+
+    public void setInitialized(boolean initialized) { this.initialized = initialized; }
+
+    public long getUpdates() { return updates; }
+
+    public void setUpdates(long updates) { this.updates = updates; }
+
+    public long getJoins() { return joins; }
+
+    public void setJoins(long joins) { this.joins = joins; }
+}
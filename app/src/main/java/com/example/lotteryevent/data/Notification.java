@@ -25,6 +25,7 @@ public class Notification {
     private String type;
     private Timestamp timestamp;
     private Integer notifBannerId;
+    private String broadcastId;
 
     /**
      * A public no-argument constructor is required for Firestore deserialization.
@@ -246,4 +247,38 @@ public class Notification {
      * @param notifBannerId ID to set
      */
     public void setNotifBannerId(Integer notifBannerId) { this.notifBannerId = notifBannerId; }
+
+    /**
+     * gets the ID of the broadcast holding this notif's content, null if the content is stored inline
+     * @return broadcast ID
+     */
+    public String getBroadcastId() { return broadcastId; }
+
+    /**
+     * sets the ID of the broadcast holding this notif's content
+     * @param broadcastId broadcast ID
+     */
+    public void setBroadcastId(String broadcastId) { this.broadcastId = broadcastId; }
+
+    /**
+     * Creates a copy of this notif, so a changed copy can replace it in lists compared by content
+     * @return notif with the same fields
+     */
+    public Notification copy() {
+        Notification copy = new Notification();
+        copy.notificationId = notificationId;
+        copy.eventId = eventId;
+        copy.eventName = eventName;
+        copy.message = message;
+        copy.senderId = senderId;
+        copy.senderName = senderName;
+        copy.recipientId = recipientId;
+        copy.seen = seen;
+        copy.title = title;
+        copy.type = type;
+        copy.timestamp = timestamp;
+        copy.notifBannerId = notifBannerId;
+        copy.broadcastId = broadcastId;
+        return copy;
+    }
 }
@@ -0,0 +1,100 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content shared by every notification of a broadcast, such as the win or loss messages of a draw.
+ * Only the recipient differs between the notifications created from the same template.
+ */
+public class NotificationTemplate {
+
+    private final String title;
+    private final String message;
+    private final String type;
+    private final String eventId;
+    private final String eventName;
+    private final String senderId;
+    private final String senderName;
+
+    /**
+     * Creates a template
+     * @param title title of the notif
+     * @param message body of the notif
+     * @param type type of notif (e.g. "lottery_win")
+     * @param eventId event id that notif came from
+     * @param eventName event name notif came from
+     * @param senderId ID of the user sending the notif
+     * @param senderName name of the user sending the notif
+     */
+    public NotificationTemplate(String title, String message, String type, String eventId, String eventName,
+                                String senderId, String senderName) {
+        this.title = title;
+        this.message = message;
+        this.type = type;
+        this.eventId = eventId;
+        this.eventName = eventName;
+        this.senderId = senderId;
+        this.senderName = senderName;
+    }
+
+    /**
+     * Creates the unseen notification of one recipient
+     * @param recipientId ID of the user receiving the notif
+     * @param timestamp time the broadcast was sent, shared by all its notifications
+     * @return the notification to store
+     */
+    public Notification toNotification(String recipientId, Timestamp timestamp) {
+        Notification notification = new Notification(recipientId, title, message, type, eventId, eventName,
+                senderId, senderName, null);
+        notification.setTimestamp(timestamp);
+        return notification;
+    }
+
+    /**
+     * Creates the shared content of a broadcast to many recipients
+     * @param recipientCount number of users the broadcast is sent to
+     * @param timestamp time the broadcast was sent
+     * @return the broadcast to store once
+     */
+    public Broadcast toBroadcast(int recipientCount, Timestamp timestamp) {
+        return new Broadcast(title, message, type, eventId, eventName, senderId, senderName, recipientCount, timestamp);
+    }
+
+    /**
+     * Creates the fields of one recipient's unseen pointer to a stored broadcast. Only the fields the
+     * inbox and event queries filter or route on are written; the content is read from the broadcast.
+     * @param recipientId ID of the user receiving the notif
+     * @param broadcastId ID of the broadcast holding the content
+     * @param timestamp time the broadcast was sent
+     * @return the fields of the pointer to store
+     */
+    public Map<String, Object> toPointer(String recipientId, String broadcastId, Timestamp timestamp) {
+        Map<String, Object> pointer = new HashMap<>();
+        pointer.put("recipientId", recipientId);
+        pointer.put("broadcastId", broadcastId);
+        pointer.put("type", type);
+        pointer.put("eventId", eventId);
+        pointer.put("seen", false);
+        pointer.put("timestamp", timestamp);
+        return pointer;
+    }
+
+    // --- Getters ---
+
+    public String getTitle() { return title; }
+
+    public String getMessage() { return message; }
+
+    public String getType() { return type; }
+
+    public String getEventId() { return eventId; }
+
+    public String getEventName() { return eventName; }
+
+    public String getSenderId() { return senderId; }
+
+    public String getSenderName() { return senderName; }
+}
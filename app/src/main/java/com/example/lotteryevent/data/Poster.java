@@ -0,0 +1,58 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentId;
+
+/**
+ * An event poster, stored once at {@code posters/{posterId}} where the ID is the SHA-256 hash of
+ * its content.
+ * <p>
+ *     Events only keep the {@code posterId}, so queries on the {@code events} collection no longer
+ *     download the image. Uploading the same image again, for the same or another event, maps to
+ *     the same document and is not stored twice.
+ * </p>
+ * This class is a Plain Old Java Object (POJO) used for mapping Firestore documents.
+ */
+public class Poster {
+
+    @DocumentId
+    private String posterId;
+
+    private String data;
+    private int size;
+    private Timestamp createdAt;
+
+    /**
+     * A public no-argument constructor is required for Firestore deserialization.
+     */
+    public Poster() {}
+
+    /**
+     * Creates a poster
+     * @param data Base64 encoded JPEG of the poster
+     * @param createdAt time the poster was first uploaded
+     */
+    public Poster(String data, Timestamp createdAt) {
+        this.data = data;
+        this.size = data.length();
+        this.createdAt = createdAt;
+    }
+
+    // --- Getters and Setters ---
+
+    public String getPosterId() { return posterId; }
+
+    public void setPosterId(String posterId) { this.posterId = posterId; }
+
+    public String getData() { return data; }
+
+    public void setData(String data) { this.data = data; }
+
+    public int getSize() { return size; }
+
+    public void setSize(int size) { this.size = size; }
+
+    public Timestamp getCreatedAt() { return createdAt; }
+
+    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
+}
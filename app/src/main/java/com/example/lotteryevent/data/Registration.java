@@ -0,0 +1,75 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentId;
+
+/**
+ * Reverse index entry of a user's registration in an event, stored at
+ * {@code users/{uid}/registrations/{eventId}}.
+ * <p>
+ *     It mirrors the status of the entrant document at {@code events/{eventId}/entrants/{uid}} and is
+ *     written in the same transaction or batch, so a user's events can be listed without scanning
+ *     every event.
+ * </p>
+ * This class is a Plain Old Java Object (POJO) used for mapping Firestore documents.
+ */
+public class Registration {
+
+    @DocumentId
+    private String eventId;
+
+    private String eventName;
+    private String status;
+    private Timestamp updatedAt;
+
+    /**
+     * A public no-argument constructor is required for Firestore deserialization.
+     */
+    public Registration() {}
+
+    /**
+     * Creates a registration entry
+     * @param eventId ID of the event registered in
+     * @param eventName name of the event when the user registered
+     * @param status status of the user's entrant document
+     */
+    public Registration(String eventId, String eventName, String status) {
+        this.eventId = eventId;
+        this.eventName = eventName;
+        this.status = status;
+    }
+
+    // --- Getters and Setters ---
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public void setEventName(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Timestamp getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Timestamp updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
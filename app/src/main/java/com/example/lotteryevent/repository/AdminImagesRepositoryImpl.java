@@ -1,6 +1,7 @@
 package com.example.lotteryevent.repository;
 
 import com.example.lotteryevent.data.AdminImageItem;
+import com.example.lotteryevent.utilities.PosterStore;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
@@ -23,8 +24,9 @@ public class AdminImagesRepositoryImpl implements IAdminImagesRepository {
     /**
      * Retrieves a list of all images associated with events from the "events" collection in Firestore.
      * <p>
-     * This method queries the "events" collection and filters for documents that contain
-     * a non-null and non-empty "posterImageUrl". It maps the results to {@link AdminImageItem} objects.
+     * This method queries the "events" collection and filters for documents that have a poster,
+     * either a "posterId" in the poster store or an older inline "posterImageUrl". It maps the
+     * results to {@link AdminImageItem} objects; stored posters are loaded when they are shown.
      * </p>
      *
      * @param callback The callback interface to handle the success (returning the list of items)
@@ -45,10 +47,14 @@ public class AdminImagesRepositoryImpl implements IAdminImagesRepository {
                     List<AdminImageItem> imageItems = new ArrayList<>();
 
                     for (QueryDocumentSnapshot doc : querySnapshot) {
+                        String posterId = doc.getString("posterId");
                         String base64Image = doc.getString("posterImageUrl");
                         String eventId = doc.getId(); // Get the Document ID
 
-                        if (base64Image != null && !base64Image.isEmpty()) {
+                        if (posterId != null && !posterId.isEmpty()) {
+                            // Only the reference, the image itself is loaded on display
+                            imageItems.add(new AdminImageItem(eventId, posterId, null));
+                        } else if (base64Image != null && !base64Image.isEmpty()) {
                             // Store both ID and Image
                             imageItems.add(new AdminImageItem(eventId, base64Image));
                         }
@@ -65,8 +71,9 @@ public class AdminImagesRepositoryImpl implements IAdminImagesRepository {
     /**
      * Deletes (removes) an image associated with a specific event.
      * <p>
-     * Instead of deleting the entire event document, this method updates the
-     * "posterImageUrl" field to null for the specified event ID.
+     * Instead of deleting the entire event document, this method clears the poster fields of
+     * the specified event. The poster itself is deleted from the poster store, in the same
+     * transaction, once no other event shows the same image.
      * </p>
      *
      * @param eventId  The unique ID of the event document to update.
@@ -74,11 +81,11 @@ public class AdminImagesRepositoryImpl implements IAdminImagesRepository {
      */
     @Override
     public void deleteImage(String eventId, DeleteCallback callback) {
-        db.collection("events").document(eventId)
-                .update("posterImageUrl", null)
+        // Clears the poster fields and releases the stored poster in one transaction
+        PosterStore.detach(db, eventId)
                 /**
                  * Handles the successful update of the event document in Firestore.
-                 * Once the "posterImageUrl" field is set to null, the success callback
+                 * Once the poster fields are set to null, the success callback
                  * is triggered (if provided) to notify the caller.
                  * @param aVoid placeholder, no usable data
                  */
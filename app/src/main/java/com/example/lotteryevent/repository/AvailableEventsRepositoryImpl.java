@@ -6,19 +6,33 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.lotteryevent.data.Event;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This class implements IAvailableEventsRepository.
- * This class gets all available events in the db.
+ * This class gets all available events in the db, a page at a time.
+ * <p>
+ *     The newest page is an index of events by ID, kept in query order by applying each
+ *     snapshot's document changes at their old and new positions, so an edited event costs one
+ *     mapped document instead of the whole page. Besides the full list, listeners registered
+ *     through {@link #addOnEventsChangedListener} receive only the events that changed.
+ * </p>
  */
 public class AvailableEventsRepositoryImpl implements IAvailableEventsRepository {
     private static final String TAG = "AvailableEventRepository";
@@ -33,6 +47,41 @@ public class AvailableEventsRepositoryImpl implements IAvailableEventsRepository
     private final MutableLiveData<String> _userMessage = new MutableLiveData<>();
     private ListenerRegistration registration;
 
+    /**
+     * Number of events per page
+     */
+    static final int PAGE_SIZE = 20;
+
+    /**
+     * Number of pages kept loaded below the page of the last visible event
+     */
+    static final int KEEP_PAGES_AHEAD = 3;
+
+    /**
+     * A page of older events and the document to continue after
+     */
+    private static class Page {
+        final List<Event> events;
+        final DocumentSnapshot last;
+
+        Page(List<Event> events, DocumentSnapshot last) {
+            this.events = events;
+            this.last = last;
+        }
+    }
+
+    private Query browseQuery;
+    // the newest page, kept current by the listener
+    private final Map<String, Event> livePage = new HashMap<>();
+    private final List<Event> liveEvents = new ArrayList<>();
+    private final List<Page> olderPages = new ArrayList<>();
+    private DocumentSnapshot lastLiveDoc;
+    private boolean hasMore;
+    private boolean loadingMore;
+    // bumped whenever the older pages are reset, so pages loading meanwhile are dropped
+    private int pageGeneration;
+    private final List<OnEventsChangedListener> changeListeners = new CopyOnWriteArrayList<>();
+
     /**
      * Returns a LiveData object holding the list of available events.
      * The UI can observe this to get real-time updates.
@@ -65,7 +114,9 @@ public class AvailableEventsRepositoryImpl implements IAvailableEventsRepository
     }
 
     /**
-     * Triggers the process of fetching available events from the data source.
+     * Triggers the process of fetching available events from the data source. A real-time
+     * listener covers only the newest page; older pages are fetched on demand by
+     * {@link #loadMoreEvents()}.
      */
     @Override
     public void fetchAvailableEvents() {
@@ -73,18 +124,32 @@ public class AvailableEventsRepositoryImpl implements IAvailableEventsRepository
         if (currentUser == null) {
             Log.w(TAG, "Cannot fetch events: user is not signed in.");
             _userMessage.setValue("You must be signed in to see available events.");
+            notifyEventsChanged(Collections.emptyList(), Collections.emptyList(), true);
             _events.setValue(new ArrayList<>()); // Post empty list
             return;
         }
 
+        removeListener();
+        livePage.clear();
+        liveEvents.clear();
+        olderPages.clear();
+        lastLiveDoc = null;
+        hasMore = false;
+        loadingMore = false;
+        pageGeneration++;
+        notifyEventsChanged(Collections.emptyList(), Collections.emptyList(), true);
+
         _isLoading.setValue(true);
 
-        registration = db.collection("events")
-                .orderBy("createdAt", Query.Direction.DESCENDING)
+        browseQuery = db.collection("events")
+                .orderBy("createdAt", Query.Direction.DESCENDING);
+
+        registration = browseQuery.limit(PAGE_SIZE)
                 /**
-                 * Observes updates to the events collection, Maps the received QuerySnapshot into
-                 * a list of Event objects and updating the LiveData with the new list
-                 * @param querySnapshot contains events documents
+                 * Observes updates to the newest page of events. Only changed documents are mapped
+                 * into Event objects and moved within the page, which is posted together with the
+                 * older pages loaded so far
+                 * @param querySnapshot contains events documents of the newest page
                  * @param e exception thrown
                  */
                 .addSnapshotListener((querySnapshot, e) -> {
@@ -93,25 +158,250 @@ public class AvailableEventsRepositoryImpl implements IAvailableEventsRepository
                     if (e != null) {
                         Log.e(TAG, "Error listening for events: ", e);
                         _userMessage.setValue("Failed to load events. Please check your connection.");
+                        notifyEventsChanged(Collections.emptyList(), Collections.emptyList(), true);
                         _events.setValue(new ArrayList<>()); // Post empty list on error
                         return;
                     }
 
                     if (querySnapshot != null) {
                         Log.d(TAG, "Success: Events fetched: " + querySnapshot.size());
-                        List<Event> userEvents = new ArrayList<>();
-                        for (QueryDocumentSnapshot document : querySnapshot) {
-                            Event event = document.toObject(Event.class);
-                            userEvents.add(event);
+                        List<Event> upserted = new ArrayList<>();
+                        List<Event> pushedOff = new ArrayList<>();
+                        List<String> removedIds = new ArrayList<>();
+                        DocumentSnapshot newLast = querySnapshot.isEmpty() ? null
+                                : querySnapshot.getDocuments().get(querySnapshot.size() - 1);
+                        // indexes refer to the page as left by the previous change
+                        for (DocumentChange dc : querySnapshot.getDocumentChanges()) {
+                            String id = dc.getDocument().getId();
+                            if (dc.getType() == DocumentChange.Type.REMOVED) {
+                                liveEvents.remove(dc.getOldIndex());
+                                Event old = livePage.remove(id);
+                                // A full page only loses an event ranked below its new last one by
+                                // being pushed off; anything else leaving the page was deleted
+                                if (old != null && querySnapshot.size() >= PAGE_SIZE
+                                        && ranksAfter(dc.getDocument(), newLast)) {
+                                    pushedOff.add(old);
+                                } else {
+                                    removedIds.add(id);
+                                }
+                                continue;
+                            }
+                            Event event = dc.getDocument().toObject(Event.class);
+                            if (dc.getType() != DocumentChange.Type.ADDED) {
+                                liveEvents.remove(dc.getOldIndex());
+                            }
+                            liveEvents.add(dc.getNewIndex(), event);
+                            livePage.put(id, event);
+                            upserted.add(event);
+                        }
+
+                        if (!olderPages.isEmpty()) {
+                            List<Event> nextPage = olderPages.get(0).events;
+                            // a newer event pushes the oldest one off the page; keep it ahead of the older pages already loaded
+                            nextPage.addAll(0, pushedOff);
+                            // a deletion pulls the newest older event up into the page
+                            nextPage.removeIf(event -> livePage.containsKey(event.getEventId()));
+                        } else {
+                            // nothing older is loaded, so the pushed off events come back with the next page
+                            for (Event event : pushedOff) {
+                                removedIds.add(event.getEventId());
+                            }
+                        }
+
+                        lastLiveDoc = newLast;
+                        if (olderPages.isEmpty()) {
+                            hasMore = querySnapshot.size() >= PAGE_SIZE;
                         }
-                        _events.setValue(userEvents);
+                        notifyEventsChanged(upserted, removedIds, false);
+                        postEvents();
                     } else {
                         // Snapshot is null for some reason, treat as empty
+                        notifyEventsChanged(Collections.emptyList(), Collections.emptyList(), true);
                         _events.setValue(new ArrayList<>());
                     }
                 });
     }
 
+    /**
+     * Fetches the next page of events after the last one loaded. Does nothing if a page is
+     * already loading or every event has been loaded.
+     */
+    @Override
+    public void loadMoreEvents() {
+        DocumentSnapshot cursor = olderPages.isEmpty() ? lastLiveDoc : olderPages.get(olderPages.size() - 1).last;
+        if (browseQuery == null || cursor == null || loadingMore || !hasMore) {
+            return;
+        }
+        loadingMore = true;
+        int generation = pageGeneration;
+
+        browseQuery.startAfter(cursor).limit(PAGE_SIZE).get()
+                /**
+                 * Appends the page after the events already shown, unless the pages were
+                 * evicted or reloaded meanwhile
+                 * @param snapshot contains the page's events documents
+                 */
+                .addOnSuccessListener(snapshot -> {
+                    if (generation != pageGeneration) {
+                        return;
+                    }
+                    hasMore = snapshot.size() >= PAGE_SIZE;
+                    if (snapshot.isEmpty()) {
+                        return;
+                    }
+                    List<Event> events = new ArrayList<>(snapshot.size());
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        events.add(doc.toObject(Event.class));
+                    }
+                    olderPages.add(new Page(events, snapshot.getDocuments().get(snapshot.size() - 1)));
+                    notifyEventsChanged(events, Collections.emptyList(), false);
+                    postEvents();
+                })
+                /**
+                 * Logs exception thrown
+                 * @param e exception thrown
+                 */
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load more events", e);
+                    _userMessage.setValue("Failed to load more events.");
+                })
+                /**
+                 * Allows the next page to be requested
+                 * @param task unusable data
+                 */
+                .addOnCompleteListener(task -> {
+                    if (generation == pageGeneration) {
+                        loadingMore = false;
+                    }
+                });
+    }
+
+    /**
+     * Drops the loaded pages lying more than {@link #KEEP_PAGES_AHEAD} pages below the page of the
+     * last visible event. They are fetched again by {@link #loadMoreEvents()} if the user scrolls
+     * back down. Pages above stay loaded so the positions of the visible events do not shift.
+     * @param eventId ID of the last visible event
+     */
+    @Override
+    public void evictEventsBelow(String eventId) {
+        int visiblePage = -1; // the live page
+        for (int i = 0; i < olderPages.size() && visiblePage < 0; i++) {
+            for (Event event : olderPages.get(i).events) {
+                if (event.getEventId() != null && event.getEventId().equals(eventId)) {
+                    visiblePage = i;
+                    break;
+                }
+            }
+        }
+        int keep = visiblePage + 1 + KEEP_PAGES_AHEAD;
+        if (olderPages.size() <= keep) {
+            return;
+        }
+        List<Page> evicted = olderPages.subList(keep, olderPages.size());
+        List<Event> evictedEvents = new ArrayList<>();
+        for (Page page : evicted) {
+            evictedEvents.addAll(page.events);
+        }
+        evicted.clear();
+        hasMore = true;
+        // a page still loading would land after the evicted ones
+        pageGeneration++;
+        loadingMore = false;
+        Set<String> kept = loadedEventIds();
+        List<String> removedIds = new ArrayList<>();
+        for (Event event : evictedEvents) {
+            if (!kept.contains(event.getEventId())) {
+                removedIds.add(event.getEventId());
+            }
+        }
+        notifyEventsChanged(Collections.emptyList(), removedIds, false);
+        postEvents();
+    }
+
+    /**
+     * Registers a listener for the events added, changed or dropped by each update
+     * @param listener listener to notify on the main thread
+     */
+    @Override
+    public void addOnEventsChangedListener(OnEventsChangedListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added by {@link #addOnEventsChangedListener}
+     * @param listener listener to remove
+     */
+    @Override
+    public void removeOnEventsChangedListener(OnEventsChangedListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Tells whether a document ranks after another in the browse order, newest first with ties
+     * broken by descending ID as Firestore orders them
+     * @param doc document to place
+     * @param last last event of the live page, may be null
+     * @return true if doc ranks after last
+     */
+    private static boolean ranksAfter(DocumentSnapshot doc, DocumentSnapshot last) {
+        if (last == null) {
+            return false;
+        }
+        Timestamp time = doc.getTimestamp("createdAt");
+        Timestamp lastTime = last.getTimestamp("createdAt");
+        if (time == null || lastTime == null) {
+            return false;
+        }
+        int order = time.compareTo(lastTime);
+        return order < 0 || (order == 0 && doc.getId().compareTo(last.getId()) < 0);
+    }
+
+    /**
+     * Posts the newest page followed by the older pages loaded so far. An event pushed off the
+     * newest page can also arrive on a page loaded afterwards, so each event is posted once.
+     */
+    private void postEvents() {
+        List<Event> events = new ArrayList<>(liveEvents);
+        Set<String> posted = new HashSet<>(livePage.keySet());
+        for (Page page : olderPages) {
+            for (Event event : page.events) {
+                if (posted.add(event.getEventId())) {
+                    events.add(event);
+                }
+            }
+        }
+        _events.setValue(events);
+    }
+
+    /**
+     * @return IDs of every event on the newest page and the older pages loaded
+     */
+    private Set<String> loadedEventIds() {
+        Set<String> ids = new HashSet<>(livePage.keySet());
+        for (Page page : olderPages) {
+            for (Event event : page.events) {
+                ids.add(event.getEventId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Tells the registered listeners what an update changed, skipping updates that changed nothing.
+     * Called before the list is posted, so observers of the list see listeners already updated.
+     * @param upserted events added or changed
+     * @param removedIds IDs of events no longer loaded
+     * @param reset true if every event previously reported is dropped first
+     */
+    private void notifyEventsChanged(List<Event> upserted, List<String> removedIds, boolean reset) {
+        if (!reset && upserted.isEmpty() && removedIds.isEmpty()) {
+            return;
+        }
+        for (OnEventsChangedListener listener : changeListeners) {
+            listener.onEventsChanged(upserted, removedIds, reset);
+        }
+    }
+
     /**
      * Removes the listener used to fetch events from the data source.
      */
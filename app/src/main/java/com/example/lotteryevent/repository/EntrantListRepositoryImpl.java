@@ -8,13 +8,20 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.lotteryevent.NotificationCustomManager;
 import com.example.lotteryevent.data.Entrant;
+import com.example.lotteryevent.data.NotificationTemplate;
+import com.example.lotteryevent.utilities.EntrantCounters;
+import com.example.lotteryevent.utilities.RegistrationIndex;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -164,20 +171,10 @@ public class EntrantListRepositoryImpl implements IEntrantListRepository{
     }
 
     /**
-     * Sends a custom notification message to an individual entrant. Fetches the
-     * event's details from Firestore to correctly populate the notification fields
-     * (event name, organizer information, message content) before dispatching the
-     * notification through {@link NotificationCustomManager}.
+     * Sends a custom notification message to an individual entrant through the same
+     * path as {@link #notifyEntrants(List, String, String)}.
      * <p>If {@code uid} or {@code eventId} is null, the request is considered
      * invalid and no notification is sent.</p>
-     * <p>Firestore Callbacks:</p>
-     * <ul>
-     *   <li><b>OnSuccessListener</b> — Retrieves event metadata (name, organizer
-     *       ID, organizer name). Constructs the full notification message and sends
-     *       it to the specified user.</li>
-     *   <li><b>OnFailureListener</b> — Logs any error that occurs when trying to
-     *       fetch the event information.</li>
-     * </ul>
      * @param uid the unique identifier of the entrant to send the notification to
      * @param eventId the Firestore event ID associated with the notification
      * @param organizerMessage the message written by the organizer to be included
@@ -189,54 +186,77 @@ public class EntrantListRepositoryImpl implements IEntrantListRepository{
             Log.e(TAG,"Invalid notification request.");
             return;
         }
+        notifyEntrants(Collections.singletonList(uid), eventId, organizerMessage);
+    }
+
+    /**
+     * Sends a custom notification message to many entrants. The organizer's user document and
+     * the event document are fetched once, in parallel, and the resulting notification is
+     * broadcast through {@link NotificationCustomManager#sendBroadcast}, which writes it in
+     * batches. A single message summarizing the outcome is posted once every batch has finished.
+     * <p>If {@code uids} is empty or {@code eventId} is null, no notification is sent.</p>
+     * @param uids the unique identifiers of the entrants to send the notification to
+     * @param eventId the Firestore event ID associated with the notification
+     * @param organizerMessage the message written by the organizer to be included
+     *                         in the notification
+     */
+    @Override
+    public void notifyEntrants(List<String> uids, String eventId, String organizerMessage) {
+        if (uids == null || uids.isEmpty() || eventId == null) {
+            Log.e(TAG, "Invalid notification request.");
+            return;
+        }
 
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (currentUser == null) {
+            _userMessage.postValue("Error: Failed to get logged in user.");
+            return;
+        }
 
-        db.collection("users").document(currentUser.getUid()).get()
-            .addOnSuccessListener(userDoc -> {
-                db.collection("events").document(eventId).get()
-                        /**
-                         * Callback triggered when Firestore successfully retrieves the event document
-                         * required for composing the entrant notification. Extracts the event name,
-                         * organizer ID, and organizer name, constructs a formatted notification, and
-                         * uses NotificationCustomManager to send it to the specified entrant.
-                         * @param document the Firestore DocumentSnapshot representing the event
-                         */
-                        .addOnSuccessListener(document -> {
-                            if (document != null && document.exists()) {
-                                Log.d(TAG, "DocumentSnapshot data: " + document.getData());
-                                String eventName = document.getString("name");
-                                String organizerId = document.getString("organizerId");
-                                String organizerName = userDoc.getString("name");
-                                String title = "Message From Organizer";
-                                String message = "Message from the organizer of " + eventName + ": " + organizerMessage;
-                                String type = "custom_message";
-                                notifManager.sendNotification(uid, title, message, type, eventId, eventName, organizerId, organizerName);
-                                Log.d(TAG, "Notification sent successfully to " + uid);
-                                _userMessage.postValue("Notification successfully sent.");
-                            } else {
-                                Log.e(TAG,"Event not found for notification.");
-                            }
-                        })
-                        /**
-                         * Callback triggered when Firestore fails to retrieve the event information
-                         * needed for sending the notification. Logs the exception so that developers
-                         * can diagnose the cause of failure.
-                         * @param e the exception thrown during the Firestore document fetch
-                         */
-                        .addOnFailureListener(e -> {
-                            Log.e(TAG, "Error sending notification", e);
-                            _userMessage.postValue("Failed to send notification.");
-                        });
-            })
+        Task<DocumentSnapshot> userTask = db.collection("users").document(currentUser.getUid()).get();
+        Task<DocumentSnapshot> eventTask = db.collection("events").document(eventId).get();
+
+        Tasks.whenAllSuccess(userTask, eventTask)
+                /**
+                 * Builds the notification from the organizer and event documents and broadcasts it
+                 * @param docs the organizer's user document followed by the event document
+                 */
+                .onSuccessTask(docs -> {
+                    DocumentSnapshot userDoc = (DocumentSnapshot) docs.get(0);
+                    DocumentSnapshot eventDoc = (DocumentSnapshot) docs.get(1);
+                    if (eventDoc == null || !eventDoc.exists()) {
+                        throw new IllegalStateException("Event not found for notification.");
+                    }
+                    String eventName = eventDoc.getString("name");
+                    NotificationTemplate template = new NotificationTemplate(
+                            "Message From Organizer",
+                            "Message from the organizer of " + eventName + ": " + organizerMessage,
+                            "custom_message", eventId, eventName,
+                            eventDoc.getString("organizerId"), userDoc.getString("name"));
+                    return notifManager.sendBroadcast(uids, template, null);
+                })
+                /**
+                 * Reports how many entrants were notified
+                 * @param result aggregated outcome of the broadcast
+                 */
+                .addOnSuccessListener(result -> {
+                    if (result.isSuccessful()) {
+                        _userMessage.postValue(result.getRecipients() == 1
+                                ? "Notification successfully sent."
+                                : "Notification sent to " + result.getRecipients() + " entrants.");
+                    } else {
+                        _userMessage.postValue("Notification sent to " + result.getSent() + " of "
+                                + result.getRecipients() + " entrants; " + result.getFailed() + " failed.");
+                    }
+                })
                 /**
-                 * Logs exception thrown
+                 * Logs exception thrown while looking up the event or organizer
                  * @param e exception thrown
                  */
-            .addOnFailureListener(e -> {
-                _userMessage.postValue("Error: Failed to get logged in user.");
-                Log.e(TAG, "notifyEntrant failed", e);
-            });
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error sending notification", e);
+                    _userMessage.postValue("Failed to send notification.");
+                });
     }
 
     /**
@@ -266,17 +286,28 @@ public class EntrantListRepositoryImpl implements IEntrantListRepository{
             .addOnSuccessListener(userDoc -> {
                 String organizerName = userDoc.getString("name");
 
-                db.collection("events")
+                DocumentReference entrantRef = db.collection("events")
                         .document(eventId)
                         .collection("entrants")
-                        .document(userId)
-                        .update("status", newStatus)
+                        .document(userId);
+                /**
+                 * Updates the entrant's status and moves it between the event's counters
+                 * @param transaction transaction to run the reads and writes in
+                 */
+                db.runTransaction(transaction -> {
+                            DocumentSnapshot entrant = transaction.get(entrantRef);
+                            transaction.update(entrantRef, "status", newStatus);
+                            RegistrationIndex.put(transaction, db, userId, eventId, null, newStatus);
+                            EntrantCounters.applyTransition(transaction, db, eventId, entrant.getString("status"), newStatus);
+                            return (Void) null;
+                        })
                         /**
                          * Logs and calls callback's specific success behaviour
                          * @param aVoid unusable data
                          */
                         .addOnSuccessListener(aVoid -> {
                             Log.d(TAG, "Entrant " + userId + " status updated to " + newStatus);
+                            EntrantCounters.schedulePublish(db, eventId);
 
                             if (sendNotif && newStatus.equals("waiting")) {
                                 db.collection("events").document(eventId).get()
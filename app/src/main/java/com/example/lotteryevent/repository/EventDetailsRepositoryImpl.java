@@ -6,24 +6,23 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.lotteryevent.NotificationCustomManager;
 import com.example.lotteryevent.data.User;
+import com.example.lotteryevent.data.DeleteJob;
 import com.example.lotteryevent.data.Entrant;
 import com.example.lotteryevent.data.Event;
+import com.example.lotteryevent.data.EventStats;
+import com.example.lotteryevent.utilities.CascadeDeleter;
+import com.example.lotteryevent.utilities.EntrantCounters;
+import com.example.lotteryevent.utilities.RegistrationIndex;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.AggregateQuery;
-import com.google.firebase.firestore.AggregateSource;
-import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.firestore.GeoPoint;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.google.firebase.firestore.TransactionOptions;
 
 /**
  * Implements IEventDetailsRepository.
@@ -33,6 +32,12 @@ import java.util.List;
 public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
 
     private static final String TAG = "EventDetailsRepository";
+    private static final String WAITING_LIST_FULL = "The waiting list for this event is full.";
+    private static final String EVENT_FULL = "This event is full.";
+    private static final String COUNTS_UNAVAILABLE = "Could not check whether this event is full. Please try again.";
+    private static final String JOIN_BUSY = "Many people are joining right now. Please try again.";
+    // Joins and accepts re-read the counters on every attempt, so give up quickly under contention
+    private static final TransactionOptions LIMITED_RETRY = new TransactionOptions.Builder().setMaxAttempts(3).build();
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
     private final FirebaseAuth mAuth = FirebaseAuth.getInstance();
     private final MutableLiveData<Boolean> _isAdmin = new MutableLiveData<>(false);
@@ -133,7 +138,18 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
                         // After fetching the event, kick off the subcollection fetches.
                         // We use Tasks.whenAllComplete to know when all of them are done.
                         Task<DocumentSnapshot> entrantStatusTask = fetchEntrantStatusTask(eventId);
-                        Task<List<Object>> entrantCountsTask = fetchEntrantCountsTask(eventId);
+                        Task<EventStats> entrantCountsTask = fetchEntrantCountsTask(eventId)
+                                /**
+                                 * Republishes the waiting count if the event document's copy is
+                                 * missing or stale, such as on events created before it was kept
+                                 * @param stats entrant counts of the event
+                                 */
+                                .addOnSuccessListener(stats -> {
+                                    Integer published = event == null ? null : event.getWaitingListCount();
+                                    if (event != null && (published == null || published != stats.getWaiting())) {
+                                        EntrantCounters.schedulePublish(db, eventId);
+                                    }
+                                });
 
                         Tasks.whenAllComplete(entrantStatusTask, entrantCountsTask)
                                 .addOnCompleteListener(allTasks -> {
@@ -179,43 +195,40 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
     }
 
     /**
-     * Fetches entrant counts for a given event
+     * Fetches entrant counts for a given event from its materialized counters
+     * @param eventId event
+     * @return Task for reading the counters
+     */
+    private Task<EventStats> fetchEntrantCountsTask(String eventId) {
+        return postEntrantCounts(EntrantCounters.load(db, eventId));
+    }
+
+    /**
+     * Re-reads entrant counts after the user joined or left the waiting list, and asks for the
+     * new waiting count to be published to the event document for the browse screen
      * @param eventId event
-     * @return Task for all queries to get counts
+     * @return Task for reading the counters
+     */
+    private Task<EventStats> publishEntrantCountsTask(String eventId) {
+        EntrantCounters.invalidate(eventId);
+        EntrantCounters.schedulePublish(db, eventId);
+        return fetchEntrantCountsTask(eventId);
+    }
+
+    /**
+     * Posts the counts a task reads once it succeeds
+     * @param countsTask task reading the counters
+     * @return the same task
      */
-    private Task<List<Object>> fetchEntrantCountsTask(String eventId) {
-        CollectionReference entrantsRef = db.collection("events").document(eventId).collection("entrants");
-
-        // Query 1: Count of "accepted" entrants
-        AggregateQuery acceptedCountQuery = entrantsRef.whereEqualTo("status", "accepted").count();
-        /**
-         * Gets tasks from aggregate query snapshot
-         * @param snapshot contains aggregate query result
-         */
-        Task<Long> acceptedTask = acceptedCountQuery.get(AggregateSource.SERVER).onSuccessTask(snapshot -> Tasks.forResult(snapshot.getCount()));
-
-        // Query 2: Count of "waiting" entrants
-        AggregateQuery waitingCountQuery = entrantsRef.whereEqualTo("status", "waiting").count();
-        /**
-         * Gets tasks from aggregate query snapshot
-         * @param snapshot contains aggregate query result
-         */
-        Task<Long> waitingTask = waitingCountQuery.get(AggregateSource.SERVER).onSuccessTask(snapshot -> Tasks.forResult(snapshot.getCount()));
-
-        // Run both count queries in parallel and wait for them to succeed.
-        return Tasks.whenAllSuccess(acceptedTask, waitingTask)
+    private Task<EventStats> postEntrantCounts(Task<EventStats> countsTask) {
+        return countsTask
                 /**
                  * Posts attendee and waiting list counts to mutable live data
-                 * @param results stores counts
+                 * @param stats entrant counts of the event
                  */
-                .addOnSuccessListener(results -> {
-                    // results is a List<Object> where results.get(0) is the result of acceptedTask,
-                    // and results.get(1) is the result of waitingTask.
-                    long attendees = (long) results.get(0);
-                    long waiting = (long) results.get(1);
-
-                    _attendeeCount.postValue((int) attendees);
-                    _waitingListCount.postValue((int) waiting);
+                .addOnSuccessListener(stats -> {
+                    _attendeeCount.postValue((int) stats.getAccepted());
+                    _waitingListCount.postValue((int) stats.getWaiting());
                 });
     }
 
@@ -236,6 +249,16 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
             return;
         }
 
+        // Fail fast on counts read moments ago; the transaction below checks them again
+        Event event = _eventDetails.getValue();
+        EventStats cachedStats = EntrantCounters.peek(eventId);
+        if (event != null && cachedStats != null
+                && EntrantCounters.isFull(event.getWaitingListLimit(), cachedStats.getWaiting())) {
+            _isLoading.postValue(false);
+            _message.postValue(WAITING_LIST_FULL);
+            return;
+        }
+
         // 1. Fetch the user's profile to get their specific "name" field
         db.collection("users").document(currentUser.getUid()).get()
                 /**
@@ -264,8 +287,32 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
                         newEntrant.setGeoLocation(null);
                     }
 
-                    // 3. Save the Entrant to the Event's subcollection
-                    getEntrantDocRef(eventId, currentUser.getUid()).set(newEntrant)
+                    // 3. Save the Entrant to the Event's subcollection and count it as waiting.
+                    // Loading the counts first initializes them if the event predates them, so the
+                    // limit can always be checked
+                    DocumentReference entrantRef = getEntrantDocRef(eventId, currentUser.getUid());
+                    fetchEventForCounting(eventId)
+                            /**
+                             * Checks the waiting list limit against the base counts and one shard, then
+                             * writes the entrant and adjusts that shard by the entrant's previous status.
+                             * The event is read outside the transaction, so publishing its waiting
+                             * count never aborts a join.
+                             * @param eventDoc event document, read with its counts loaded
+                             */
+                            .onSuccessTask(eventDoc -> db.runTransaction(LIMITED_RETRY, transaction -> {
+                                int shards = EntrantCounters.shardCount(eventDoc);
+                                DocumentSnapshot existing = transaction.get(entrantRef);
+                                String previousStatus = existing.exists() ? existing.getString("status") : null;
+                                Long limit = "waiting".equals(previousStatus) ? null : eventDoc.getLong("waitingListLimit");
+                                EntrantCounters.JoinSlot slot = EntrantCounters.reserveJoin(transaction, db, eventId, shards, limit);
+                                // Draw rank used by RunDrawRepositoryImpl to draw winners without a full scan
+                                newEntrant.setDrawShard(slot.getShard());
+                                newEntrant.setDrawSeq(slot.getDrawSeq());
+                                transaction.set(entrantRef, newEntrant);
+                                RegistrationIndex.put(transaction, db, currentUser.getUid(), eventId, eventDoc.getString("name"), "waiting");
+                                EntrantCounters.applyJoin(transaction, db, eventId, slot, previousStatus);
+                                return (Void) null;
+                            }))
                             /**
                              * Fetches entrant status and counts as an update after adding entrant to event's waiting list
                              * @param aVoid unusable data
@@ -275,7 +322,7 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
 
                                 // Refresh data
                                 Task<DocumentSnapshot> entrantStatusTask = fetchEntrantStatusTask(eventId);
-                                Task<List<Object>> entrantCountsTask = fetchEntrantCountsTask(eventId);
+                                Task<EventStats> entrantCountsTask = publishEntrantCountsTask(eventId);
 
                                 Tasks.whenAllComplete(entrantStatusTask, entrantCountsTask)
                                         /**
@@ -289,7 +336,18 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
                              * @param e exception thrown
                              */
                             .addOnFailureListener(e -> {
+                                if (EntrantCounters.LimitReachedException.isCause(e)) {
+                                    _message.postValue(WAITING_LIST_FULL);
+                                    refreshCountsAfterLimit(eventId);
+                                    return;
+                                }
                                 _isLoading.postValue(false);
+                                if (EntrantCounters.isContention(e)) {
+                                    // Other joins kept winning the same shard; trying again usually succeeds
+                                    _message.postValue(JOIN_BUSY);
+                                    Log.w(TAG, "joinWaitingList gave up under contention", e);
+                                    return;
+                                }
                                 _message.postValue("Failed to join waiting list.");
                                 Log.e(TAG, "joinWaitingList failed to save entrant", e);
                             });
@@ -318,7 +376,23 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
         FirebaseUser currentUser = mAuth.getCurrentUser();
         if (currentUser == null) { /* Handle not logged in */ return; }
 
-        getEntrantDocRef(eventId, currentUser.getUid()).delete()
+        DocumentReference entrantRef = getEntrantDocRef(eventId, currentUser.getUid());
+        db.collection("events").document(eventId).get()
+                /**
+                 * Deletes the entrant and removes it from the counters. The event is read outside
+                 * the transaction, so publishing its waiting count never aborts a leave.
+                 * @param eventDoc event document, giving the shard count
+                 */
+                .onSuccessTask(eventDoc -> db.runTransaction(transaction -> {
+                    int shards = EntrantCounters.shardCount(eventDoc);
+                    DocumentSnapshot existing = transaction.get(entrantRef);
+                    if (existing.exists()) {
+                        transaction.delete(entrantRef);
+                        RegistrationIndex.remove(transaction, db, currentUser.getUid(), eventId);
+                        EntrantCounters.applyTransition(transaction, db, eventId, shards, existing.getString("status"), null);
+                    }
+                    return (Void) null;
+                }))
                 /**
                  * Updates entrants statuses and counts after entrant leaves waiting list
                  * @param aVoid unusable data
@@ -326,7 +400,7 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
                 .addOnSuccessListener(aVoid -> {
                     _message.postValue("You have left the event.");
                     Task<DocumentSnapshot> entrantStatusTask = fetchEntrantStatusTask(eventId);
-                    Task<List<Object>> entrantCountsTask = fetchEntrantCountsTask(eventId);
+                    Task<EventStats> entrantCountsTask = publishEntrantCountsTask(eventId);
 
                     Tasks.whenAllComplete(entrantStatusTask, entrantCountsTask)
                             /**
@@ -360,7 +434,42 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
         FirebaseUser currentUser = mAuth.getCurrentUser();
         if (currentUser == null) { /* Handle not logged in */ return; }
 
-        getEntrantDocRef(eventId, currentUser.getUid()).update("status", newStatus)
+        DocumentReference entrantRef = getEntrantDocRef(eventId, currentUser.getUid());
+        // Loading the counts first initializes them if the event predates them, so the capacity
+        // can always be checked
+        fetchEventForCounting(eventId)
+                /**
+                 * Checks the capacity against the counters when accepting, then updates the entrant's
+                 * status and moves it between counters. The event is read outside the transaction,
+                 * so publishing its waiting count never aborts an accept.
+                 * @param eventDoc event document, read with its counts loaded
+                 */
+                .onSuccessTask(eventDoc -> db.runTransaction(LIMITED_RETRY, transaction -> {
+                    int shards = EntrantCounters.shardCount(eventDoc);
+                    DocumentSnapshot existing = transaction.get(entrantRef);
+                    String previousStatus = existing.getString("status");
+                    if ("accepted".equals(newStatus) && !"accepted".equals(previousStatus)) {
+                        // The organizer may have cancelled the invitation since the screen loaded
+                        if (!"invited".equals(previousStatus)) {
+                            throw new IllegalStateException("Entrant is no longer invited");
+                        }
+                        Long capacity = eventDoc.getLong("capacity");
+                        if (capacity != null) {
+                            EventStats stats = EntrantCounters.read(transaction, db, eventId, shards);
+                            // Without counts the capacity cannot be checked, so refuse rather than overfill
+                            if (!stats.isInitialized()) {
+                                throw new EntrantCounters.CountsUnavailableException(eventId);
+                            }
+                            if (EntrantCounters.isFull(capacity, stats.getAccepted())) {
+                                throw new EntrantCounters.LimitReachedException(EVENT_FULL, capacity);
+                            }
+                        }
+                    }
+                    transaction.update(entrantRef, "status", newStatus);
+                    RegistrationIndex.put(transaction, db, currentUser.getUid(), eventId, null, newStatus);
+                    EntrantCounters.applyTransition(transaction, db, eventId, shards, previousStatus, newStatus);
+                    return (Void) null;
+                }))
                 /**
                  * Updates entrant statuses and counts after user accepts/declines inviatation
                  * @param aVoid unusable data
@@ -369,7 +478,7 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
                     String successMessage = "accepted".equals(newStatus) ? "Invitation accepted!" : "Invitation declined.";
                     _message.postValue(successMessage);
                     Task<DocumentSnapshot> entrantStatusTask = fetchEntrantStatusTask(eventId);
-                    Task<List<Object>> entrantCountsTask = fetchEntrantCountsTask(eventId);
+                    Task<EventStats> entrantCountsTask = fetchEntrantCountsTask(eventId);
 
                     Tasks.whenAllComplete(entrantStatusTask, entrantCountsTask)
                             /**
@@ -385,12 +494,53 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
                  * @param e exception thrown
                  */
                 .addOnFailureListener(e -> {
+                    if (EntrantCounters.LimitReachedException.isCause(e)) {
+                        _message.postValue(EVENT_FULL);
+                        refreshCountsAfterLimit(eventId);
+                        return;
+                    }
                     _isLoading.postValue(false);
+                    if (EntrantCounters.CountsUnavailableException.isCause(e)) {
+                        _message.postValue(COUNTS_UNAVAILABLE);
+                        Log.w(TAG, "updateInvitationStatus could not check the capacity", e);
+                        return;
+                    }
                     _message.postValue("Failed to update invitation status.");
                     Log.e(TAG, "updateInvitationStatus failed", e);
                 });
     }
 
+    /**
+     * Reads an event document outside any transaction, once its counts are loaded. Loading the
+     * counts initializes them if the event predates them; a failure to load is left for the
+     * counters read in the caller's transaction to report.
+     * @param eventId event
+     * @return task resolving to the event document
+     */
+    private Task<DocumentSnapshot> fetchEventForCounting(String eventId) {
+        Task<DocumentSnapshot> eventTask = db.collection("events").document(eventId).get();
+        return EntrantCounters.load(db, eventId)
+                /**
+                 * Returns the event document whether or not the counts loaded
+                 * @param countsTask counts loaded
+                 */
+                .continueWithTask(countsTask -> eventTask);
+    }
+
+    /**
+     * Re-reads the counts after a join or accept was refused, so the screen shows the event as full
+     * @param eventId event whose limit was reached
+     */
+    private void refreshCountsAfterLimit(String eventId) {
+        EntrantCounters.invalidate(eventId);
+        fetchEntrantCountsTask(eventId)
+                /**
+                 * Sets loading to false
+                 * @param task counts read
+                 */
+                .addOnCompleteListener(task -> _isLoading.postValue(false));
+    }
+
     /**
      * Helper method to get a DocumentReference to the current user's entry
      * in the entrants subcollection for a given event.
@@ -442,12 +592,12 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
     /**
      * Permanently deletes the specified event and its associated subcollections (e.g., 'entrants').
      * <p>
-     * This operation performs a batch write to ensure data consistency:
+     * The delete runs as a checkpointed {@link DeleteJob}:
      * <ol>
-     *     <li>Fetches all documents in the 'entrants' subcollection.</li>
-     *     <li>Adds delete operations for each entrant to a batch.</li>
-     *     <li>Adds the delete operation for the parent event document to the batch.</li>
-     *     <li>Commits the batch atomically.</li>
+     *     <li>Deletes the entrants page by page, each together with its registration.</li>
+     *     <li>Deletes the draw journals and counters.</li>
+     *     <li>Deletes the parent event document last, so an interrupted delete never leaves an
+     *     orphaned subcollection behind and can be resumed from its checkpoint.</li>
      * </ol>
      * On success, the {@link #getIsDeleted()} LiveData is set to true to trigger navigation.
      *
@@ -455,70 +605,47 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
      */
     @Override
     public void deleteEvent(String eventId) {
+        FirebaseUser currentUser = mAuth.getCurrentUser();
+        if (currentUser == null) {
+            _message.postValue("You must be signed in to delete events.");
+            return;
+        }
         _isLoading.postValue(true);
 
-        CollectionReference entrantsRef = db.collection("events").document(eventId).collection("entrants");
-
-        // 1. First, get all entrants
-        /**
-         * Deletes event and its entrants
-         * @param querySnapshot contains entrants of event
-         */
-        entrantsRef.get().addOnSuccessListener(querySnapshot -> {
-            // Create a batch writer
-            WriteBatch batch = db.batch();
-
-            // Add every entrant delete to the batch
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                batch.delete(doc.getReference());
-            }
-
-            // 2. Add the Parent Event delete to the batch
-            DocumentReference eventRef = db.collection("events").document(eventId);
-            batch.delete(eventRef);
-
-            // 3. Commit everything at once
-            batch.commit()
-                    /**
-                     * Logs successful deletion
-                     * @param aVoid unusable data
-                     */
-                    .addOnSuccessListener(aVoid -> {
-                        _isLoading.postValue(false);
-                        _isDeleted.postValue(true);
-                        _message.postValue("Event deleted successfully.");
-                    })
-                    /**
-                     * Logs exception thrown
-                     * @param e exception thrown
-                     */
-                    .addOnFailureListener(e -> {
-                        _isLoading.postValue(false);
-                        _isDeleted.postValue(false);
-                        _message.postValue("Failed to delete event data.");
-                        Log.e(TAG, "deleteEvent batch failed", e);
-                    });
-
-        })
-        /**
-         * Logs exception thrown
-         * @param e exception thrown
-         */
-        .addOnFailureListener(e -> {
-            _isLoading.postValue(false);
-            Log.e(TAG, "Failed to fetch entrants for deletion", e);
-        });
+        new CascadeDeleter(db).start(DeleteJob.forEvent(eventId, currentUser.getUid()), this::logDeleteProgress)
+                /**
+                 * Logs successful deletion
+                 * @param job finished delete job
+                 */
+                .addOnSuccessListener(job -> {
+                    _isLoading.postValue(false);
+                    _isDeleted.postValue(true);
+                    _message.postValue("Event deleted successfully.");
+                })
+                /**
+                 * Logs exception thrown
+                 * @param e exception thrown
+                 */
+                .addOnFailureListener(e -> {
+                    _isLoading.postValue(false);
+                    _isDeleted.postValue(false);
+                    _message.postValue("Failed to delete event data.");
+                    Log.e(TAG, "deleteEvent failed", e);
+                });
     }
 
     /**
      * Permanently removes the specified user (organizer) and all their associated data.
      * <p>
-     * This performs a cascade delete operation to ensure database integrity:     * <ol>
-     *     <li>Deletes the User profile document.</li>
+     * This runs a checkpointed cascade delete ({@link DeleteJob#forOrganizer}) to ensure database integrity:
+     * <ol>
+     *     <li><b>Removes this user</b> from the waiting lists (entrants) of any other events they joined.</li>
      *     <li>Deletes all notifications received by this user.</li>
      *     <li><b>Deletes all Events</b> organized by this user (including their entrant subcollections).</li>
-     *     <li><b>Removes this user</b> from the waiting lists (entrants) of any other events they joined.</li>
+     *     <li>Deletes the User profile document.</li>
      * </ol>
+     * Success is only reported once every step has finished; a failed delete can be resumed
+     * from its checkpoint.
      *
      * @param userId The unique identifier of the user/organizer to delete.
      */
@@ -528,42 +655,34 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
             _message.postValue("Invalid User ID.");
             return;
         }
+        FirebaseUser admin = mAuth.getCurrentUser();
+        if (admin == null) {
+            _message.postValue("You must be signed in to delete users.");
+            return;
+        }
         _isLoading.postValue(true);
 
-        // 1. Delete the User Document
-        Task<Void> deleteUserDoc = db.collection("users").document(userId).delete();
-
-        // 2. Delete all Notifications received by this user
-        Task<Void> deleteNotifications = deleteUserNotifications(userId);
-
-        // 3. Delete all Events organized by this user (and their subcollections)
-        Task<Void> deleteOrganizedEvents = deleteEventsOrganizedByUser(userId);
-
-        // 4. Remove this user from 'entrants' lists of other events
-        Task<Void> deleteFromEntrants = removeUserFromAllWaitingLists(userId);
-
-        // Wait for all cleanup tasks to finish
-        Tasks.whenAllComplete(deleteUserDoc, deleteNotifications, deleteOrganizedEvents, deleteFromEntrants)
+        new CascadeDeleter(db).start(DeleteJob.forOrganizer(userId, admin.getUid()), this::logDeleteProgress)
                 /**
-                 * Logs successful and failed deletions
-                 * @param task list of tasks completed
+                 * Logs successful deletion
+                 * @param job finished delete job
                  */
-                .addOnCompleteListener(task -> {
+                .addOnSuccessListener(job -> {
                     _isLoading.postValue(false);
-                    // Check if ANY of the tasks failed
-                    if (deleteUserDoc.isSuccessful() && deleteNotifications.isSuccessful()
-                            && deleteOrganizedEvents.isSuccessful() && deleteFromEntrants.isSuccessful()) {
-                        Log.d(TAG, "Admin successfully deleted user and all associated data: " + userId);
-                        _message.postValue("Organizer deleted successfully.");
-                        _isUserDeleted.postValue(true);
-                    } else {
-                        Log.e(TAG, "One or more delete tasks failed.");
-                        if (deleteOrganizedEvents.getException() != null) Log.e(TAG, "Events delete failed", deleteOrganizedEvents.getException());
-                        if (deleteFromEntrants.getException() != null) Log.e(TAG, "Entrants delete failed", deleteFromEntrants.getException());
-
-                        _message.postValue("Failed to delete user data completely.");
-                        _isUserDeleted.postValue(false);
-                    }
+                    Log.d(TAG, "Admin successfully deleted user and all associated data: " + userId
+                            + " (" + job.getDeletedCount() + " documents)");
+                    _message.postValue("Organizer deleted successfully.");
+                    _isUserDeleted.postValue(true);
+                })
+                /**
+                 * Logs exception thrown
+                 * @param e exception thrown
+                 */
+                .addOnFailureListener(e -> {
+                    _isLoading.postValue(false);
+                    Log.e(TAG, "deleteOrganizer failed", e);
+                    _message.postValue("Failed to delete user data completely.");
+                    _isUserDeleted.postValue(false);
                 });
     }
 
@@ -577,146 +696,13 @@ public class EventDetailsRepositoryImpl implements IEventDetailsRepository {
         return _isUserDeleted;
     }
 
-    // --- Helper Methods for User Deletion ---
-
-    /**
-     * Deletes all notification documents where 'recipientId' matches the user.
-     *
-     * @param userId The ID of the user whose notifications should be deleted.
-     * @return A Task representing the batch write operation.
-     */
-    private Task<Void> deleteUserNotifications(String userId) {
-        return db.collection("notifications")
-                .whereEqualTo("recipientId", userId)
-                .get()
-                /**
-                 * Continues the query by deleting all returned documents.
-                 *
-                 * @param task The completed query task containing documents to delete.
-                 * @return A task for committing the batch delete, or a null result if no documents exist.
-                 */
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful() || task.getResult().isEmpty()) {
-                        return Tasks.forResult(null);
-                    }
-                    WriteBatch batch = db.batch();
-                    for (DocumentSnapshot doc : task.getResult().getDocuments()) {
-                        batch.delete(doc.getReference());
-                    }
-                    return batch.commit();
-                });
-    }
-
-    /**
-     * Queries all events where organizerId matches the user and deletes them.
-     * <p>
-     * Crucially, this method first fetches and queues deletion for the 'entrants' subcollection
-     * of every event to ensure no orphaned data remains. It waits for all subcollection
-     * fetches to resolve before committing the batch.
-     *
-     * @param userId The organizer's ID.
-     * @return A Task representing the completion of the batch delete.
-     */
-    private Task<Void> deleteEventsOrganizedByUser(String userId) {
-        return db.collection("events")
-                .whereEqualTo("organizerId", userId)
-                .get()
-                /**
-                 * Continues the query by deleting each event and its related subcollections.
-                 *
-                 * @param task The completed query task containing the event documents.
-                 * @return A task that commits the batch delete after all subcollection deletions are prepared.
-                 */
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful() || task.getResult().isEmpty()) {
-                        return Tasks.forResult(null);
-                    }
-
-                    WriteBatch batch = db.batch();
-                    List<Task<Void>> subcollectionTasks = new ArrayList<>();
-
-                    // Iterate through every event organized by this user
-                    for (DocumentSnapshot eventDoc : task.getResult().getDocuments()) {
-                        // 1. Queue a task to fetch and add entrant deletions to the batch
-                        Task<Void> cleanSubcollection = deleteSubcollectionToBatch(eventDoc.getId(), "entrants", batch);
-                        subcollectionTasks.add(cleanSubcollection);
-
-                        // 2. Add the deletion of the Event document itself to the batch
-                        batch.delete(eventDoc.getReference());
-                    }
-
-                    // Wait for all subcollection queries to finish adding to the batch BEFORE committing.
-                    return Tasks.whenAllComplete(subcollectionTasks)
-                            .continueWithTask(t -> batch.commit());
-                });
-    }
-
-    /**
-     * Helper method that fetches a subcollection and adds delete operations to the provided batch.
-     *
-     * @param eventId           The parent event ID.
-     * @param subcollectionName The name of the subcollection (e.g., "entrants").
-     * @param batch             The WriteBatch to add operations to.
-     * @return A Task that completes when the documents have been added to the batch.
-     */
-    private Task<Void> deleteSubcollectionToBatch(String eventId, String subcollectionName, WriteBatch batch) {
-        return db.collection("events").document(eventId).collection(subcollectionName).get()
-                /**
-                 * Continues the task by deleting all documents returned by the query.
-                 *
-                 * @param task The completed query task containing documents to delete.
-                 * @return Always returns null after processing the deletions.
-                 */
-                .continueWith(task -> {
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        for (DocumentSnapshot doc : task.getResult().getDocuments()) {
-                            batch.delete(doc.getReference());
-                        }
-                    }
-                    return null;
-                });
-    }
-
     /**
-     * Removes the user from the waiting list (entrants) of ALL events they have joined.
-     * <p>
-     * This uses a {@code collectionGroup} query to scan all "entrants" collections.
-     * Since the entrants document ID is the User ID, we iterate the results to find matches.
-     *
-     * @param userId The ID of the user to remove.
-     * @return A Task representing the completion of the batch delete.
+     * Logs the progress of a delete job after each page
+     * @param job job being run
      */
-    private Task<Void> removeUserFromAllWaitingLists(String userId) {
-        return db.collectionGroup("entrants")
-                .get()
-                /**
-                 * Continues the query by deleting documents matching the given user ID.
-                 *
-                 * @param task The completed collection group query task.
-                 * @return A task that commits the batch delete if any documents match, or a null result otherwise.
-                 */
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful()) {
-                        Log.e(TAG, "Collection Group Query failed", task.getException());
-                        return Tasks.forResult(null);
-                    }
-
-                    WriteBatch batch = db.batch();
-                    boolean hasDeletions = false;
-
-                    for (DocumentSnapshot doc : task.getResult().getDocuments()) {
-                        if (doc.getId().equals(userId)) {
-                            batch.delete(doc.getReference());
-                            hasDeletions = true;
-                        }
-                    }
-
-                    if (hasDeletions) {
-                        return batch.commit();
-                    } else {
-                        return Tasks.forResult(null);
-                    }
-                });
+    private void logDeleteProgress(DeleteJob job) {
+        Log.d(TAG, "Delete " + job.getJobId() + ": step " + job.getStepIndex() + "/" + job.getSteps().size()
+                + ", " + job.getDeletedCount() + " documents deleted");
     }
 
     /**
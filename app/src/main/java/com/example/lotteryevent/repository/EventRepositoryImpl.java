@@ -2,12 +2,18 @@ package com.example.lotteryevent.repository;
 
 import android.util.Log;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.lotteryevent.data.DrawJournal;
 import com.example.lotteryevent.data.Entrant;
 import com.example.lotteryevent.data.Event;
+import com.example.lotteryevent.data.EventStats;
+import com.example.lotteryevent.utilities.EntrantCounters;
+import com.example.lotteryevent.utilities.RegistrationIndex;
 import com.example.lotteryevent.utilities.FireStoreUtilities;
+import com.example.lotteryevent.utilities.PosterStore;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
@@ -17,10 +23,13 @@ import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Transaction;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -218,7 +227,8 @@ public class EventRepositoryImpl implements IEventRepository {
     }
 
     /**
-     * Updates an attribute of an entrant of an event
+     * Updates an attribute of an entrant of an event.
+     * Status changes also update the event's entrant counters and the entrant's registration.
      * @param eventId event to access its entrants
      * @param entrantId entrant's ID in db
      * @param fieldName attribute of entrants to modify
@@ -227,13 +237,28 @@ public class EventRepositoryImpl implements IEventRepository {
     @Override
     public Task<Void> updateEntrantAttribute(String eventId, String entrantId, String fieldName, Object newValue) {
         DocumentReference entrantRef = db.collection("events").document(eventId).collection("entrants").document(entrantId);
-        return entrantRef.update(fieldName, newValue)
+        /**
+         * Updates the field, adjusting the event's counters in the same transaction if the status changes
+         * @param transaction transaction to run the reads and writes in
+         */
+        return db.runTransaction(transaction -> {
+                    DocumentSnapshot entrant = transaction.get(entrantRef);
+                    transaction.update(entrantRef, fieldName, newValue);
+                    if ("status".equals(fieldName)) {
+                        RegistrationIndex.put(transaction, db, entrantId, eventId, null, String.valueOf(newValue));
+                        EntrantCounters.applyTransition(transaction, db, eventId, entrant.getString("status"), String.valueOf(newValue));
+                    }
+                    return (Void) null;
+                })
                 /**
                  * Logs update success
                  * @param query unusable data
                  */
                 .addOnSuccessListener(query -> {
                     _userMessage.postValue("Entrant updated successfully");
+                    if ("status".equals(fieldName)) {
+                        EntrantCounters.schedulePublish(db, eventId);
+                    }
                 })
                 /**
                  * Logs failure
@@ -242,6 +267,153 @@ public class EventRepositoryImpl implements IEventRepository {
                 .addOnFailureListener(e -> _userMessage.postValue("Error updating entrant"));
     }
 
+    /**
+     * Fetches one page of the IDs of an event's entrants that currently have the given status,
+     * ordered by ID
+     * @param eventId event to access its entrants
+     * @param status status entrants must have (e.g. "waiting")
+     * @param startAfterId last ID of the previous page, or null for the first page
+     * @param limit maximum number of IDs in the page
+     * @return task resolving to the matching entrant IDs; fewer than {@code limit} means it is the last page
+     */
+    @Override
+    public Task<List<String>> fetchEntrantIdsByStatus(String eventId, String status, @Nullable String startAfterId, int limit) {
+        Query query = db.collection("events").document(eventId).collection("entrants")
+                .whereEqualTo("status", status)
+                .orderBy(FieldPath.documentId())
+                .limit(limit);
+        if (startAfterId != null) {
+            query = query.startAfter(startAfterId);
+        }
+        return query.get()
+                /**
+                 * Extracts the entrant IDs from the query result
+                 * @param task contains entrants with the given status
+                 */
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    List<String> ids = new ArrayList<>();
+                    for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                        ids.add(doc.getId());
+                    }
+                    return ids;
+                });
+    }
+
+    /**
+     * Fetches the journal of a draw
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return task resolving to the journal, failing if it does not exist
+     */
+    @Override
+    public Task<DrawJournal> fetchDrawJournal(String eventId, String drawId) {
+        return db.collection("events").document(eventId)
+                .collection("draws").document(drawId)
+                .get()
+                /**
+                 * Maps the journal document, failing if it is missing
+                 * @param snapshot the draw journal document
+                 */
+                .onSuccessTask(snapshot -> {
+                    DrawJournal journal = snapshot.toObject(DrawJournal.class);
+                    if (journal == null) {
+                        throw new IllegalStateException("Draw " + drawId + " not found");
+                    }
+                    return Tasks.forResult(journal);
+                });
+    }
+
+    /**
+     * Marks a draw as confirmed so its journal can no longer be rolled back. The journal is read
+     * in the same transaction, so a draw that is being or was rolled back is never confirmed.
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return task completing when the journal is updated, failing if the draw is not pending
+     */
+    @Override
+    public Task<Void> confirmDraw(String eventId, String drawId) {
+        DocumentReference journalRef = db.collection("events").document(eventId)
+                .collection("draws").document(drawId);
+        /**
+         * Confirms the journal only if it is still pending
+         * @param transaction transaction reading and updating the journal
+         */
+        return db.runTransaction(transaction -> {
+            DrawJournal journal = readJournal(transaction, journalRef);
+            journal.confirm();
+            transaction.update(journalRef, "status", journal.getStatus());
+            return null;
+        });
+    }
+
+    /**
+     * Undoes a draw using its journal.
+     * <p>
+     *     The journal is first moved to rolling back in a transaction that refuses a confirmed
+     *     draw, so the draw cannot be confirmed while its entrants are restored. Only the entrants
+     *     the draw invited are written, in chunked transactions that skip anyone no longer invited,
+     *     so the cost of undoing a draw depends on the number of entrants drawn rather than on the
+     *     size of the waiting list. The journal is marked rolled back afterwards, making a repeated
+     *     rollback a no-op; a rollback interrupted before that is resumed by the next one.
+     * </p>
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return task completing when every recorded entrant is restored
+     */
+    @Override
+    public Task<Void> rollbackDraw(String eventId, String drawId) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference journalRef = eventRef.collection("draws").document(drawId);
+        /**
+         * Moves the journal to rolling back unless it was confirmed
+         * @param transaction transaction reading and updating the journal
+         */
+        return db.runTransaction(transaction -> {
+                    DrawJournal journal = readJournal(transaction, journalRef);
+                    if (!journal.startRollback()) {
+                        return null;
+                    }
+                    transaction.update(journalRef, "status", journal.getStatus());
+                    return journal;
+                })
+                /**
+                 * Restores the journaled entrants' previous status, then marks the journal rolled back
+                 * @param journal the journal being rolled back, or null if it already was
+                 */
+                .onSuccessTask(journal -> {
+                    if (journal == null) {
+                        return Tasks.forResult(null);
+                    }
+                    return EntrantCounters.changeStatuses(db, eventId, journal.getInvitedEntrantIds(),
+                                    "invited", journal.getPreviousStatus())
+                            /**
+                             * Marks the journal rolled back once every entrant is restored
+                             * @param restored IDs of the entrants that were still invited and were restored
+                             */
+                            .onSuccessTask(restored -> journalRef.update("status", DrawJournal.STATUS_ROLLED_BACK));
+                });
+    }
+
+    /**
+     * Reads a draw journal inside a transaction
+     * @param transaction transaction to read in
+     * @param journalRef the draw journal document
+     * @return the journal
+     * @throws FirebaseFirestoreException if the journal cannot be read
+     * @throws IllegalStateException if the journal does not exist
+     */
+    private static DrawJournal readJournal(Transaction transaction, DocumentReference journalRef)
+            throws FirebaseFirestoreException {
+        DrawJournal journal = transaction.get(journalRef).toObject(DrawJournal.class);
+        if (journal == null || journal.getInvitedEntrantIds() == null) {
+            throw new IllegalStateException("Draw " + journalRef.getId() + " not found");
+        }
+        return journal;
+    }
+
     /**
      * Creates a new event in Firebase
      * The result (success or failure) will be posted to the message LiveData
@@ -272,16 +444,44 @@ public class EventRepositoryImpl implements IEventRepository {
                     event.setOrganizerId(userId);
                     event.setOrganizerName(organizerName);
 
-                    // Step 3: Add the fully formed event to the "events" collection.
-                    db.collection("events").add(event)
+                    // Step 3: Add the fully formed event to the "events" collection,
+                    // together with its zeroed entrant counters.
+                    DocumentReference eventRef = db.collection("events").document();
+                    EventStats stats = new EventStats();
+                    stats.setInitialized(true);
+
+                    // A poster handed over inline is moved to the poster store in the same
+                    // transaction as the event, so the event document only keeps its ID and a
+                    // failed save leaves no poster behind.
+                    String poster = event.getPosterImageUrl();
+                    Task<PosterStore.Upload> upload = poster == null || poster.isEmpty()
+                            ? Tasks.forResult(null)
+                            : PosterStore.prepare(db, poster);
+
+                    upload
+                            /**
+                             * Saves the event, its counters and its poster together
+                             * @param prepared the encoded poster, null if the event has none
+                             */
+                            .onSuccessTask(prepared -> db.runTransaction(transaction -> {
+                                if (prepared != null) {
+                                    Long refs = PosterStore.refCount(transaction, db, prepared.getPosterId());
+                                    PosterStore.acquire(transaction, db, prepared, refs);
+                                    event.setPosterId(prepared.getPosterId());
+                                    event.setPosterImageUrl(null);
+                                }
+                                transaction.set(eventRef, event);
+                                transaction.set(EntrantCounters.countsRef(db, eventRef.getId()), stats);
+                                return (Void) null;
+                            }))
                             /**
                              * Logs save success
-                             * @param documentReference contains reference to doc saved
+                             * @param aVoid unusable data
                              */
-                            .addOnSuccessListener(documentReference -> {
+                            .addOnSuccessListener(aVoid -> {
                                 _isLoading.setValue(false);
                                 _userMessage.setValue("Event created successfully!");
-                                Log.d(TAG, "Event created with ID: " + documentReference.getId());
+                                Log.d(TAG, "Event created with ID: " + eventRef.getId());
                             })
                             /**
                              * Logs exception thrown
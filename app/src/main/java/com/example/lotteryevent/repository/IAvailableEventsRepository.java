@@ -11,6 +11,19 @@ import java.util.List;
  */
 public interface IAvailableEventsRepository {
 
+    /**
+     * Receives the events each update adds, changes or drops, instead of the whole list
+     */
+    interface OnEventsChangedListener {
+        /**
+         * Called on the main thread after an update of the loaded events
+         * @param upserted events added or changed, in list order
+         * @param removedIds IDs of events no longer loaded
+         * @param reset true if every event previously reported is dropped before applying the changes
+         */
+        void onEventsChanged(List<Event> upserted, List<String> removedIds, boolean reset);
+    }
+
     /**
 
      Returns a LiveData object holding the list of available events.
@@ -37,6 +50,29 @@ public interface IAvailableEventsRepository {
      */
     void fetchAvailableEvents();
 
+    /**
+     * Fetches the next page of events after those already loaded.
+     */
+    void loadMoreEvents();
+
+    /**
+     * Drops loaded pages lying far below the last visible event, to bound memory.
+     * @param eventId ID of the last visible event
+     */
+    void evictEventsBelow(String eventId);
+
+    /**
+     * Registers a listener for the changes of each update to the loaded events.
+     * @param listener listener to notify
+     */
+    void addOnEventsChangedListener(OnEventsChangedListener listener);
+
+    /**
+     * Unregisters a listener added by {@link #addOnEventsChangedListener}.
+     * @param listener listener to remove
+     */
+    void removeOnEventsChangedListener(OnEventsChangedListener listener);
+
     /**
      * Removes the listener used to fetch events from the data source.
      */
@@ -50,6 +50,18 @@ public interface IEntrantListRepository {
      */
     void notifyEntrant(String uid, String eventId, String organizerMessage);
 
+    /**
+     * Sends the same organizer message to many entrants of an event at once. The event and
+     * organizer details are looked up a single time and the notifications are written in
+     * batches, with one aggregated outcome reported through {@link #getUserMessage()}.
+     * @param uids the unique identifiers of the entrants to notify
+     * @param eventId the unique identifier of the event associated with the
+     *                notifications
+     * @param organizerMessage the custom text content that the event organizer wishes to
+     *                         send to the entrants
+     */
+    void notifyEntrants(List<String> uids, String eventId, String organizerMessage);
+
     /**
      * LiveData for user-facing messages
      * @return String with message
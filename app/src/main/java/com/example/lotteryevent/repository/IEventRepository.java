@@ -1,7 +1,9 @@
 package com.example.lotteryevent.repository;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 
+import com.example.lotteryevent.data.DrawJournal;
 import com.example.lotteryevent.data.Entrant;
 import com.example.lotteryevent.data.Event;
 import com.google.android.gms.tasks.Task;
@@ -94,4 +96,39 @@ public interface IEventRepository {
      * @param newValue new value to set
      */
     Task<Void> updateEntrantAttribute(String eventId, String entrantId, String fieldName, Object newValue);
-}
\ No newline at end of file
+
+    /**
+     * Fetches one page of the IDs of an event's entrants that currently have the given status,
+     * ordered by ID
+     * @param eventId event to access its entrants
+     * @param status status entrants must have (e.g. "waiting")
+     * @param startAfterId last ID of the previous page, or null for the first page
+     * @param limit maximum number of IDs in the page
+     * @return task resolving to the matching entrant IDs; fewer than {@code limit} means it is the last page
+     */
+    Task<List<String>> fetchEntrantIdsByStatus(String eventId, String status, @Nullable String startAfterId, int limit);
+
+    /**
+     * Fetches the journal of a draw
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return task resolving to the journal, failing if it does not exist
+     */
+    Task<DrawJournal> fetchDrawJournal(String eventId, String drawId);
+
+    /**
+     * Marks a draw as confirmed so its journal can no longer be rolled back
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return task completing when the journal is updated
+     */
+    Task<Void> confirmDraw(String eventId, String drawId);
+
+    /**
+     * Undoes a draw by returning only the entrants recorded in its journal to their previous status
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return task completing when every recorded entrant is restored
+     */
+    Task<Void> rollbackDraw(String eventId, String drawId);
+}
@@ -32,6 +32,12 @@ public interface INotificationRepository {
      */
     LiveData<List<Notification>> getNotificationsForEvent();
 
+    /**
+     * Fetches the next page of older notifications into {@link #getNotifications()}.
+     * Only the newest page is kept up to date in real-time.
+     */
+    void loadMoreNotifications();
+
     /**
      * Marks a specific notification as 'seen' in the database.
      * @param notificationId The ID of the notification to update.
@@ -39,6 +45,12 @@ public interface INotificationRepository {
      */
     void markNotificationAsSeen(String notificationId, NotificationCustomManager notificationCustomManager);
 
+    /**
+     * Marks every unseen notification of the current user as 'seen' in the database.
+     * @param notificationCustomManager notification custom manager used to remove notif banners
+     */
+    void markAllNotificationsAsSeen(NotificationCustomManager notificationCustomManager);
+
     /**
      * Detaches the real-time Firestore listener to prevent memory leaks.
      * This must be called when the data is no longer needed.
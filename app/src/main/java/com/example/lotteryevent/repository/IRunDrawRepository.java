@@ -63,22 +63,11 @@ public interface IRunDrawRepository {
     LiveData<Boolean> getCancelSuccess();
 
     /**
-     * LiveData for old entrant statuses
-     * @return statuses
+     * LiveData for the ID of the draw journal written by the last draw.
+     * The draw result itself is kept in the DrawSessionStore under this ID.
+     * @return draw ID
      */
-    public LiveData<String> getOldEntrantsStatus();
-
-    /**
-     * LiveData of new chosen entrants
-     * @return chosen entrants
-     */
-    public LiveData<String> getNewChosenEntrants();
-
-    /**
-     * LiveData of new unchosen entrants
-     * @return unchosen entrants
-     */
-    public LiveData<String> getNewUnchosenEntrants();
+    public LiveData<String> getDrawId();
 
     /**
      * Loads event metrics:
@@ -97,6 +86,7 @@ public interface IRunDrawRepository {
      * <ul>
      *     <li>Retrieve waitlist entrants</li>
      *     <li>Randomly selects required number of entrants</li>
+     *     <li>Record the invited entrants in a draw journal</li>
      *     <li>Update firestore with "invited" status</li>
      * </ul>
      * @param eventId
@@ -9,14 +9,23 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.lotteryevent.NotificationCustomManager;
 import com.example.lotteryevent.data.Notification;
+import com.example.lotteryevent.utilities.BroadcastResolver;
+import com.example.lotteryevent.utilities.UnreadNotifications;
+import com.example.lotteryevent.utilities.UserNameResolver;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implements INotificationRepository
@@ -32,7 +41,23 @@ public class NotificationRepositoryImpl implements INotificationRepository {
     private final MutableLiveData<Boolean> _isLoading = new MutableLiveData<>();
     private final MutableLiveData<String> _message = new MutableLiveData<>();
 
+    /**
+     * Number of notifications in the live newest page and in each older page
+     */
+    static final int PAGE_SIZE = 30;
+
     private ListenerRegistration listenerRegistration;
+    private final AtomicInteger snapshotGeneration = new AtomicInteger();
+
+    // Inbox paging state, only touched on the main thread by Firestore callbacks
+    private Query inboxQuery;
+    private final Map<String, Notification> livePage = new HashMap<>();
+    private List<Notification> liveNotifications = new ArrayList<>();
+    private final List<Notification> olderNotifications = new ArrayList<>();
+    private DocumentSnapshot lastLiveDoc;
+    private DocumentSnapshot olderCursor;
+    private boolean hasMore;
+    private boolean loadingMore;
 
 
     /**
@@ -71,7 +96,8 @@ public class NotificationRepositoryImpl implements INotificationRepository {
     }
 
     /**
-     * Attaches listener to get notifications
+     * Attaches a real-time listener to the newest page of the user's notifications. Only changed
+     * documents are deserialized; older pages are fetched on demand by {@link #loadMoreNotifications()}.
      */
     private void attachListener() {
         FirebaseUser currentUser = mAuth.getCurrentUser();
@@ -81,13 +107,15 @@ public class NotificationRepositoryImpl implements INotificationRepository {
         }
         _isLoading.postValue(true);
 
-        // This is the real-time listener
-        listenerRegistration = db.collection("notifications")
+        inboxQuery = db.collection("notifications")
                 .whereEqualTo("recipientId", currentUser.getUid())
-                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .orderBy("timestamp", Query.Direction.DESCENDING);
+
+        // This is the real-time listener
+        listenerRegistration = inboxQuery.limit(PAGE_SIZE)
                 /**
-                 * Adds notification of the recipient to a list and posts to mutable live data if successful, otherwise logs exception thrown
-                 * @param value contains notif docs
+                 * Updates the newest page from the changed notifications and posts it with the older pages, otherwise logs exception thrown
+                 * @param value contains notif docs of the newest page
                  * @param error exception thrown
                  */
                 .addSnapshotListener((value, error) -> {
@@ -99,17 +127,159 @@ public class NotificationRepositoryImpl implements INotificationRepository {
                     }
 
                     if (value != null) {
-                        List<Notification> notificationList = new ArrayList<>();
+                        List<Notification> removed = new ArrayList<>();
+                        UnreadNotifications unread = UnreadNotifications.getInstance();
+                        DocumentSnapshot newLast = value.isEmpty() ? null : value.getDocuments().get(value.size() - 1);
+                        for (DocumentChange dc : value.getDocumentChanges()) {
+                            String id = dc.getDocument().getId();
+                            if (dc.getType() == DocumentChange.Type.REMOVED) {
+                                Notification old = livePage.remove(id);
+                                // A full page only loses a notification ranked below its new last one by
+                                // being pushed off; anything else leaving the page was deleted
+                                if (old != null && value.size() >= PAGE_SIZE && ranksAfter(dc.getDocument(), newLast)) {
+                                    removed.add(old);
+                                } else {
+                                    unread.remove(id);
+                                }
+                            } else {
+                                Notification notification = dc.getDocument().toObject(Notification.class);
+                                livePage.put(id, notification);
+                                if (notification.getSeen() == Boolean.TRUE) {
+                                    unread.remove(id);
+                                } else {
+                                    unread.add(id);
+                                }
+                            }
+                        }
+                        // a newer notification pushes the oldest one off the page; keep it ahead of the older pages already loaded
+                        if (!olderNotifications.isEmpty()) {
+                            olderNotifications.addAll(0, removed);
+                            // a deletion pulls the newest older notification up into the page
+                            olderNotifications.removeIf(n -> livePage.containsKey(n.getNotificationId()));
+                        }
+
+                        List<Notification> page = new ArrayList<>();
                         for (DocumentSnapshot doc : value.getDocuments()) {
-                            notificationList.add(doc.toObject(Notification.class));
+                            page.add(livePage.get(doc.getId()));
+                        }
+                        lastLiveDoc = newLast;
+                        if (olderCursor == null) {
+                            hasMore = value.size() >= PAGE_SIZE;
                         }
-                        _notifications.postValue(notificationList);
+
+                        int generation = snapshotGeneration.incrementAndGet();
+                        BroadcastResolver.resolve(db, page)
+                                /**
+                                 * Posts the notifications with their broadcast content, unless a newer snapshot arrived meanwhile
+                                 * @param resolved notifications with their content filled in
+                                 */
+                                .addOnSuccessListener(resolved -> {
+                                    if (generation == snapshotGeneration.get()) {
+                                        liveNotifications = resolved;
+                                        postInbox();
+                                        reportUnresolved(resolved);
+                                    }
+                                });
                     }
                 });
     }
 
     /**
-     * Marks a specific notification as 'seen' in the database.
+     * Fetches the next page of older notifications after the last one loaded. Does nothing if a
+     * page is already loading or every notification has been loaded.
+     */
+    @Override
+    public void loadMoreNotifications() {
+        DocumentSnapshot cursor = olderCursor != null ? olderCursor : lastLiveDoc;
+        if (inboxQuery == null || cursor == null || loadingMore || !hasMore) {
+            return;
+        }
+        loadingMore = true;
+
+        inboxQuery.startAfter(cursor).limit(PAGE_SIZE).get()
+                /**
+                 * Moves the cursor past the page and resolves its broadcast content
+                 * @param snapshot contains the page's notif docs
+                 */
+                .onSuccessTask(snapshot -> {
+                    List<Notification> page = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        page.add(doc.toObject(Notification.class));
+                    }
+                    if (!snapshot.isEmpty()) {
+                        olderCursor = snapshot.getDocuments().get(snapshot.size() - 1);
+                    }
+                    hasMore = snapshot.size() >= PAGE_SIZE;
+                    return BroadcastResolver.resolve(db, page);
+                })
+                /**
+                 * Appends the page after the notifications already shown
+                 * @param resolved notifications of the page with their content filled in
+                 */
+                .addOnSuccessListener(resolved -> {
+                    olderNotifications.addAll(resolved);
+                    postInbox();
+                    reportUnresolved(resolved);
+                })
+                /**
+                 * Logs exception thrown
+                 * @param e exception thrown
+                 */
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load older notifications", e);
+                    _message.postValue("Failed to load older notifications.");
+                })
+                /**
+                 * Allows the next page to be requested
+                 * @param task unusable data
+                 */
+                .addOnCompleteListener(task -> loadingMore = false);
+    }
+
+    /**
+     * Checks whether a notification comes after another in the inbox order, newest first with
+     * ties broken by descending document ID as Firestore does
+     * @param doc notification to place
+     * @param last last notification of the live page, may be null
+     * @return true if doc ranks after last
+     */
+    private static boolean ranksAfter(DocumentSnapshot doc, DocumentSnapshot last) {
+        if (last == null) {
+            return false;
+        }
+        Timestamp time = doc.getTimestamp("timestamp");
+        Timestamp lastTime = last.getTimestamp("timestamp");
+        if (time == null || lastTime == null) {
+            return false;
+        }
+        int order = time.compareTo(lastTime);
+        return order < 0 || (order == 0 && doc.getId().compareTo(last.getId()) < 0);
+    }
+
+    /**
+     * Tells the user when some broadcast content could not be fetched. Those notifications are
+     * shown with placeholder content and fetched again on the next refresh.
+     * @param resolved notifications returned by the resolver
+     */
+    private void reportUnresolved(List<Notification> resolved) {
+        if (BroadcastResolver.hasUnresolved(resolved)) {
+            _message.postValue("Some notifications could not be loaded. Refresh to try again.");
+        }
+    }
+
+    /**
+     * Posts the newest page followed by the older pages loaded so far
+     */
+    private void postInbox() {
+        List<Notification> inbox = new ArrayList<>(liveNotifications.size() + olderNotifications.size());
+        inbox.addAll(liveNotifications);
+        inbox.addAll(olderNotifications);
+        _notifications.postValue(inbox);
+    }
+
+    /**
+     * Marks a specific notification as 'seen' in the database with a single write. The inbox is
+     * updated locally right away, and banners are cleared from the local unread set.
      * @param notificationId The ID of the notification to update.
      * @param notificationCustomManager notification custom manager used to remove notif banners
      */
@@ -117,75 +287,77 @@ public class NotificationRepositoryImpl implements INotificationRepository {
     public void markNotificationAsSeen(String notificationId, NotificationCustomManager notificationCustomManager) {
         if (notificationId == null || notificationId.isEmpty()) return;
 
-        db.collection("notifications").document(notificationId).get()
+        Integer knownBannerId = null;
+        for (Notification notification : markSeenInInbox(notificationId)) {
+            knownBannerId = notification.getNotifBannerId();
+        }
+        postInbox();
+
+        notificationCustomManager.markNotificationAsSeen(notificationId, knownBannerId)
                 /**
-                 * Sets a notif's seen as true and removes its notif banner
-                 * @param doc contains notif
+                 * Logs exception thrown
+                 * @param e exception thrown
                  */
-                .addOnSuccessListener(doc -> {
-
-                    Long notifBannerIdLong = doc.getLong("notifBannerId");
-                    String recipientId = doc.getString("recipientId");
-                    Integer notifBannerId;
-                    if (notifBannerIdLong != null) {
-                        notifBannerId = notifBannerIdLong.intValue();
-                    } else {
-                        notifBannerId = null;
-                    }
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error marking notification as seen", e);
+                    _message.postValue("Failed to update notification status.");
+                });
+    }
 
-                    // sets notification seen as true in db
-                    db.collection("notifications").document(notificationId)
-                            .update("seen", true)
-                            /**
-                             * Removed notif's banner if it exists and all notif banners if all notifs now seen
-                             * @param aVoid unusable data
-                             */
-                            .addOnSuccessListener(aVoid -> {
-                                Log.d(TAG, "Notification " + notificationId + " marked as seen.");
+    /**
+     * Marks every unseen notification of the user as 'seen' through batched writes, including
+     * those on pages not loaded yet.
+     * @param notificationCustomManager notification custom manager used to remove notif banners
+     */
+    @Override
+    public void markAllNotificationsAsSeen(NotificationCustomManager notificationCustomManager) {
+        FirebaseUser currentUser = mAuth.getCurrentUser();
+        if (currentUser == null) {
+            _message.postValue("You must be signed in to view notifications.");
+            return;
+        }
 
-                                // clears the notif's system banner if it exists
-                                if (notifBannerId != null) {
-                                    notificationCustomManager.clearNotification(notifBannerId);
-                                }
+        markSeenInInbox(null);
+        postInbox();
 
-                                if (recipientId != null) {
-                                    // if all notifs seen, clear all system banners
-                                    db.collection("notifications").whereEqualTo("recipientId", recipientId).whereEqualTo("seen", false).get()
-                                            /**
-                                             * Clears all notif banners
-                                             * @param query contains unseen notifs
-                                             */
-                                            .addOnSuccessListener(query -> {
-                                                if (query.isEmpty()) {
-                                                    notificationCustomManager.clearNotifications();
-                                                }
-                                            })
-                                            /**
-                                             * Logs exception thrown
-                                             * @param e exception thrown
-                                             */
-                                            .addOnFailureListener(e -> Log.e(TAG, "Error getting remaining unseen notifications", e));
-                                }
-                            })
-                            /**
-                             * Logs exception thrown
-                             * @param e exception thrown
-                             */
-                            .addOnFailureListener(e -> {
-                                Log.e(TAG, "Error marking notification as seen", e);
-                                _message.postValue("Failed to update notification status.");
-                            });
-                })
+        notificationCustomManager.markAllNotificationsAsSeen(currentUser.getUid(), null)
+                /**
+                 * Logs how many notifications were updated
+                 * @param result outcome of the batched writes
+                 */
+                .addOnSuccessListener(result -> Log.d(TAG, "Marked " + result.getCommittedOps() + " notifications as seen."))
                 /**
                  * Logs exception thrown
                  * @param e exception thrown
                  */
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch notification", e);
-                    _message.postValue("Failed to fetch notification.");
+                    Log.e(TAG, "Error marking all notifications as seen", e);
+                    _message.postValue("Failed to mark all notifications as seen.");
                 });
     }
 
+    /**
+     * Replaces the loaded copies of a notification in the inbox with seen copies. The posted
+     * notifications are never changed in place, so the inbox adapter can tell what changed.
+     * @param notificationId The ID of the notification, or null to mark every loaded notification
+     * @return the seen copies on the live and older pages
+     */
+    private List<Notification> markSeenInInbox(String notificationId) {
+        List<Notification> matches = new ArrayList<>();
+        for (List<Notification> page : Arrays.asList(liveNotifications, olderNotifications)) {
+            for (int i = 0; i < page.size(); i++) {
+                Notification notification = page.get(i);
+                if (notificationId == null || notificationId.equals(notification.getNotificationId())) {
+                    Notification seen = notification.copy();
+                    seen.setSeen(true);
+                    page.set(i, seen);
+                    matches.add(seen);
+                }
+            }
+        }
+        return matches;
+    }
+
     /**
      * Detaches the real-time Firestore listener to prevent memory leaks.
      * This must be called when the data is no longer needed.
@@ -228,10 +400,17 @@ public class NotificationRepositoryImpl implements INotificationRepository {
                             result.add(eventNoti);
                         }
                     }
-                    targetLiveData.setValue(result);
-                    _isLoading.setValue(false);
-                    _notificationsForEvent.postValue(result);
-                    _isLoading.postValue(false);
+                    BroadcastResolver.resolve(db, result)
+                            /**
+                             * Posts the event's notifications with their broadcast content
+                             * @param resolved notifications with their content filled in
+                             */
+                            .addOnSuccessListener(resolved -> {
+                                targetLiveData.setValue(resolved);
+                                _notificationsForEvent.postValue(resolved);
+                                _isLoading.postValue(false);
+                                reportUnresolved(resolved);
+                            });
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error fetching notifications for eventId=" + eventId, e);
@@ -244,8 +423,9 @@ public class NotificationRepositoryImpl implements INotificationRepository {
     /**
      * Fetches the display name of a user based on their User ID.
      * <p>
-     * This is commonly used in Admin views to translate a recipient ID into a readable name.
-     * The result is returned asynchronously via the provided callback.
+     * This is commonly used in Admin views to translate a recipient ID into a readable name,
+     * only when a notification is opened. Names already looked up, here or by another admin
+     * screen, are served from the shared {@link UserNameResolver} cache without a read.
      *
      * @param userId   The unique ID of the user to look up.
      * @param callback The callback interface to handle the result (name or error string).
@@ -257,15 +437,8 @@ public class NotificationRepositoryImpl implements INotificationRepository {
             return;
         }
 
-        db.collection("users").document(userId).get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String name = documentSnapshot.getString("name");
-                        callback.onCallback(name != null ? name : "Unknown User");
-                    } else {
-                        callback.onCallback("User not found");
-                    }
-                })
+        UserNameResolver.resolve(db, userId)
+                .addOnSuccessListener(callback::onCallback)
                 .addOnFailureListener(e -> callback.onCallback("Error fetching name"));
     }
-}
\ No newline at end of file
+}
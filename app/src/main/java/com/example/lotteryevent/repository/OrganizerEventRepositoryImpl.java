@@ -7,15 +7,14 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.lotteryevent.data.Entrant;
 import com.example.lotteryevent.data.Event;
+import com.example.lotteryevent.data.EventStats;
+import com.example.lotteryevent.utilities.EntrantCounters;
+import com.example.lotteryevent.utilities.PosterStore;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.AggregateQuery;
-import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -209,17 +208,14 @@ public class OrganizerEventRepositoryImpl implements IOrganizerEventRepository {
             return;
         }
 
-        Query query = db.collection("events").document(eventId).collection("entrants")
-                .whereIn("status", Arrays.asList("invited", "accepted"));
-
-        AggregateQuery countQuery = query.count();
         /**
-         * Gets capacity count and posts whether the current count is less than capacity to mutable live data
-         * @param task result of aggregate query getting capacity count
+         * Posts whether the invited and accepted entrants still leave room under capacity to mutable live data
+         * @param task result of loading the event's entrant counters
          */
-        countQuery.get(AggregateSource.SERVER).addOnCompleteListener(task -> {
+        EntrantCounters.load(db, eventId).addOnCompleteListener(task -> {
             if (task.isSuccessful() && task.getResult() != null) {
-                long currentCount = task.getResult().getCount();
+                EventStats stats = task.getResult();
+                long currentCount = stats.getInvited() + stats.getAccepted();
                 // The button is enabled if the count is LESS THAN capacity.
                 _isRunDrawButtonEnabled.postValue(currentCount < event.getCapacity());
             } else {
@@ -231,7 +227,9 @@ public class OrganizerEventRepositoryImpl implements IOrganizerEventRepository {
     }
 
     /**
-     * Updates the poster image (Base64) for the specified event.
+     * Updates the poster image for the specified event. The image is stored in the poster store
+     * and the event only keeps its ID; the previous poster is released in the same transaction
+     * and deleted once no event uses it.
      * @param eventId The ID of the event to update.
      * @param posterImageUrl The Base64-encoded poster image data.
      */
@@ -242,14 +240,12 @@ public class OrganizerEventRepositoryImpl implements IOrganizerEventRepository {
             return;
         }
 
-        db.collection("events")
-                .document(eventId)
-                .update("posterImageUrl", posterImageUrl)
+        PosterStore.attach(db, eventId, posterImageUrl)
                 /**
                  * Logs update success
-                 * @param aVoid unusable data
+                 * @param posterId ID of the new poster
                  */
-                .addOnSuccessListener(aVoid ->
+                .addOnSuccessListener(posterId ->
                         Log.d("OrganizerEventRepo", "Poster updated successfully for event: " + eventId))
                 /**
                  * Logs exception thrown
@@ -6,20 +6,31 @@ import android.content.Context;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.example.lotteryevent.data.Entrant;
+import com.example.lotteryevent.data.DrawJournal;
+import com.example.lotteryevent.utilities.BatchWriter;
+import com.example.lotteryevent.utilities.DrawRanks;
+import com.example.lotteryevent.utilities.DrawSessionStore;
+import com.example.lotteryevent.utilities.EntrantCounters;
 import com.example.lotteryevent.utilities.FireStoreUtilities;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.WriteBatch;
-import com.google.gson.Gson;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
 
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.IntConsumer;
+import java.util.Set;
 
 /**
  * Run Draw repository that handles all firestore operations for running draw and loading event metrics
@@ -28,8 +39,9 @@ import java.util.function.IntConsumer;
  *     This repository:
  *     <ul>
  *         <li>Loads waiting list, selected entrants and available space metrics</li>
- *         <li>Executes draw by randomly selecting specified number of entrants</li>
- *         <li>Updates entrant status to "invited" in firestore using batch</li>
+ *         <li>Executes draw by uniformly selecting specified number of entrants, reading about one entrant per winner</li>
+ *         <li>Updates entrant status to "invited" in firestore using chunked batches</li>
+ *         <li>Records each draw in an undo journal holding only the invited entrants</li>
  *         <li>Cancels draw and returns invited users back to waiting list</li>
  *         <li>Exposes Livedata to viewmodel</li>
  *     </ul>
@@ -40,6 +52,12 @@ public class RunDrawRepositoryImpl implements IRunDrawRepository{
     private static final String TAG = "RunDrawRepository";
 
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    /**
+     * Rounds of probes tried before a draw falls back to a full scan
+     */
+    static final int MAX_PROBE_ROUNDS = 8;
+
+    private final SecureRandom random = new SecureRandom();
     private final Context context;
 
     // LiveData outputs shown to ViewModel
@@ -51,9 +69,7 @@ public class RunDrawRepositoryImpl implements IRunDrawRepository{
     private final MutableLiveData<Boolean> _drawSuccess = new MutableLiveData<>(false);
     private final MutableLiveData<Boolean> _cancelSuccess = new MutableLiveData<>(false);
 
-    private final MutableLiveData<String> _oldEntrantsStatus = new MutableLiveData<>();
-    private final MutableLiveData<String> _newChosenEntrants = new MutableLiveData<>();
-    private final MutableLiveData<String> _newUnchosenEntrants = new MutableLiveData<>();
+    private final MutableLiveData<String> _drawId = new MutableLiveData<>();
 
     /**
      * Assigns context on instance creation
@@ -113,25 +129,11 @@ public class RunDrawRepositoryImpl implements IRunDrawRepository{
     public LiveData<Boolean> getCancelSuccess() { return _cancelSuccess; }
 
     /**
-     * LiveData for old entrant statuses
-     * @return statuses
-     */
-    @Override
-    public LiveData<String> getOldEntrantsStatus() { return _oldEntrantsStatus; }
-
-    /**
-     * LiveData of new chosen entrants
-     * @return chosen entrants
-     */
-    @Override
-    public LiveData<String> getNewChosenEntrants() { return _newChosenEntrants; }
-
-    /**
-     * LiveData of new unchosen entrants
-     * @return unchosen entrants
+     * LiveData for the ID of the draw journal written by the last draw
+     * @return draw ID
      */
     @Override
-    public LiveData<String> getNewUnchosenEntrants() { return _newUnchosenEntrants; }
+    public LiveData<String> getDrawId() { return _drawId; }
 
     /**
      * Loads waiting list count, selected count, available space count
@@ -153,6 +155,23 @@ public class RunDrawRepositoryImpl implements IRunDrawRepository{
 
     /**
      * Runs lottery draw
+     * <p>
+     *     Every entrant takes a draw rank when joining the waiting list: the next of the ranks
+     *     handed out by one counter shard, so the ranks of an event form a dense range without
+     *     any shared counter. Each winner is picked by probing a uniformly random rank and reading
+     *     the entrant holding it. Probes landing on a rank freed by an entrant who left or was
+     *     invited, or on an entrant already chosen, are rejected and drawn again, so every
+     *     accepted probe is uniform over the waiting entrants not yet chosen. Ranks never need to
+     *     be reassigned between draws. About one document is read per winner while most ranks
+     *     still belong to waiting entrants.
+     * </p>
+     * <p>
+     *     Two count queries first check that every waiting entrant has a rank. If some joined before
+     *     ranks existed, the draw takes more than half of the waiting list, too many ranks were
+     *     freed, or the winners would need more probes than {@link #MAX_PROBE_ROUNDS} rounds allow
+     *     (see {@link DrawRanks#worthProbing}), the draw goes straight to a full scan, which also
+     *     gives the unranked entrants a rank for later draws.
+     * </p>
      * @param eventId
      * Event we run draw for
      * @param numToSelect
@@ -160,120 +179,251 @@ public class RunDrawRepositoryImpl implements IRunDrawRepository{
      */
     @Override
     public void runDraw(String eventId, int numToSelect) {
-        Gson gson = new Gson();
-
         _isLoading.postValue(true);
 
-        db.collection("events").document(eventId).collection("entrants")
-            .get()
+        CollectionReference entrants = db.collection("events").document(eventId).collection("entrants");
+        Query waiting = entrants.whereEqualTo("status", "waiting");
+        // Ordering by the rank leaves out entrants without one
+        Query waitingRanked = waiting.orderBy("drawSeq");
+
+        Tasks.<Object>whenAllSuccess(
+                waiting.count().get(AggregateSource.SERVER),
+                waitingRanked.count().get(AggregateSource.SERVER),
+                EntrantCounters.loadDrawRanks(db, eventId))
             /**
-             * Loads an event's entrants, draws lottery from the waiting entrants, and changes their status to invited
-             * @param entrantsQuery contains entrants of event
+             * Probes for the winners if every waiting entrant is ranked and probing is worth it
+             * @param results number of waiting entrants, number of ranked waiting entrants, then
+             * the ranks handed out by each shard
              */
-            .addOnSuccessListener(entrantsQuery -> {
-                List<Entrant> entrants = new ArrayList<>();
-                for (DocumentSnapshot d : entrantsQuery.getDocuments()) {
-                    Entrant entrant = d.toObject(Entrant.class);
-                    entrants.add(entrant);
+            .continueWithTask(results -> {
+                if (!results.isSuccessful()) {
+                    throw results.getException();
                 }
-
-                Map<String, String> oldEntrantsStatuses = new HashMap<>();
-                for (Entrant entrant : entrants) {
-                    oldEntrantsStatuses.put(entrant.getUserId(), entrant.getStatus());
+                long total = ((AggregateQuerySnapshot) results.getResult().get(0)).getCount();
+                long ranked = ((AggregateQuerySnapshot) results.getResult().get(1)).getCount();
+                long[] joins = (long[]) results.getResult().get(2);
+                if (!DrawRanks.worthProbing(total, ranked, DrawRanks.total(joins), numToSelect, MAX_PROBE_ROUNDS)) {
+                    return Tasks.<List<String>>forResult(null);
                 }
-                _oldEntrantsStatus.postValue(gson.toJson(oldEntrantsStatuses));
-
-
-                db.collection("events")
-                    .document(eventId)
-                    .collection("entrants")
-                    .whereEqualTo("status", "waiting")
-                    .get()
-                    /**
-                     * Runs lottery and update status of chosen entrants
-                     * @param query contains waiting entrants
-                     */
-                    .addOnSuccessListener(query -> {
-
-                        List<String> waitlist = new ArrayList<>();
-                        for (DocumentSnapshot d : query.getDocuments()) {
-                            waitlist.add(d.getId());
-                        }
+                return probeWinners(entrants, joins, total, numToSelect, new LinkedHashSet<>(), MAX_PROBE_ROUNDS);
+            })
+            /**
+             * Commits the probed draw, or falls back to a full scan if probing was not possible
+             * @param chosen IDs of the drawn entrants, or null to fall back
+             */
+            .addOnSuccessListener(chosen -> {
+                if (chosen == null) {
+                    runFullScanDraw(eventId, numToSelect);
+                    return;
+                }
+                // Losers are resolved when they are notified, so the waitlist is never downloaded here
+                commitDraw(eventId, chosen, null, Collections.emptyList());
+            })
+            /**
+             * Logs exception thrown and falls back to a full scan
+             * @param e exception thrown
+             */
+            .addOnFailureListener(e -> {
+                Log.w(TAG, "Ranked draw failed, falling back to full scan", e);
+                runFullScanDraw(eventId, numToSelect);
+            });
+    }
 
-                        if (waitlist.isEmpty()) {
-                            _message.postValue("Waitlist is empty");
-                            _isLoading.postValue(false);
-                            return;
+    /**
+     * Picks winners by probing uniformly random draw ranks, rejecting probes that land on a freed
+     * rank or an entrant already chosen. The probes of a round run in parallel, and enough are
+     * sent to expect the missing winners in one round. Probes are accepted in the order they
+     * were drawn, so dropping the ones past the last winner needed keeps the draw uniform.
+     * @param entrants entrants subcollection of the event
+     * @param joins ranks handed out by each shard
+     * @param waitingCount number of waiting entrants
+     * @param numToSelect number of winners needed
+     * @param chosen winners picked in earlier rounds
+     * @param roundsLeft rounds allowed before giving up
+     * @return task resolving to the winners' IDs, or to null if the rounds ran out
+     */
+    private Task<List<String>> probeWinners(CollectionReference entrants, long[] joins, long waitingCount,
+                                            int numToSelect, Set<String> chosen, int roundsLeft) {
+        int count = DrawRanks.probesFor(numToSelect - chosen.size(), DrawRanks.total(joins), waitingCount - chosen.size());
+        List<Task<QuerySnapshot>> probes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long[] rank = DrawRanks.sample(joins, random);
+            probes.add(entrants.whereEqualTo("drawShard", rank[0]).whereEqualTo("drawSeq", rank[1]).limit(1).get());
+        }
+        return Tasks.<QuerySnapshot>whenAllSuccess(probes)
+                /**
+                 * Keeps the probes that landed on a waiting entrant not chosen yet and probes again for the rest
+                 * @param task contains the entrant holding each probed rank, if any
+                 */
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    for (QuerySnapshot probe : task.getResult()) {
+                        if (probe.isEmpty() || chosen.size() == numToSelect) {
+                            continue;
                         }
-                        if (numToSelect > waitlist.size()) {
-                            _message.postValue("You cannot select more than " + waitlist.size() + " people");
-                            _isLoading.postValue(false);
-                            return;
+                        DocumentSnapshot entrant = probe.getDocuments().get(0);
+                        if ("waiting".equals(entrant.getString("status"))) {
+                            chosen.add(entrant.getId());
                         }
+                    }
+                    if (chosen.size() == numToSelect) {
+                        return Tasks.<List<String>>forResult(new ArrayList<>(chosen));
+                    }
+                    if (roundsLeft <= 1) {
+                        return Tasks.<List<String>>forResult(null);
+                    }
+                    return probeWinners(entrants, joins, waitingCount, numToSelect, chosen, roundsLeft - 1);
+                });
+    }
 
-                        Collections.shuffle(waitlist);
-                        List<String> chosen = waitlist.subList(0, numToSelect);
-
-                        ArrayList<String> newChosenEntrants = new ArrayList<>(chosen);
-
-                        _newChosenEntrants.postValue(gson.toJson(newChosenEntrants));
-
-                        ArrayList<String> newUnchosenEntrants = new ArrayList<>(waitlist);
-                        newUnchosenEntrants.removeAll(chosen);
-
-                        _newUnchosenEntrants.postValue(gson.toJson(newUnchosenEntrants));
-
-                        WriteBatch batch = db.batch();
-
-                        for (String uid : chosen) {
-                            DocumentReference userRef = db.collection("events")
-                                    .document(eventId)
-                                    .collection("entrants")
-                                    .document(uid);
+    /**
+     * Runs the lottery by downloading the whole waiting list and shuffling it.
+     * Used for waiting lists that contain entrants without a draw rank, which are given one.
+     * @param eventId
+     * Event we run draw for
+     * @param numToSelect
+     * Number of participants to randomly select from waitlist
+     */
+    private void runFullScanDraw(String eventId, int numToSelect) {
+        db.collection("events")
+            .document(eventId)
+            .collection("entrants")
+            .whereEqualTo("status", "waiting")
+            .get()
+            /**
+             * Runs lottery over the whole waiting list
+             * @param query contains waiting entrants
+             */
+            .addOnSuccessListener(query -> {
+
+                List<String> waitlist = new ArrayList<>();
+                List<String> unranked = new ArrayList<>();
+                for (DocumentSnapshot d : query.getDocuments()) {
+                    waitlist.add(d.getId());
+                    if (d.getLong("drawSeq") == null) {
+                        unranked.add(d.getId());
+                    }
+                }
 
-                            batch.update(userRef, "status", "invited");
-                        }
+                if (waitlist.isEmpty()) {
+                    _message.postValue("Waitlist is empty");
+                    _isLoading.postValue(false);
+                    return;
+                }
+                if (numToSelect > waitlist.size()) {
+                    _message.postValue("You cannot select more than " + waitlist.size() + " people");
+                    _isLoading.postValue(false);
+                    return;
+                }
 
-                        batch.commit()
-                                /**
-                                 * Logs draw success and posts to mutable live data
-                                 * @param unused unusable data
-                                 */
-                                .addOnSuccessListener(unused -> {
-                                    _message.postValue("Draw Complete!");
-                                    _drawSuccess.postValue(true);
-                                    _isLoading.postValue(false);
-                                })
-                                /**
-                                 * Logs exception thrown
-                                 * @param e exception thrown
-                                 */
-                                .addOnFailureListener(e -> {
-                                    Log.e(TAG, "Batch update failed", e);
-                                    _message.postValue("Error updating user statuses");
-                                    _isLoading.postValue(false);
-                                });
-                    })
-                    /**
-                     * Logs exception thrown
-                     * @param e exception thrown
-                     */
-                    .addOnFailureListener(e -> {
-                        _message.postValue("Error loading waitlist");
-                        _isLoading.postValue(false);
-                    });
+                Collections.shuffle(waitlist, random);
+                List<String> chosen = new ArrayList<>(waitlist.subList(0, numToSelect));
+                List<String> unchosen = new ArrayList<>(waitlist.subList(numToSelect, waitlist.size()));
 
+                commitDraw(eventId, chosen, unchosen, unranked);
             })
             /**
              * Logs exception thrown
              * @param e exception thrown
              */
             .addOnFailureListener(e -> {
-                _message.postValue("Error loading entrants");
+                _message.postValue("Error loading waitlist");
                 _isLoading.postValue(false);
             });
     }
 
+    /**
+     * Publishes the draw result, journals the draw and updates the chosen entrants' status to "invited".
+     * <p>
+     *     The journal at {@code events/{eventId}/draws/{drawId}} is written before any entrant is
+     *     updated and records only the chosen entrants, so undoing the draw never touches anyone else.
+     * </p>
+     * @param eventId
+     * Event we run draw for
+     * @param chosen
+     * IDs of the entrants that were drawn
+     * @param unchosen
+     * IDs of the waiting entrants that were not drawn, or null if they were not loaded
+     * @param unranked
+     * IDs of entrants without a draw rank, which are given one once the draw is written
+     */
+    private void commitDraw(String eventId, List<String> chosen, List<String> unchosen, List<String> unranked) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference journalRef = eventRef.collection("draws").document();
+
+        journalRef.set(new DrawJournal(chosen, "waiting"))
+                /**
+                 * Invites the chosen entrants still waiting once the journal needed to undo the draw exists
+                 * @param unused unusable data
+                 */
+                .onSuccessTask(unused -> EntrantCounters.changeStatuses(db, eventId, chosen, "waiting", "invited"))
+                /**
+                 * Logs draw success and posts to mutable live data. Entrants who left the waiting
+                 * list while the draw ran were not invited and are left out of the result.
+                 * @param invited IDs of the entrants invited
+                 */
+                .addOnSuccessListener(invited -> {
+                    backfillDrawRanks(eventRef, unranked);
+                    DrawSessionStore.getInstance().put(journalRef.getId(), new DrawSessionStore.DrawSession(
+                            eventId,
+                            invited.toArray(new String[0]),
+                            unchosen == null ? null : unchosen.toArray(new String[0])));
+                    _drawId.postValue(journalRef.getId());
+                    _message.postValue("Draw Complete!");
+                    _drawSuccess.postValue(true);
+                    _isLoading.postValue(false);
+                })
+                /**
+                 * Logs exception thrown, reporting how many entrants were invited if only some batches failed
+                 * @param e exception thrown
+                 */
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Batch update failed", e);
+                    if (e instanceof BatchWriter.PartialFailureException) {
+                        BatchWriter.Result result = ((BatchWriter.PartialFailureException) e).getResult();
+                        _message.postValue("Error updating user statuses (" + result.getCommittedOps()
+                                + " of " + result.getTotalOps() + " entrants saved)");
+                    } else {
+                        _message.postValue("Error updating user statuses");
+                    }
+                    _isLoading.postValue(false);
+                });
+    }
+
+    /**
+     * Gives entrants who joined before draw ranks existed a rank from the base counter shard, so
+     * later draws can probe for them. Failures are only logged: the next full-scan draw retries them.
+     * @param eventRef event the entrants belong to
+     * @param unranked IDs of the entrants without a draw rank
+     */
+    private void backfillDrawRanks(DocumentReference eventRef, List<String> unranked) {
+        if (unranked.isEmpty()) {
+            return;
+        }
+        EntrantCounters.reserveDrawRanks(db, eventRef.getId(), unranked.size())
+                /**
+                 * Writes the reserved ranks to the entrants
+                 * @param first first rank of the reserved range
+                 */
+                .onSuccessTask(first -> {
+                    BatchWriter writer = new BatchWriter(db);
+                    for (int i = 0; i < unranked.size(); i++) {
+                        Map<String, Object> rank = new HashMap<>();
+                        rank.put("drawShard", 0);
+                        rank.put("drawSeq", first + i);
+                        writer.update(eventRef.collection("entrants").document(unranked.get(i)), rank);
+                    }
+                    return writer.commit();
+                })
+                /**
+                 * Logs ranks that could not be written
+                 * @param e exception thrown
+                 */
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to backfill draw ranks", e));
+    }
+
     /**
      * Cancels lottery draw by restoring statuses from "invited" to "waiting"
      * @param eventId
@@ -6,16 +6,14 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.lotteryevent.NotificationCustomManager;
+import com.example.lotteryevent.data.DeleteJob;
 import com.example.lotteryevent.data.User;
-import com.google.android.gms.tasks.Task;
-import com.google.android.gms.tasks.Tasks;
+import com.example.lotteryevent.utilities.CascadeDeleter;
+import com.example.lotteryevent.utilities.NotificationPreferences;
+import com.example.lotteryevent.utilities.UserNameResolver;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.WriteBatch;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -174,6 +172,7 @@ public class UserRepositoryImpl implements IUserRepository {
                      */
                     .addOnSuccessListener(aVoid -> {
                         _isLoading.setValue(false);
+                        UserNameResolver.invalidate(firebaseUser.getUid());
                         _currentUser.postValue(user);
                         _userMessage.postValue("Profile updated successfully.");
                         Log.d(TAG, "User profile updated successfully.");
@@ -203,13 +202,10 @@ public class UserRepositoryImpl implements IUserRepository {
      * notifications, event sign-ups, and any events they organized. It does not delete the user
      * document itself.
      * <p>
-     * This is a client-side implementation of a complex operation.
+     * The steps run as a checkpointed {@link DeleteJob}, page by page, so a delete interrupted by
+     * process death is resumed the next time the app starts.
      *
-     * @see #clearProfileInfo(String)
-     * @see #deleteSubcollection(String, String)
-     * @see #deleteNotifications(String)
-     * @see #deleteFromEventsCol(String)
-     * @see #deleteEventsOrganized(String)
+     * @see DeleteJob#forUser(String)
      */
     @Override
     public void deleteCurrentUser() {
@@ -221,18 +217,16 @@ public class UserRepositoryImpl implements IUserRepository {
         String uid = firebaseUser.getUid();
         _isLoading.setValue(true);
 
-        // This is a complex, multi-step operation.
-        // For a production app, a Firebase Cloud Function is the most robust way to ensure atomicity.
-        Task<Void> clearProfileTask = clearProfileInfo(uid);
-        Task<Void> deleteHistoryTask = deleteSubcollection(uid, "eventsHistory");
-        Task<Void> deleteNotificationsTask = deleteNotifications(uid);
-        Task<Void> deleteFromEventsTask = deleteFromEventsCol(uid);
-        Task<Void> deleteOrganizedTask = deleteEventsOrganized(uid);
-
-        Tasks.whenAllComplete(clearProfileTask, deleteHistoryTask, deleteNotificationsTask, deleteFromEventsTask, deleteOrganizedTask)
+        /**
+         * Logs how far the delete has progressed
+         * @param job job being run
+         */
+        new CascadeDeleter(db).start(DeleteJob.forUser(uid), job ->
+                        Log.d(TAG, "Deleting user data: step " + job.getStepIndex() + "/" + job.getSteps().size()
+                                + ", " + job.getDeletedCount() + " documents deleted"))
                 /**
                  * Logs tasks success or failure
-                 * @param task list of tasks completed
+                 * @param task finished delete job
                  */
                 .addOnCompleteListener(task -> {
                     _isLoading.setValue(false);
@@ -246,116 +240,6 @@ public class UserRepositoryImpl implements IUserRepository {
                 });
     }
 
-    // --- Helper Methods ---
-
-    /**
-     * Clears sensitive user data from the Firestore document without deleting it.
-     * This retains the user's UID for referential integrity while anonymizing the profile.
-     *
-     * @param uid The user's unique ID.
-     * @return A Task that completes when the profile fields are cleared.
-     */
-    private Task<Void> clearProfileInfo(String uid) {
-        Map<String, Object> clearFields = new HashMap<>();
-        clearFields.put("name", null);
-        clearFields.put("email", null);
-        clearFields.put("phone", null);
-        clearFields.put("admin", false);
-        clearFields.put("optOutNotifications", true);
-        return db.collection("users").document(uid).update(clearFields);
-    }
-
-    /**
-     * Deletes all documents in a user's subcollection using a batch operation.
-     *
-     * @param userUid The user's unique ID.
-     * @param subcollectionName The name of the subcollection to delete.
-     * @return A {@link Task<Void>} that completes when the batch deletion is finished.
-     */
-    private Task<Void> deleteSubcollection(String userUid, String subcollectionName) {
-        return db.collection("users").document(userUid).collection(subcollectionName).get()
-                /**
-                 * Throws exception if task contains exception, otherwise deletes user's subcollection
-                 * @param task contains subcollection of user
-                 */
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful()) {
-                        throw task.getException();
-                    }
-                    WriteBatch batch = db.batch();
-                    for (DocumentSnapshot doc : task.getResult()) {
-                        batch.delete(doc.getReference());
-                    }
-                    return batch.commit();
-                });
-    }
-
-
-    /**
-     * Deletes all notifications for a given user.
-     *
-     * @param uid The user's unique ID.
-     * @return A {@link Task<Void>} that completes when the deletion is finished.
-     */
-    private Task<Void> deleteNotifications(String uid) {
-        return db.collection("notifications").whereEqualTo("recipientId", uid).get()
-                /**
-                 * Throws exception if task contains exception, otherwise deletes notifications
-                 * @param task task contains notifications
-                 */
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful()) throw task.getException();
-                    WriteBatch batch = db.batch();
-                    for (DocumentSnapshot doc : task.getResult()) {
-                        batch.delete(doc.getReference());
-                    }
-                    return batch.commit();
-                });
-    }
-
-    /**
-     * Removes the user from the "entrants" subcollection of all events.
-     *
-     * @param uid The user's UID to remove from event entrant lists.
-     * @return A {@link Task} that completes upon batch deletion.
-     */
-    private Task<Void> deleteFromEventsCol(String uid) {
-        /**
-         * Throws exception if task contains exception, otherwise removed user from "entrants" subcollection of events
-         * @param task task contains events
-         */
-        return db.collection("events").get().continueWithTask(task -> {
-            if (!task.isSuccessful()) throw task.getException();
-            WriteBatch batch = db.batch();
-            for (DocumentSnapshot eventDoc : task.getResult()) {
-                batch.delete(eventDoc.getReference().collection("entrants").document(uid));
-            }
-            return batch.commit();
-        });
-    }
-
-    /**
-     * Deletes all events organized by the specified user.
-     *
-     * @param uid The organizer's user ID.
-     * @return A {@link Task} that completes upon deletion.
-     */
-    private Task<Void> deleteEventsOrganized(String uid) {
-        return db.collection("events").whereEqualTo("organizerId", uid).get()
-                /**
-                 * Throws exception if task contains exception, otherwise deletes events organized by user
-                 * @param task task contains events
-                 */
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful()) throw task.getException();
-                    WriteBatch batch = db.batch();
-                    for (DocumentSnapshot eventDoc : task.getResult()) {
-                        batch.delete(eventDoc.getReference());
-                    }
-                    return batch.commit();
-                });
-    }
-
     /**
      * Updates a user's notif preference in db, clears notifs if now disabled,
      * notifies of missing notifs if db preference and system level preference
@@ -381,6 +265,8 @@ public class UserRepositoryImpl implements IUserRepository {
                  */
                 .addOnSuccessListener(aVoid -> {
                     _isLoading.setValue(false);
+                    // applies to banners right away instead of waiting for the preference listener
+                    NotificationPreferences.getInstance().setOptOut(!enabled);
                     fetchNotifPreference(enabled, systemNotifPreference);
                     if (!enabled) {
                         _userMessage.postValue("Notifications disabled.");
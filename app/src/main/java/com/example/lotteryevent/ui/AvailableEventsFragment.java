@@ -8,8 +8,11 @@ import android.view.ContextThemeWrapper;
 import android.widget.Toast;
 import android.app.DatePickerDialog;
 import android.util.TypedValue;
-import android.widget.EditText;
+import android.widget.CheckBox;
 import android.widget.LinearLayout;
+import android.widget.RadioButton;
+import android.widget.RadioGroup;
+import android.widget.ScrollView;
 import android.widget.TextView;
 import android.content.res.ColorStateList;
 import android.graphics.Color;
@@ -24,9 +27,9 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.adapters.EventAdapter;
-import com.example.lotteryevent.data.Event;
 import com.example.lotteryevent.repository.AvailableEventsRepositoryImpl;
 import com.example.lotteryevent.repository.IAvailableEventsRepository;
+import com.example.lotteryevent.utilities.EventFilter;
 import com.example.lotteryevent.viewmodels.AvailableEventsViewModel;
 import com.example.lotteryevent.viewmodels.GenericViewModelFactory;
 import com.google.android.material.button.MaterialButton;
@@ -39,7 +42,6 @@ import java.util.ArrayList;
 import java.text.DateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
 
 /**
  * A {@link Fragment} subclass that allows entrants to view a list of available events.
@@ -47,6 +49,9 @@ import java.util.List;
  */
 public class AvailableEventsFragment extends Fragment {
 
+    // three rows of the two column grid
+    private static final int LOAD_MORE_THRESHOLD = 6;
+
     private RecyclerView recyclerView;
     private EventAdapter adapter;
     private AvailableEventsViewModel availableEventsViewModel;
@@ -58,7 +63,10 @@ public class AvailableEventsFragment extends Fragment {
 
     @Nullable private Long filterStartDateMs = null;
     @Nullable private Long filterEndDateMs = null;
-    @NonNull private List<Event> lastEventsFromViewModel = new ArrayList<>();
+    private boolean filterSpotsLeft = false;
+    private boolean filterFreeOnly = false;
+    private boolean filterHideLocationRequired = false;
+    @NonNull private EventFilter.Sort sort = EventFilter.Sort.NEWEST;
     @Nullable private ColorStateList availableTodayDefaultBgTint;
     @Nullable private ColorStateList availableTodayDefaultTextColors;
     @Nullable private ColorStateList availableTodayDefaultStrokeColor;
@@ -132,6 +140,7 @@ public class AvailableEventsFragment extends Fragment {
      * - Finds the RecyclerView in the layout
      * - Attaches a {@link LinearLayoutManager} for vertical scrolling
      * - Creates an {@link EventAdapter} with the event item layout
+     * - Loads the next page of events as the user nears the end of the list
      * - Registers a click listener that navigates to the event
      *   details screen when an event is selected
      *
@@ -144,6 +153,40 @@ public class AvailableEventsFragment extends Fragment {
         adapter = new EventAdapter(R.layout.tile_event);
         recyclerView.setAdapter(adapter);
 
+        // Load further pages while scrolling and drop those left far behind
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            /**
+             * Requests the next page once the user scrolls within a few items of the end. Also
+             * called with no scroll after a layout changes the visible items.
+             * @param rv the scrolled RecyclerView
+             * @param dx horizontal scroll amount
+             * @param dy vertical scroll amount
+             */
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy >= 0) {
+                    loadMoreIfNearEnd();
+                }
+            }
+
+            /**
+             * Lets pages far below the visible events be dropped once scrolling settles
+             * @param rv the scrolled RecyclerView
+             * @param newState the new scroll state
+             */
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView rv, int newState) {
+                if (newState != RecyclerView.SCROLL_STATE_IDLE) {
+                    return;
+                }
+                LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+                int last = layoutManager == null ? RecyclerView.NO_POSITION : layoutManager.findLastVisibleItemPosition();
+                if (last != RecyclerView.NO_POSITION && last < adapter.getItemCount()) {
+                    availableEventsViewModel.onScrollSettled(adapter.getEvent(last));
+                }
+            }
+        });
+
         /**
          * Makes toast if id of event is invalid, otherwise navigates to that event details fragment
          * @param event event to navigate to
@@ -178,9 +221,9 @@ public class AvailableEventsFragment extends Fragment {
          * @param events list of events
          */
         availableEventsViewModel.getFilteredEvents().observe(getViewLifecycleOwner(), events -> {
-            // Keep the latest list from the ViewModel and apply the date filter locally.
-            lastEventsFromViewModel = (events == null) ? new ArrayList<>() : events;
-            applyLocalFiltersToAdapter();
+            adapter.setEvents(events == null ? new ArrayList<>() : events);
+            // a short filtered list cannot be scrolled, so check once it is laid out
+            recyclerView.post(this::loadMoreIfNearEnd);
         });
 
         /**
@@ -228,52 +271,23 @@ public class AvailableEventsFragment extends Fragment {
     }
 
     /**
-     * Notifies the ViewModel of the current filter state (keyword and "available today" flag).
+     * Notifies the ViewModel of the current filter state (keyword, "available today" flag, date
+     * range, the other facets and the sort order).
      * <p>
      * All filtering logic is implemented in {@link AvailableEventsViewModel}. This method only
      * forwards the user's filter choices to the ViewModel.
      */
     private void applyFiltersAndUpdateList() {
-        availableEventsViewModel.setKeywordFilter(currentKeyword);
-        availableEventsViewModel.setFilterAvailableToday(filterAvailableToday);
-    }
-
-    /**
-     * Applies the currently selected date range filter to {@link #lastEventsFromViewModel}
-     * and pushes the result into the adapter.
-     */
-    private void applyLocalFiltersToAdapter() {
-        if (adapter == null) {
-            return;
-        }
-        adapter.setEvents(applyDateRangeFilter(lastEventsFromViewModel));
-    }
-
-    /**
-     * Filters events by {@link Event#getEventStartDateTime()} using the inclusive day range
-     * [filterStartDateMs, filterEndDateMs]. If either bound is null, it is treated as "unbounded".
-     */
-    @NonNull
-    private List<Event> applyDateRangeFilter(@NonNull List<Event> input) {
-        if (filterStartDateMs == null && filterEndDateMs == null) {
-            return input;
-        }
-
-        List<Event> out = new ArrayList<>();
-        for (Event e : input) {
-            if (e == null || e.getEventStartDateTime() == null) continue;
-
-            long t = e.getEventStartDateTime().toDate().getTime();
-            if (filterStartDateMs != null && t < filterStartDateMs) {
-                continue;
-            }
-            if (filterEndDateMs != null && t > filterEndDateMs) {
-                continue;
-            }
+        EventFilter filter = new EventFilter();
+        filter.setAvailableNow(filterAvailableToday);
+        filter.setStartWindow(filterStartDateMs, filterEndDateMs);
+        filter.setSpotsLeftOnly(filterSpotsLeft);
+        filter.setPriceRange(null, filterFreeOnly ? 0.0 : null);
+        filter.setGeoLocationRequired(filterHideLocationRequired ? Boolean.FALSE : null);
+        filter.setSort(sort);
 
-            out.add(e);
-        }
-        return out;
+        availableEventsViewModel.setKeywordFilter(currentKeyword);
+        availableEventsViewModel.setFilter(filter);
     }
 
     /**
@@ -456,6 +470,48 @@ public class AvailableEventsFragment extends Fragment {
 
         root.addView(endLayout, fullWidth);
 
+        // Other facets
+        CheckBox spotsLeftBox = new CheckBox(themed);
+        spotsLeftBox.setText("Only events with spots left");
+        spotsLeftBox.setChecked(filterSpotsLeft);
+        root.addView(spotsLeftBox);
+
+        CheckBox freeOnlyBox = new CheckBox(themed);
+        freeOnlyBox.setText("Only free events");
+        freeOnlyBox.setChecked(filterFreeOnly);
+        root.addView(freeOnlyBox);
+
+        CheckBox hideLocationBox = new CheckBox(themed);
+        hideLocationBox.setText("Hide events requiring my location");
+        hideLocationBox.setChecked(filterHideLocationRequired);
+        root.addView(hideLocationBox);
+
+        // Sort order
+        TextView sortLabel = new TextView(themed);
+        sortLabel.setText("Sort By");
+        sortLabel.setTextSize(TypedValue.COMPLEX_UNIT_SP, 16);
+        sortLabel.setPadding(0, dp(14), 0, 10);
+        sortLabel.setTextColor(onSurfaceVariant);
+        root.addView(sortLabel);
+
+        RadioGroup sortGroup = new RadioGroup(themed);
+        String[] sortNames = {"Newest", "Start time", "Popularity"};
+        for (EventFilter.Sort option : EventFilter.Sort.values()) {
+            RadioButton button = new RadioButton(themed);
+            button.setId(View.generateViewId());
+            button.setText(sortNames[option.ordinal()]);
+            button.setTag(option);
+            sortGroup.addView(button);
+            if (option == sort) {
+                sortGroup.check(button.getId());
+            }
+        }
+        root.addView(sortGroup);
+
+        // Scroll the options on short screens
+        ScrollView scroll = new ScrollView(themed);
+        scroll.addView(root);
+
         // Keep existing temp values + initial text
         final Long[] tempStart = new Long[]{filterStartDateMs};
         final Long[] tempEnd = new Long[]{filterEndDateMs};
@@ -498,14 +554,17 @@ public class AvailableEventsFragment extends Fragment {
 
         androidx.appcompat.app.AlertDialog dialog = new MaterialAlertDialogBuilder(themed)
                 .setCustomTitle(titleView)
-                .setView(root)
+                .setView(scroll)
                 .setNegativeButton("Cancel", null)
                 .setNeutralButton("Clear", (d, which) -> {
                     currentKeyword = "";
                     filterStartDateMs = null;
                     filterEndDateMs = null;
+                    filterSpotsLeft = false;
+                    filterFreeOnly = false;
+                    filterHideLocationRequired = false;
+                    sort = EventFilter.Sort.NEWEST;
                     applyFiltersAndUpdateList();
-                    applyLocalFiltersToAdapter();
                 })
                 .setPositiveButton("Apply", null)
                 .create();
@@ -525,9 +584,13 @@ public class AvailableEventsFragment extends Fragment {
 
                 filterStartDateMs = start;
                 filterEndDateMs = end;
+                filterSpotsLeft = spotsLeftBox.isChecked();
+                filterFreeOnly = freeOnlyBox.isChecked();
+                filterHideLocationRequired = hideLocationBox.isChecked();
+                View checkedSort = sortGroup.findViewById(sortGroup.getCheckedRadioButtonId());
+                sort = checkedSort == null ? EventFilter.Sort.NEWEST : (EventFilter.Sort) checkedSort.getTag();
 
                 applyFiltersAndUpdateList();
-                applyLocalFiltersToAdapter();
                 dialog.dismiss();
             });
         });
@@ -561,4 +624,19 @@ public class AvailableEventsFragment extends Fragment {
         }
     }
 
+    /**
+     * Requests the next page if the last visible item is within a few items of the end of the
+     * list, which includes a list too short to fill the screen. Pages keep loading this way until
+     * the list fills the screen or every event is loaded.
+     */
+    private void loadMoreIfNearEnd() {
+        if (recyclerView == null || adapter == null) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager != null
+                && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+            availableEventsViewModel.onScrolledNearEnd();
+        }
+    }
 }
@@ -8,7 +8,6 @@ import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
-import android.util.Base64;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -28,10 +27,12 @@ import androidx.navigation.Navigation;
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.repository.EventRepositoryImpl;
 import com.example.lotteryevent.repository.IEventRepository;
+import com.example.lotteryevent.utilities.PosterEncoder;
 import com.example.lotteryevent.viewmodels.CreateEventViewModel;
 import com.example.lotteryevent.viewmodels.GenericViewModelFactory;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 
-import java.io.ByteArrayOutputStream;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Locale;
@@ -58,6 +59,8 @@ public class CreateEventFragment extends Fragment {
     // Variables for image upload and preview
     private static final int REQUEST_POSTER_IMAGE = 2001;
     private String selectedPosterBase64 = null;
+    // Incremented for every picked or removed poster, so an outdated encoding is ignored
+    private int posterRequest = 0;
     private ImageView imageViewPoster;
     private Button buttonUploadPoster;
     private Button buttonRemovePoster;
@@ -289,8 +292,10 @@ public class CreateEventFragment extends Fragment {
          * @param view clicked
          */
         buttonRemovePoster.setOnClickListener(v -> {
-            // 1. Clear the variable
+            // 1. Clear the variable, dropping any poster still being encoded
             selectedPosterBase64 = null;
+            posterRequest++;
+            buttonSave.setEnabled(true);
 
             // 2. Reset UI
             imageViewPoster.setImageResource(R.drawable.ic_launcher_background); // Or your placeholder ID
@@ -398,15 +403,14 @@ public class CreateEventFragment extends Fragment {
     }
 
     /**
-     * Encodes the given {@link Bitmap} as a Base64 string.
+     * Encodes the given {@link Bitmap} as a Base64 string at the detail poster size on
+     * {@link PosterEncoder#executor()}. The smaller poster sizes are derived from it when the
+     * poster is stored.
      * @param bitmap The bitmap to encode.
-     * @return A Base64-encoded representation of the bitmap.
+     * @return Task resolving to a Base64-encoded representation of the bitmap.
      */
-    private String encodeBitmapToBase64(Bitmap bitmap) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 80, baos);
-        byte[] bytes = baos.toByteArray();
-        return android.util.Base64.encodeToString(bytes, Base64.NO_WRAP);
+    private Task<String> encodeBitmapToBase64(Bitmap bitmap) {
+        return Tasks.call(PosterEncoder.executor(), () -> PosterEncoder.encode(bitmap, PosterEncoder.Variant.DETAIL));
     }
 
     /**
@@ -415,7 +419,8 @@ public class CreateEventFragment extends Fragment {
      * If a valid image is selected:
      * <ul>
      *     <li>The bitmap is retrieved and displayed in the preview ImageView.</li>
-     *     <li>The bitmap is encoded to a Base64 string for storage.</li>
+     *     <li>The bitmap is encoded to a Base64 string for storage in the background; saving
+     *     is disabled until it is ready.</li>
      *     <li>The poster preview section is made visible.</li>
      * </ul>
      * </p>
@@ -435,11 +440,31 @@ public class CreateEventFragment extends Fragment {
 
                 // Update the UI preview
                 imageViewPoster.setImageBitmap(bitmap);
-                selectedPosterBase64 = encodeBitmapToBase64(bitmap);
-
                 cardViewPosterSection.setVisibility(View.VISIBLE);
                 buttonUploadPoster.setText("Change Image");
 
+                int request = ++posterRequest;
+                selectedPosterBase64 = null;
+                buttonSave.setEnabled(false);
+                encodeBitmapToBase64(bitmap)
+                        /**
+                         * Keeps the encoded poster for saving, unless another poster was picked or removed meanwhile
+                         * @param task result of the encoding
+                         */
+                        .addOnCompleteListener(task -> {
+                            if (request != posterRequest || getView() == null) {
+                                return;
+                            }
+                            buttonSave.setEnabled(true);
+                            if (task.isSuccessful()) {
+                                selectedPosterBase64 = task.getResult();
+                            } else {
+                                Log.e(TAG, "Failed to encode poster image", task.getException());
+                                Toast.makeText(getContext(), "Failed to load image", Toast.LENGTH_SHORT).show();
+                                cardViewPosterSection.setVisibility(View.GONE);
+                            }
+                        });
+
             } catch (Exception e) {
                 Log.e(TAG, "Failed to load poster image", e);
                 Toast.makeText(getContext(), "Failed to load image", Toast.LENGTH_SHORT).show();
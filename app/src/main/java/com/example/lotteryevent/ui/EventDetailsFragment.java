@@ -17,9 +17,6 @@ import android.provider.Settings;
 import android.content.Intent;
 import android.net.Uri;
 import android.app.AlertDialog;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.util.Base64;
 import android.widget.ImageView;
 
 import androidx.activity.result.ActivityResultLauncher;
@@ -32,6 +29,7 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 
+import com.bumptech.glide.Glide;
 import com.example.lotteryevent.BottomUiState;
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.data.Event;
@@ -39,6 +37,8 @@ import com.example.lotteryevent.repository.AdminUserProfileRepositoryImpl;
 import com.example.lotteryevent.repository.EventDetailsRepositoryImpl;
 import com.example.lotteryevent.repository.FakeAdminUserProfileRepository;
 import com.example.lotteryevent.repository.IEventDetailsRepository;
+import com.example.lotteryevent.utilities.PosterEncoder;
+import com.example.lotteryevent.utilities.PosterModel;
 import com.example.lotteryevent.viewmodels.EventDetailsViewModel;
 import com.example.lotteryevent.viewmodels.GenericViewModelFactory;
 import com.google.android.gms.location.FusedLocationProviderClient;
@@ -326,25 +326,19 @@ public class EventDetailsFragment extends Fragment {
 
     /**
      * Binds the event poster image (if available) to the header ImageView.
-     * The poster is stored as a Base64-encoded string on the Event model.
+     * The poster is loaded from the poster store, or from the Event model for older events,
+     * and decoded in the background by Glide.
      *
      * @param event The event whose poster should be displayed.
      */
     private void bindEventPoster(Event event) {
-        if (eventPosterImage == null) {
+        if (eventPosterImage == null || !event.hasPoster()) {
             return;
         }
 
-        String posterImageUrl = event.getPosterImageUrl();
-        if (posterImageUrl == null || posterImageUrl.trim().isEmpty()) {
-            return;
-        }
-
-        try {
-            byte[] bytes = Base64.decode(posterImageUrl, Base64.DEFAULT);
-            Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-            eventPosterImage.setImageBitmap(bitmap);
-        } catch (IllegalArgumentException e) {}
+        Glide.with(this)
+                .load(PosterModel.of(event, PosterEncoder.Variant.DETAIL))
+                .into(eventPosterImage);
     }
 
     /**
@@ -30,6 +30,9 @@ import com.example.lotteryevent.viewmodels.NotificationsViewModel;
  */
 public class NotificationsFragment extends Fragment {
 
+    // Remaining items below the last visible one at which the next page is requested
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
     // --- UI Components ---
     private Button markSeenBtn;
     private RecyclerView recyclerView;
@@ -115,7 +118,7 @@ public class NotificationsFragment extends Fragment {
         viewModel = new ViewModelProvider(this, viewModelFactory).get(NotificationsViewModel.class);
 
         // --- UI Setup ---
-        setupRecyclerView(view, isAdminView);
+        setupRecyclerView(view, isAdminView, eventIdFilter);
         setupObservers(view, eventIdFilter);
 
         // --- Initial Action ---
@@ -131,7 +134,7 @@ public class NotificationsFragment extends Fragment {
      * Initializes the RecyclerView and its Adapter. The item click listener now
      * delegates the event directly to the ViewModel.
      */
-    private void setupRecyclerView(@NonNull View view, boolean isAdminView) {
+    private void setupRecyclerView(@NonNull View view, boolean isAdminView, String eventIdFilter) {
         markSeenBtn = view.findViewById(R.id.mark_as_seen_btn);
         recyclerView = view.findViewById(R.id.notifications_recycler_view);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
@@ -147,6 +150,28 @@ public class NotificationsFragment extends Fragment {
             viewModel.onMarkAllSeenClicked(notificationCustomManager);
             notificationCustomManager.clearNotifications();
         });
+        if (eventIdFilter == null) {
+            recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                /**
+                 * Requests older notifications once the user scrolls within a few items of the end
+                 * @param rv the scrolled RecyclerView
+                 * @param dx horizontal scroll amount
+                 * @param dy vertical scroll amount
+                 */
+                @Override
+                public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                    if (dy <= 0) {
+                        return;
+                    }
+                    LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+                    if (layoutManager != null
+                            && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                        viewModel.onScrolledNearEnd();
+                    }
+                }
+            });
+        }
+
         /**
          * On notif click, marks it as seen and if lottery win, navigates to event
          * @param notification notif clicked
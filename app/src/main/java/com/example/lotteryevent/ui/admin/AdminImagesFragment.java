@@ -1,7 +1,5 @@
 package com.example.lotteryevent.ui.admin;
 
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -19,13 +17,15 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.adapters.AdminImagesAdapter;
 import com.example.lotteryevent.data.AdminImageItem;
 import com.example.lotteryevent.repository.AdminImagesRepositoryImpl;
+import com.example.lotteryevent.utilities.PosterEncoder;
+import com.example.lotteryevent.utilities.PosterModel;
 import com.example.lotteryevent.viewmodels.AdminImagesViewModel;
 import com.example.lotteryevent.viewmodels.GenericViewModelFactory;
-import android.util.Base64;
 
 /**
  * Fragment allowing administrators to browse all uploaded images.
@@ -148,15 +148,11 @@ public class AdminImagesFragment extends Fragment {
         ImageView imageView = dialogView.findViewById(R.id.dialog_image_view);
         Button deleteButton = dialogView.findViewById(R.id.dialog_delete_btn);
 
-        // 2. Decode Base64 and set image
-        try {
-            byte[] decodedString = Base64.decode(item.getBase64Image(), Base64.DEFAULT);
-            Bitmap decodedByte = BitmapFactory.decodeByteArray(decodedString, 0, decodedString.length);
-            imageView.setImageBitmap(decodedByte);
-        } catch (Exception e) {
-            e.printStackTrace();
-            imageView.setImageResource(android.R.drawable.ic_menu_report_image); // Fallback
-        }
+        // 2. Load and decode the image in the background, with a fallback if it fails
+        Glide.with(imageView)
+                .load(PosterModel.of(item, PosterEncoder.Variant.DETAIL))
+                .error(android.R.drawable.ic_menu_report_image)
+                .into(imageView);
 
         // 3. Create the Preview Dialog
         AlertDialog previewDialog = new AlertDialog.Builder(requireContext())
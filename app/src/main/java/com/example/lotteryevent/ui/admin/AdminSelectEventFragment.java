@@ -26,6 +26,8 @@ import com.example.lotteryevent.viewmodels.AdminEventsViewModel;
  */
 public class AdminSelectEventFragment extends Fragment {
 
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
     private RecyclerView recyclerView;
     private EventAdapter adapter;
     private AdminEventsViewModel viewModel;
@@ -82,8 +84,60 @@ public class AdminSelectEventFragment extends Fragment {
 
         viewModel.getEvents().observe(getViewLifecycleOwner(), events -> {
             if (events != null) adapter.setEvents(events);
+            // a list shorter than the screen cannot be scrolled, so check once it is laid out
+            recyclerView.post(this::loadMoreIfNearEnd);
+        });
+
+        // Load further pages while scrolling and drop those left far behind
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            /**
+             * Requests the next page once the user scrolls within a few items of the end. Also
+             * called with no scroll after a layout changes the visible items.
+             * @param rv the scrolled RecyclerView
+             * @param dx horizontal scroll amount
+             * @param dy vertical scroll amount
+             */
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy >= 0) {
+                    loadMoreIfNearEnd();
+                }
+            }
+
+            /**
+             * Lets pages far below the visible events be dropped once scrolling settles
+             * @param rv the scrolled RecyclerView
+             * @param newState the new scroll state
+             */
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView rv, int newState) {
+                if (newState != RecyclerView.SCROLL_STATE_IDLE) {
+                    return;
+                }
+                LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+                int last = layoutManager == null ? RecyclerView.NO_POSITION : layoutManager.findLastVisibleItemPosition();
+                if (last != RecyclerView.NO_POSITION && last < adapter.getItemCount()) {
+                    viewModel.onScrollSettled(adapter.getEvent(last));
+                }
+            }
         });
 
         viewModel.fetchEvents();
     }
+
+    /**
+     * Requests the next page if the last visible item is within a few items of the end of the
+     * list, which includes a list too short to fill the screen. Pages keep loading this way until
+     * the list fills the screen or every event is loaded.
+     */
+    private void loadMoreIfNearEnd() {
+        if (recyclerView == null || adapter == null) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager != null
+                && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+            viewModel.onScrolledNearEnd();
+        }
+    }
 }
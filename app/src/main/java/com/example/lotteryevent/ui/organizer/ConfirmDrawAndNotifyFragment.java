@@ -23,21 +23,15 @@ import com.example.lotteryevent.repository.EventRepositoryImpl;
 import com.example.lotteryevent.repository.IEventRepository;
 import com.example.lotteryevent.viewmodels.ConfirmDrawAndNotifyViewModel;
 import com.example.lotteryevent.viewmodels.GenericViewModelFactory;
-import com.google.gson.Gson;
 
-import java.util.ArrayList;
-import java.util.Map;
 import java.util.Objects;
 
-import java.lang.reflect.Type;
-import com.google.gson.reflect.TypeToken;
-
 /**
  * This fragment allows the organizer to view the number of entrants drawn, confirm draw, and notify the selected entrants.
  * <p>
  *     Organizer can view the number of entrants in waiting list, how many spots available for the event, and how many entrants were drawn.
  *     Organizer can click the "Confirm and Notify" button which confirms the users drawn and notifies the chosen entrants by creating
- *     notification documents for the user in Firebase. Organizer can also press "Cancel" which moves all entrants back to the waiting list.
+ *     notification documents for the user in Firebase. Organizer can also press "Cancel" which moves the entrants invited by the draw back to the waiting list.
  * </p>
  */
 public class ConfirmDrawAndNotifyFragment extends Fragment {
@@ -55,10 +49,6 @@ public class ConfirmDrawAndNotifyFragment extends Fragment {
     private ConfirmDrawAndNotifyViewModel viewModel;
     private ViewModelProvider.Factory viewModelFactory;
 
-    private Map<String, String> oldEntrantsStatus;
-    private ArrayList<String> newChosenEntrants;
-    private ArrayList<String> newUnchosenEntrants;
-
     /**
      * Default constructor for production use by the Android Framework.
      */
@@ -118,20 +108,10 @@ public class ConfirmDrawAndNotifyFragment extends Fragment {
         // --- Initial Action ---
         if (getArguments() != null) {
             String eventId = getArguments().getString("eventId");
-            String oldEntrantsStatusString = getArguments().getString("oldEntrantsStatus");
-            String newChosenEntrantsString = getArguments().getString("newChosenEntrants");
-            String newUnchosenEntrantsString = getArguments().getString("newUnchosenEntrants");
-
-            Gson gson = new Gson();
-
-            Type mapType = new TypeToken<Map<String, String>>(){}.getType();
-            oldEntrantsStatus = gson.fromJson(oldEntrantsStatusString, mapType);
-
-            Type listType = new TypeToken<ArrayList<String>>(){}.getType();
-            newChosenEntrants = gson.fromJson(newChosenEntrantsString, listType);
-            newUnchosenEntrants = gson.fromJson(newUnchosenEntrantsString, listType);
+            String drawId = getArguments().getString("drawId");
 
             viewModel.loadEventAndEntrantCounts(eventId);
+            viewModel.loadDrawSession(eventId, drawId);
         }
 
         initializeViews(view);
@@ -152,9 +132,6 @@ public class ConfirmDrawAndNotifyFragment extends Fragment {
         waitingListCountText = v.findViewById(R.id.waiting_list_count);
         availableSpaceCountText = v.findViewById(R.id.available_space_count);
         selectedUsersCountText = v.findViewById(R.id.selected_users_count);
-        if (newChosenEntrants != null) {
-            bindSelectedUsersCount(String.valueOf(newChosenEntrants.size()));
-        }
     }
 
     /**
@@ -165,12 +142,12 @@ public class ConfirmDrawAndNotifyFragment extends Fragment {
          * Notifies entrants of lottery win/loss, navigates to another fragment
          * @param v view clicked on
          */
-        btnActionPositive.setOnClickListener(v -> viewModel.onPositiveButtonClicked(newChosenEntrants, newUnchosenEntrants));
+        btnActionPositive.setOnClickListener(v -> viewModel.onPositiveButtonClicked());
         /**
-         * Restores old status of entrants
+         * Rolls back the draw, restoring the old status of the invited entrants
          * @param v view clicked on
          */
-        btnActionNegative.setOnClickListener(v -> viewModel.onNegativeButtonClicked(oldEntrantsStatus));
+        btnActionNegative.setOnClickListener(v -> viewModel.onNegativeButtonClicked());
     }
 
     /**
@@ -197,6 +174,16 @@ public class ConfirmDrawAndNotifyFragment extends Fragment {
             }
         });
 
+        /**
+         * Observes number of entrants drawn, binds value on change
+         * @param selectedCount new count
+         */
+        viewModel.selectedCount.observe(getViewLifecycleOwner(), selectedCount -> {
+            if (selectedCount != null) {
+                bindSelectedUsersCount(selectedCount);
+            }
+        });
+
         /**
          * Observes message, makes toast on message
          * @param message message to show
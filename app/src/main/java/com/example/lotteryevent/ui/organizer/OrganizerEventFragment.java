@@ -11,7 +11,6 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.os.Environment;
 import android.provider.MediaStore;
-import android.util.Base64;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -30,14 +29,18 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 import androidx.exifinterface.media.ExifInterface;
 
+import com.bumptech.glide.Glide;
 import com.example.lotteryevent.R;
 import com.example.lotteryevent.repository.IOrganizerEventRepository;
 import com.example.lotteryevent.repository.OrganizerEventRepositoryImpl;
+import com.example.lotteryevent.utilities.PosterEncoder;
+import com.example.lotteryevent.utilities.PosterModel;
 import com.example.lotteryevent.viewmodels.GenericViewModelFactory;
 import com.example.lotteryevent.viewmodels.OrganizerEventViewModel;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.Timestamp;
 
-import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -54,8 +57,9 @@ public class OrganizerEventFragment extends Fragment {
 
     private static final String TAG = "OrganizerEventPage";
     private static final int REQUEST_POSTER_IMAGE = 2001;
+    // Incremented for every picked poster, so an outdated encoding is ignored
+    private int posterRequest = 0;
     private static final int POSTER_MAX_DIM_PX = 1200; // longest side cap
-    private static final int POSTER_JPEG_QUALITY = 80; // keep existing quality
 
     private OrganizerEventViewModel viewModel;
     private String eventId;
@@ -168,24 +172,19 @@ public class OrganizerEventFragment extends Fragment {
                             btnViewEntrantMap.setVisibility(View.GONE);
                         }
 
-                        // Display poster image if Base64 data is available
-                        String posterImageUrl = event.getPosterImageUrl();
-                        if (posterImageUrl != null && !posterImageUrl.isEmpty()) {
-                            try {
-                                byte[] bytes = Base64.decode(posterImageUrl, Base64.DEFAULT);
-                                Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-                                posterImage.setImageBitmap(bitmap);
-
-                                // Poster exists -> show "Update Poster"
-                                uploadPosterButton.setText("Update Poster");
-                            } catch (IllegalArgumentException e) {
-                                Log.e(TAG, "Invalid poster Base64 data", e);
-                                // Invalid data: keep placeholder and default label
-                                uploadPosterButton.setText("Upload Poster");
-                            }
+                        // Display poster image if the event has one
+                        if (event.hasPoster()) {
+                            // Poster exists -> show "Update Poster"
+                            uploadPosterButton.setText("Update Poster");
+                            // Decoded in the background, keeping the placeholder if it fails
+                            Glide.with(this)
+                                    .load(PosterModel.of(event, PosterEncoder.Variant.DETAIL))
+                                    .error(R.drawable.outline_add_photo_alternate_24)
+                                    .into(posterImage);
                         } else {
                             // No poster yet -> show default label and placeholder
                             uploadPosterButton.setText("Upload Poster");
+                            Glide.with(this).clear(posterImage);
                             posterImage.setImageResource(R.drawable.outline_add_photo_alternate_24);
                         }
                     }
@@ -343,17 +342,33 @@ public class OrganizerEventFragment extends Fragment {
             try {
                 Bitmap bitmap = decodeScaledBitmapFromUri(imageUri, POSTER_MAX_DIM_PX);
 
-                // Update the UI preview
+                // Update the UI preview, replacing any poster still loading
+                Glide.with(this).clear(posterImage);
                 posterImage.setImageBitmap(bitmap);
 
-                // Encode to Base64 and send to ViewModel to save on the event
-                String posterImageUrl = encodeBitmapToBase64(bitmap);
-                if (eventId != null && !eventId.isEmpty()) {
-                    viewModel.updateEventPoster(eventId, posterImageUrl);
-                    Toast.makeText(getContext(), "Event poster updated.", Toast.LENGTH_SHORT).show();
-                } else {
+                if (eventId == null || eventId.isEmpty()) {
                     Toast.makeText(getContext(), "Unable to update poster: missing event ID.", Toast.LENGTH_SHORT).show();
+                    return;
                 }
+                // Encode to Base64 in the background and send to ViewModel to save on the event
+                int request = ++posterRequest;
+                encodeBitmapToBase64(bitmap)
+                        /**
+                         * Saves the encoded poster on the event, unless a newer poster was picked meanwhile
+                         * @param task result of the encoding
+                         */
+                        .addOnCompleteListener(task -> {
+                            if (request != posterRequest || !isAdded()) {
+                                return;
+                            }
+                            if (task.isSuccessful()) {
+                                viewModel.updateEventPoster(eventId, task.getResult());
+                                Toast.makeText(getContext(), "Event poster updated.", Toast.LENGTH_SHORT).show();
+                            } else {
+                                Log.e(TAG, "Failed to encode poster image", task.getException());
+                                Toast.makeText(getContext(), "Failed to load image", Toast.LENGTH_SHORT).show();
+                            }
+                        });
             } catch (Exception e) {
                 Log.e(TAG, "Failed to load poster image", e);
                 Toast.makeText(getContext(), "Failed to load image", Toast.LENGTH_SHORT).show();
@@ -362,14 +377,14 @@ public class OrganizerEventFragment extends Fragment {
     }
 
     /**
-     * Encodes the given {@link Bitmap} as a Base64 string.
+     * Encodes the given {@link Bitmap} as a Base64 string at the detail poster size on
+     * {@link PosterEncoder#executor()}. The smaller poster sizes are derived from it when the
+     * poster is stored.
      * @param bitmap The bitmap to encode.
-     * @return A Base64-encoded representation of the bitmap.
+     * @return Task resolving to a Base64-encoded representation of the bitmap.
      */
-    private String encodeBitmapToBase64(Bitmap bitmap) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, POSTER_JPEG_QUALITY, baos);
-        return Base64.encodeToString(baos.toByteArray(), Base64.NO_WRAP);
+    private Task<String> encodeBitmapToBase64(Bitmap bitmap) {
+        return Tasks.call(PosterEncoder.executor(), () -> PosterEncoder.encode(bitmap, PosterEncoder.Variant.DETAIL));
     }
 
     /**
@@ -49,9 +49,7 @@ public class RunDrawFragment extends Fragment {
 
     // EventId passed from previous fragment
     private String eventId = "temporary filler for event ID";
-    private String oldEntrantsStatus;
-    private String newChosenEntrants;
-    private String newUnchosenEntrants;
+    private String drawId;
 
     // ViewModel
     private RunDrawViewModel viewModel;
@@ -178,27 +176,11 @@ public class RunDrawFragment extends Fragment {
         });
 
         /**
-         * Observes old entrants status
-         * @param oldEntrantStatus old status of entrants
+         * Observes the ID of the journal recording the draw
+         * @param drawId ID of the draw journal
          */
-        viewModel.oldEntrantsStatus.observe(getViewLifecycleOwner(), oldEntrantsStatus -> {
-            this.oldEntrantsStatus = oldEntrantsStatus;
-        });
-
-        /**
-         * Observes new chosen entrants status
-         * @param newChosenEntrants new chosen entrants
-         */
-        viewModel.newChosenEntrants.observe(getViewLifecycleOwner(), newChosenEntrants -> {
-            this.newChosenEntrants = newChosenEntrants;
-        });
-
-        /**
-         * Observes new unchosen entrants status
-         * @param newUnchosenEntrants new unchosen entrants
-         */
-        viewModel.newUnchosenEntrants.observe(getViewLifecycleOwner(), newUnchosenEntrants -> {
-            this.newUnchosenEntrants = newUnchosenEntrants;
+        viewModel.drawId.observe(getViewLifecycleOwner(), drawId -> {
+            this.drawId = drawId;
         });
 
         /**
@@ -209,9 +191,7 @@ public class RunDrawFragment extends Fragment {
             if (success != null && success) {
                 Bundle bundle = new Bundle();
                 bundle.putString("eventId", eventId);
-                bundle.putString("oldEntrantsStatus", oldEntrantsStatus);
-                bundle.putString("newChosenEntrants", newChosenEntrants);
-                bundle.putString("newUnchosenEntrants", newUnchosenEntrants);
+                bundle.putString("drawId", drawId);
 
                 Navigation.findNavController(requireView())
                         .navigate(R.id.action_runDrawFragment_to_confirmDrawAndNotifyFragment, bundle);
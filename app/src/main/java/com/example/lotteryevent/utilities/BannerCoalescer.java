@@ -0,0 +1,96 @@
+package com.example.lotteryevent.utilities;
+
+import com.example.lotteryevent.data.Notification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects notifications arriving in a burst, such as the results of a draw, so their banners can
+ * be posted together as one group per event instead of one alerting banner each.
+ * <p>
+ *     The first notification added to an empty coalescer opens a window of {@link #WINDOW_MS};
+ *     the caller drains everything collected once the window closes. Banner IDs are derived from
+ *     the notification or group they belong to, so they stay the same across processes and never
+ *     need to be stored in Firestore.
+ * </p>
+ */
+public class BannerCoalescer {
+
+    /**
+     * Time notifications are collected for after the first one of a burst arrives
+     */
+    public static final long WINDOW_MS = 1500;
+
+    /**
+     * Group of notifications not tied to an event
+     */
+    static final String GENERAL_GROUP = "lottery_general";
+
+    private final Map<String, List<Notification>> pending = new LinkedHashMap<>();
+
+    /**
+     * Adds a notification to the current burst
+     * @param notification notification to show a banner for
+     * @return true if it opened a new window, meaning the caller should schedule a drain
+     */
+    public synchronized boolean add(Notification notification) {
+        boolean opened = pending.isEmpty();
+        String key = groupKey(notification.getEventId());
+        List<Notification> group = pending.get(key);
+        if (group == null) {
+            group = new ArrayList<>();
+            pending.put(key, group);
+        }
+        group.add(notification);
+        return opened;
+    }
+
+    /**
+     * Takes every notification collected since the window opened
+     * @return notifications by group key, in order of arrival
+     */
+    public synchronized Map<String, List<Notification>> drain() {
+        Map<String, List<Notification>> burst = new LinkedHashMap<>(pending);
+        pending.clear();
+        return burst;
+    }
+
+    /**
+     * Gets the banner group of an event
+     * @param eventId event the notification is about, may be null
+     * @return group key shared by the event's banners
+     */
+    public static String groupKey(String eventId) {
+        return eventId == null ? GENERAL_GROUP : "event_" + eventId;
+    }
+
+    /**
+     * Gets the banner ID of a notification
+     * @param notificationId ID of the notification
+     * @return stable banner ID
+     */
+    public static int bannerId(String notificationId) {
+        return stableId("notification:" + notificationId);
+    }
+
+    /**
+     * Gets the banner ID of a group's summary
+     * @param groupKey group key from {@link #groupKey(String)}
+     * @return stable banner ID
+     */
+    public static int summaryId(String groupKey) {
+        return stableId("summary:" + groupKey);
+    }
+
+    /**
+     * Maps a key to a banner ID above the range used by sequential banner IDs
+     * @param key key to map
+     * @return ID between 2^30 and 2^31 - 1
+     */
+    private static int stableId(String key) {
+        return (key.hashCode() & 0x3fffffff) | 0x40000000;
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk write engine for Firestore.
+ * <p>
+ *     Firestore rejects any WriteBatch holding more than 500 operations, so bulk mutations
+ *     are queued here and split into batches of at most {@link #MAX_BATCH_SIZE} operations.
+ *     Several batches are committed at once, with at most {@code maxInFlight} commits
+ *     outstanding; a new batch is started each time one finishes.
+ * </p>
+ * <p>
+ *     Features:
+ *     <ul>
+ *         <li>Queue set, update and delete operations</li>
+ *         <li>Queue a group of writes that must land in the same batch (e.g. a status
+ *         update together with the counter it affects)</li>
+ *         <li>Report progress after every batch through a {@link ProgressListener}</li>
+ *         <li>Report partial failures through a {@link PartialFailureException}</li>
+ *     </ul>
+ * </p>
+ */
+public class BatchWriter {
+
+    private static final String TAG = "BatchWriter";
+
+    /**
+     * Maximum number of operations Firestore accepts in a single WriteBatch
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Default number of batch commits allowed in flight at the same time
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    /**
+     * One or more writes applied to the same batch
+     */
+    public interface Operation {
+        /**
+         * Adds this operation's writes to the batch
+         * @param batch batch to write to
+         */
+        void apply(WriteBatch batch);
+    }
+
+    /**
+     * Receives progress after every batch commit completes
+     */
+    public interface ProgressListener {
+        /**
+         * Called after a batch commit completes
+         * @param committedOps number of operations committed so far
+         * @param failedOps number of operations in batches that failed so far
+         * @param totalOps total number of operations queued
+         */
+        void onProgress(int committedOps, int failedOps, int totalOps);
+    }
+
+    /**
+     * Outcome of a commit
+     */
+    public static class Result {
+        private final int totalOps;
+        private final int committedOps;
+        private final int failedOps;
+        private final List<Exception> errors;
+
+        /**
+         * Creates a result
+         * @param totalOps total number of operations queued
+         * @param committedOps number of operations committed
+         * @param failedOps number of operations in failed batches
+         * @param errors exceptions thrown by the failed batches
+         */
+        Result(int totalOps, int committedOps, int failedOps, List<Exception> errors) {
+            this.totalOps = totalOps;
+            this.committedOps = committedOps;
+            this.failedOps = failedOps;
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        public int getTotalOps() { return totalOps; }
+
+        public int getCommittedOps() { return committedOps; }
+
+        public int getFailedOps() { return failedOps; }
+
+        public List<Exception> getErrors() { return errors; }
+
+        /**
+         * @return true if every batch was committed
+         */
+        public boolean isSuccessful() { return failedOps == 0; }
+    }
+
+    /**
+     * Thrown through the commit task when one or more batches failed.
+     * Batches are independent, so the other batches may still have been committed.
+     */
+    public static class PartialFailureException extends Exception {
+        private final Result result;
+
+        /**
+         * Creates the exception for a result with failed batches
+         * @param result outcome of the commit
+         */
+        public PartialFailureException(Result result) {
+            super(result.getFailedOps() + " of " + result.getTotalOps() + " writes failed",
+                    result.getErrors().isEmpty() ? null : result.getErrors().get(0));
+            this.result = result;
+        }
+
+        public Result getResult() { return result; }
+    }
+
+    private final FirebaseFirestore db;
+    private final int batchSize;
+    private final int maxInFlight;
+
+    private final List<Operation> operations = new ArrayList<>();
+    private final List<Integer> operationSizes = new ArrayList<>();
+    private int totalOps = 0;
+
+    /**
+     * Creates a writer using the maximum batch size and default in-flight window
+     * @param db Firestore instance
+     */
+    public BatchWriter(FirebaseFirestore db) {
+        this(db, MAX_BATCH_SIZE, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Creates a writer with a custom batch size and in-flight window
+     * @param db Firestore instance
+     * @param batchSize maximum operations per batch, between 1 and {@link #MAX_BATCH_SIZE}
+     * @param maxInFlight maximum number of batch commits running at once, at least 1
+     */
+    public BatchWriter(FirebaseFirestore db, int batchSize, int maxInFlight) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("batchSize must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.db = db;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Queues a set of a whole document
+     * @param ref document to write
+     * @param data document contents
+     * @return this writer
+     */
+    public BatchWriter set(DocumentReference ref, Object data) {
+        return add(1, batch -> batch.set(ref, data));
+    }
+
+    /**
+     * Queues a set of a document with options (e.g. merge)
+     * @param ref document to write
+     * @param data document contents
+     * @param options set options
+     * @return this writer
+     */
+    public BatchWriter set(DocumentReference ref, Object data, SetOptions options) {
+        return add(1, batch -> batch.set(ref, data, options));
+    }
+
+    /**
+     * Queues an update of a single field
+     * @param ref document to update
+     * @param field field name
+     * @param value new value
+     * @return this writer
+     */
+    public BatchWriter update(DocumentReference ref, String field, Object value) {
+        return add(1, batch -> batch.update(ref, field, value));
+    }
+
+    /**
+     * Queues an update of several fields
+     * @param ref document to update
+     * @param fields field names mapped to new values
+     * @return this writer
+     */
+    public BatchWriter update(DocumentReference ref, Map<String, Object> fields) {
+        return add(1, batch -> batch.update(ref, fields));
+    }
+
+    /**
+     * Queues a delete
+     * @param ref document to delete
+     * @return this writer
+     */
+    public BatchWriter delete(DocumentReference ref) {
+        return add(1, batch -> batch.delete(ref));
+    }
+
+    /**
+     * Queues a group of writes that is guaranteed to be committed in the same batch
+     * @param opCount number of writes the operation adds to the batch
+     * @param operation writes to apply
+     * @return this writer
+     */
+    public BatchWriter add(int opCount, Operation operation) {
+        if (opCount < 1 || opCount > batchSize) {
+            throw new IllegalArgumentException("opCount must be between 1 and " + batchSize);
+        }
+        operations.add(operation);
+        operationSizes.add(opCount);
+        totalOps += opCount;
+        return this;
+    }
+
+    /**
+     * @return total number of writes queued
+     */
+    public int size() {
+        return totalOps;
+    }
+
+    /**
+     * @return true if nothing is queued
+     */
+    public boolean isEmpty() {
+        return totalOps == 0;
+    }
+
+    /**
+     * @return number of batches the queued writes are split into
+     */
+    public int getBatchCount() {
+        return packBatches().size();
+    }
+
+    /**
+     * Commits all queued writes without progress reporting
+     * @return task resolving to the result, or failing with {@link PartialFailureException}
+     */
+    public Task<Result> commit() {
+        return commit(null);
+    }
+
+    /**
+     * Commits all queued writes in batches, keeping at most {@code maxInFlight} commits running.
+     * @param listener optional listener notified after every batch
+     * @return task resolving to the result, or failing with {@link PartialFailureException}
+     * if any batch failed
+     */
+    public Task<Result> commit(@Nullable ProgressListener listener) {
+        TaskCompletionSource<Result> source = new TaskCompletionSource<>();
+        List<List<Integer>> batches = packBatches();
+        if (batches.isEmpty()) {
+            source.setResult(new Result(0, 0, 0, new ArrayList<>()));
+            return source.getTask();
+        }
+        new Pipeline(batches, listener, source).start();
+        return source.getTask();
+    }
+
+    /**
+     * Groups queued operations into batches without splitting any operation across batches
+     * @return batches as lists of operation indexes
+     */
+    private List<List<Integer>> packBatches() {
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int currentSize = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            int size = operationSizes.get(i);
+            if (currentSize + size > batchSize) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentSize = 0;
+            }
+            current.add(i);
+            currentSize += size;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Commits batches with a bounded number in flight and aggregates their outcome
+     */
+    private class Pipeline {
+        private final List<List<Integer>> batches;
+        private final ProgressListener listener;
+        private final TaskCompletionSource<Result> source;
+        private final List<Exception> errors = new ArrayList<>();
+
+        private int nextBatch = 0;
+        private int finishedBatches = 0;
+        private int committedOps = 0;
+        private int failedOps = 0;
+
+        Pipeline(List<List<Integer>> batches, ProgressListener listener, TaskCompletionSource<Result> source) {
+            this.batches = batches;
+            this.listener = listener;
+            this.source = source;
+        }
+
+        /**
+         * Starts the first window of batch commits
+         */
+        synchronized void start() {
+            while (nextBatch < batches.size() && nextBatch < maxInFlight) {
+                launchNext();
+            }
+        }
+
+        /**
+         * Builds and commits the next batch. Must be called while holding the lock.
+         */
+        private void launchNext() {
+            List<Integer> indexes = batches.get(nextBatch++);
+            int batchOps = 0;
+            WriteBatch batch = db.batch();
+            for (int index : indexes) {
+                operations.get(index).apply(batch);
+                batchOps += operationSizes.get(index);
+            }
+            final int ops = batchOps;
+            /**
+             * Records the batch outcome and starts the next batch
+             * @param task result of the batch commit
+             */
+            batch.commit().addOnCompleteListener(task -> onBatchComplete(ops, task));
+        }
+
+        /**
+         * Records a finished batch, launches the next one and completes the task when all are done
+         * @param ops number of operations in the batch
+         * @param task result of the batch commit
+         */
+        private void onBatchComplete(int ops, @NonNull Task<Void> task) {
+            Result finished = null;
+            int committed;
+            int failed;
+            synchronized (this) {
+                if (task.isSuccessful()) {
+                    committedOps += ops;
+                } else {
+                    failedOps += ops;
+                    errors.add(task.getException());
+                    Log.w(TAG, "Batch of " + ops + " writes failed", task.getException());
+                }
+                finishedBatches++;
+                if (nextBatch < batches.size()) {
+                    launchNext();
+                }
+                committed = committedOps;
+                failed = failedOps;
+                if (finishedBatches == batches.size()) {
+                    finished = new Result(totalOps, committedOps, failedOps, new ArrayList<>(errors));
+                }
+            }
+
+            if (listener != null) {
+                listener.onProgress(committed, failed, totalOps);
+            }
+            if (finished != null) {
+                if (finished.isSuccessful()) {
+                    source.setResult(finished);
+                } else {
+                    source.setException(new PartialFailureException(finished));
+                }
+            }
+        }
+    }
+}
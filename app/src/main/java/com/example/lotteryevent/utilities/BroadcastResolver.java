@@ -0,0 +1,229 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Log;
+
+import com.example.lotteryevent.data.Broadcast;
+import com.example.lotteryevent.data.Notification;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges broadcast pointers in the {@code notifications} collection with their {@link Broadcast}
+ * content when notifications are read.
+ * <p>
+ *     Broadcasts never change once sent, so fetched broadcasts are kept in a small in-memory cache
+ *     shared by the inbox and the notification banners. Missing broadcasts are fetched with
+ *     {@code whereIn} queries of up to {@link #WHERE_IN_LIMIT} IDs each.
+ * </p>
+ * <p>
+ *     A pointer is never dropped. If its broadcast could not be fetched it is kept with placeholder
+ *     content and {@link #isUnresolved} reports it, so the caller can tell the user; the broadcast
+ *     is not cached, so the next resolve fetches it again. A broadcast that no longer exists is
+ *     remembered as gone and its pointer says so.
+ * </p>
+ */
+public final class BroadcastResolver {
+
+    private static final String TAG = "BroadcastResolver";
+
+    /**
+     * Maximum number of IDs in a single {@code whereIn} query
+     */
+    static final int WHERE_IN_LIMIT = 10;
+
+    /**
+     * Number of broadcasts kept in memory, evicting the least recently used
+     */
+    static final int CACHE_SIZE = 200;
+
+    /**
+     * Number of times a chunk of IDs is fetched before its pointers are left unresolved
+     */
+    static final int FETCH_ATTEMPTS = 2;
+
+    static final String UNAVAILABLE_TITLE = "Message unavailable";
+    static final String UNRESOLVED_MESSAGE = "This message could not be loaded. Check your connection and refresh.";
+    static final String GONE_MESSAGE = "This message is no longer available.";
+
+    // Cached in place of broadcasts that were fetched but do not exist
+    private static final Broadcast GONE = new Broadcast();
+
+    private static final Map<String, Broadcast> cache = new LinkedHashMap<String, Broadcast>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Broadcast> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private BroadcastResolver() {}
+
+    /**
+     * Fills in the content of every broadcast pointer in a list. Notifications stored inline are
+     * returned unchanged. Pointers whose broadcast could not be fetched, or no longer exists, keep
+     * placeholder content. The task never fails.
+     * @param db Firestore instance
+     * @param notifications notifications as read from the {@code notifications} collection
+     * @return task resolving to the notifications with their content, in the same order
+     */
+    public static Task<List<Notification>> resolve(FirebaseFirestore db, List<Notification> notifications) {
+        Set<String> missing = new LinkedHashSet<>();
+        synchronized (cache) {
+            for (Notification notification : notifications) {
+                String broadcastId = notification.getBroadcastId();
+                if (broadcastId != null && !cache.containsKey(broadcastId)) {
+                    missing.add(broadcastId);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return Tasks.forResult(merge(notifications));
+        }
+
+        List<Task<Void>> fetches = new ArrayList<>();
+        List<String> ids = new ArrayList<>(missing);
+        for (int i = 0; i < ids.size(); i += WHERE_IN_LIMIT) {
+            fetches.add(fetchChunk(db, ids.subList(i, Math.min(i + WHERE_IN_LIMIT, ids.size())), FETCH_ATTEMPTS));
+        }
+
+        return Tasks.whenAllComplete(fetches)
+                /**
+                 * Merges the cached broadcasts into the notifications once every chunk was fetched or gave up
+                 * @param task outcome of the chunks; failed chunks leave their pointers unresolved
+                 */
+                .continueWith(task -> merge(notifications));
+    }
+
+    /**
+     * Fetches one chunk of broadcasts into the cache, retrying a failed fetch. IDs the query does
+     * not return are cached as gone.
+     * @param db Firestore instance
+     * @param ids IDs of the chunk, at most {@link #WHERE_IN_LIMIT}
+     * @param attempts fetches left, including this one
+     * @return task completing once the chunk is cached, failing if every attempt failed
+     */
+    private static Task<Void> fetchChunk(FirebaseFirestore db, List<String> ids, int attempts) {
+        return db.collection("broadcasts")
+                .whereIn(FieldPath.documentId(), ids)
+                .get()
+                /**
+                 * Caches the chunk, or tries again if attempts are left
+                 * @param task result of the query
+                 */
+                .continueWithTask(task -> {
+                    if (task.isSuccessful()) {
+                        Set<String> gone = new LinkedHashSet<>(ids);
+                        for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                            Broadcast broadcast = doc.toObject(Broadcast.class);
+                            if (broadcast != null) {
+                                put(doc.getId(), broadcast);
+                                gone.remove(doc.getId());
+                            }
+                        }
+                        for (String id : gone) {
+                            putGone(id);
+                        }
+                        return Tasks.forResult(null);
+                    }
+                    if (attempts > 1) {
+                        return fetchChunk(db, ids, attempts - 1);
+                    }
+                    Log.w(TAG, "Failed to fetch broadcasts " + ids + "; their notifications stay unresolved",
+                            task.getException());
+                    return Tasks.forException(task.getException());
+                });
+    }
+
+    /**
+     * Checks whether a notification is a pointer whose broadcast could not be fetched
+     * @param notification notification returned by {@link #resolve}
+     * @return true if it holds placeholder content and will be fetched again by the next resolve
+     */
+    public static boolean isUnresolved(Notification notification) {
+        String broadcastId = notification.getBroadcastId();
+        if (broadcastId == null) {
+            return false;
+        }
+        synchronized (cache) {
+            return !cache.containsKey(broadcastId);
+        }
+    }
+
+    /**
+     * Checks whether any notification in a list could not be resolved
+     * @param notifications notifications returned by {@link #resolve}
+     * @return true if at least one holds placeholder content until the next resolve
+     */
+    public static boolean hasUnresolved(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (isUnresolved(notification)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a broadcast to the cache
+     * @param broadcastId ID of the broadcast
+     * @param broadcast its content
+     */
+    static void put(String broadcastId, Broadcast broadcast) {
+        synchronized (cache) {
+            cache.put(broadcastId, broadcast);
+        }
+    }
+
+    /**
+     * Removes every broadcast from the cache
+     */
+    static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Marks a broadcast as fetched but no longer existing
+     * @param broadcastId ID of the broadcast
+     */
+    static void putGone(String broadcastId) {
+        put(broadcastId, GONE);
+    }
+
+    /**
+     * Fills in the pointers from the cache, giving pointers without content a placeholder
+     * @param notifications notifications to merge
+     * @return every notification, in the same order
+     */
+    static List<Notification> merge(List<Notification> notifications) {
+        List<Notification> merged = new ArrayList<>(notifications.size());
+        synchronized (cache) {
+            for (Notification notification : notifications) {
+                String broadcastId = notification.getBroadcastId();
+                if (broadcastId == null) {
+                    merged.add(notification);
+                    continue;
+                }
+                Broadcast broadcast = cache.get(broadcastId);
+                if (broadcast == null || broadcast == GONE) {
+                    notification.setTitle(UNAVAILABLE_TITLE);
+                    notification.setMessage(broadcast == null ? UNRESOLVED_MESSAGE : GONE_MESSAGE);
+                } else {
+                    broadcast.applyTo(notification);
+                }
+                merged.add(notification);
+            }
+        }
+        return merged;
+    }
+}
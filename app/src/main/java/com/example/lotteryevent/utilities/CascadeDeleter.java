@@ -0,0 +1,530 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.lotteryevent.data.DeleteJob;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs cascading deletes ({@link DeleteJob}) page by page with checkpoints.
+ * <p>
+ *     Each step is drained in pages of {@link #PAGE_SIZE} documents ordered by document ID.
+ *     After every page the job document is saved with the step, cursor and number of documents
+ *     deleted so far, and the engine pauses briefly before the next page. Only one page is held in
+ *     memory at a time, so deleting a large organizer costs the same memory as deleting a small one.
+ * </p>
+ * <p>
+ *     A job that fails, or whose process dies, stays in {@code deleteJobs} as running or failed.
+ *     {@link #resumePending} picks such jobs up again from their last checkpoint once their retry
+ *     delay has passed, and gives up on them after {@link DeleteJob#MAX_ATTEMPTS} runs.
+ * </p>
+ * <p>
+ *     Resuming queries {@code deleteJobs} by {@code startedBy} and {@code status}, which needs the
+ *     composite index declared in {@code firestore.indexes.json}.
+ * </p>
+ */
+public class CascadeDeleter {
+
+    private static final String TAG = "CascadeDeleter";
+
+    /**
+     * Documents read and deleted per page
+     */
+    static final int PAGE_SIZE = 200;
+
+    /**
+     * Pause between pages, leaving room for the app's other writes
+     */
+    static final long PAGE_DELAY_MS = 100;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    // Jobs running in this process, so a resume never runs a job twice
+    private static final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    private final FirebaseFirestore db;
+
+    /**
+     * Receives a job after each of its pages is checkpointed
+     */
+    public interface ProgressListener {
+        /**
+         * Called on the main thread after a page was deleted and saved
+         * @param job the job, with its updated step and deleted count
+         */
+        void onProgress(DeleteJob job);
+    }
+
+    /**
+     * Creates a deleter
+     * @param db Firestore instance
+     */
+    public CascadeDeleter(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Gets the collection holding delete jobs
+     * @param db Firestore instance
+     * @return reference to {@code deleteJobs}
+     */
+    public static CollectionReference jobsRef(FirebaseFirestore db) {
+        return db.collection("deleteJobs");
+    }
+
+    /**
+     * Saves a new job and runs it to completion
+     * @param job job to run
+     * @param listener receives progress after each page, may be null
+     * @return task resolving to the finished job, failing if any step failed
+     */
+    public Task<DeleteJob> start(DeleteJob job, @Nullable ProgressListener listener) {
+        DocumentReference jobRef = jobsRef(db).document();
+        job.setJobId(jobRef.getId());
+        job.startAttempt();
+        return jobRef.set(job)
+                /**
+                 * Runs the job once its checkpoint document exists
+                 * @param aVoid unusable data
+                 */
+                .onSuccessTask(aVoid -> run(jobRef, job, listener));
+    }
+
+    /**
+     * Resumes the unfinished jobs a user started, such as those interrupted by process death.
+     * Jobs still waiting out their retry delay are left for a later resume, and jobs out of
+     * attempts are marked abandoned.
+     * @param uid ID of the user who started the jobs
+     * @param listener receives progress after each page, may be null
+     * @return task resolving to the resumed jobs once they all finish
+     */
+    public Task<List<DeleteJob>> resumePending(String uid, @Nullable ProgressListener listener) {
+        return jobsRef(db)
+                .whereEqualTo("startedBy", uid)
+                .whereIn("status", Arrays.asList(DeleteJob.STATUS_RUNNING, DeleteJob.STATUS_FAILED))
+                .get()
+                /**
+                 * Runs every unfinished job from its last checkpoint
+                 * @param snapshot the user's unfinished jobs
+                 */
+                .onSuccessTask(snapshot -> {
+                    List<DeleteJob> jobs = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        DeleteJob job = doc.toObject(DeleteJob.class);
+                        if (job != null) {
+                            jobs.add(job);
+                        }
+                    }
+                    List<Task<DeleteJob>> runs = new ArrayList<>();
+                    List<Task<Void>> abandoned = new ArrayList<>();
+                    for (DeleteJob job : jobs) {
+                        DocumentReference jobRef = jobsRef(db).document(job.getJobId());
+                        if (!job.hasAttemptsLeft()) {
+                            // Its last run died with the process, so it never recorded the failure
+                            Log.w(TAG, "Abandoning " + job.getType() + " delete " + job.getJobId());
+                            job.fail(job.getError());
+                            abandoned.add(checkpoint(jobRef, job));
+                        }
+                    }
+                    for (DeleteJob job : resumable(jobs, System.currentTimeMillis())) {
+                        DocumentReference jobRef = jobsRef(db).document(job.getJobId());
+                        Log.d(TAG, "Resuming " + job.getType() + " delete " + job.getJobId()
+                                + ", attempt " + (job.getAttempts() + 1));
+                        job.startAttempt();
+                        // The attempt is saved before running, so a job that kills the process still uses it up
+                        runs.add(checkpoint(jobRef, job).onSuccessTask(aVoid -> run(jobRef, job, listener)));
+                    }
+                    return Tasks.whenAll(abandoned).continueWithTask(task -> Tasks.<DeleteJob>whenAllSuccess(runs));
+                });
+    }
+
+    /**
+     * Picks the unfinished jobs to run again now
+     * @param jobs unfinished jobs
+     * @param nowMillis current time in milliseconds
+     * @return jobs not running in this process whose retry delay has passed and that have attempts left
+     */
+    static List<DeleteJob> resumable(List<DeleteJob> jobs, long nowMillis) {
+        List<DeleteJob> due = new ArrayList<>();
+        for (DeleteJob job : jobs) {
+            if (!activeJobs.contains(job.getJobId()) && job.isDueForRetry(nowMillis)) {
+                due.add(job);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Runs a saved job unless it is already running in this process
+     * @param jobRef checkpoint document of the job
+     * @param job job to run
+     * @param listener receives progress, may be null
+     * @return task resolving to the finished job
+     */
+    private Task<DeleteJob> run(DocumentReference jobRef, DeleteJob job, @Nullable ProgressListener listener) {
+        if (!activeJobs.add(job.getJobId())) {
+            return Tasks.forResult(job);
+        }
+        TaskCompletionSource<DeleteJob> done = new TaskCompletionSource<>();
+        runNextPage(jobRef, job, listener, done);
+        return done.getTask()
+                /**
+                 * Releases the job so it can be resumed again if it failed
+                 * @param task outcome of the job
+                 */
+                .continueWithTask(task -> {
+                    activeJobs.remove(job.getJobId());
+                    return task;
+                });
+    }
+
+    /**
+     * Deletes one page of the current step, saves the checkpoint and schedules the next page.
+     * Pages are chained through the completion source rather than nested tasks, so a long job
+     * does not build up a chain of pending tasks.
+     * @param jobRef checkpoint document of the job
+     * @param job job being run
+     * @param listener receives progress, may be null
+     * @param done completed when the job finishes or fails
+     */
+    private void runNextPage(DocumentReference jobRef, DeleteJob job, @Nullable ProgressListener listener,
+                             TaskCompletionSource<DeleteJob> done) {
+        if (job.isFinished()) {
+            job.setStatus(DeleteJob.STATUS_DONE);
+            checkpoint(jobRef, job)
+                    /**
+                     * Completes the job even if its final checkpoint could not be saved
+                     * @param task result of saving the checkpoint
+                     */
+                    .addOnCompleteListener(task -> {
+                        if (!task.isSuccessful()) {
+                            Log.w(TAG, "Failed to mark job " + job.getJobId() + " done", task.getException());
+                        }
+                        notifyProgress(listener, job);
+                        done.setResult(job);
+                    });
+            return;
+        }
+        runPage(job)
+                /**
+                 * Saves progress once the page is deleted
+                 * @param aVoid unusable data
+                 */
+                .onSuccessTask(aVoid -> checkpoint(jobRef, job))
+                /**
+                 * Reports progress and throttles before the next page
+                 * @param aVoid unusable data
+                 */
+                .onSuccessTask(aVoid -> {
+                    notifyProgress(listener, job);
+                    return delay(PAGE_DELAY_MS);
+                })
+                /**
+                 * Continues with the next page, or records the failure so the job can be resumed
+                 * @param task outcome of the page
+                 */
+                .addOnCompleteListener(task -> {
+                    if (task.isSuccessful()) {
+                        runNextPage(jobRef, job, listener, done);
+                        return;
+                    }
+                    Exception e = task.getException();
+                    Log.e(TAG, "Delete job " + job.getJobId() + " failed at " + job.getCurrentStep(), e);
+                    job.fail(e == null ? null : e.getMessage());
+                    checkpoint(jobRef, job)
+                            /**
+                             * Fails the job once the failure is recorded, or could not be
+                             * @param saveTask result of saving the checkpoint
+                             */
+                            .addOnCompleteListener(saveTask -> done.setException(e));
+                });
+    }
+
+    /**
+     * Runs one page of the job's current step, updating the job's cursor, step and deleted count
+     * @param job job being run
+     * @return task completing once the page is deleted
+     */
+    private Task<Void> runPage(DeleteJob job) {
+        String step = job.getCurrentStep();
+        int separator = step.indexOf(':');
+        String kind = step.substring(0, separator);
+        String argument = step.substring(separator + 1);
+
+        switch (kind) {
+            case DeleteJob.STEP_ENTRANTS:
+                /**
+                 * Deletes an entrant together with its registration; the event's counters are deleted later
+                 * @param writer writer to queue to
+                 * @param doc entrant document
+                 */
+                return deletePage(job, db.collection("events").document(argument).collection("entrants"),
+                        (writer, doc) -> {
+                            writer.add(2, batch -> {
+                                batch.delete(doc.getReference());
+                                RegistrationIndex.remove(batch, db, doc.getId(), argument);
+                            });
+                            return true;
+                        });
+            case DeleteJob.STEP_COLLECTION:
+                return deletePage(job, db.collection(argument), CascadeDeleter::queueDocumentDelete);
+            case DeleteJob.STEP_NOTIFICATIONS:
+                return deletePage(job, db.collection("notifications").whereEqualTo("recipientId", argument),
+                        CascadeDeleter::queueDocumentDelete);
+            case DeleteJob.STEP_REGISTRATIONS:
+                /**
+                 * Deletes the user's entrants in the registrations' events, adjusting those events' counters
+                 * @param docs registration documents of the page
+                 */
+                return drainPage(job, RegistrationIndex.collection(db, argument),
+                        docs -> EntrantCounters.deleteEntrants(db, argument, registeredEventIds(docs)));
+            case DeleteJob.STEP_INDEX_REGISTRATIONS:
+                // Makes sure users who registered before the index existed are indexed
+                return RegistrationIndex.load(db, argument).onSuccessTask(registrations -> advance(job));
+            case DeleteJob.STEP_ORGANIZED_EVENTS:
+                return expandOrganizedEvents(job, argument);
+            case DeleteJob.STEP_DOCUMENT:
+                /**
+                 * Moves on once the document is deleted
+                 * @param aVoid unusable data
+                 */
+                return db.document(argument).delete().onSuccessTask(aVoid -> {
+                    job.addDeleted(1);
+                    return advance(job);
+                });
+            case DeleteJob.STEP_RELEASE_POSTER:
+                // Clears the event's poster before releasing it, so running the step again is harmless
+                return PosterStore.detach(db, argument).onSuccessTask(aVoid -> advance(job));
+            case DeleteJob.STEP_CLEAR_PROFILE:
+                return clearProfile(argument).onSuccessTask(aVoid -> advance(job));
+            default:
+                return Tasks.forException(new IllegalStateException("Unknown delete step " + step));
+        }
+    }
+
+    /**
+     * Queues the deletes for one document of a page
+     */
+    interface PageOperation {
+        /**
+         * @param writer writer the page is committed with
+         * @param doc document read in the page
+         * @return true if a delete of the document was queued, so it counts as deleted
+         */
+        boolean queue(BatchWriter writer, DocumentSnapshot doc);
+    }
+
+    /**
+     * Deletes the documents of a page itself, such as in transactions
+     */
+    interface PageDeleter {
+        /**
+         * @param docs documents read in the page
+         * @return task resolving to the number of documents counted as deleted
+         */
+        Task<Integer> delete(List<DocumentSnapshot> docs);
+    }
+
+    /**
+     * Queues the delete of a document read in a page
+     * @param writer writer the page is committed with
+     * @param doc document to delete
+     * @return true, the document is always deleted
+     */
+    private static boolean queueDocumentDelete(BatchWriter writer, DocumentSnapshot doc) {
+        writer.delete(doc.getReference());
+        return true;
+    }
+
+    /**
+     * Gets the events a page of registrations points to. The index's marker document is not a
+     * registration and is left for the step deleting the registrations collection.
+     * @param docs registration documents of a page
+     * @return IDs of the registered events
+     */
+    static List<String> registeredEventIds(List<DocumentSnapshot> docs) {
+        List<String> eventIds = new ArrayList<>();
+        for (DocumentSnapshot doc : docs) {
+            if (!RegistrationIndex.MARKER_ID.equals(doc.getId())) {
+                eventIds.add(doc.getId());
+            }
+        }
+        return eventIds;
+    }
+
+    /**
+     * Reads the next page of a query after the job's cursor and deletes it in batches. The step
+     * advances once a page comes back short.
+     * @param job job being run
+     * @param query documents the step deletes
+     * @param operation queues the deletes for each document
+     * @return task completing once the page is deleted
+     */
+    private Task<Void> deletePage(DeleteJob job, Query query, PageOperation operation) {
+        /**
+         * Deletes the page one batch at a time
+         * @param docs documents of the page
+         */
+        return drainPage(job, query, docs -> {
+            BatchWriter writer = new BatchWriter(db, BatchWriter.MAX_BATCH_SIZE, 1);
+            int queued = 0;
+            for (DocumentSnapshot doc : docs) {
+                if (operation.queue(writer, doc)) {
+                    queued++;
+                }
+            }
+            int deleted = queued;
+            /**
+             * Counts the page as deleted once every batch of it committed
+             * @param result outcome of the batches
+             */
+            return writer.commit().onSuccessTask(result -> Tasks.forResult(deleted));
+        });
+    }
+
+    /**
+     * Reads the next page of a query after the job's cursor and deletes it. The step advances
+     * once a page comes back short.
+     * @param job job being run
+     * @param query documents the step deletes
+     * @param deleter deletes the documents of the page
+     * @return task completing once the page is deleted
+     */
+    private Task<Void> drainPage(DeleteJob job, Query query, PageDeleter deleter) {
+        Query page = query.orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+        if (job.getCursor() != null) {
+            page = page.startAfter(job.getCursor());
+        }
+        return page.get()
+                /**
+                 * Deletes the page and moves the cursor past it
+                 * @param snapshot documents of the page
+                 */
+                .onSuccessTask(snapshot -> {
+                    List<DocumentSnapshot> docs = snapshot.getDocuments();
+                    return deleter.delete(docs)
+                            /**
+                             * Records the page once it is deleted
+                             * @param deleted number of documents the page deleted
+                             */
+                            .onSuccessTask(deleted -> {
+                                job.addDeleted(deleted);
+                                if (docs.size() < PAGE_SIZE) {
+                                    return advance(job);
+                                }
+                                job.setCursor(docs.get(docs.size() - 1).getId());
+                                return Tasks.forResult(null);
+                            });
+                });
+    }
+
+    /**
+     * Splices the steps of the next page of an organizer's events in front of the current step.
+     * Each event deletes its own document last, so once they run the same query returns the next
+     * events; the step advances once no events remain.
+     * @param job job being run
+     * @param organizerId organizer whose events are deleted
+     * @return task completing once the next events are queued
+     */
+    private Task<Void> expandOrganizedEvents(DeleteJob job, String organizerId) {
+        return db.collection("events")
+                .whereEqualTo("organizerId", organizerId)
+                .limit(PAGE_SIZE)
+                .get()
+                /**
+                 * Queues the events found, or moves on if there are none
+                 * @param snapshot the organizer's remaining events
+                 */
+                .onSuccessTask(snapshot -> {
+                    if (snapshot.isEmpty()) {
+                        return advance(job);
+                    }
+                    List<String> steps = new ArrayList<>();
+                    for (DocumentSnapshot eventDoc : snapshot.getDocuments()) {
+                        steps.addAll(DeleteJob.eventSteps(eventDoc.getId()));
+                    }
+                    job.insertSteps(steps);
+                    return Tasks.forResult(null);
+                });
+    }
+
+    /**
+     * Clears sensitive user data from the user's document without deleting it.
+     * This retains the user's UID for referential integrity while anonymizing the profile.
+     * @param uid user whose profile is cleared
+     * @return task completing once the fields are cleared
+     */
+    private Task<Void> clearProfile(String uid) {
+        Map<String, Object> clearFields = new HashMap<>();
+        clearFields.put("name", null);
+        clearFields.put("email", null);
+        clearFields.put("phone", null);
+        clearFields.put("admin", false);
+        clearFields.put("optOutNotifications", true);
+        return db.collection("users").document(uid).update(clearFields);
+    }
+
+    /**
+     * Moves a job to its next step
+     * @param job job being run
+     * @return a completed task, for chaining
+     */
+    private static Task<Void> advance(DeleteJob job) {
+        job.advance();
+        return Tasks.forResult(null);
+    }
+
+    /**
+     * Saves a job's progress
+     * @param jobRef checkpoint document of the job
+     * @param job job being run
+     * @return task completing once saved
+     */
+    private static Task<Void> checkpoint(DocumentReference jobRef, DeleteJob job) {
+        job.setUpdatedAt(Timestamp.now());
+        return jobRef.set(job);
+    }
+
+    /**
+     * Reports a job's progress if anyone is listening
+     * @param listener listener, may be null
+     * @param job job being run
+     */
+    private static void notifyProgress(@Nullable ProgressListener listener, DeleteJob job) {
+        if (listener != null) {
+            listener.onProgress(job);
+        }
+    }
+
+    /**
+     * Creates a task that completes after a delay
+     * @param millis delay in milliseconds
+     * @return task completing after the delay
+     */
+    private static Task<Void> delay(long millis) {
+        TaskCompletionSource<Void> source = new TaskCompletionSource<>();
+        scheduler.schedule(() -> source.setResult(null), millis, TimeUnit.MILLISECONDS);
+        return source.getTask();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.lotteryevent.utilities;
+
+import java.util.Random;
+
+/**
+ * Uniform sampling over the draw ranks of an event's entrants.
+ * <p>
+ *     Every entrant joining a waiting list takes the next rank of one counter shard, so shard
+ *     {@code s} has handed out ranks {@code 0} to {@code joins[s] - 1} and every rank belongs to
+ *     at most one entrant. Numbering all ranks shard by shard gives one dense range of
+ *     {@link #total} ranks. A draw picks an index uniformly from that range and keeps the entrant
+ *     holding it only if it is still waiting and not already chosen; otherwise the probe is
+ *     rejected and drawn again. Every waiting entrant holds exactly one rank, so each accepted
+ *     probe is uniform over the waiting entrants not yet chosen, however ranks were freed by
+ *     entrants leaving or being invited.
+ * </p>
+ * <p>
+ *     Rejected probes cost one read each, so draws only probe while at least
+ *     1 in {@link #MIN_DENSITY_DIVISOR} ranks still belongs to a waiting entrant, and while the
+ *     probes expected for the winners fit {@link #PROBE_HEADROOM} times in the draw's probe budget.
+ *     A draw that would run out of probes goes straight to a full scan instead of reading the
+ *     probes first and the whole waiting list after.
+ * </p>
+ */
+public class DrawRanks {
+
+    /**
+     * Probing is only worth it while at least one rank in this many holds a waiting entrant
+     */
+    static final int MIN_DENSITY_DIVISOR = 4;
+
+    /**
+     * Upper bound on the probes sent in one round
+     */
+    static final int MAX_PROBES_PER_ROUND = 500;
+
+    /**
+     * The probe budget must cover the expected number of probes this many times over
+     */
+    static final int PROBE_HEADROOM = 2;
+
+    private DrawRanks() {}
+
+    /**
+     * Counts the ranks handed out over all shards
+     * @param joins ranks handed out by each shard, indexed by shard
+     * @return number of ranks
+     */
+    public static long total(long[] joins) {
+        long total = 0;
+        for (long shardJoins : joins) {
+            total += Math.max(0, shardJoins);
+        }
+        return total;
+    }
+
+    /**
+     * Finds the rank at a position of the dense range
+     * @param joins ranks handed out by each shard, indexed by shard
+     * @param index position, from 0 to {@link #total} - 1
+     * @return the shard and the rank within it
+     */
+    public static long[] at(long[] joins, long index) {
+        long remaining = index;
+        for (int shard = 0; shard < joins.length; shard++) {
+            long shardJoins = Math.max(0, joins[shard]);
+            if (remaining < shardJoins) {
+                return new long[]{shard, remaining};
+            }
+            remaining -= shardJoins;
+        }
+        throw new IllegalArgumentException("Rank " + index + " is past the last rank");
+    }
+
+    /**
+     * Picks a rank uniformly at random
+     * @param joins ranks handed out by each shard, indexed by shard; at least one rank
+     * @param random source of randomness
+     * @return the shard and the rank within it
+     */
+    public static long[] sample(long[] joins, Random random) {
+        return at(joins, nextLong(random, total(joins)));
+    }
+
+    /**
+     * Checks whether a draw should probe ranks rather than scan the waiting list
+     * @param waiting number of waiting entrants
+     * @param ranked number of waiting entrants holding a rank
+     * @param ranks number of ranks handed out
+     * @param numToSelect number of winners
+     * @param maxRounds probe rounds the draw may run, each of up to {@link #MAX_PROBES_PER_ROUND} probes
+     * @return true if every waiting entrant is ranked, the draw takes at most half of them, enough
+     * ranks are still held by waiting entrants, and the expected probes fit in the rounds with headroom
+     */
+    public static boolean worthProbing(long waiting, long ranked, long ranks, int numToSelect, int maxRounds) {
+        return waiting > 0 && ranked == waiting && numToSelect * 2L <= waiting
+                && ranks <= waiting * MIN_DENSITY_DIVISOR
+                && expectedProbes(waiting, ranks, numToSelect) * PROBE_HEADROOM
+                        <= (double) maxRounds * MAX_PROBES_PER_ROUND;
+    }
+
+    /**
+     * Bounds the number of probes a draw is expected to send. Once {@code j} winners are chosen a
+     * probe is accepted with probability {@code (waiting - j) / ranks}, so every winner takes at
+     * most {@code ranks / (waiting - numToSelect)} probes on average.
+     * @param waiting number of waiting entrants, more than {@code numToSelect}
+     * @param ranks number of ranks handed out
+     * @param numToSelect number of winners
+     * @return upper bound on the expected number of probes
+     */
+    static double expectedProbes(long waiting, long ranks, int numToSelect) {
+        return (double) ranks * numToSelect / (waiting - numToSelect);
+    }
+
+    /**
+     * Works out how many probes to send for the winners still missing, expecting that only
+     * {@code available} of the {@code ranks} are accepted
+     * @param missing winners still missing
+     * @param ranks number of ranks handed out
+     * @param available waiting entrants not chosen yet
+     * @return number of probes for the next round
+     */
+    public static int probesFor(int missing, long ranks, long available) {
+        if (missing <= 0) {
+            return 0;
+        }
+        long perWinner = (ranks + Math.max(1, available) - 1) / Math.max(1, available);
+        return (int) Math.min(MAX_PROBES_PER_ROUND, Math.max(1, missing * perWinner));
+    }
+
+    /**
+     * Picks a long uniformly from 0 to bound - 1
+     * @param random source of randomness
+     * @param bound exclusive upper bound, positive
+     * @return the value
+     */
+    private static long nextLong(Random random, long bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("No ranks to sample");
+        }
+        // Rejects the top of the range that would make some values more likely
+        long limit = Long.MAX_VALUE - Long.MAX_VALUE % bound;
+        long value;
+        do {
+            value = random.nextLong() >>> 1;
+        } while (value >= limit);
+        return value % bound;
+    }
+}
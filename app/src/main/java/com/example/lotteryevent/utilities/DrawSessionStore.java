@@ -0,0 +1,125 @@
+package com.example.lotteryevent.utilities;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * In-process hand-off of the latest lottery draw from the run draw screen to the confirm screen.
+ * <p>
+ *     A draw result can hold tens of thousands of entrant IDs. Instead of serializing them into
+ *     navigation arguments or saved state (which are parcelled through Binder and capped at
+ *     roughly 1MB), the run draw screen leaves the result here and passes only the event and draw
+ *     IDs. The confirm screen takes the same arrays back without any parsing and keeps them in its
+ *     ViewModel, so nothing stays in this store once the confirm screen has opened.
+ * </p>
+ * <p>
+ *     Only one draw is held at a time: a draw that was never confirmed is dropped by the next one,
+ *     and a session is only handed to the screen of the event and draw it belongs to. Sessions do
+ *     not survive process death. The draw journal in Firestore remains the source of truth, so a
+ *     missing session is always rebuilt from it.
+ * </p>
+ */
+public class DrawSessionStore {
+
+    private static final DrawSessionStore INSTANCE = new DrawSessionStore();
+
+    // The latest draw not yet taken by the confirm screen, with its ID
+    private String drawId;
+    private DrawSession session;
+
+    /**
+     * Result of a single draw, held as plain string arrays
+     */
+    public static class DrawSession {
+        private final String eventId;
+        private final String[] chosenEntrantIds;
+        private final String[] unchosenEntrantIds;
+
+        /**
+         * Creates a draw session
+         * @param eventId event the draw was run for
+         * @param chosenEntrantIds IDs of the entrants drawn
+         * @param unchosenEntrantIds IDs of the waiting entrants not drawn, or null if they were not loaded
+         */
+        public DrawSession(String eventId, String[] chosenEntrantIds, @Nullable String[] unchosenEntrantIds) {
+            this.eventId = eventId;
+            this.chosenEntrantIds = chosenEntrantIds;
+            this.unchosenEntrantIds = unchosenEntrantIds;
+        }
+
+        public String getEventId() { return eventId; }
+
+        /**
+         * @return read-only view of the drawn entrant IDs
+         */
+        public List<String> getChosenEntrantIds() {
+            return Collections.unmodifiableList(Arrays.asList(chosenEntrantIds));
+        }
+
+        /**
+         * @return read-only view of the entrant IDs not drawn, or null if they were not loaded
+         */
+        @Nullable
+        public List<String> getUnchosenEntrantIds() {
+            return unchosenEntrantIds == null ? null : Collections.unmodifiableList(Arrays.asList(unchosenEntrantIds));
+        }
+
+        /**
+         * @return number of entrants drawn
+         */
+        public int getChosenCount() { return chosenEntrantIds.length; }
+    }
+
+    /**
+     * Only one store exists per process
+     */
+    private DrawSessionStore() {}
+
+    /**
+     * @return the process-wide store
+     */
+    public static DrawSessionStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Leaves the result of a draw for the confirm screen, replacing any draw not taken yet
+     * @param drawId ID of the draw journal
+     * @param session result of the draw
+     */
+    public synchronized void put(String drawId, DrawSession session) {
+        this.drawId = drawId;
+        this.session = session;
+    }
+
+    /**
+     * Takes the result of a draw out of the store
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return the session, or null if the latest draw stored in this process is another one or was already taken
+     */
+    @Nullable
+    public synchronized DrawSession take(String eventId, String drawId) {
+        if (drawId == null || !drawId.equals(this.drawId) || !Objects.equals(eventId, session.getEventId())) {
+            return null;
+        }
+        DrawSession taken = session;
+        remove(drawId);
+        return taken;
+    }
+
+    /**
+     * Discards the result of a draw if it has not been taken yet
+     * @param drawId ID of the draw journal
+     */
+    public synchronized void remove(String drawId) {
+        if (drawId != null && drawId.equals(this.drawId)) {
+            this.drawId = null;
+            this.session = null;
+        }
+    }
+}
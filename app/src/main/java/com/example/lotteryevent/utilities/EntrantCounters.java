@@ -0,0 +1,1249 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.lotteryevent.data.EventStats;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the materialized entrant counts of events ({@link EventStats}).
+ * <p>
+ *     Every write that changes an entrant's status must also apply the matching counter
+ *     transition in the same transaction or batch, so the counts never drift from the
+ *     entrants subcollection. The previous status must be the one read in that same transaction
+ *     ({@link #changeStatuses} does this for bulk changes), never one assumed by the caller.
+ * </p>
+ * <p>
+ *     Counts are sharded: an event's {@code stats} subcollection holds the base {@code counts}
+ *     document plus up to {@code counterShards - 1} extra shards ({@code shard_1}, {@code shard_2}, ...).
+ *     Single-entrant writes such as joining go to a random extra shard, so a burst of joins is
+ *     spread over many documents instead of queueing on one. The base document only takes bulk
+ *     and organizer writes, which are rare. Reads sum every document in the subcollection, so
+ *     they never need to know the shard count, and are cached briefly.
+ * </p>
+ * <p>
+ *     Each shard also hands out draw ranks: an entrant joining through a shard takes its next
+ *     rank ({@link #reserveJoin}), which {@link DrawRanks} samples to draw winners uniformly.
+ * </p>
+ * <p>
+ *     A waiting list limit is enforced without reading every shard ({@link #reserveWaitingSlot}):
+ *     the room left after the base document's count is split into a quota per extra shard, and a
+ *     join only reads the base document and the shard it increments. Joins therefore only
+ *     conflict with joins landing on the same shard.
+ * </p>
+ * <p>
+ *     Events created before the counters existed have no initialized base document. The first
+ *     {@link #load} of such an event computes the counts with aggregate queries and stores them.
+ * </p>
+ */
+public class EntrantCounters {
+
+    private static final String TAG = "EntrantCounters";
+
+    /**
+     * Entrant statuses that are counted
+     */
+    public static final List<String> STATUSES = Collections.unmodifiableList(
+            Arrays.asList("waiting", "invited", "accepted", "declined", "cancelled"));
+
+    /**
+     * Shard count for events that do not set one
+     */
+    public static final int DEFAULT_SHARDS = 1;
+
+    /**
+     * Shard count recommended for events expecting a registration stampede
+     */
+    public static final int HOT_EVENT_SHARDS = 10;
+
+    /**
+     * Upper bound on shards per event, keeping reads cheap
+     */
+    public static final int MAX_SHARDS = 50;
+
+    /**
+     * Entrants moved per transaction by {@link #changeStatuses}: two writes each (entrant and
+     * registration) plus one counter write stay within Firestore's 500 write limit
+     */
+    static final int TRANSACTION_GROUP = (BatchWriter.MAX_BATCH_SIZE - 1) / 2;
+
+    /**
+     * Entrants deleted per transaction by {@link #deleteEntrants}: an entrant delete, a
+     * registration delete and a counter write each
+     */
+    static final int DELETE_GROUP = BatchWriter.MAX_BATCH_SIZE / 3;
+
+    /**
+     * How long a summed read is reused before reading the shards again
+     */
+    static final long CACHE_TTL_MS = 5000;
+
+    /**
+     * Times a backfill is started over because entrants changed while they were being counted
+     */
+    static final int BACKFILL_ATTEMPTS = 3;
+
+    /**
+     * Shortest time between two writes of an event's {@code waitingListCount}
+     */
+    static final long PUBLISH_INTERVAL_MS = 10000;
+
+    private static final String BASE_DOC = "counts";
+    private static final SecureRandom random = new SecureRandom();
+    private static final Map<String, CachedStats> cache = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor();
+    private static final Map<String, Long> lastPublished = new ConcurrentHashMap<>();
+    private static final Set<String> pendingPublishes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Summed counts together with the time they were read
+     */
+    private static class CachedStats {
+        final EventStats stats;
+        final long loadedAt;
+
+        CachedStats(EventStats stats, long loadedAt) {
+            this.stats = stats;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Thrown inside a transaction when the counts of an event were never initialized, so a limit
+     * cannot be checked. {@link #load} initializes them.
+     */
+    public static class CountsUnavailableException extends RuntimeException {
+        /**
+         * Creates the exception
+         * @param eventId event whose counts are missing
+         */
+        public CountsUnavailableException(String eventId) {
+            super("Entrant counts of " + eventId + " are not initialized");
+        }
+
+        /**
+         * Checks whether a failure was caused by missing counts
+         * @param e failure of a task
+         * @return true if e or one of its causes is a CountsUnavailableException
+         */
+        public static boolean isCause(@Nullable Throwable e) {
+            while (e != null) {
+                if (e instanceof CountsUnavailableException) {
+                    return true;
+                }
+                e = e.getCause();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Thrown inside a backfill transaction when a shard was written while the entrants were
+     * counted, so the counts may already be out of date. {@link #load} counts again.
+     */
+    static class CountsChangedException extends RuntimeException {
+        /**
+         * Creates the exception
+         */
+        CountsChangedException() {
+            super("Entrant counts changed while backfilling");
+        }
+
+        /**
+         * Checks whether a failure was caused by counts changing during a backfill
+         * @param e failure of a task
+         * @return true if e or one of its causes is a CountsChangedException
+         */
+        static boolean isCause(@Nullable Throwable e) {
+            while (e != null) {
+                if (e instanceof CountsChangedException) {
+                    return true;
+                }
+                e = e.getCause();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether a transaction gave up because other writes kept conflicting with it
+     * @param e failure of a transaction task
+     * @return true if e or one of its causes is an aborted Firestore operation
+     */
+    public static boolean isContention(@Nullable Throwable e) {
+        while (e != null) {
+            if (e instanceof FirebaseFirestoreException
+                    && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.ABORTED) {
+                return true;
+            }
+            e = e.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Thrown inside a transaction when a waiting list limit or capacity would be exceeded.
+     * It is not retried, so a full event fails fast instead of contending for the counters.
+     */
+    public static class LimitReachedException extends RuntimeException {
+        private final long limit;
+
+        /**
+         * Creates the exception
+         * @param message description of the limit that was reached
+         * @param limit value of the limit
+         */
+        public LimitReachedException(String message, long limit) {
+            super(message);
+            this.limit = limit;
+        }
+
+        /**
+         * @return value of the limit that was reached
+         */
+        public long getLimit() { return limit; }
+
+        /**
+         * Checks whether a failure was caused by a reached limit
+         * @param e failure of a task
+         * @return true if e or one of its causes is a LimitReachedException
+         */
+        public static boolean isCause(@Nullable Throwable e) {
+            while (e != null) {
+                if (e instanceof LimitReachedException) {
+                    return true;
+                }
+                e = e.getCause();
+            }
+            return false;
+        }
+    }
+
+    private EntrantCounters() {}
+
+    /**
+     * Gets the base counts document of an event, which also records whether the counts were initialized
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @return reference to {@code events/{eventId}/stats/counts}
+     */
+    public static DocumentReference countsRef(FirebaseFirestore db, String eventId) {
+        return statsRef(db, eventId).document(BASE_DOC);
+    }
+
+    /**
+     * Picks a random shard for a single entrant's write. The base document is only picked when it
+     * is the only shard.
+     * @param shards number of shards the event uses
+     * @return index of the chosen shard
+     */
+    public static int randomShard(int shards) {
+        int count = clampShards(shards);
+        return count == 1 ? 0 : 1 + random.nextInt(count - 1);
+    }
+
+    /**
+     * Splits the room left on a waiting list into a quota per extra shard
+     * @param available room left after the base document's count
+     * @param extraShards number of shards other than the base document
+     * @param extraIndex index of the shard among the extra shards, from 0
+     * @return number of waiting entrants the shard may hold; the quotas sum to {@code available}
+     */
+    static long shardQuota(long available, int extraShards, int extraIndex) {
+        if (available <= 0) {
+            return 0;
+        }
+        return available / extraShards + (extraIndex < available % extraShards ? 1 : 0);
+    }
+
+    /**
+     * Finds a shard with room for one more waiting entrant, reading only the base document and
+     * the shards tried. Starts at a random shard and only tries others if it is at its quota.
+     * Every shard holds at most its quota, so the counts never sum past the limit, and a join
+     * fails only when every shard is at its quota. Must run before the transaction's writes.
+     * @param transaction transaction the join is written in
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param shards number of shards the event uses
+     * @param limit waiting list limit
+     * @return index of the shard to count the entrant in
+     * @throws LimitReachedException if the waiting list is full
+     * @throws CountsUnavailableException if the counts were never initialized
+     * @throws FirebaseFirestoreException if a shard cannot be read
+     */
+    public static int reserveWaitingSlot(Transaction transaction, FirebaseFirestore db, String eventId,
+                                         int shards, long limit) throws FirebaseFirestoreException {
+        return findWaitingSlot(transaction, db, eventId, shards, limit).getShard();
+    }
+
+    /**
+     * Reserves the shard a joining entrant is counted in and its draw rank in that shard.
+     * With a limit the shard is found by {@link #reserveWaitingSlot}; otherwise a random shard
+     * is read. Must run before the transaction's writes, which {@link #applyJoin} makes.
+     * @param transaction transaction the join is written in
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param shards number of shards the event uses
+     * @param limit waiting list limit, or null if there is none or the entrant is already waiting
+     * @return the reserved shard and draw rank
+     * @throws LimitReachedException if the waiting list is full
+     * @throws CountsUnavailableException if a limit is given and the counts were never initialized
+     * @throws FirebaseFirestoreException if a shard cannot be read
+     */
+    public static JoinSlot reserveJoin(Transaction transaction, FirebaseFirestore db, String eventId,
+                                       int shards, @Nullable Long limit) throws FirebaseFirestoreException {
+        if (limit != null) {
+            return findWaitingSlot(transaction, db, eventId, shards, limit);
+        }
+        int shard = randomShard(shards);
+        return new JoinSlot(shard, joinsOf(transaction.get(shardRef(db, eventId, shard))));
+    }
+
+    /**
+     * Finds a shard under its quota as described by {@link #reserveWaitingSlot}
+     * @return the shard found and the next draw rank it hands out
+     */
+    private static JoinSlot findWaitingSlot(Transaction transaction, FirebaseFirestore db, String eventId,
+                                            int shards, long limit) throws FirebaseFirestoreException {
+        EventStats base = transaction.get(countsRef(db, eventId)).toObject(EventStats.class);
+        if (base == null || !base.isInitialized()) {
+            throw new CountsUnavailableException(eventId);
+        }
+        int extraShards = clampShards(shards) - 1;
+        if (extraShards == 0) {
+            if (isFull(limit, base.getWaiting())) {
+                throw new LimitReachedException("Waiting list limit reached", limit);
+            }
+            return new JoinSlot(0, base.getJoins());
+        }
+        long available = limit - base.getWaiting();
+        int start = random.nextInt(extraShards);
+        for (int i = 0; i < extraShards; i++) {
+            int extraIndex = (start + i) % extraShards;
+            EventStats shard = transaction.get(shardRef(db, eventId, extraIndex + 1)).toObject(EventStats.class);
+            long waiting = shard == null ? 0 : shard.getWaiting();
+            if (waiting < shardQuota(available, extraShards, extraIndex)) {
+                return new JoinSlot(extraIndex + 1, shard == null ? 0 : shard.getJoins());
+            }
+        }
+        throw new LimitReachedException("Waiting list limit reached", limit);
+    }
+
+    /**
+     * Reads the number of draw ranks a shard has handed out
+     * @param shardDoc shard document, which may not exist
+     * @return the next rank the shard hands out
+     */
+    private static long joinsOf(DocumentSnapshot shardDoc) {
+        EventStats shard = shardDoc.exists() ? shardDoc.toObject(EventStats.class) : null;
+        return shard == null ? 0 : shard.getJoins();
+    }
+
+    /**
+     * Counts a joining entrant as waiting in the shard {@link #reserveJoin} picked and hands
+     * out its draw rank, inside the join's transaction
+     * @param transaction transaction also writing the entrant
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param slot reserved shard and draw rank
+     * @param from previous status of the entrant, or null if it is new
+     */
+    public static void applyJoin(Transaction transaction, FirebaseFirestore db, String eventId,
+                                 JoinSlot slot, @Nullable String from) {
+        Map<String, Object> fields = counted(transition(from, "waiting", 1));
+        fields.put("joins", FieldValue.increment(1));
+        transaction.set(shardRef(db, eventId, slot.getShard()), fields, SetOptions.merge());
+        invalidate(eventId);
+    }
+
+    /**
+     * Reads how many draw ranks each shard of an event has handed out
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @return task resolving to the ranks handed out, indexed by shard
+     */
+    public static Task<long[]> loadDrawRanks(FirebaseFirestore db, String eventId) {
+        return statsRef(db, eventId).get()
+                /**
+                 * Collects the ranks handed out by each shard document
+                 * @param snapshot every shard of the event
+                 */
+                .onSuccessTask(snapshot -> {
+                    long[] joins = new long[MAX_SHARDS];
+                    int used = 0;
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        int index = shardIndex(doc.getId());
+                        EventStats shard = doc.toObject(EventStats.class);
+                        if (index >= 0 && shard != null) {
+                            joins[index] = shard.getJoins();
+                            used = Math.max(used, index + 1);
+                        }
+                    }
+                    return Tasks.forResult(Arrays.copyOf(joins, used));
+                });
+    }
+
+    /**
+     * Hands out a range of draw ranks from the base document, for entrants that joined before
+     * ranks existed
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param count number of ranks needed
+     * @return task resolving to the first rank of the range in shard 0
+     */
+    public static Task<Long> reserveDrawRanks(FirebaseFirestore db, String eventId, int count) {
+        DocumentReference baseRef = countsRef(db, eventId);
+        /**
+         * Reads the next rank of the base document and moves it past the range
+         * @param transaction transaction to run the reads and writes in
+         */
+        return db.runTransaction(transaction -> {
+            long first = joinsOf(transaction.get(baseRef));
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("joins", FieldValue.increment(count));
+            fields.put("updates", FieldValue.increment(1));
+            transaction.set(baseRef, fields, SetOptions.merge());
+            invalidate(eventId);
+            return first;
+        });
+    }
+
+    /**
+     * Shard and draw rank reserved for a joining entrant by {@link #reserveJoin}
+     */
+    public static class JoinSlot {
+        private final int shard;
+        private final long drawSeq;
+
+        /**
+         * Creates the slot
+         * @param shard index of the shard the entrant is counted in, 0 being the base document
+         * @param drawSeq draw rank of the entrant within that shard
+         */
+        JoinSlot(int shard, long drawSeq) {
+            this.shard = shard;
+            this.drawSeq = drawSeq;
+        }
+
+        /**
+         * @return index of the shard the entrant is counted in
+         */
+        public int getShard() { return shard; }
+
+        /**
+         * @return draw rank of the entrant within its shard
+         */
+        public long getDrawSeq() { return drawSeq; }
+    }
+
+    /**
+     * Reads the shard count configured on an event document
+     * @param eventDoc event document
+     * @return the configured shard count, or {@link #DEFAULT_SHARDS} if unset
+     */
+    public static int shardCount(DocumentSnapshot eventDoc) {
+        Long shards = eventDoc.getLong("counterShards");
+        return shards == null ? DEFAULT_SHARDS : clampShards(shards.intValue());
+    }
+
+    /**
+     * Checks whether a count has reached its limit
+     * @param limit the limit, or null if there is none
+     * @param count the current count
+     * @return true if no more entrants fit
+     */
+    public static boolean isFull(@Nullable Number limit, long count) {
+        return limit != null && count >= limit.longValue();
+    }
+
+    /**
+     * Suggests a shard count for a new event. Events without a waiting list limit, or with a
+     * large one, can receive far more joins per second than a single document accepts.
+     * @param waitingListLimit waiting list limit of the event, or null if unlimited
+     * @return suggested shard count
+     */
+    public static int recommendedShards(@Nullable Integer waitingListLimit) {
+        if (waitingListLimit != null && waitingListLimit <= 100) {
+            return DEFAULT_SHARDS;
+        }
+        return HOT_EVENT_SHARDS;
+    }
+
+    /**
+     * Builds the counter increments for entrants moving from one status to another
+     * @param from previous status, or null if the entrants are new
+     * @param to new status, or null if the entrants are removed
+     * @param amount number of entrants moving
+     * @return field increments to merge into a shard, empty if nothing changes
+     */
+    public static Map<String, Object> transition(@Nullable String from, @Nullable String to, long amount) {
+        Map<String, Object> increments = new HashMap<>();
+        if (amount == 0 || (from != null && from.equals(to))) {
+            return increments;
+        }
+        if (from != null && STATUSES.contains(from)) {
+            increments.put(from, FieldValue.increment(-amount));
+        }
+        if (to != null && STATUSES.contains(to)) {
+            increments.put(to, FieldValue.increment(amount));
+        }
+        return increments;
+    }
+
+    /**
+     * Adds the increment of a shard's {@code updates} field to counter increments, so every write
+     * to a shard is visible to {@link #storeBackfill} even if the counts return to their old values
+     * @param increments field increments of a status change
+     * @return the increments together with the write count increment
+     */
+    private static Map<String, Object> counted(Map<String, Object> increments) {
+        Map<String, Object> fields = new HashMap<>(increments);
+        fields.put("updates", FieldValue.increment(1));
+        return fields;
+    }
+
+    /**
+     * Applies a single entrant's status change to a random shard inside a transaction
+     * @param transaction transaction also writing the entrant
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param shards number of shards the event uses
+     * @param from previous status, or null if the entrant is new
+     * @param to new status, or null if the entrant is removed
+     */
+    public static void applyTransition(Transaction transaction, FirebaseFirestore db, String eventId, int shards,
+                                       @Nullable String from, @Nullable String to) {
+        applyTransitionToShard(transaction, db, eventId, randomShard(shards), from, to);
+    }
+
+    /**
+     * Applies a single entrant's status change to a given shard inside a transaction, such as
+     * the one {@link #reserveWaitingSlot} picked
+     * @param transaction transaction also writing the entrant
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param shardIndex index of the shard, 0 being the base counts document
+     * @param from previous status, or null if the entrant is new
+     * @param to new status, or null if the entrant is removed
+     */
+    public static void applyTransitionToShard(Transaction transaction, FirebaseFirestore db, String eventId,
+                                              int shardIndex, @Nullable String from, @Nullable String to) {
+        Map<String, Object> increments = transition(from, to, 1);
+        if (!increments.isEmpty()) {
+            transaction.set(shardRef(db, eventId, shardIndex), counted(increments), SetOptions.merge());
+            invalidate(eventId);
+        }
+    }
+
+    /**
+     * Applies a single entrant's status change to the base counts inside a transaction.
+     * For low-rate writes such as organizer actions.
+     * @param transaction transaction also writing the entrant
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param from previous status, or null if the entrant is new
+     * @param to new status, or null if the entrant is removed
+     */
+    public static void applyTransition(Transaction transaction, FirebaseFirestore db, String eventId,
+                                       @Nullable String from, @Nullable String to) {
+        applyTransitionToShard(transaction, db, eventId, 0, from, to);
+    }
+
+    /**
+     * Applies a status change of several entrants to the base counts inside a batch.
+     * Bulk changes write the counters once per batch, so they do not need spreading over shards.
+     * @param batch batch also writing the entrants
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param from previous status, or null if the entrants are new
+     * @param to new status, or null if the entrants are removed
+     * @param amount number of entrants moving
+     */
+    public static void applyTransition(WriteBatch batch, FirebaseFirestore db, String eventId,
+                                       @Nullable String from, @Nullable String to, long amount) {
+        Map<String, Object> increments = transition(from, to, amount);
+        if (!increments.isEmpty()) {
+            batch.set(countsRef(db, eventId), counted(increments), SetOptions.merge());
+            invalidate(eventId);
+        }
+    }
+
+    /**
+     * Moves entrants from one status to another in transactions of up to {@link #TRANSACTION_GROUP}
+     * entrants, with at most {@link BatchWriter#DEFAULT_MAX_IN_FLIGHT} running at once.
+     * <p>
+     *     Each transaction reads its entrants first and only moves those whose status is still
+     *     {@code from}, together with their registrations and one counter write covering exactly
+     *     the entrants moved. An entrant whose status changed since the caller read it (such as
+     *     one leaving the waiting list during a draw) is left alone and never decrements the wrong
+     *     count.
+     * </p>
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param entrantIds IDs of the entrants to update
+     * @param from status the entrants are expected to have
+     * @param to status to set
+     * @return task resolving to the IDs of the entrants moved, or failing with
+     * {@link BatchWriter.PartialFailureException} counting entrants if any transaction failed
+     */
+    public static Task<List<String>> changeStatuses(FirebaseFirestore db, String eventId,
+                                                    List<String> entrantIds, String from, String to) {
+        List<List<String>> groups = split(entrantIds, TRANSACTION_GROUP);
+        List<Task<List<String>>> groupTasks = new ArrayList<>(Collections.nCopies(groups.size(), null));
+        List<Task<Void>> lanes = new ArrayList<>();
+        for (List<Integer> laneGroups : lanes(groups.size(), BatchWriter.DEFAULT_MAX_IN_FLIGHT)) {
+            Task<Void> chain = Tasks.forResult(null);
+            for (int index : laneGroups) {
+                /**
+                 * Runs the next group of this lane once the previous one finished, whatever its outcome
+                 * @param previous previous group of the lane
+                 */
+                chain = chain.continueWithTask(previous -> {
+                    Task<List<String>> groupTask = moveGroup(db, eventId, groups.get(index), from, to);
+                    groupTasks.set(index, groupTask);
+                    return groupTask.continueWith(done -> null);
+                });
+            }
+            lanes.add(chain);
+        }
+        return Tasks.whenAllComplete(lanes)
+                /**
+                 * Collects the moved entrants, failing if any group could not be written
+                 * @param all every lane, complete
+                 */
+                .continueWithTask(all -> {
+                    List<String> moved = new ArrayList<>();
+                    List<Exception> errors = new ArrayList<>();
+                    int failed = 0;
+                    for (int g = 0; g < groups.size(); g++) {
+                        Task<List<String>> groupTask = groupTasks.get(g);
+                        if (groupTask.isSuccessful()) {
+                            moved.addAll(groupTask.getResult());
+                        } else {
+                            failed += groups.get(g).size();
+                            errors.add(groupTask.getException());
+                        }
+                    }
+                    Task<List<String>> result;
+                    if (failed > 0) {
+                        BatchWriter.Result counted = new BatchWriter.Result(entrantIds.size(),
+                                entrantIds.size() - failed, failed, errors);
+                        result = Tasks.forException(new BatchWriter.PartialFailureException(counted));
+                    } else {
+                        result = Tasks.forResult(moved);
+                    }
+                    if (!moved.isEmpty() && ("waiting".equals(from) || "waiting".equals(to))) {
+                        schedulePublish(db, eventId);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Splits entrant IDs into the groups moved by one transaction each
+     * @param ids IDs to split
+     * @param size largest group
+     * @return the groups, in order
+     */
+    static List<List<String>> split(List<String> ids, int size) {
+        List<List<String>> groups = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += size) {
+            groups.add(new ArrayList<>(ids.subList(start, Math.min(start + size, ids.size()))));
+        }
+        return groups;
+    }
+
+    /**
+     * Deals groups out to lanes that run one after another, so at most {@code maxInFlight}
+     * transactions are in flight. Group {@code g} goes to lane {@code g % maxInFlight}.
+     * @param groupCount number of groups
+     * @param maxInFlight number of lanes
+     * @return indexes of the groups in each lane, in the order they run
+     */
+    static List<List<Integer>> lanes(int groupCount, int maxInFlight) {
+        List<List<Integer>> lanes = new ArrayList<>();
+        for (int lane = 0; lane < Math.min(maxInFlight, groupCount); lane++) {
+            List<Integer> groups = new ArrayList<>();
+            for (int g = lane; g < groupCount; g += maxInFlight) {
+                groups.add(g);
+            }
+            lanes.add(groups);
+        }
+        return lanes;
+    }
+
+    /**
+     * Moves one group of entrants in a single transaction
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param group IDs of the entrants in the group
+     * @param from status the entrants are expected to have
+     * @param to status to set
+     * @return task resolving to the IDs of the entrants that still had {@code from} and were moved
+     */
+    private static Task<List<String>> moveGroup(FirebaseFirestore db, String eventId,
+                                                List<String> group, String from, String to) {
+        /**
+         * Reads the group, then moves the entrants still in the expected status
+         * @param transaction transaction the group is written in
+         */
+        return db.runTransaction(transaction -> moveGroup(transaction, db, eventId, group, from, to))
+        /**
+         * Drops the cached counts once the transaction committed
+         * @param moving IDs of the entrants moved
+         */
+        .addOnSuccessListener(moving -> invalidate(eventId));
+    }
+
+    /**
+     * Reads a group of entrants inside a transaction and moves those still in the expected
+     * status, together with their registrations and one counter write covering exactly them
+     * @param transaction transaction the group is written in
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param group IDs of the entrants in the group
+     * @param from status the entrants are expected to have
+     * @param to status to set
+     * @return IDs of the entrants moved
+     * @throws FirebaseFirestoreException if an entrant cannot be read
+     */
+    static List<String> moveGroup(Transaction transaction, FirebaseFirestore db, String eventId,
+                                  List<String> group, String from, String to) throws FirebaseFirestoreException {
+        CollectionReference entrantsRef = db.collection("events").document(eventId).collection("entrants");
+        List<String> moving = new ArrayList<>();
+        for (String uid : group) {
+            DocumentSnapshot entrant = transaction.get(entrantsRef.document(uid));
+            if (entrant.exists() && from.equals(entrant.getString("status"))) {
+                moving.add(uid);
+            }
+        }
+        for (String uid : moving) {
+            transaction.update(entrantsRef.document(uid), "status", to);
+            RegistrationIndex.put(transaction, db, uid, eventId, null, to);
+        }
+        Map<String, Object> increments = transition(from, to, moving.size());
+        if (!increments.isEmpty()) {
+            transaction.set(countsRef(db, eventId), counted(increments), SetOptions.merge());
+        }
+        return moving;
+    }
+
+    /**
+     * Deletes a user's entrants in several events, together with their registrations, in
+     * transactions of up to {@link #DELETE_GROUP} entrants with at most
+     * {@link BatchWriter#DEFAULT_MAX_IN_FLIGHT} running at once.
+     * <p>
+     *     Each transaction reads its entrants first and decrements each event's counts by the
+     *     status the entrant has at that moment, so a draw, accept or leave landing after the
+     *     caller listed the events never leaves the counts wrong. Entrants that no longer exist
+     *     only have their registration removed, so running the deletes again is harmless.
+     * </p>
+     * @param db Firestore instance
+     * @param uid user whose entrants are deleted
+     * @param eventIds events the user is an entrant of
+     * @return task resolving to the number of entrants deleted, failing if any transaction failed
+     */
+    public static Task<Integer> deleteEntrants(FirebaseFirestore db, String uid, List<String> eventIds) {
+        List<List<String>> groups = split(eventIds, DELETE_GROUP);
+        List<Task<Map<String, String>>> groupTasks = new ArrayList<>(Collections.nCopies(groups.size(), null));
+        List<Task<Void>> lanes = new ArrayList<>();
+        for (List<Integer> laneGroups : lanes(groups.size(), BatchWriter.DEFAULT_MAX_IN_FLIGHT)) {
+            Task<Void> chain = Tasks.forResult(null);
+            for (int index : laneGroups) {
+                /**
+                 * Runs the next group of this lane once the previous one finished, whatever its outcome
+                 * @param previous previous group of the lane
+                 */
+                chain = chain.continueWithTask(previous -> {
+                    /**
+                     * Reads the group, then deletes the entrants that still exist
+                     * @param transaction transaction the group is written in
+                     */
+                    Task<Map<String, String>> groupTask = db.runTransaction(
+                            transaction -> deleteGroup(transaction, db, uid, groups.get(index)));
+                    groupTasks.set(index, groupTask);
+                    return groupTask.continueWith(done -> null);
+                });
+            }
+            lanes.add(chain);
+        }
+        return Tasks.whenAllComplete(lanes)
+                /**
+                 * Counts the deleted entrants, failing if any group could not be written
+                 * @param all every lane, complete
+                 */
+                .continueWithTask(all -> {
+                    int deleted = 0;
+                    Exception error = null;
+                    for (Task<Map<String, String>> groupTask : groupTasks) {
+                        if (!groupTask.isSuccessful()) {
+                            error = groupTask.getException();
+                            continue;
+                        }
+                        for (Map.Entry<String, String> entrant : groupTask.getResult().entrySet()) {
+                            invalidate(entrant.getKey());
+                            if ("waiting".equals(entrant.getValue())) {
+                                schedulePublish(db, entrant.getKey());
+                            }
+                        }
+                        deleted += groupTask.getResult().size();
+                    }
+                    if (error != null) {
+                        return Tasks.forException(error);
+                    }
+                    return Tasks.forResult(deleted);
+                });
+    }
+
+    /**
+     * Reads a user's entrants in a group of events inside a transaction and deletes those that
+     * exist, decrementing each event's counts by the status read. The registrations are removed
+     * whether or not the entrant still exists.
+     * @param transaction transaction the group is written in
+     * @param db Firestore instance
+     * @param uid user whose entrants are deleted
+     * @param eventIds events of the group
+     * @return status each deleted entrant had, by event ID
+     * @throws FirebaseFirestoreException if an entrant cannot be read
+     */
+    static Map<String, String> deleteGroup(Transaction transaction, FirebaseFirestore db, String uid,
+                                           List<String> eventIds) throws FirebaseFirestoreException {
+        Map<String, String> deleting = new LinkedHashMap<>();
+        for (String eventId : eventIds) {
+            DocumentSnapshot entrant = transaction.get(entrantRef(db, eventId, uid));
+            if (entrant.exists()) {
+                deleting.put(eventId, entrant.getString("status"));
+            }
+        }
+        for (String eventId : eventIds) {
+            RegistrationIndex.remove(transaction, db, uid, eventId);
+            if (deleting.containsKey(eventId)) {
+                transaction.delete(entrantRef(db, eventId, uid));
+                applyTransition(transaction, db, eventId, deleting.get(eventId), null);
+            }
+        }
+        return deleting;
+    }
+
+    /**
+     * Gets the document of a user's entrant in an event
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param uid user ID of the entrant
+     * @return reference to {@code events/{eventId}/entrants/{uid}}
+     */
+    private static DocumentReference entrantRef(FirebaseFirestore db, String eventId, String uid) {
+        return db.collection("events").document(eventId).collection("entrants").document(uid);
+    }
+
+    /**
+     * Asks for the current waiting count to be copied onto the event document as
+     * {@code waitingListCount}, which the browse screen filters and sorts by.
+     * <p>
+     *     The copy is throttled: each event is published at most once every
+     *     {@link #PUBLISH_INTERVAL_MS}, and requests arriving in between share the one publish
+     *     already pending, which reads the newest counts. Every write to the event document
+     *     re-fires the browse screen's listeners, so a burst of joins must not write it per join.
+     *     The joins themselves never read the event document in their transactions, so a
+     *     publish does not abort them. The field therefore trails the counters by up to the
+     *     interval.
+     * </p>
+     * @param db Firestore instance
+     * @param eventId event ID
+     */
+    public static void schedulePublish(FirebaseFirestore db, String eventId) {
+        if (!pendingPublishes.add(eventId)) {
+            return;
+        }
+        long delay = publishDelay(lastPublished.get(eventId), System.currentTimeMillis());
+        publisher.schedule(() -> publishWaitingCount(db, eventId), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Works out how long a publish must wait to respect {@link #PUBLISH_INTERVAL_MS}
+     * @param lastPublishedAt time the event was last published, or null if never
+     * @param now current time
+     * @return delay in milliseconds, 0 to publish right away
+     */
+    static long publishDelay(@Nullable Long lastPublishedAt, long now) {
+        if (lastPublishedAt == null) {
+            return 0;
+        }
+        return Math.max(0, lastPublishedAt + PUBLISH_INTERVAL_MS - now);
+    }
+
+    /**
+     * Publishes the waiting count of an event once its throttle interval has passed, scheduling
+     * another attempt if other writes kept the transaction from committing
+     * @param db Firestore instance
+     * @param eventId event ID
+     */
+    private static void publishWaitingCount(FirebaseFirestore db, String eventId) {
+        // Requests from now on need a new publish, as this one may read the counts before them
+        pendingPublishes.remove(eventId);
+        lastPublished.put(eventId, System.currentTimeMillis());
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        /**
+         * Reads the event and its shards, writing the sum only if it differs from the copy
+         * @param transaction transaction to run the reads and writes in
+         */
+        db.runTransaction(transaction -> publishWaitingCount(transaction, db, eventRef))
+                /**
+                 * Logs a failed publish, trying again later if it lost to concurrent writes
+                 * @param e exception thrown
+                 */
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Failed to publish waiting count for " + eventId, e);
+                    if (isContention(e)) {
+                        schedulePublish(db, eventId);
+                    }
+                });
+    }
+
+    /**
+     * Copies the summed waiting count onto an event document inside a transaction. Racing
+     * publishes are serialized by the transaction, so an older sum never overwrites a newer one.
+     * @param transaction transaction to read and write in
+     * @param db Firestore instance
+     * @param eventRef event document
+     * @return true if the event document was written
+     * @throws FirebaseFirestoreException if the event or a shard cannot be read
+     */
+    static boolean publishWaitingCount(Transaction transaction, FirebaseFirestore db, DocumentReference eventRef)
+            throws FirebaseFirestoreException {
+        DocumentSnapshot eventDoc = transaction.get(eventRef);
+        if (!eventDoc.exists()) {
+            return false;
+        }
+        EventStats stats = read(transaction, db, eventRef.getId(), shardCount(eventDoc));
+        Long published = eventDoc.getLong("waitingListCount");
+        if (!stats.isInitialized() || (published != null && published == stats.getWaiting())) {
+            return false;
+        }
+        transaction.update(eventRef, "waitingListCount", stats.getWaiting());
+        return true;
+    }
+
+    /**
+     * Drops the cached counts of an event so the next load reads the shards again
+     * @param eventId event ID
+     */
+    public static void invalidate(String eventId) {
+        cache.remove(eventId);
+    }
+
+    /**
+     * Gets the cached counts of an event without reading Firestore
+     * @param eventId event ID
+     * @return the cached counts, or null if there are none or they expired
+     */
+    @Nullable
+    public static EventStats peek(String eventId) {
+        CachedStats cached = cache.get(eventId);
+        if (cached == null || System.currentTimeMillis() - cached.loadedAt >= CACHE_TTL_MS) {
+            return null;
+        }
+        return cached.stats;
+    }
+
+    /**
+     * Reads and sums every shard of an event inside a transaction, so the transaction
+     * is retried if any entrant is counted concurrently. Must run before the transaction's writes.
+     * @param transaction transaction to read in
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param shards number of shards the event uses
+     * @return the summed counts, initialized only if the base document was
+     * @throws FirebaseFirestoreException if a shard cannot be read
+     */
+    public static EventStats read(Transaction transaction, FirebaseFirestore db, String eventId, int shards)
+            throws FirebaseFirestoreException {
+        EventStats total = new EventStats();
+        boolean initialized = false;
+        for (int i = 0; i < clampShards(shards); i++) {
+            EventStats shard = transaction.get(shardRef(db, eventId, i)).toObject(EventStats.class);
+            if (shard != null) {
+                total.add(shard);
+                if (i == 0) {
+                    initialized = shard.isInitialized();
+                }
+            }
+        }
+        total.setInitialized(initialized);
+        return total;
+    }
+
+    /**
+     * Loads the counts of an event, using a recent cached sum if there is one
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @return task resolving to the counts
+     */
+    public static Task<EventStats> load(FirebaseFirestore db, String eventId) {
+        EventStats cached = peek(eventId);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+        return loadShards(db, eventId, BACKFILL_ATTEMPTS);
+    }
+
+    /**
+     * Reads and sums every shard of an event, computing the counts if they were never initialized
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param attemptsLeft backfills still allowed if entrants keep changing while counting
+     * @return task resolving to the counts
+     */
+    private static Task<EventStats> loadShards(FirebaseFirestore db, String eventId, int attemptsLeft) {
+        return statsRef(db, eventId).get()
+                /**
+                 * Sums every shard, or computes the counts if they were never initialized
+                 * @param task contains the shard documents
+                 */
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    EventStats total = new EventStats();
+                    boolean initialized = false;
+                    for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                        EventStats shard = doc.toObject(EventStats.class);
+                        if (shard == null) {
+                            continue;
+                        }
+                        total.add(shard);
+                        if (BASE_DOC.equals(doc.getId())) {
+                            initialized = shard.isInitialized();
+                        }
+                    }
+                    if (initialized) {
+                        total.setInitialized(true);
+                        cache.put(eventId, new CachedStats(total, System.currentTimeMillis()));
+                        return Tasks.forResult(total);
+                    }
+                    return backfill(db, eventId, task.getResult().getDocuments())
+                            /**
+                             * Starts over if entrants changed while they were being counted
+                             * @param backfillTask result of the backfill
+                             */
+                            .continueWithTask(backfillTask -> {
+                                if (!backfillTask.isSuccessful() && attemptsLeft > 1
+                                        && CountsChangedException.isCause(backfillTask.getException())) {
+                                    return loadShards(db, eventId, attemptsLeft - 1);
+                                }
+                                return backfillTask;
+                            });
+                });
+    }
+
+    /**
+     * Computes the counts of an event with one aggregate query per status and stores them in
+     * the base document, net of whatever the other shards hold.
+     * Used once per event created before the counters existed.
+     * <p>
+     *     The counts are stored by {@link #storeBackfill} in a transaction that re-reads every
+     *     shard, so a join or status change landing while the entrants were counted is never
+     *     overwritten, and a client that loses the race to backfill keeps the winner's counts.
+     * </p>
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param shardDocs shard documents read before counting
+     * @return task resolving to the stored counts, failing with {@link CountsChangedException}
+     * if a shard was written while counting
+     */
+    private static Task<EventStats> backfill(FirebaseFirestore db, String eventId, List<DocumentSnapshot> shardDocs) {
+        Map<String, EventStats> before = new HashMap<>();
+        for (DocumentSnapshot doc : shardDocs) {
+            before.put(doc.getId(), doc.toObject(EventStats.class));
+        }
+        CollectionReference entrantsRef = db.collection("events").document(eventId).collection("entrants");
+        return db.collection("events").document(eventId).get()
+                /**
+                 * Counts the entrants of each status
+                 * @param eventDoc event document, giving the shards to re-read
+                 */
+                .onSuccessTask(eventDoc -> {
+                    List<DocumentReference> shardRefs = new ArrayList<>();
+                    for (int i = 0; i < shardCount(eventDoc); i++) {
+                        shardRefs.add(shardRef(db, eventId, i));
+                    }
+                    for (String id : before.keySet()) {
+                        DocumentReference ref = statsRef(db, eventId).document(id);
+                        if (!shardRefs.contains(ref)) {
+                            shardRefs.add(ref);
+                        }
+                    }
+                    List<Task<AggregateQuerySnapshot>> countTasks = new ArrayList<>();
+                    for (String status : STATUSES) {
+                        countTasks.add(entrantsRef.whereEqualTo("status", status).count().get(AggregateSource.SERVER));
+                    }
+                    return Tasks.<AggregateQuerySnapshot>whenAllSuccess(countTasks)
+                            /**
+                             * Stores the computed counts if no shard changed since they were read
+                             * @param snapshots count result for each status
+                             */
+                            .onSuccessTask(snapshots -> {
+                                EventStats computed = new EventStats();
+                                for (int i = 0; i < STATUSES.size(); i++) {
+                                    computed.setCount(STATUSES.get(i), snapshots.get(i).getCount());
+                                }
+                                /**
+                                 * Re-reads the shards and stores the base counts
+                                 * @param transaction transaction to run the reads and writes in
+                                 */
+                                return db.runTransaction(transaction -> storeBackfill(transaction, shardRefs, before, computed));
+                            });
+                });
+    }
+
+    /**
+     * Stores backfilled counts in the base document, the first of {@code shardRefs}, unless
+     * another client initialized it first or any shard was written since {@code before} was read.
+     * Writes only the count fields and {@code initialized}, merged into the base document.
+     * @param transaction transaction to read and write in
+     * @param shardRefs every shard of the event, the base document first
+     * @param before shard counts read before counting, by document ID; absent for missing shards
+     * @param computed counts of the entrants by status
+     * @return the stored counts, or the other client's if the base document was already initialized
+     * @throws CountsChangedException if a shard was written while the entrants were counted
+     * @throws FirebaseFirestoreException if a shard cannot be read
+     */
+    static EventStats storeBackfill(Transaction transaction, List<DocumentReference> shardRefs,
+                                    Map<String, EventStats> before, EventStats computed)
+            throws FirebaseFirestoreException {
+        EventStats current = new EventStats();
+        EventStats others = new EventStats();
+        boolean initialized = false;
+        boolean changed = false;
+        for (int i = 0; i < shardRefs.size(); i++) {
+            DocumentReference ref = shardRefs.get(i);
+            DocumentSnapshot doc = transaction.get(ref);
+            EventStats shard = doc.exists() ? doc.toObject(EventStats.class) : null;
+            if (shard != null) {
+                current.add(shard);
+                if (i == 0) {
+                    initialized = shard.isInitialized();
+                } else {
+                    others.add(shard);
+                }
+            }
+            changed |= !sameShard(before.get(ref.getId()), shard);
+        }
+        if (initialized) {
+            current.setInitialized(true);
+            return current;
+        }
+        if (changed) {
+            throw new CountsChangedException();
+        }
+        Map<String, Object> base = new HashMap<>();
+        for (String status : STATUSES) {
+            base.put(status, computed.getCount(status) - others.getCount(status));
+        }
+        base.put("initialized", true);
+        transaction.set(shardRefs.get(0), base, SetOptions.merge());
+        EventStats total = new EventStats();
+        total.add(computed);
+        total.setInitialized(true);
+        return total;
+    }
+
+    /**
+     * Checks whether a shard is unchanged, a missing shard counting as zero
+     * @param before shard as read earlier, or null if it did not exist
+     * @param after shard as read now, or null if it does not exist
+     * @return true if no counter write reached the shard in between
+     */
+    static boolean sameShard(@Nullable EventStats before, @Nullable EventStats after) {
+        EventStats a = before == null ? new EventStats() : before;
+        EventStats b = after == null ? new EventStats() : after;
+        if (a.getUpdates() != b.getUpdates()) {
+            return false;
+        }
+        for (String status : STATUSES) {
+            if (a.getCount(status) != b.getCount(status)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the subcollection holding an event's counter shards
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @return reference to {@code events/{eventId}/stats}
+     */
+    private static CollectionReference statsRef(FirebaseFirestore db, String eventId) {
+        return db.collection("events").document(eventId).collection("stats");
+    }
+
+    /**
+     * Gets a shard of an event's counters by index
+     * @param db Firestore instance
+     * @param eventId event ID
+     * @param index shard index, 0 being the base counts document
+     * @return reference to the shard document
+     */
+    private static DocumentReference shardRef(FirebaseFirestore db, String eventId, int index) {
+        return index == 0 ? countsRef(db, eventId) : statsRef(db, eventId).document("shard_" + index);
+    }
+
+    /**
+     * Gets the index of a shard from its document ID
+     * @param docId ID of a document in the stats subcollection
+     * @return shard index, 0 being the base counts document, or -1 if it is not a shard
+     */
+    static int shardIndex(String docId) {
+        if (BASE_DOC.equals(docId)) {
+            return 0;
+        }
+        if (docId.startsWith("shard_")) {
+            try {
+                int index = Integer.parseInt(docId.substring("shard_".length()));
+                return index > 0 && index < MAX_SHARDS ? index : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Keeps a shard count within 1 and {@link #MAX_SHARDS}
+     * @param shards requested shard count
+     * @return usable shard count
+     */
+    private static int clampShards(int shards) {
+        return Math.max(1, Math.min(shards, MAX_SHARDS));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.lotteryevent.utilities;
+
+/**
+ * The facets and order the browse screen narrows events down by, evaluated by
+ * {@link EventIndex#query}. Every facet left unset matches all events.
+ */
+public class EventFilter {
+
+    /**
+     * Order of the filtered events
+     */
+    public enum Sort {
+        /** Newest events first, or the best keyword matches first while searching */
+        NEWEST,
+        /** Events starting soonest first, events without a start time last */
+        START_TIME,
+        /** Events with the longest waiting list first */
+        POPULARITY
+    }
+
+    private Double minPrice;
+    private Double maxPrice;
+    private Long startFromMs;
+    private Long startToMs;
+    private Boolean geoLocationRequired;
+    private String status;
+    private String organizerId;
+    private boolean spotsLeftOnly;
+    private boolean availableNow;
+    private Sort sort = Sort.NEWEST;
+
+    /**
+     * Creates a filter matching every event, newest first
+     */
+    public EventFilter() {}
+
+    /**
+     * Creates a copy of a filter, so it can be evaluated while the original keeps changing
+     * @param other filter to copy
+     */
+    public EventFilter(EventFilter other) {
+        this.minPrice = other.minPrice;
+        this.maxPrice = other.maxPrice;
+        this.startFromMs = other.startFromMs;
+        this.startToMs = other.startToMs;
+        this.geoLocationRequired = other.geoLocationRequired;
+        this.status = other.status;
+        this.organizerId = other.organizerId;
+        this.spotsLeftOnly = other.spotsLeftOnly;
+        this.availableNow = other.availableNow;
+        this.sort = other.sort;
+    }
+
+    /**
+     * @return true if any facet is set, so some events may not match; the order does not count
+     */
+    public boolean isNarrowing() {
+        return minPrice != null || maxPrice != null || startFromMs != null || startToMs != null
+                || geoLocationRequired != null || status != null || organizerId != null
+                || spotsLeftOnly || availableNow;
+    }
+
+    // --- Getters and Setters ---
+
+    /**
+     * @return lowest price matched, null if unbounded
+     */
+    public Double getMinPrice() { return minPrice; }
+
+    /**
+     * @return highest price matched, null if unbounded
+     */
+    public Double getMaxPrice() { return maxPrice; }
+
+    /**
+     * Sets the inclusive price range. Events without a price count as free.
+     * @param minPrice lowest price, null if unbounded
+     * @param maxPrice highest price, null if unbounded
+     */
+    public void setPriceRange(Double minPrice, Double maxPrice) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    /**
+     * @return earliest start time matched in milliseconds, null if unbounded
+     */
+    public Long getStartFromMs() { return startFromMs; }
+
+    /**
+     * @return latest start time matched in milliseconds, null if unbounded
+     */
+    public Long getStartToMs() { return startToMs; }
+
+    /**
+     * Sets the inclusive window the event start time must fall in. While a window is set,
+     * events without a start time are left out.
+     * @param startFromMs earliest start in milliseconds, null if unbounded
+     * @param startToMs latest start in milliseconds, null if unbounded
+     */
+    public void setStartWindow(Long startFromMs, Long startToMs) {
+        this.startFromMs = startFromMs;
+        this.startToMs = startToMs;
+    }
+
+    /**
+     * @return whether matched events require the entrant's location, null for either
+     */
+    public Boolean getGeoLocationRequired() { return geoLocationRequired; }
+
+    /**
+     * @param geoLocationRequired whether matched events require the entrant's location, null for either
+     */
+    public void setGeoLocationRequired(Boolean geoLocationRequired) { this.geoLocationRequired = geoLocationRequired; }
+
+    /**
+     * @return status matched, in any case, null for any
+     */
+    public String getStatus() { return status; }
+
+    /**
+     * @param status status matched, in any case, null for any
+     */
+    public void setStatus(String status) { this.status = status; }
+
+    /**
+     * @return ID of the organizer matched, null for any
+     */
+    public String getOrganizerId() { return organizerId; }
+
+    /**
+     * @param organizerId ID of the organizer matched, null for any
+     */
+    public void setOrganizerId(String organizerId) { this.organizerId = organizerId; }
+
+    /**
+     * @return true if only events whose waiting list is not full are matched
+     */
+    public boolean isSpotsLeftOnly() { return spotsLeftOnly; }
+
+    /**
+     * @param spotsLeftOnly true to match only events whose waiting list is not full
+     */
+    public void setSpotsLeftOnly(boolean spotsLeftOnly) { this.spotsLeftOnly = spotsLeftOnly; }
+
+    /**
+     * @return true if only events open for registration right now are matched
+     */
+    public boolean isAvailableNow() { return availableNow; }
+
+    /**
+     * @param availableNow true to match only events that are not finalized, whose registration
+     *                     is open and that have not ended
+     */
+    public void setAvailableNow(boolean availableNow) { this.availableNow = availableNow; }
+
+    /**
+     * @return order of the matched events
+     */
+    public Sort getSort() { return sort; }
+
+    /**
+     * @param sort order of the matched events, null for {@link Sort#NEWEST}
+     */
+    public void setSort(Sort sort) { this.sort = sort == null ? Sort.NEWEST : sort; }
+}
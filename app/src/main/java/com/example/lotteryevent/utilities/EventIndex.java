@@ -0,0 +1,852 @@
+package com.example.lotteryevent.utilities;
+
+import com.example.lotteryevent.data.Event;
+import com.google.firebase.Timestamp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory keyword and facet index over the loaded events, for the browse screen's search and
+ * filters.
+ * <p>
+ *     Every event is given a dense slot, and the lowercase words of its name, description,
+ *     location and organizer name are kept in an inverted index from word to the slots holding
+ *     it, tagged with the fields it appears in. Each distinct word is also indexed by its
+ *     {@link #GRAM}-character n-grams, so a search term found inside a word (such as
+ *     {@code "ames"} in {@code "games"}) is resolved by intersecting short lists of words instead
+ *     of scanning every event. Text is lowercased once, when an event is indexed.
+ * </p>
+ * <p>
+ *     The facets of {@link EventFilter} are precomputed per slot: yes/no facets, statuses and
+ *     organizers as bitsets, and prices, start times, creation times and waiting list sizes as
+ *     sorted arrays of primitive keys. A filter is evaluated by intersecting bitsets, with ranges
+ *     found by binary search, and results are ordered by walking a sorted array instead of
+ *     sorting events.
+ * </p>
+ * <p>
+ *     The index is updated incrementally from the repository's change deltas through
+ *     {@link #apply}. A word no event uses any more keeps an empty entry until the next reset.
+ * </p>
+ * <p>
+ *     Only the pages the repository has loaded are indexed, so a search or filter sees those
+ *     events and no others, and a sort other than newest first orders only them. The browse
+ *     screen keeps loading pages while the matches do not fill the screen and does not evict
+ *     pages while a search or filter is set. Pages evicted otherwise leave the index with their
+ *     events and come back when they are loaded again.
+ * </p>
+ */
+public class EventIndex {
+
+    /** Field flag of the event name */
+    static final int NAME = 1;
+    /** Field flag of the event description */
+    static final int DESCRIPTION = 1 << 1;
+    /** Field flag of the event location */
+    static final int LOCATION = 1 << 2;
+    /** Field flag of the organizer name */
+    static final int ORGANIZER = 1 << 3;
+
+    // a posting is the slot shifted left by FIELD_BITS, with the field flags in the low bits
+    private static final int FIELD_BITS = 4;
+    private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+
+    /** Score of a term equal to a whole word */
+    static final int EXACT = 3;
+    /** Score of a term starting a word */
+    static final int PREFIX = 2;
+    /** Score of a term found inside a word */
+    static final int INFIX = 1;
+
+    /**
+     * Length of the n-grams words are indexed by, and the shortest term matched inside words.
+     * Shorter terms only match the start of words.
+     */
+    static final int GRAM = 3;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // time stored for events without the date, matching no window
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    // times in keys count seconds from the start of 2020, so they fit an int until 2088
+    private static final long KEY_EPOCH_SECONDS = 1577836800L;
+
+    /**
+     * Growable array of ints, kept sorted where used as a posting list
+     */
+    private static final class IntList {
+        int[] items = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        int get(int i) {
+            return items[i];
+        }
+
+        int last() {
+            return items[size - 1];
+        }
+
+        /**
+         * Inserts a posting, keeping the list sorted by slot
+         */
+        void insertPosting(int posting) {
+            int found = Arrays.binarySearch(items, 0, size, posting);
+            if (found >= 0) {
+                return;
+            }
+            int at = -found - 1;
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            System.arraycopy(items, at, items, at + 1, size - at);
+            items[at] = posting;
+            size++;
+        }
+
+        /**
+         * Removes the posting of a slot, whichever field flags it has
+         */
+        void removeSlot(int slot) {
+            // stored postings always carry a field flag, so this lands just before the slot's posting
+            int at = -Arrays.binarySearch(items, 0, size, slot << FIELD_BITS) - 1;
+            if (at < size && items[at] >>> FIELD_BITS == slot) {
+                System.arraycopy(items, at + 1, items, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * A distinct word and the events it appears in
+     */
+    private static final class Word {
+        final int id;
+        final String text;
+        final IntList postings = new IntList();
+
+        Word(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Slots sorted by an int value, each stored as one long with the value in the high half and
+     * the slot in the low half
+     */
+    private static final class SortedKeys {
+        long[] keys = new long[INITIAL_CAPACITY];
+        int size;
+
+        static long key(int value, int slot) {
+            return (long) value << 32 | slot;
+        }
+
+        static int slotOf(long key) {
+            return (int) key;
+        }
+
+        void insert(long key) {
+            int at = -Arrays.binarySearch(keys, 0, size, key) - 1;
+            if (at < 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            keys[at] = key;
+            size++;
+        }
+
+        void remove(long key) {
+            int at = Arrays.binarySearch(keys, 0, size, key);
+            if (at >= 0) {
+                System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+                size--;
+            }
+        }
+
+        /**
+         * @return position of the first key with a value of at least {@code value}
+         */
+        int firstAtLeast(int value) {
+            int at = Arrays.binarySearch(keys, 0, size, key(value, 0) - 1);
+            return at >= 0 ? at + 1 : -at - 1;
+        }
+
+        /**
+         * Marks the slots whose value lies in an inclusive range
+         */
+        BitSet slotsBetween(int from, int to) {
+            BitSet slots = new BitSet();
+            int end = to == Integer.MAX_VALUE ? size : firstAtLeast(to + 1);
+            for (int i = firstAtLeast(from); i < end; i++) {
+                slots.set(slotOf(keys[i]));
+            }
+            return slots;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private Event[] events = new Event[INITIAL_CAPACITY];
+
+    // facets of each slot
+    private final BitSet live = new BitSet();
+    private final BitSet geoLocationRequired = new BitSet();
+    private final BitSet spotsLeft = new BitSet();
+    private final Map<String, BitSet> byStatus = new HashMap<>();
+    private final Map<String, BitSet> byOrganizer = new HashMap<>();
+    private String[] statusOf = new String[INITIAL_CAPACITY];
+    private String[] organizerOf = new String[INITIAL_CAPACITY];
+    // times in milliseconds, NO_TIME if the event has none
+    private long[] startMs = new long[INITIAL_CAPACITY];
+    private long[] endMs = new long[INITIAL_CAPACITY];
+    private long[] registrationStartMs = new long[INITIAL_CAPACITY];
+    private long[] registrationEndMs = new long[INITIAL_CAPACITY];
+    // sort and range keys, with the key of each slot to take it out again; creation time ranks
+    // newer events first like the browse query
+    private final SortedKeys byCreated = new SortedKeys();
+    private final SortedKeys byStart = new SortedKeys();
+    private final SortedKeys byPrice = new SortedKeys();
+    private final SortedKeys byPopularity = new SortedKeys();
+    private long[] createdKey = new long[INITIAL_CAPACITY];
+    private long[] startKey = new long[INITIAL_CAPACITY];
+    private long[] priceKey = new long[INITIAL_CAPACITY];
+    private long[] popularityKey = new long[INITIAL_CAPACITY];
+    // distinct words of each event, to take them out of the postings again
+    private String[][] wordsOf = new String[INITIAL_CAPACITY][];
+    private final IntList freeSlots = new IntList();
+    private int slotCount;
+
+    private final TreeMap<String, Word> words = new TreeMap<>();
+    private final List<Word> wordsById = new ArrayList<>();
+    // word IDs by n-gram, ascending since IDs are handed out in order
+    private final Map<String, IntList> grams = new HashMap<>();
+
+    // per slot scratch space reused by every search, entries are valid while their mark matches
+    private int[] queryMark = new int[INITIAL_CAPACITY];
+    private int[] termMark = new int[INITIAL_CAPACITY];
+    private int[] termsMatched = new int[INITIAL_CAPACITY];
+    private int[] termScore = new int[INITIAL_CAPACITY];
+    private int[] score = new int[INITIAL_CAPACITY];
+    private int queryCounter;
+    private int termCounter;
+    private final IntList matches = new IntList();
+
+    /**
+     * Applies a change delta from the events repository
+     * @param upserted events added or changed
+     * @param removedIds IDs of events no longer loaded
+     * @param reset true if every indexed event is dropped before applying the changes
+     */
+    public synchronized void apply(List<Event> upserted, List<String> removedIds, boolean reset) {
+        if (reset) {
+            clear();
+        }
+        for (String eventId : removedIds) {
+            remove(eventId);
+        }
+        for (Event event : upserted) {
+            put(event);
+        }
+    }
+
+    /**
+     * @return number of events indexed
+     */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /**
+     * Finds the events matching every word of a query. A query word matches an event if one of
+     * the event's words equals it, starts with it or, for words of at least {@link #GRAM}
+     * characters, contains it. Matches in the name count the most, then the location and
+     * organizer, then the description.
+     * @param query words to search for, in any case
+     * @return matching events, best first and newest first among equal scores
+     */
+    public synchronized List<Event> search(String query) {
+        Set<String> terms = tokenize(query == null ? "" : query);
+        if (terms.isEmpty() || !matchTerms(terms)) {
+            return Collections.emptyList();
+        }
+        return rank(live);
+    }
+
+    /**
+     * Finds the events matching a keyword query and a filter
+     * @param query words to search for as in {@link #search}, ignored if it has none
+     * @param filter facets to match and order of the results
+     * @param nowMs current time in milliseconds, for {@link EventFilter#isAvailableNow()}
+     * @return matching events in the filter's order
+     */
+    public synchronized List<Event> query(String query, EventFilter filter, long nowMs) {
+        BitSet allowed = facetMatches(filter, nowMs);
+        Set<String> terms = tokenize(query == null ? "" : query);
+        if (!terms.isEmpty()) {
+            if (!matchTerms(terms)) {
+                return Collections.emptyList();
+            }
+            if (filter.getSort() == EventFilter.Sort.NEWEST) {
+                return rank(allowed);
+            }
+            BitSet found = new BitSet();
+            for (int i = 0; i < matches.size; i++) {
+                found.set(matches.get(i));
+            }
+            allowed.and(found);
+        }
+        switch (filter.getSort()) {
+            case START_TIME:
+                return inOrder(byStart, false, allowed);
+            case POPULARITY:
+                return inOrder(byPopularity, true, allowed);
+            default:
+                return inOrder(byCreated, true, allowed);
+        }
+    }
+
+    /**
+     * Evaluates the facets of a filter
+     * @param filter facets to match
+     * @param nowMs current time in milliseconds
+     * @return slots of the events matching every facet
+     */
+    private BitSet facetMatches(EventFilter filter, long nowMs) {
+        BitSet result = (BitSet) live.clone();
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            int from = filter.getMinPrice() == null ? 0 : cents(filter.getMinPrice());
+            int to = filter.getMaxPrice() == null ? Integer.MAX_VALUE : cents(filter.getMaxPrice());
+            result.and(byPrice.slotsBetween(from, to));
+        }
+        if (filter.getStartFromMs() != null || filter.getStartToMs() != null) {
+            long fromMs = filter.getStartFromMs() == null ? Long.MIN_VALUE : filter.getStartFromMs();
+            long toMs = filter.getStartToMs() == null ? Long.MAX_VALUE : filter.getStartToMs();
+            // the keys narrow the window down to whole seconds, the exact times decide its edges;
+            // the largest key is left out since it marks events without a start time
+            int fromKey = seconds(Math.floorDiv(fromMs, 1000));
+            int toKey = Math.min(seconds(Math.floorDiv(toMs, 1000)), Integer.MAX_VALUE - 1);
+            BitSet window = byStart.slotsBetween(fromKey, toKey);
+            for (int slot = window.nextSetBit(0); slot >= 0; slot = window.nextSetBit(slot + 1)) {
+                if (startMs[slot] == NO_TIME || startMs[slot] < fromMs || startMs[slot] > toMs) {
+                    window.clear(slot);
+                }
+            }
+            result.and(window);
+        }
+        if (filter.getGeoLocationRequired() != null) {
+            if (filter.getGeoLocationRequired()) {
+                result.and(geoLocationRequired);
+            } else {
+                result.andNot(geoLocationRequired);
+            }
+        }
+        if (filter.getStatus() != null) {
+            andFacet(result, byStatus, filter.getStatus().toLowerCase(Locale.ROOT));
+        }
+        if (filter.getOrganizerId() != null) {
+            andFacet(result, byOrganizer, filter.getOrganizerId());
+        }
+        if (filter.isSpotsLeftOnly()) {
+            result.and(spotsLeft);
+        }
+        if (filter.isAvailableNow()) {
+            BitSet finalized = byStatus.get("finalized");
+            if (finalized != null) {
+                result.andNot(finalized);
+            }
+            for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+                boolean open = (registrationStartMs[slot] == NO_TIME || nowMs >= registrationStartMs[slot])
+                        && (registrationEndMs[slot] == NO_TIME || nowMs <= registrationEndMs[slot])
+                        && (endMs[slot] == NO_TIME || nowMs <= endMs[slot]);
+                if (!open) {
+                    result.clear(slot);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Narrows a result down to the slots with one value of a facet
+     */
+    private static void andFacet(BitSet result, Map<String, BitSet> facet, String value) {
+        BitSet slots = facet.get(value);
+        if (slots == null) {
+            result.clear();
+        } else {
+            result.and(slots);
+        }
+    }
+
+    /**
+     * Lists events in the order of a sorted key array
+     * @param order keys to walk
+     * @param descending true to walk from the largest value
+     * @param include slots to list
+     * @return the included events in order
+     */
+    private List<Event> inOrder(SortedKeys order, boolean descending, BitSet include) {
+        List<Event> result = new ArrayList<>(include.cardinality());
+        for (int i = 0; i < order.size; i++) {
+            int slot = SortedKeys.slotOf(order.keys[descending ? order.size - 1 - i : i]);
+            if (include.get(slot)) {
+                result.add(events[slot]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the events matching every term, leaving them and their scores in {@link #matches}
+     * @param terms lowercase words of the query
+     * @return true if any event matches
+     */
+    private boolean matchTerms(Set<String> terms) {
+        int queryId = ++queryCounter;
+        matches.size = 0;
+        int term = 0;
+        for (String text : terms) {
+            int termId = ++termCounter;
+            for (Word word : words.subMap(text, true, text + Character.MAX_VALUE, false).values()) {
+                collect(word, word.text.length() == text.length() ? EXACT : PREFIX, term, queryId, termId);
+            }
+            if (text.length() >= GRAM) {
+                IntList candidates = wordsContainingGrams(text);
+                for (int i = 0; i < candidates.size; i++) {
+                    Word word = wordsById.get(candidates.get(i));
+                    if (word.text.indexOf(text) > 0) {
+                        collect(word, INFIX, term, queryId, termId);
+                    }
+                }
+            }
+
+            // keep only the events matching this term too
+            int kept = 0;
+            for (int i = 0; i < matches.size; i++) {
+                int slot = matches.get(i);
+                if (termMark[slot] == termId) {
+                    termsMatched[slot]++;
+                    score[slot] += termScore[slot];
+                    matches.items[kept++] = slot;
+                }
+            }
+            matches.size = kept;
+            if (kept == 0) {
+                return false;
+            }
+            term++;
+        }
+        return true;
+    }
+
+    /**
+     * Records the events of a word matching the current term, keeping each event's best score
+     * for the term. After the first term only events matching every earlier term are considered.
+     */
+    private void collect(Word word, int quality, int term, int queryId, int termId) {
+        IntList postings = word.postings;
+        for (int i = 0; i < postings.size; i++) {
+            int posting = postings.get(i);
+            int slot = posting >>> FIELD_BITS;
+            if (queryMark[slot] != queryId) {
+                if (term > 0) {
+                    continue;
+                }
+                queryMark[slot] = queryId;
+                termsMatched[slot] = 0;
+                score[slot] = 0;
+                matches.add(slot);
+            } else if (termsMatched[slot] != term) {
+                continue;
+            }
+            int points = quality * weight(posting & FIELD_MASK);
+            if (termMark[slot] != termId) {
+                termMark[slot] = termId;
+                termScore[slot] = points;
+            } else if (points > termScore[slot]) {
+                termScore[slot] = points;
+            }
+        }
+    }
+
+    /**
+     * Orders the matches by score, then by creation time, without boxing slots
+     * @param include slots allowed in the result
+     * @return matching events in rank order
+     */
+    private List<Event> rank(BitSet include) {
+        int n = 0;
+        long[] byAge = new long[matches.size];
+        int maxScore = 0;
+        for (int i = 0; i < matches.size; i++) {
+            int slot = matches.get(i);
+            if (include.get(slot)) {
+                byAge[n++] = createdKey[slot];
+                maxScore = Math.max(maxScore, score[slot]);
+            }
+        }
+        byAge = Arrays.copyOf(byAge, n);
+        Arrays.sort(byAge);
+
+        // stable counting sort by descending score over the newest first order
+        int[] offsets = new int[maxScore + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[score[SortedKeys.slotOf(byAge[i])]]++;
+        }
+        int start = 0;
+        for (int s = maxScore; s >= 0; s--) {
+            int count = offsets[s];
+            offsets[s] = start;
+            start += count;
+        }
+        Event[] ranked = new Event[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int slot = SortedKeys.slotOf(byAge[i]);
+            ranked[offsets[score[slot]]++] = events[slot];
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * Finds the words containing every n-gram of a term, by intersecting the n-gram lists from
+     * the shortest
+     * @param text term of at least {@link #GRAM} characters
+     * @return IDs of candidate words, which still have to be checked for the whole term
+     */
+    private IntList wordsContainingGrams(String text) {
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            IntList ids = grams.get(text.substring(i, i + GRAM));
+            if (ids == null) {
+                return new IntList();
+            }
+            lists.add(ids);
+        }
+        IntList shortest = lists.get(0);
+        for (IntList ids : lists) {
+            if (ids.size < shortest.size) {
+                shortest = ids;
+            }
+        }
+        IntList result = new IntList();
+        for (int i = 0; i < shortest.size; i++) {
+            int id = shortest.get(i);
+            boolean inAll = true;
+            for (IntList ids : lists) {
+                if (ids != shortest && Arrays.binarySearch(ids.items, 0, ids.size, id) < 0) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes an event, replacing its previous version if it is already indexed
+     * @param event event to index
+     */
+    private void put(Event event) {
+        String eventId = event.getEventId();
+        if (eventId == null) {
+            return;
+        }
+        Integer existing = slots.get(eventId);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unindex(slot);
+        } else {
+            slot = allocateSlot();
+            slots.put(eventId, slot);
+        }
+        events[slot] = event;
+        live.set(slot);
+        indexFacets(slot, event);
+
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        addWords(fields, event.getName(), NAME);
+        addWords(fields, event.getDescription(), DESCRIPTION);
+        addWords(fields, event.getLocation(), LOCATION);
+        addWords(fields, event.getOrganizerName(), ORGANIZER);
+        for (Map.Entry<String, Integer> field : fields.entrySet()) {
+            wordFor(field.getKey()).postings.insertPosting(slot << FIELD_BITS | field.getValue());
+        }
+        wordsOf[slot] = fields.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Precomputes the facets and sort keys of an event
+     */
+    private void indexFacets(int slot, Event event) {
+        createdKey[slot] = SortedKeys.key(seconds(event.getCreatedAt()), slot);
+        byCreated.insert(createdKey[slot]);
+        Timestamp start = event.getEventStartDateTime();
+        startMs[slot] = millis(start);
+        // events without a start time sort last
+        startKey[slot] = SortedKeys.key(start == null ? Integer.MAX_VALUE : seconds(start), slot);
+        byStart.insert(startKey[slot]);
+        priceKey[slot] = SortedKeys.key(event.getPrice() == null ? 0 : cents(event.getPrice()), slot);
+        byPrice.insert(priceKey[slot]);
+        int waiting = event.getWaitingListCount() == null ? 0 : Math.max(0, event.getWaitingListCount());
+        popularityKey[slot] = SortedKeys.key(waiting, slot);
+        byPopularity.insert(popularityKey[slot]);
+
+        endMs[slot] = millis(event.getEventEndDateTime());
+        registrationStartMs[slot] = millis(event.getRegistrationStartDateTime());
+        registrationEndMs[slot] = millis(event.getRegistrationEndDateTime());
+        geoLocationRequired.set(slot, event.getGeoLocationRequired());
+        spotsLeft.set(slot, !EntrantCounters.isFull(event.getWaitingListLimit(), waiting));
+        statusOf[slot] = event.getStatus() == null ? "" : event.getStatus().toLowerCase(Locale.ROOT);
+        facet(byStatus, statusOf[slot]).set(slot);
+        organizerOf[slot] = event.getOrganizerId();
+        if (organizerOf[slot] != null) {
+            facet(byOrganizer, organizerOf[slot]).set(slot);
+        }
+    }
+
+    /**
+     * Gets the slots of one value of a facet, adding the value on first use
+     */
+    private static BitSet facet(Map<String, BitSet> facet, String value) {
+        BitSet slots = facet.get(value);
+        if (slots == null) {
+            slots = new BitSet();
+            facet.put(value, slots);
+        }
+        return slots;
+    }
+
+    /**
+     * Removes an event from the index
+     * @param eventId ID of the event
+     */
+    private void remove(String eventId) {
+        Integer slot = slots.remove(eventId);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot);
+        events[slot] = null;
+        live.clear(slot);
+        freeSlots.add(slot);
+    }
+
+    /**
+     * Takes a slot out of the postings of its words and out of its facets
+     */
+    private void unindex(int slot) {
+        if (events[slot] != null) {
+            byCreated.remove(createdKey[slot]);
+            byStart.remove(startKey[slot]);
+            byPrice.remove(priceKey[slot]);
+            byPopularity.remove(popularityKey[slot]);
+            geoLocationRequired.clear(slot);
+            spotsLeft.clear(slot);
+            byStatus.get(statusOf[slot]).clear(slot);
+            if (organizerOf[slot] != null) {
+                byOrganizer.get(organizerOf[slot]).clear(slot);
+            }
+        }
+        String[] previous = wordsOf[slot];
+        if (previous == null) {
+            return;
+        }
+        for (String text : previous) {
+            Word word = words.get(text);
+            if (word != null) {
+                word.postings.removeSlot(slot);
+            }
+        }
+        wordsOf[slot] = null;
+    }
+
+    /**
+     * Gets the entry of a word, adding it and its n-grams on first use
+     */
+    private Word wordFor(String text) {
+        Word word = words.get(text);
+        if (word != null) {
+            return word;
+        }
+        word = new Word(wordsById.size(), text);
+        wordsById.add(word);
+        words.put(text, word);
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            IntList ids = grams.get(gram);
+            if (ids == null) {
+                ids = new IntList();
+                grams.put(gram, ids);
+            }
+            // a gram repeated within the word is listed once
+            if (ids.size == 0 || ids.last() != word.id) {
+                ids.add(word.id);
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Reuses a freed slot or takes a new one, growing the per slot arrays as needed
+     */
+    private int allocateSlot() {
+        if (freeSlots.size > 0) {
+            return freeSlots.items[--freeSlots.size];
+        }
+        if (slotCount == events.length) {
+            int capacity = slotCount * 2;
+            events = Arrays.copyOf(events, capacity);
+            wordsOf = Arrays.copyOf(wordsOf, capacity);
+            statusOf = Arrays.copyOf(statusOf, capacity);
+            organizerOf = Arrays.copyOf(organizerOf, capacity);
+            startMs = Arrays.copyOf(startMs, capacity);
+            endMs = Arrays.copyOf(endMs, capacity);
+            registrationStartMs = Arrays.copyOf(registrationStartMs, capacity);
+            registrationEndMs = Arrays.copyOf(registrationEndMs, capacity);
+            createdKey = Arrays.copyOf(createdKey, capacity);
+            startKey = Arrays.copyOf(startKey, capacity);
+            priceKey = Arrays.copyOf(priceKey, capacity);
+            popularityKey = Arrays.copyOf(popularityKey, capacity);
+            queryMark = Arrays.copyOf(queryMark, capacity);
+            termMark = Arrays.copyOf(termMark, capacity);
+            termsMatched = Arrays.copyOf(termsMatched, capacity);
+            termScore = Arrays.copyOf(termScore, capacity);
+            score = Arrays.copyOf(score, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Drops every event and word
+     */
+    private void clear() {
+        slots.clear();
+        Arrays.fill(events, 0, slotCount, null);
+        Arrays.fill(wordsOf, 0, slotCount, null);
+        freeSlots.size = 0;
+        slotCount = 0;
+        words.clear();
+        wordsById.clear();
+        grams.clear();
+        live.clear();
+        geoLocationRequired.clear();
+        spotsLeft.clear();
+        byStatus.clear();
+        byOrganizer.clear();
+        byCreated.clear();
+        byStart.clear();
+        byPrice.clear();
+        byPopularity.clear();
+    }
+
+    /**
+     * Adds the words of a field to the words of an event
+     * @param fields field flags of each word seen so far
+     * @param text text of the field, may be null
+     * @param field flag of the field
+     */
+    private static void addWords(Map<String, Integer> fields, String text, int field) {
+        if (text == null) {
+            return;
+        }
+        for (String word : tokenize(text)) {
+            Integer flags = fields.get(word);
+            fields.put(word, flags == null ? field : flags | field);
+        }
+    }
+
+    /**
+     * Splits text into lowercase words of letters and digits
+     * @param text text to split
+     * @return distinct words in order of appearance
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @param timestamp a time, may be null
+     * @return the time in key seconds, clamped to the int range keys hold
+     */
+    private static int seconds(Timestamp timestamp) {
+        return timestamp == null ? 0 : seconds(timestamp.getSeconds());
+    }
+
+    /**
+     * @param seconds a time in seconds since 1970
+     * @return the time in key seconds, clamped to the int range keys hold
+     */
+    private static int seconds(long seconds) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, seconds - KEY_EPOCH_SECONDS));
+    }
+
+    /**
+     * @param timestamp a time, may be null
+     * @return the time in milliseconds, or {@link #NO_TIME} if there is none
+     */
+    private static long millis(Timestamp timestamp) {
+        return timestamp == null ? NO_TIME : timestamp.toDate().getTime();
+    }
+
+    /**
+     * @param price a price in dollars
+     * @return the price in whole cents, clamped to the int range keys hold
+     */
+    private static int cents(double price) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, Math.round(price * 100)));
+    }
+
+    /**
+     * @param fields field flags of a posting
+     * @return weight of the most important field
+     */
+    private static int weight(int fields) {
+        if ((fields & NAME) != 0) {
+            return 8;
+        }
+        if ((fields & (LOCATION | ORGANIZER)) != 0) {
+            return 4;
+        }
+        return 1;
+    }
+}
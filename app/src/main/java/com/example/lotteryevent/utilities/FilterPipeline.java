@@ -0,0 +1,155 @@
+package com.example.lotteryevent.utilities;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs filter computations in the background and publishes only the latest result.
+ * <p>
+ *     Every request takes the next generation number. A request can be delayed, so a burst of
+ *     requests such as keystrokes collapses into the last one. Requests run one at a time on a
+ *     worker thread. A request whose generation is outdated by the time it starts is skipped, and
+ *     a result whose generation is outdated by the time it is delivered is dropped, so a slow
+ *     computation can never overwrite a newer result.
+ * </p>
+ * @param <R> type of the computed result
+ */
+public class FilterPipeline<R> {
+
+    /**
+     * Receives the results of requests
+     * @param <R> type of the computed result
+     */
+    public interface ResultListener<R> {
+        /**
+         * Called on the result executor with the result of the latest request
+         * @param result computed result
+         */
+        void onResult(R result);
+
+        /**
+         * Called on the result executor if the latest request failed
+         * @param e exception thrown by the computation
+         */
+        void onError(Exception e);
+    }
+
+    private final ScheduledExecutorService worker;
+    private final Executor resultExecutor;
+    private final ResultListener<R> listener;
+    private final AtomicLong generation = new AtomicLong();
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Creates a pipeline with its own worker thread
+     * @param resultExecutor executor results are delivered on, usually the main thread
+     * @param listener receives the results
+     */
+    public FilterPipeline(Executor resultExecutor, ResultListener<R> listener) {
+        this(Executors.newSingleThreadScheduledExecutor(), resultExecutor, listener);
+    }
+
+    /**
+     * Creates a pipeline on a given worker
+     * @param worker executor requests are delayed and computed on
+     * @param resultExecutor executor results are delivered on
+     * @param listener receives the results
+     */
+    FilterPipeline(ScheduledExecutorService worker, Executor resultExecutor, ResultListener<R> listener) {
+        this.worker = worker;
+        this.resultExecutor = resultExecutor;
+        this.listener = listener;
+    }
+
+    /**
+     * Requests a computation in the background, outdating every earlier request
+     * @param computation computes the result from a snapshot of the inputs
+     * @param delayMs time to wait for a newer request before computing
+     * @return generation of the request
+     */
+    public long submit(Callable<R> computation, long delayMs) {
+        synchronized (this) {
+            long requested = outdate();
+            pending = worker.schedule(() -> compute(requested, computation), delayMs, TimeUnit.MILLISECONDS);
+            return requested;
+        }
+    }
+
+    /**
+     * Outdates every earlier request without making a new one, such as when the caller computes
+     * a small result itself
+     * @return generation that is now current
+     */
+    public long cancel() {
+        return outdate();
+    }
+
+    /**
+     * @param requested generation of a request
+     * @return true if no request was made after it
+     */
+    public boolean isCurrent(long requested) {
+        return generation.get() == requested;
+    }
+
+    /**
+     * Stops the worker thread. Requests made afterwards are rejected.
+     */
+    public void shutdown() {
+        outdate();
+        worker.shutdownNow();
+    }
+
+    /**
+     * Advances the generation and cancels the delayed request, if it has not started yet
+     * @return the new generation
+     */
+    private synchronized long outdate() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        return generation.incrementAndGet();
+    }
+
+    /**
+     * Computes a request on the worker unless it is outdated, then delivers the result if it is
+     * still current once the result executor runs
+     * @param requested generation of the request
+     * @param computation computes the result
+     */
+    private void compute(long requested, Callable<R> computation) {
+        if (!isCurrent(requested)) {
+            return;
+        }
+        R result;
+        try {
+            result = computation.call();
+        } catch (Exception e) {
+            deliver(requested, () -> listener.onError(e));
+            return;
+        }
+        deliver(requested, () -> listener.onResult(result));
+    }
+
+    /**
+     * Hands a delivery to the result executor, dropping it if it is outdated by then
+     * @param requested generation of the request
+     * @param delivery calls the listener
+     */
+    private void deliver(long requested, Runnable delivery) {
+        if (!isCurrent(requested)) {
+            return;
+        }
+        resultExecutor.execute(() -> {
+            if (isCurrent(requested)) {
+                delivery.run();
+            }
+        });
+    }
+}
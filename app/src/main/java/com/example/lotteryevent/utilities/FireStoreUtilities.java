@@ -7,9 +7,14 @@ import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 
+import com.example.lotteryevent.data.EventStats;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -22,6 +27,7 @@ public class FireStoreUtilities {
 
         /**
          * MVVM version of entrant metrics loader.
+         * Counts come from the event's materialized counters, so only two documents are read.
          *
          * This returns metrics through callbacks instead of updating UI elements.
          * This makes the method safe for Repository + ViewModel usage.
@@ -47,18 +53,19 @@ public class FireStoreUtilities {
                 return;
             }
 
-            // Waitlist count
-            db.collection("events").document(eventId)
-                    .collection("entrants")
-                    .whereEqualTo("status", "waiting")
-                    .get()
-                    /**
-                     * Gets waiting list size
-                     * @param waitQuery waiting list entrants query
-                     */
-                    .addOnSuccessListener(waitQuery -> {
+            Task<EventStats> statsTask = EntrantCounters.load(db, eventId);
+            Task<DocumentSnapshot> eventTask = db.collection("events").document(eventId).get();
+
+            /**
+             * Gets waiting list and invited counts from the event's counters
+             * @param stats entrant counts of the event
+             */
+            statsTask.addOnSuccessListener(stats -> {
                         if (waitingListCallback != null) {
-                            waitingListCallback.accept(waitQuery.size());
+                            waitingListCallback.accept((int) stats.getWaiting());
+                        }
+                        if (selectedCallback != null) {
+                            selectedCallback.accept((int) stats.getInvited());
                         }
                     })
                     /**
@@ -66,76 +73,49 @@ public class FireStoreUtilities {
                      * @param e exception thrown
                      */
                     .addOnFailureListener(e -> {
-                        Log.w(TAG, "Error loading waiting list", e);
+                        Log.w(TAG, "Error loading entrant counts", e);
                         if (errorCallback != null) errorCallback.accept("Error loading waiting list");
                     });
 
-            // Get invited count
-            db.collection("events").document(eventId)
-                    .collection("entrants")
-                    .whereEqualTo("status", "invited")
-                    .get()
+            Tasks.whenAllSuccess(statsTask, eventTask)
                     /**
-                     * Gets invited count and available space count
-                     * @param waitQuery invited entrants query
+                     * Gets available spaces from the event capacity and invited count
+                     * @param results entrant counts and event document
                      */
-                    .addOnSuccessListener(selectedQuery -> {
-
-                        int selectedCount = selectedQuery.size();
+                    .addOnSuccessListener(results -> {
+                        EventStats stats = (EventStats) results.get(0);
+                        DocumentSnapshot document = (DocumentSnapshot) results.get(1);
+                        Long capacityLong = document.getLong("capacity");
 
-                        if (selectedCallback != null) {
-                            selectedCallback.accept(selectedCount);
-                        }
+                        if (capacityLong != null) {
+                            int capacity = capacityLong.intValue();
+                            int spacesLeft = (int) Math.max(0, capacity - stats.getInvited());
 
-                        // Get event capacity
-                        db.collection("events").document(eventId)
-                                .get()
-                                /**
-                                 * Gets available spaces
-                                 * @param document contains event to get space count from
-                                 */
-                                .addOnSuccessListener(document -> {
-
-                                    Long capacityLong = document.getLong("capacity");
-
-                                    if (capacityLong != null) {
-                                        int capacity = capacityLong.intValue();
-                                        int spacesLeft = Math.max(0, capacity - selectedCount);
-
-                                        if (availableSpacesCallback != null) {
-                                            availableSpacesCallback.accept(spacesLeft);
-                                        }
-
-                                    } else {
-                                        // No capacity limit
-                                        if (availableSpacesCallback != null) {
-                                            availableSpacesCallback.accept(null);
-                                        }
-                                    }
-                                })
-                                /**
-                                 * Logs exception, calls error callback
-                                 * @param e exception thrown
-                                 */
-                                .addOnFailureListener(e -> {
-                                    Log.w(TAG, "Error loading capacity", e);
-                                    if (errorCallback != null) errorCallback.accept("Error loading event capacity");
-                                });
+                            if (availableSpacesCallback != null) {
+                                availableSpacesCallback.accept(spacesLeft);
+                            }
 
+                        } else {
+                            // No capacity limit
+                            if (availableSpacesCallback != null) {
+                                availableSpacesCallback.accept(null);
+                            }
+                        }
                     })
                     /**
                      * Logs exception, calls error callback
                      * @param e exception thrown
                      */
                     .addOnFailureListener(e -> {
-                        Log.w(TAG, "Error loading selected count", e);
-                        if (errorCallback != null) errorCallback.accept("Error loading selected count");
+                        Log.w(TAG, "Error loading capacity", e);
+                        if (errorCallback != null) errorCallback.accept("Error loading event capacity");
                     });
         }
 
 
     /**
-     * Cancels the lottery by bringing entrants back to the waiting list and switches fragment to the home fragment
+     * Cancels the lottery by bringing entrants back to the waiting list and switches fragment to the home fragment.
+     * Status updates are committed in chunked transactions that skip entrants no longer invited.
      */
     public static void cancelLottery(
             FirebaseFirestore db,
@@ -156,17 +136,30 @@ public class FireStoreUtilities {
                  * @param query invited entrants
                  */
                 .addOnSuccessListener(query -> {
-                    if (!query.isEmpty()) {
-                        for (DocumentSnapshot entrantDoc : query.getDocuments()) {
-                            entrantDoc.getReference().update("status", "waiting");
-                        }
-                        if (onSuccess != null) {
-                            onSuccess.run();
-                        } else {
-                            if (onError != null) onError.accept("No invited entrants to cancel");
-                        }
-
+                    if (query.isEmpty()) {
+                        if (onError != null) onError.accept("No invited entrants to cancel");
+                        return;
+                    }
+                    List<String> invitedIds = new ArrayList<>();
+                    for (DocumentSnapshot entrantDoc : query.getDocuments()) {
+                        invitedIds.add(entrantDoc.getId());
                     }
+                    EntrantCounters.changeStatuses(db, eventId, invitedIds, "invited", "waiting")
+                            /**
+                             * Calls success callback once every entrant is back on the waiting list
+                             * @param moved IDs of the entrants moved back
+                             */
+                            .addOnSuccessListener(moved -> {
+                                if (onSuccess != null) onSuccess.run();
+                            })
+                            /**
+                             * Logs exception thrown and calls error callback
+                             * @param e exception thrown
+                             */
+                            .addOnFailureListener(e -> {
+                                Log.w(TAG, "Error moving entrants back to waiting list", e);
+                                if (onError != null) onError.accept("Error cancelling lottery");
+                            });
                 })
                 /**
                  * Calls error callback
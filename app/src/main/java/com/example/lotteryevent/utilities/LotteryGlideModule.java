@@ -0,0 +1,65 @@
+package com.example.lotteryevent.utilities;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Configures Glide for the app, teaching it to load {@link PosterModel}s.
+ * <p>
+ *     Decoded posters are kept in Glide's LRU memory cache, and the downloaded poster bytes in
+ *     a disk cache in the app's cache directory, so scrolling back to a poster or reopening the
+ *     app does not read Firestore again.
+ * </p>
+ */
+@GlideModule
+public class LotteryGlideModule extends AppGlideModule {
+
+    /**
+     * Size of the disk cache holding poster bytes
+     */
+    static final long DISK_CACHE_BYTES = 50L * 1024 * 1024;
+
+    /**
+     * Sets up the memory and disk caches
+     * @param context application context
+     * @param builder builder of the Glide instance
+     */
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context).build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, "posters", DISK_CACHE_BYTES));
+    }
+
+    /**
+     * Registers the poster loader
+     * @param context application context
+     * @param glide the Glide instance
+     * @param registry registry to add the loader to
+     */
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.prepend(PosterModel.class, ByteBuffer.class, new PosterModelLoader.Factory());
+    }
+
+    /**
+     * The app declares no Glide modules in its manifest, so skip parsing it
+     * @return false
+     */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
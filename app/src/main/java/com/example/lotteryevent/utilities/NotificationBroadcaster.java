@@ -0,0 +1,166 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.lotteryevent.data.Broadcast;
+import com.example.lotteryevent.data.NotificationTemplate;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends the same notification to many users at once.
+ * <p>
+ *     The content is stored once as a {@link Broadcast} at {@code broadcasts/{id}} and each recipient
+ *     gets a small pointer in {@code notifications}, which {@link BroadcastResolver} merges back
+ *     with the content when the inbox is read. Pointers are written through a {@link BatchWriter}:
+ *     up to 500 per batch with several batches committed in parallel. Failures are aggregated into
+ *     a single {@link Result} rather than reported per recipient.
+ * </p>
+ */
+public class NotificationBroadcaster {
+
+    private static final String TAG = "NotificationBroadcaster";
+
+    /**
+     * Batch commits in flight at once; notification writes do not contend with each other
+     */
+    static final int MAX_IN_FLIGHT = 8;
+
+    /**
+     * Up to this many recipients, the content is written inline since a broadcast document would
+     * cost more than it saves
+     */
+    static final int INLINE_MAX_RECIPIENTS = 1;
+
+    private final FirebaseFirestore db;
+
+    /**
+     * Outcome of a broadcast
+     */
+    public static class Result {
+        private final int recipients;
+        private final int sent;
+        private final int failed;
+        private final long elapsedMs;
+        private final List<Exception> errors;
+
+        /**
+         * Creates a result
+         * @param recipients number of distinct recipients
+         * @param sent number of notifications written
+         * @param failed number of notifications in failed batches
+         * @param elapsedMs time taken to write every batch
+         * @param errors exceptions thrown by the failed batches
+         */
+        public Result(int recipients, int sent, int failed, long elapsedMs, List<Exception> errors) {
+            this.recipients = recipients;
+            this.sent = sent;
+            this.failed = failed;
+            this.elapsedMs = elapsedMs;
+            this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+        }
+
+        public int getRecipients() { return recipients; }
+
+        public int getSent() { return sent; }
+
+        public int getFailed() { return failed; }
+
+        public long getElapsedMs() { return elapsedMs; }
+
+        public List<Exception> getErrors() { return errors; }
+
+        /**
+         * @return true if every recipient was notified
+         */
+        public boolean isSuccessful() { return failed == 0; }
+
+        /**
+         * @return notifications written per second, 0 if nothing was sent
+         */
+        public double getThroughputPerSecond() {
+            if (sent == 0) {
+                return 0;
+            }
+            return sent * 1000.0 / Math.max(1, elapsedMs);
+        }
+    }
+
+    /**
+     * Creates a broadcaster
+     * @param db Firestore instance
+     */
+    public NotificationBroadcaster(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Writes one notification per recipient from a template. Duplicate recipients are notified once.
+     * @param recipientIds IDs of the users to notify
+     * @param template content shared by every notification
+     * @param listener receives progress after every batch, may be null
+     * @return task resolving to the aggregated result; it only fails if the broadcast could not start
+     */
+    public Task<Result> send(Collection<String> recipientIds, NotificationTemplate template,
+                             @Nullable BatchWriter.ProgressListener listener) {
+        Set<String> recipients = new LinkedHashSet<>(recipientIds);
+        CollectionReference notificationsRef = db.collection("notifications");
+        Timestamp sentAt = Timestamp.now();
+        long start = System.currentTimeMillis();
+
+        BatchWriter writer = new BatchWriter(db, BatchWriter.MAX_BATCH_SIZE, MAX_IN_FLIGHT);
+        Task<BatchWriter.Result> commit;
+        if (recipients.size() <= INLINE_MAX_RECIPIENTS) {
+            for (String uid : recipients) {
+                writer.set(notificationsRef.document(), template.toNotification(uid, sentAt));
+            }
+            commit = writer.commit(listener);
+        } else {
+            DocumentReference broadcastRef = db.collection("broadcasts").document();
+            for (String uid : recipients) {
+                writer.set(notificationsRef.document(), template.toPointer(uid, broadcastRef.getId(), sentAt));
+            }
+            // the content must exist before any pointer to it can show up in an inbox
+            commit = broadcastRef.set(template.toBroadcast(recipients.size(), sentAt))
+                    /**
+                     * Writes the recipients' pointers once the broadcast is stored
+                     * @param aVoid unusable data
+                     */
+                    .onSuccessTask(aVoid -> writer.commit(listener));
+        }
+
+        return commit
+                /**
+                 * Aggregates the batch outcomes into a single result
+                 * @param task outcome of the batched commit
+                 */
+                .continueWith(task -> {
+                    BatchWriter.Result writes;
+                    if (task.isSuccessful()) {
+                        writes = task.getResult();
+                    } else if (task.getException() instanceof BatchWriter.PartialFailureException) {
+                        writes = ((BatchWriter.PartialFailureException) task.getException()).getResult();
+                    } else {
+                        throw task.getException();
+                    }
+                    Result result = new Result(recipients.size(), writes.getCommittedOps(), writes.getFailedOps(),
+                            System.currentTimeMillis() - start, writes.getErrors());
+                    Log.d(TAG, "Broadcast " + template.getType() + ": " + result.getSent() + "/" + result.getRecipients()
+                            + " sent, " + result.getFailed() + " failed in " + result.getElapsedMs() + "ms ("
+                            + Math.round(result.getThroughputPerSecond()) + "/s)");
+                    return result;
+                });
+    }
+}
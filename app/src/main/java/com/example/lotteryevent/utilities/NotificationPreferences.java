@@ -0,0 +1,115 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+/**
+ * Session-scoped cache of the signed in user's notification opt-out preference.
+ * <p>
+ *     A single listener on {@code users/{uid}} keeps the cached value current, so showing a banner
+ *     for an incoming notification never needs its own read of the user document. Changes made
+ *     through the app are also written into the cache directly, so they apply before the listener
+ *     reports them.
+ * </p>
+ */
+public class NotificationPreferences {
+
+    private static final String TAG = "NotificationPreferences";
+
+    private static final NotificationPreferences INSTANCE = new NotificationPreferences();
+
+    private ListenerRegistration registration;
+    private String uid;
+    private volatile Boolean optOut;
+    private TaskCompletionSource<Boolean> firstValue = new TaskCompletionSource<>();
+
+    /**
+     * Only one cache exists per process
+     */
+    private NotificationPreferences() {}
+
+    /**
+     * @return the process-wide cache
+     */
+    public static NotificationPreferences getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts listening to a user's preference. Does nothing if that user is already being listened
+     * to; a different user replaces the previous one and resets the cache.
+     * @param db Firestore instance
+     * @param uid user whose preference to cache
+     */
+    public synchronized void start(FirebaseFirestore db, String uid) {
+        if (registration != null && uid.equals(this.uid)) {
+            return;
+        }
+        stop();
+        this.uid = uid;
+        registration = db.collection("users").document(uid)
+                /**
+                 * Caches the preference whenever the user document changes
+                 * @param doc contains user
+                 * @param e exception thrown
+                 */
+                .addSnapshotListener((doc, e) -> {
+                    if (e != null) {
+                        Log.w(TAG, "Failed to listen to notification preference of user " + uid, e);
+                        return;
+                    }
+                    if (doc != null) {
+                        setOptOut(Boolean.TRUE.equals(doc.getBoolean("optOutNotifications")));
+                    }
+                });
+    }
+
+    /**
+     * Stops listening and forgets the cached preference
+     */
+    public synchronized void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        uid = null;
+        optOut = null;
+        firstValue = new TaskCompletionSource<>();
+    }
+
+    /**
+     * Updates the cached preference
+     * @param optOut true if the user opted out of notifications
+     */
+    public synchronized void setOptOut(boolean optOut) {
+        this.optOut = optOut;
+        firstValue.trySetResult(optOut);
+    }
+
+    /**
+     * Reads the cached preference without touching the network. Until the preference has loaded
+     * the user is treated as opted out, so no banner is shown against their wishes.
+     * @return true if banners should not be shown
+     */
+    public boolean isOptedOut() {
+        Boolean cached = optOut;
+        return cached == null || cached;
+    }
+
+    /**
+     * Gets the preference once it has loaded
+     * @return task resolving to true if the user opted out of notifications
+     */
+    public synchronized Task<Boolean> getOptOut() {
+        Boolean cached = optOut;
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+        return firstValue.getTask();
+    }
+}
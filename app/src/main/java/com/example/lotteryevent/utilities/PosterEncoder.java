@@ -0,0 +1,188 @@
+package com.example.lotteryevent.utilities;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.util.Base64;
+
+import java.io.ByteArrayOutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Encodes event posters into the sizes the app renders them at.
+ * <p>
+ *     Every poster is stored as one WebP image per {@link Variant}, each scaled to the variant's
+ *     longest side and compressed until it fits the variant's byte budget. Screens then download
+ *     and decode only the variant they show, such as a small thumbnail for a list row instead
+ *     of the full detail image.
+ * </p>
+ */
+public final class PosterEncoder {
+
+    /**
+     * A size a poster is stored at
+     */
+    public enum Variant {
+        /** Small grid tiles, such as the admin image browser */
+        THUMBNAIL("thumbnail", 160, 8 * 1024),
+        /** Event cards in lists */
+        CARD("card", 480, 40 * 1024),
+        /** Full width headers on event screens */
+        DETAIL("detail", 1080, 160 * 1024);
+
+        private final String key;
+        private final int maxDimension;
+        private final int byteBudget;
+
+        Variant(String key, int maxDimension, int byteBudget) {
+            this.key = key;
+            this.maxDimension = maxDimension;
+            this.byteBudget = byteBudget;
+        }
+
+        /**
+         * @return name the variant is stored under
+         */
+        public String getKey() { return key; }
+
+        /**
+         * @return maximum length in pixels of the longest side
+         */
+        public int getMaxDimension() { return maxDimension; }
+
+        /**
+         * @return maximum size in bytes of the encoded image
+         */
+        public int getByteBudget() { return byteBudget; }
+    }
+
+    /**
+     * Quality the first encoding attempt uses
+     */
+    static final int START_QUALITY = 80;
+
+    /**
+     * Lowest quality tried before the image is scaled down further
+     */
+    static final int MIN_QUALITY = 30;
+
+    /**
+     * Quality dropped between attempts
+     */
+    static final int QUALITY_STEP = 10;
+
+    /**
+     * Longest side below which an image is no longer scaled down to meet its budget
+     */
+    static final int MIN_DIMENSION = 64;
+
+    // Encoding is CPU bound, one worker keeps it off the main thread without competing with the UI
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private PosterEncoder() {}
+
+    /**
+     * @return executor that poster encoding runs on
+     */
+    public static ExecutorService executor() {
+        return executor;
+    }
+
+    /**
+     * Encodes a poster at one variant's size and byte budget
+     * @param source poster at any size
+     * @param variant size to encode at
+     * @return Base64 encoded WebP image
+     */
+    public static String encode(Bitmap source, Variant variant) {
+        int maxDimension = variant.getMaxDimension();
+        while (true) {
+            int[] size = scaledSize(source.getWidth(), source.getHeight(), maxDimension);
+            Bitmap scaled = size[0] == source.getWidth() && size[1] == source.getHeight()
+                    ? source
+                    : Bitmap.createScaledBitmap(source, size[0], size[1], true);
+            try {
+                byte[] bytes = null;
+                for (int quality = START_QUALITY; quality >= MIN_QUALITY; quality -= QUALITY_STEP) {
+                    bytes = compress(scaled, quality);
+                    if (bytes.length <= variant.getByteBudget()) {
+                        return Base64.encodeToString(bytes, Base64.NO_WRAP);
+                    }
+                }
+                if (Math.max(size[0], size[1]) <= MIN_DIMENSION) {
+                    // Cannot shrink any further, the smallest attempt is the best available
+                    return Base64.encodeToString(bytes, Base64.NO_WRAP);
+                }
+            } finally {
+                if (scaled != source) {
+                    scaled.recycle();
+                }
+            }
+            maxDimension = Math.max(MIN_DIMENSION, Math.max(size[0], size[1]) * 3 / 4);
+        }
+    }
+
+    /**
+     * Derives the smaller variants from a poster's detail image
+     * @param detailBase64 Base64 encoded detail variant
+     * @return Base64 encoded image of every variant other than the detail one
+     * @throws IllegalArgumentException if the detail image cannot be decoded
+     */
+    public static Map<Variant, String> encodeSmallerVariants(String detailBase64) {
+        byte[] bytes = Base64.decode(detailBase64, Base64.DEFAULT);
+        Bitmap detail = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+        if (detail == null) {
+            throw new IllegalArgumentException("Poster could not be decoded");
+        }
+        Map<Variant, String> variants = new EnumMap<>(Variant.class);
+        try {
+            for (Variant variant : Variant.values()) {
+                if (variant != Variant.DETAIL) {
+                    variants.put(variant, encode(detail, variant));
+                }
+            }
+        } finally {
+            detail.recycle();
+        }
+        return variants;
+    }
+
+    /**
+     * Computes the size of an image scaled down to fit a maximum dimension, keeping its aspect
+     * ratio. Images that already fit are never scaled up.
+     * @param width width of the image
+     * @param height height of the image
+     * @param maxDimension maximum length of the longest side
+     * @return scaled width and height
+     */
+    static int[] scaledSize(int width, int height, int maxDimension) {
+        int longest = Math.max(width, height);
+        if (longest <= maxDimension) {
+            return new int[] {width, height};
+        }
+        float scale = (float) maxDimension / longest;
+        return new int[] {
+                Math.max(1, Math.round(width * scale)),
+                Math.max(1, Math.round(height * scale))
+        };
+    }
+
+    /**
+     * Compresses an image to lossy WebP
+     * @param bitmap image to compress
+     * @param quality quality between 0 and 100
+     * @return encoded image
+     */
+    @SuppressWarnings("deprecation")
+    private static byte[] compress(Bitmap bitmap, int quality) {
+        Bitmap.CompressFormat format = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(format, quality, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.lotteryevent.utilities;
+
+import androidx.annotation.NonNull;
+
+import com.example.lotteryevent.data.AdminImageItem;
+import com.example.lotteryevent.data.Event;
+
+import java.util.Objects;
+
+/**
+ * Glide model for one variant of an event poster, loaded through {@link PosterModelLoader}.
+ * <p>
+ *     Pass it to {@code Glide.with(view).load(...)} instead of decoding the Base64 payload on the
+ *     UI thread. Glide fetches and decodes the poster in the background at the size of the target
+ *     view, and caches it in memory and on disk under {@link #getCacheKey()}.
+ * </p>
+ */
+public final class PosterModel {
+
+    private final String eventId;
+    private final String posterId;
+    private final String inline;
+    private final PosterEncoder.Variant variant;
+    private String cacheKey;
+
+    /**
+     * Creates a poster model
+     * @param eventId ID of the event the poster belongs to
+     * @param posterId ID of the poster in the poster store, null if the poster is inline
+     * @param inline Base64 encoded poster kept on an older event, null if it is stored separately
+     * @param variant size to load
+     */
+    public PosterModel(String eventId, String posterId, String inline, @NonNull PosterEncoder.Variant variant) {
+        this.eventId = eventId;
+        this.posterId = posterId;
+        this.inline = inline;
+        this.variant = variant;
+    }
+
+    /**
+     * Creates the model of an event's poster
+     * @param event event whose poster to load
+     * @param variant size to load
+     * @return poster model
+     */
+    public static PosterModel of(Event event, PosterEncoder.Variant variant) {
+        return new PosterModel(event.getEventId(), event.getPosterId(), event.getPosterImageUrl(), variant);
+    }
+
+    /**
+     * Creates the model of an image in the admin image browser
+     * @param item image to load
+     * @param variant size to load
+     * @return poster model
+     */
+    public static PosterModel of(AdminImageItem item, PosterEncoder.Variant variant) {
+        return new PosterModel(item.getEventId(), item.getPosterId(), item.getBase64Image(), variant);
+    }
+
+    public String getEventId() { return eventId; }
+
+    public String getPosterId() { return posterId; }
+
+    public String getInline() { return inline; }
+
+    public PosterEncoder.Variant getVariant() { return variant; }
+
+    /**
+     * Gets the key the poster is cached on disk under. Stored posters are keyed by their content
+     * hash, inline posters by their event and the hash of their payload, so a changed poster never
+     * hits a stale entry. Hashing happens on first use, which Glide does off the UI thread.
+     * @return cache key of this poster variant
+     */
+    public synchronized String getCacheKey() {
+        if (cacheKey == null) {
+            if (posterId != null && !posterId.isEmpty()) {
+                cacheKey = "poster/" + posterId + "/" + variant.getKey();
+            } else {
+                cacheKey = "event/" + eventId + "/" + (inline == null ? "none" : PosterStore.hash(inline));
+            }
+        }
+        return cacheKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PosterModel)) return false;
+        PosterModel that = (PosterModel) o;
+        return variant == that.variant
+                && Objects.equals(eventId, that.eventId)
+                && Objects.equals(posterId, that.posterId)
+                && Objects.equals(inline, that.inline);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventId, posterId, inline, variant);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "PosterModel{eventId=" + eventId + ", posterId=" + posterId + ", variant=" + variant + "}";
+    }
+}
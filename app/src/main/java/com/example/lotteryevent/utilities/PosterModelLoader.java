@@ -0,0 +1,117 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.signature.ObjectKey;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+
+/**
+ * Glide {@link ModelLoader} turning a {@link PosterModel} into the encoded bytes of the poster.
+ * <p>
+ *     The payload is read through {@link PosterStore} and Base64 decoded on Glide's source
+ *     executor, and Glide's own decoders downsample it to the target view. Registered by
+ *     {@link LotteryGlideModule}.
+ * </p>
+ */
+public class PosterModelLoader implements ModelLoader<PosterModel, ByteBuffer> {
+
+    @Nullable
+    @Override
+    public LoadData<ByteBuffer> buildLoadData(@NonNull PosterModel model, int width, int height, @NonNull Options options) {
+        return new LoadData<>(new ObjectKey(model.getCacheKey()), new Fetcher(model));
+    }
+
+    @Override
+    public boolean handles(@NonNull PosterModel model) {
+        return true;
+    }
+
+    /**
+     * Fetches the poster of one model
+     */
+    static class Fetcher implements DataFetcher<ByteBuffer> {
+
+        private final PosterModel model;
+
+        /**
+         * @param model poster to fetch
+         */
+        Fetcher(PosterModel model) {
+            this.model = model;
+        }
+
+        /**
+         * Loads and decodes the payload, blocking Glide's background thread until it is loaded
+         * @param priority priority of the request
+         * @param callback receives the poster bytes or the failure
+         */
+        @Override
+        public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super ByteBuffer> callback) {
+            try {
+                String base64 = Tasks.await(PosterStore.load(model.getPosterId(), model.getInline(), model.getVariant()));
+                if (base64 == null) {
+                    callback.onLoadFailed(new FileNotFoundException("No poster for " + model));
+                    return;
+                }
+                callback.onDataReady(ByteBuffer.wrap(Base64.decode(base64, Base64.DEFAULT)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                callback.onLoadFailed(e);
+            } catch (Exception e) {
+                callback.onLoadFailed(e);
+            }
+        }
+
+        @Override
+        public void cleanup() {
+            // Nothing is held open once the bytes are handed to Glide
+        }
+
+        @Override
+        public void cancel() {
+            // The Firestore read cannot be cancelled, Glide drops its result instead
+        }
+
+        @NonNull
+        @Override
+        public Class<ByteBuffer> getDataClass() {
+            return ByteBuffer.class;
+        }
+
+        @NonNull
+        @Override
+        public DataSource getDataSource() {
+            return DataSource.REMOTE;
+        }
+    }
+
+    /**
+     * Creates the loader when Glide builds its registry
+     */
+    public static class Factory implements ModelLoaderFactory<PosterModel, ByteBuffer> {
+
+        @NonNull
+        @Override
+        public ModelLoader<PosterModel, ByteBuffer> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new PosterModelLoader();
+        }
+
+        @Override
+        public void teardown() {
+            // The loader holds no resources
+        }
+    }
+}
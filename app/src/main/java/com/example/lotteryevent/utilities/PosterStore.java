@@ -0,0 +1,462 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.lotteryevent.data.Event;
+import com.example.lotteryevent.data.Poster;
+import com.example.lotteryevent.utilities.PosterEncoder.Variant;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed store for event posters in the {@code posters} collection.
+ * <p>
+ *     A poster is stored under the SHA-256 hash of its Base64 payload, so an event only needs to
+ *     keep that hash and identical uploads share one document. Posters never change once stored,
+ *     so loaded payloads are kept in a small in-memory cache. Events written before the store
+ *     existed keep their Base64 poster inline in {@code posterImageUrl}, which is still read.
+ * </p>
+ * <p>
+ *     The poster document holds the {@link PosterEncoder.Variant#DETAIL} image. The smaller
+ *     variants are generated when the poster is stored and kept in its {@code variants}
+ *     subcollection, so list screens never download the detail image. Posters stored before
+ *     variants existed fall back to the detail image.
+ * </p>
+ * <p>
+ *     Each poster counts the events showing it in {@code posters/{posterId}/stats/refs}. The count
+ *     is only changed inside a transaction that also writes the event, so a poster is written
+ *     together with its first event and deleted together with its last reference. A failed event
+ *     write never leaves a poster behind, and a release can never delete a poster another event
+ *     has just started using. Posters stored before the count existed get it from a count query
+ *     the first time they are used again ({@link #ensureRefs}).
+ * </p>
+ */
+public final class PosterStore {
+
+    private static final String TAG = "PosterStore";
+
+    /**
+     * Collection holding the posters
+     */
+    static final String COLLECTION = "posters";
+
+    /**
+     * Subcollection of a poster holding its smaller variants
+     */
+    static final String VARIANTS = "variants";
+
+    /**
+     * A poster encoded and ready to be written with the event that shows it
+     */
+    public static final class Upload {
+        private final String posterId;
+        private final String detail;
+        private final Map<Variant, String> variants;
+
+        /**
+         * Creates an upload
+         * @param detail Base64 encoded detail variant
+         * @param variants smaller variants that could be encoded
+         */
+        Upload(String detail, Map<Variant, String> variants) {
+            this.posterId = hash(detail);
+            this.detail = detail;
+            this.variants = variants;
+        }
+
+        /**
+         * @return ID the poster is stored under
+         */
+        public String getPosterId() {
+            return posterId;
+        }
+    }
+
+    /**
+     * Number of posters kept in memory, evicting the least recently used
+     */
+    static final int CACHE_SIZE = 40;
+
+    private static final Map<String, String> cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private PosterStore() {}
+
+    /**
+     * Computes the ID a poster is stored under
+     * @param base64 Base64 encoded poster
+     * @return lowercase hex SHA-256 hash of the payload
+     */
+    public static String hash(String base64) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(base64.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+                hex.append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java and Android runtime is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encodes the smaller variants of a poster on {@link PosterEncoder#executor()} and makes sure
+     * its reference count exists, so it can be written in a transaction with {@link #acquire}.
+     * A poster whose variants cannot be encoded is stored with its detail image only.
+     * @param db Firestore instance
+     * @param base64 Base64 encoded detail variant of the poster
+     * @return task resolving to the upload
+     */
+    public static Task<Upload> prepare(FirebaseFirestore db, String base64) {
+        return Tasks.call(PosterEncoder.executor(), () -> PosterEncoder.encodeSmallerVariants(base64))
+                /**
+                 * Keeps whichever variants could be encoded, then makes sure the count exists
+                 * @param encoded task resolving to the smaller variants
+                 */
+                .continueWithTask(encoded -> {
+                    Map<Variant, String> variants = new LinkedHashMap<>();
+                    if (encoded.isSuccessful()) {
+                        variants.putAll(encoded.getResult());
+                    } else {
+                        Log.w(TAG, "Storing poster without variants", encoded.getException());
+                    }
+                    Upload upload = new Upload(base64, variants);
+                    return ensureRefs(db, upload.posterId).onSuccessTask(aVoid -> Tasks.forResult(upload));
+                });
+    }
+
+    /**
+     * Creates the reference count of a poster stored before counts existed, from the number of
+     * events showing it. Does nothing if the count exists.
+     * @param db Firestore instance
+     * @param posterId ID of the poster, may be null
+     * @return task completing once the count exists
+     */
+    public static Task<Void> ensureRefs(FirebaseFirestore db, @Nullable String posterId) {
+        if (posterId == null) {
+            return Tasks.forResult(null);
+        }
+        DocumentReference refsRef = refsRef(db, posterId);
+        return refsRef.get()
+                /**
+                 * Counts the events showing the poster if it has no count yet
+                 * @param refs the count document
+                 */
+                .onSuccessTask(refs -> {
+                    if (refs.exists()) {
+                        return Tasks.forResult(null);
+                    }
+                    return db.collection("events")
+                            .whereEqualTo("posterId", posterId)
+                            .count()
+                            .get(AggregateSource.SERVER)
+                            /**
+                             * Saves the count unless another client created it meanwhile
+                             * @param snapshot number of events showing the poster
+                             */
+                            .onSuccessTask(snapshot -> db.runTransaction(transaction -> {
+                                if (!transaction.get(refsRef).exists()) {
+                                    transaction.set(refsRef, Collections.singletonMap("count", snapshot.getCount()));
+                                }
+                                return (Void) null;
+                            }));
+                });
+    }
+
+    /**
+     * Reads the reference count of a poster inside a transaction. Must run before the
+     * transaction's writes.
+     * @param transaction transaction writing the events
+     * @param db Firestore instance
+     * @param posterId ID of the poster, may be null
+     * @return number of events showing the poster, or null if it has no count
+     * @throws FirebaseFirestoreException if the count cannot be read
+     */
+    @Nullable
+    public static Long refCount(Transaction transaction, FirebaseFirestore db, @Nullable String posterId)
+            throws FirebaseFirestoreException {
+        if (posterId == null) {
+            return null;
+        }
+        return transaction.get(refsRef(db, posterId)).getLong("count");
+    }
+
+    /**
+     * Counts one more event showing a poster, writing the poster and its variants if no event
+     * showed it before
+     * @param transaction transaction also writing the event
+     * @param db Firestore instance
+     * @param upload the poster
+     * @param count reference count read by {@link #refCount}
+     */
+    public static void acquire(Transaction transaction, FirebaseFirestore db, Upload upload, @Nullable Long count) {
+        long current = count == null ? 0 : count;
+        DocumentReference posterRef = db.collection(COLLECTION).document(upload.posterId);
+        if (current <= 0) {
+            Timestamp now = Timestamp.now();
+            transaction.set(posterRef, new Poster(upload.detail, now));
+            for (Map.Entry<Variant, String> variant : upload.variants.entrySet()) {
+                transaction.set(posterRef.collection(VARIANTS).document(variant.getKey().getKey()),
+                        new Poster(variant.getValue(), now));
+            }
+        }
+        transaction.set(refsRef(db, upload.posterId), Collections.singletonMap("count", current + 1));
+        // Posters never change, so caching before the commit is safe
+        cache(cacheKey(upload.posterId, Variant.DETAIL), upload.detail);
+        for (Map.Entry<Variant, String> variant : upload.variants.entrySet()) {
+            cache(cacheKey(upload.posterId, variant.getKey()), variant.getValue());
+        }
+    }
+
+    /**
+     * Counts one less event showing a poster, deleting the poster, its variants and its count if
+     * it was the last one. A poster without a count is kept, since its references are unknown.
+     * @param transaction transaction also writing the event
+     * @param db Firestore instance
+     * @param posterId ID of the poster
+     * @param count reference count read by {@link #refCount}
+     */
+    public static void release(Transaction transaction, FirebaseFirestore db, String posterId, @Nullable Long count) {
+        if (count == null) {
+            return;
+        }
+        DocumentReference refsRef = refsRef(db, posterId);
+        if (count > 1) {
+            transaction.set(refsRef, Collections.singletonMap("count", count - 1));
+            return;
+        }
+        DocumentReference posterRef = db.collection(COLLECTION).document(posterId);
+        for (Variant variant : Variant.values()) {
+            evict(cacheKey(posterId, variant));
+            if (variant != Variant.DETAIL) {
+                transaction.delete(posterRef.collection(VARIANTS).document(variant.getKey()));
+            }
+        }
+        transaction.delete(posterRef);
+        transaction.delete(refsRef);
+    }
+
+    /**
+     * Replaces an event's poster, releasing the previous one
+     * @param db Firestore instance
+     * @param eventId event to update
+     * @param base64 Base64 encoded detail variant of the new poster
+     * @return task resolving to the ID of the new poster
+     */
+    public static Task<String> attach(FirebaseFirestore db, String eventId, String base64) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        Task<Upload> prepared = prepare(db, base64);
+        Task<DocumentSnapshot> previous = eventRef.get();
+        return Tasks.whenAllSuccess(prepared, previous)
+                /**
+                 * Makes sure the previous poster has a count before releasing it
+                 * @param results the upload and the event before the update
+                 */
+                .onSuccessTask(results -> ensureRefs(db, previous.getResult().getString("posterId")))
+                /**
+                 * Points the event at the new poster and moves the reference over
+                 * @param aVoid unusable data
+                 */
+                .onSuccessTask(aVoid -> db.runTransaction(transaction -> {
+                    Upload upload = prepared.getResult();
+                    String oldPosterId = transaction.get(eventRef).getString("posterId");
+                    if (upload.posterId.equals(oldPosterId)) {
+                        transaction.update(eventRef, "posterImageUrl", FieldValue.delete());
+                        return upload.posterId;
+                    }
+                    Long newCount = refCount(transaction, db, upload.posterId);
+                    Long oldCount = refCount(transaction, db, oldPosterId);
+                    acquire(transaction, db, upload, newCount);
+                    transaction.update(eventRef, "posterId", upload.posterId, "posterImageUrl", FieldValue.delete());
+                    if (oldPosterId != null) {
+                        release(transaction, db, oldPosterId, oldCount);
+                    }
+                    return upload.posterId;
+                }));
+    }
+
+    /**
+     * Removes an event's poster, releasing it. Safe to run again, as the event no longer
+     * refers to the poster afterwards.
+     * @param db Firestore instance
+     * @param eventId event whose poster is removed
+     * @return task completing once the event has no poster
+     */
+    public static Task<Void> detach(FirebaseFirestore db, String eventId) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        return eventRef.get()
+                /**
+                 * Makes sure the poster has a count before releasing it
+                 * @param doc the event before the update
+                 */
+                .onSuccessTask(doc -> ensureRefs(db, doc.getString("posterId")))
+                /**
+                 * Clears the poster fields and releases the poster in one transaction
+                 * @param aVoid unusable data
+                 */
+                .onSuccessTask(aVoid -> db.runTransaction(transaction -> {
+                    DocumentSnapshot event = transaction.get(eventRef);
+                    if (!event.exists()) {
+                        return (Void) null;
+                    }
+                    String posterId = event.getString("posterId");
+                    Long count = refCount(transaction, db, posterId);
+                    transaction.update(eventRef, "posterImageUrl", null, "posterId", null);
+                    if (posterId != null) {
+                        release(transaction, db, posterId, count);
+                    }
+                    return (Void) null;
+                }));
+    }
+
+    /**
+     * Loads one variant of a stored poster, falling back to the detail image for posters stored
+     * before variants existed
+     * @param db Firestore instance
+     * @param posterId ID of the poster
+     * @param variant size to load
+     * @return task resolving to the Base64 encoded variant, or null if the poster does not exist
+     */
+    public static Task<String> load(FirebaseFirestore db, String posterId, Variant variant) {
+        String key = cacheKey(posterId, variant);
+        String cached = peek(key);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+        DocumentReference posterRef = db.collection(COLLECTION).document(posterId);
+        DocumentReference ref = variant == Variant.DETAIL
+                ? posterRef
+                : posterRef.collection(VARIANTS).document(variant.getKey());
+        return ref.get()
+                /**
+                 * Caches the variant once fetched, or loads the detail image if it is missing
+                 * @param task read of the variant document
+                 */
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
+                    }
+                    String data = task.getResult().getString("data");
+                    if (data == null && variant != Variant.DETAIL) {
+                        return load(db, posterId, Variant.DETAIL);
+                    }
+                    if (data != null) {
+                        cache(key, data);
+                    }
+                    return Tasks.forResult(data);
+                });
+    }
+
+    /**
+     * Loads one variant of an event's poster, wherever it is stored. Firestore is only touched for
+     * posters that are stored separately and not cached.
+     * @param event event whose poster to load
+     * @param variant size to load
+     * @return task resolving to the Base64 encoded poster, or null if the event has none
+     */
+    public static Task<String> load(Event event, Variant variant) {
+        return load(event.getPosterId(), event.getPosterImageUrl(), variant);
+    }
+
+    /**
+     * Loads one variant of a poster that is either stored separately or kept inline. Inline
+     * posters only exist at a single size, which is returned for every variant.
+     * @param posterId ID of the stored poster, null if there is none
+     * @param inline Base64 encoded poster kept on an older event, used when there is no ID
+     * @param variant size to load
+     * @return task resolving to the Base64 encoded poster, or null if there is none
+     */
+    public static Task<String> load(String posterId, String inline, Variant variant) {
+        if (posterId != null && !posterId.isEmpty()) {
+            String cached = peek(cacheKey(posterId, variant));
+            return cached != null ? Tasks.forResult(cached) : load(FirebaseFirestore.getInstance(), posterId, variant);
+        }
+        return Tasks.forResult(inline == null || inline.trim().isEmpty() ? null : inline);
+    }
+
+    /**
+     * Gets the reference count document of a poster
+     * @param db Firestore instance
+     * @param posterId ID of the poster
+     * @return reference to {@code posters/{posterId}/stats/refs}
+     */
+    static DocumentReference refsRef(FirebaseFirestore db, String posterId) {
+        return db.collection(COLLECTION).document(posterId).collection("stats").document("refs");
+    }
+
+    /**
+     * Gets the key a poster variant is cached under
+     * @param posterId ID of the poster
+     * @param variant size of the variant
+     * @return cache key
+     */
+    static String cacheKey(String posterId, Variant variant) {
+        return posterId + "/" + variant.getKey();
+    }
+
+    /**
+     * Gets a cached poster without touching the network
+     * @param key cache key of the poster variant
+     * @return the Base64 encoded poster, or null if it is not cached
+     */
+    static String peek(String key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    /**
+     * Adds a poster to the cache
+     * @param key cache key of the poster variant
+     * @param base64 Base64 encoded poster
+     */
+    static void cache(String key, String base64) {
+        synchronized (cache) {
+            cache.put(key, base64);
+        }
+    }
+
+    /**
+     * Removes a poster from the cache
+     * @param key cache key of the poster variant
+     */
+    static void evict(String key) {
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Removes every poster from the cache
+     */
+    static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.lotteryevent.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.lotteryevent.data.Registration;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the per-user reverse index of registrations ({@link Registration}).
+ * <p>
+ *     Every write that creates, changes the status of, or deletes an entrant must apply the
+ *     matching index write in the same transaction or batch, so the index never disagrees with
+ *     the entrants subcollections.
+ * </p>
+ * <p>
+ *     Users who registered before the index existed are indexed the first time their
+ *     registrations are loaded, by scanning the events once. A marker document then records that
+ *     the index is complete, so later loads read only the user's own registrations.
+ * </p>
+ */
+public class RegistrationIndex {
+
+    private static final String TAG = "RegistrationIndex";
+
+    /**
+     * ID of the document marking a user's index as complete
+     */
+    static final String MARKER_ID = "_indexed";
+
+    private RegistrationIndex() {}
+
+    /**
+     * Gets the registrations subcollection of a user
+     * @param db Firestore instance
+     * @param uid user ID
+     * @return reference to {@code users/{uid}/registrations}
+     */
+    public static CollectionReference collection(FirebaseFirestore db, String uid) {
+        return db.collection("users").document(uid).collection("registrations");
+    }
+
+    /**
+     * Gets the registration of a user in an event
+     * @param db Firestore instance
+     * @param uid user ID
+     * @param eventId event ID
+     * @return reference to {@code users/{uid}/registrations/{eventId}}
+     */
+    public static DocumentReference ref(FirebaseFirestore db, String uid, String eventId) {
+        return collection(db, uid).document(eventId);
+    }
+
+    /**
+     * Builds the fields merged into a registration
+     * @param eventName name of the event, or null to keep the stored name
+     * @param status new status of the entrant
+     * @return fields to merge
+     */
+    static Map<String, Object> entry(@Nullable String eventName, String status) {
+        Map<String, Object> fields = new HashMap<>();
+        if (eventName != null) {
+            fields.put("eventName", eventName);
+        }
+        fields.put("status", status);
+        fields.put("updatedAt", FieldValue.serverTimestamp());
+        return fields;
+    }
+
+    /**
+     * Records a user's status in an event inside a transaction
+     * @param transaction transaction also writing the entrant
+     * @param db Firestore instance
+     * @param uid user ID
+     * @param eventId event ID
+     * @param eventName name of the event, or null to keep the stored name
+     * @param status new status of the entrant
+     */
+    public static void put(Transaction transaction, FirebaseFirestore db, String uid, String eventId,
+                           @Nullable String eventName, String status) {
+        transaction.set(ref(db, uid, eventId), entry(eventName, status), SetOptions.merge());
+    }
+
+    /**
+     * Records a user's status in an event inside a batch
+     * @param batch batch also writing the entrant
+     * @param db Firestore instance
+     * @param uid user ID
+     * @param eventId event ID
+     * @param eventName name of the event, or null to keep the stored name
+     * @param status new status of the entrant
+     */
+    public static void put(WriteBatch batch, FirebaseFirestore db, String uid, String eventId,
+                           @Nullable String eventName, String status) {
+        batch.set(ref(db, uid, eventId), entry(eventName, status), SetOptions.merge());
+    }
+
+    /**
+     * Removes a user's registration in an event inside a transaction
+     * @param transaction transaction also deleting the entrant
+     * @param db Firestore instance
+     * @param uid user ID
+     * @param eventId event ID
+     */
+    public static void remove(Transaction transaction, FirebaseFirestore db, String uid, String eventId) {
+        transaction.delete(ref(db, uid, eventId));
+    }
+
+    /**
+     * Removes a user's registration in an event inside a batch
+     * @param batch batch also deleting the entrant
+     * @param db Firestore instance
+     * @param uid user ID
+     * @param eventId event ID
+     */
+    public static void remove(WriteBatch batch, FirebaseFirestore db, String uid, String eventId) {
+        batch.delete(ref(db, uid, eventId));
+    }
+
+    /**
+     * Loads every registration of a user, indexing them first if the user registered before the index existed
+     * @param db Firestore instance
+     * @param uid user ID
+     * @return task resolving to the user's registrations
+     */
+    public static Task<List<Registration>> load(FirebaseFirestore db, String uid) {
+        return collection(db, uid).get()
+                /**
+                 * Returns the indexed registrations, or builds the index if it is not complete
+                 * @param task contains the user's registration documents
+                 */
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    List<Registration> registrations = new ArrayList<>();
+                    boolean indexed = false;
+                    for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                        if (MARKER_ID.equals(doc.getId())) {
+                            indexed = true;
+                        } else {
+                            registrations.add(doc.toObject(Registration.class));
+                        }
+                    }
+                    return indexed ? Tasks.forResult(registrations) : backfill(db, uid);
+                });
+    }
+
+    /**
+     * Finds a user's registrations by looking them up in every event, then stores them in the
+     * index together with the marker. Used once per user who registered before the index existed.
+     * @param db Firestore instance
+     * @param uid user ID
+     * @return task resolving to the registrations found
+     */
+    private static Task<List<Registration>> backfill(FirebaseFirestore db, String uid) {
+        return db.collection("events").get()
+                /**
+                 * Looks up the user's entrant document in every event
+                 * @param events every event document
+                 */
+                .onSuccessTask(events -> {
+                    List<DocumentSnapshot> eventDocs = events.getDocuments();
+                    List<Task<DocumentSnapshot>> lookups = new ArrayList<>();
+                    for (DocumentSnapshot eventDoc : eventDocs) {
+                        lookups.add(eventDoc.getReference().collection("entrants").document(uid).get());
+                    }
+                    return Tasks.<DocumentSnapshot>whenAllSuccess(lookups)
+                            /**
+                             * Stores the registrations found, still returning them if the write fails
+                             * @param entrants the user's entrant document in each event, in event order
+                             */
+                            .onSuccessTask(entrants -> {
+                                List<Registration> registrations = new ArrayList<>();
+                                BatchWriter writer = new BatchWriter(db);
+                                for (int i = 0; i < entrants.size(); i++) {
+                                    String status = entrants.get(i).getString("status");
+                                    if (status == null) {
+                                        continue;
+                                    }
+                                    DocumentSnapshot eventDoc = eventDocs.get(i);
+                                    String eventName = eventDoc.getString("name");
+                                    registrations.add(new Registration(eventDoc.getId(), eventName, status));
+                                    writer.set(ref(db, uid, eventDoc.getId()), entry(eventName, status), SetOptions.merge());
+                                }
+                                writer.set(collection(db, uid).document(MARKER_ID), Collections.singletonMap("indexed", true));
+                                return writer.commit()
+                                        /**
+                                         * Logs a failed write and returns the registrations found
+                                         * @param commitTask result of storing the index
+                                         */
+                                        .continueWith(commitTask -> {
+                                            if (!commitTask.isSuccessful()) {
+                                                Log.w(TAG, "Failed to store registrations of " + uid, commitTask.getException());
+                                            }
+                                            return registrations;
+                                        });
+                            });
+                });
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.lotteryevent.utilities;
+
+/**
+ * Maps Firestore document IDs to the {@code long} item IDs RecyclerView adapters report with
+ * stable IDs enabled.
+ * <p>
+ *     The ID is a 64-bit FNV-1a hash of the document ID, so the same document keeps the same item
+ *     ID across list updates and the RecyclerView can reuse its view instead of rebinding it.
+ * </p>
+ */
+public final class StableIds {
+
+    /**
+     * Reported for items without a document ID, matching {@code RecyclerView.NO_ID}
+     */
+    public static final long NO_ID = -1;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private StableIds() {}
+
+    /**
+     * Computes the item ID of a document
+     * @param documentId ID of the document shown by the item
+     * @return item ID, or {@link #NO_ID} if the document ID is null
+     */
+    public static long of(String documentId) {
+        if (documentId == null) {
+            return NO_ID;
+        }
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < documentId.length(); i++) {
+            char c = documentId.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
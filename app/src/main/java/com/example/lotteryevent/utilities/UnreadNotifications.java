@@ -0,0 +1,112 @@
+package com.example.lotteryevent.utilities;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process set of the signed in user's unseen notifications, with the ID of the system banner
+ * shown for each one, if any.
+ * <p>
+ *     The set is kept current by the unseen notification listener and the inbox listener, so
+ *     marking a notification as seen is a single write: the banner to clear and whether any unseen
+ *     notifications remain are decided from this set instead of reading them back from Firestore.
+ * </p>
+ */
+public class UnreadNotifications {
+
+    private static final UnreadNotifications INSTANCE = new UnreadNotifications();
+
+    // notification ID to banner ID, null while no banner is shown
+    private final Map<String, Integer> unread = new HashMap<>();
+    private boolean seeded;
+
+    /**
+     * Only one set exists per process
+     */
+    private UnreadNotifications() {}
+
+    /**
+     * @return the process-wide set
+     */
+    public static UnreadNotifications getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records an unseen notification, keeping its banner ID if one is already known
+     * @param notificationId ID of the notification
+     */
+    public synchronized void add(String notificationId) {
+        if (!unread.containsKey(notificationId)) {
+            unread.put(notificationId, null);
+        }
+    }
+
+    /**
+     * Records the banner shown for an unseen notification
+     * @param notificationId ID of the notification
+     * @param bannerId ID of its system banner
+     */
+    public synchronized void setBanner(String notificationId, int bannerId) {
+        unread.put(notificationId, bannerId);
+    }
+
+    /**
+     * Removes a notification once it has been seen
+     * @param notificationId ID of the notification
+     * @return ID of its system banner, or null if none was shown
+     */
+    @Nullable
+    public synchronized Integer remove(String notificationId) {
+        return unread.remove(notificationId);
+    }
+
+    /**
+     * @param notificationId ID of the notification
+     * @return true if the notification is in the set
+     */
+    public synchronized boolean contains(String notificationId) {
+        return unread.containsKey(notificationId);
+    }
+
+    /**
+     * Marks the set as holding every unseen notification of the user, as opposed to only those
+     * seen so far by a partial listener
+     */
+    public synchronized void markSeeded() {
+        seeded = true;
+    }
+
+    /**
+     * @return true once the set holds every unseen notification of the user
+     */
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * @return true if the set is complete and no unseen notification remains
+     */
+    public synchronized boolean isAllSeen() {
+        return seeded && unread.isEmpty();
+    }
+
+    /**
+     * @return IDs of the unseen notifications
+     */
+    public synchronized List<String> getIds() {
+        return new ArrayList<>(unread.keySet());
+    }
+
+    /**
+     * Forgets every notification, such as when the user signs out
+     */
+    public synchronized void clear() {
+        unread.clear();
+        seeded = false;
+    }
+}
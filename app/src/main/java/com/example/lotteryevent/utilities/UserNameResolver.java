@@ -0,0 +1,174 @@
+package com.example.lotteryevent.utilities;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves user IDs to display names for admin screens such as the notification log.
+ * <p>
+ *     A name is only read when a screen needs it, such as when a notification is opened. Names
+ *     are kept in a process-wide LRU cache shared by every admin screen, and expire after
+ *     {@link #TTL_MS} so renamed users show up without restarting the app.
+ * </p>
+ * <p>
+ *     Lookups already in flight are shared: an ID requested again before its fetch completes
+ *     waits for that fetch instead of reading the user again, so tapping the same row twice costs
+ *     one read.
+ * </p>
+ */
+public final class UserNameResolver {
+
+    /**
+     * Shown for IDs without a user document
+     */
+    public static final String USER_NOT_FOUND = "User not found";
+
+    /**
+     * Shown for users without a name
+     */
+    public static final String UNKNOWN_USER = "Unknown User";
+
+    /**
+     * Number of names kept in memory, evicting the least recently used
+     */
+    static final int CACHE_SIZE = 500;
+
+    /**
+     * Time a cached name is trusted for
+     */
+    static final long TTL_MS = 10 * 60 * 1000;
+
+    /**
+     * A cached name and the time it was fetched
+     */
+    private static class Entry {
+        final String name;
+        final long fetchedAt;
+
+        Entry(String name, long fetchedAt) {
+            this.name = name;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private static final Map<String, Entry> cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // Fetches not yet completed, by the ID they read
+    private static final Map<String, Task<String>> inFlight = new HashMap<>();
+
+    private UserNameResolver() {}
+
+    /**
+     * Resolves the name of a user, reading it only if it is not cached or has expired
+     * @param db Firestore instance
+     * @param userId ID of the user
+     * @return task resolving to the user's name, or {@link #USER_NOT_FOUND} if they have no user document
+     */
+    public static Task<String> resolve(FirebaseFirestore db, String userId) {
+        synchronized (cache) {
+            Entry entry = cache.get(userId);
+            if (entry != null && System.currentTimeMillis() - entry.fetchedAt < TTL_MS) {
+                return Tasks.forResult(entry.name);
+            }
+            Task<String> pending = inFlight.get(userId);
+            if (pending != null) {
+                return pending;
+            }
+            Task<String> fetch = fetch(db, userId);
+            inFlight.put(userId, fetch);
+            /**
+             * Forgets the fetch once it completes, so a failed lookup can be tried again
+             * @param task outcome of the fetch
+             */
+            fetch.addOnCompleteListener(Runnable::run, task -> {
+                synchronized (cache) {
+                    inFlight.remove(userId, fetch);
+                }
+            });
+            return fetch;
+        }
+    }
+
+    /**
+     * Reads the name of a user and caches it
+     * @param db Firestore instance
+     * @param userId ID of the user
+     * @return task resolving to the name read
+     */
+    private static Task<String> fetch(FirebaseFirestore db, String userId) {
+        return db.collection("users").document(userId).get()
+                /**
+                 * Caches the fetched name, marking a missing user document as not found
+                 * @param doc the user's document
+                 */
+                .onSuccessTask(doc -> {
+                    String name;
+                    if (!doc.exists()) {
+                        name = USER_NOT_FOUND;
+                    } else {
+                        name = doc.getString("name") != null ? doc.getString("name") : UNKNOWN_USER;
+                    }
+                    put(Collections.singletonMap(userId, name), System.currentTimeMillis());
+                    return Tasks.forResult(name);
+                });
+    }
+
+    /**
+     * Gets a cached name without touching the network
+     * @param userId ID of the user
+     * @return the name, or null if it is not cached or has expired
+     */
+    public static String peek(String userId) {
+        synchronized (cache) {
+            Entry entry = cache.get(userId);
+            if (entry == null || System.currentTimeMillis() - entry.fetchedAt >= TTL_MS) {
+                return null;
+            }
+            return entry.name;
+        }
+    }
+
+    /**
+     * Adds names to the cache
+     * @param names names by user ID
+     * @param fetchedAt time the names were fetched
+     */
+    static void put(Map<String, String> names, long fetchedAt) {
+        synchronized (cache) {
+            for (Map.Entry<String, String> name : names.entrySet()) {
+                cache.put(name.getKey(), new Entry(name.getValue(), fetchedAt));
+            }
+        }
+    }
+
+    /**
+     * Removes a user's name from the cache, such as after their profile changes
+     * @param userId ID of the user
+     */
+    public static void invalidate(String userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+    }
+
+    /**
+     * Removes every name from the cache
+     */
+    static void clear() {
+        synchronized (cache) {
+            cache.clear();
+            inFlight.clear();
+        }
+    }
+}
@@ -35,6 +35,24 @@ public class AdminEventsViewModel extends ViewModel {
         repository.fetchAvailableEvents();
     }
 
+    /**
+     * Loads the next page once the user scrolls close to the end of the list, or while the list
+     * is too short to fill the screen.
+     */
+    public void onScrolledNearEnd() {
+        repository.loadMoreEvents();
+    }
+
+    /**
+     * Drops pages far below the visible events once scrolling settles.
+     * @param lastVisibleEvent the last event on screen
+     */
+    public void onScrollSettled(Event lastVisibleEvent) {
+        if (lastVisibleEvent != null) {
+            repository.evictEventsBelow(lastVisibleEvent.getEventId());
+        }
+    }
+
     @Override
     protected void onCleared() {
         super.onCleared();
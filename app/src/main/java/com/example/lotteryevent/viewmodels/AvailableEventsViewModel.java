@@ -1,5 +1,9 @@
 package com.example.lotteryevent.viewmodels;
 
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.ViewModel;
@@ -7,12 +11,13 @@ import androidx.lifecycle.ViewModel;
 import com.example.lotteryevent.data.Event;
 import com.example.lotteryevent.repository.IAvailableEventsRepository;
 import com.example.lotteryevent.ui.AvailableEventsFragment;
-import com.google.firebase.Timestamp;
+import com.example.lotteryevent.utilities.EventFilter;
+import com.example.lotteryevent.utilities.EventIndex;
+import com.example.lotteryevent.utilities.FilterPipeline;
 
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * ViewModel for the Available Events screen, responsible for preparing and managing the data for the UI.
@@ -28,6 +33,19 @@ import java.util.List;
  */
 public class AvailableEventsViewModel extends ViewModel {
 
+    private static final String TAG = "AvailableEventsVM";
+
+    /**
+     * Time a keyword change waits for the next keystroke before events are matched
+     */
+    static final long KEYWORD_DEBOUNCE_MS = 150;
+
+    /**
+     * Number of loaded events up to which matching runs on the main thread, where it takes less
+     * time than switching threads
+     */
+    static final int INLINE_LIMIT = 2000;
+
     private final IAvailableEventsRepository availableEventsRepository;
 
     // Raw events from the repository
@@ -36,9 +54,17 @@ public class AvailableEventsViewModel extends ViewModel {
     // Filtered events exposed to the UI
     private final MediatorLiveData<List<Event>> filteredEvents = new MediatorLiveData<>();
 
+    // Keyword and facet index over the loaded events, kept current from the repository's deltas
+    private final EventIndex eventIndex = new EventIndex();
+    private final IAvailableEventsRepository.OnEventsChangedListener indexUpdater;
+
+    // Matches large lists and debounced keywords in the background, keeping only the latest result
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final FilterPipeline<List<Event>> filterPipeline;
+
     // Current filter state (set by the Fragment)
     private String currentKeyword = "";
-    private boolean filterAvailableToday = false;
+    private EventFilter filter = new EventFilter();
 
     /**
      * Constructs an AvailableEventsViewModel. The repository is "injected" through the constructor,
@@ -51,8 +77,37 @@ public class AvailableEventsViewModel extends ViewModel {
         this.availableEventsRepository = availableEventsRepository;
         this.events = availableEventsRepository.getAvailableEvents();
 
+        /**
+         * Applies each change of the loaded events to the keyword index
+         * @param upserted events added or changed
+         * @param removedIds IDs of events no longer loaded
+         * @param reset true if every event is replaced
+         */
+        this.indexUpdater = (upserted, removedIds, reset) -> eventIndex.apply(upserted, removedIds, reset);
+        availableEventsRepository.addOnEventsChangedListener(indexUpdater);
+
+        this.filterPipeline = new FilterPipeline<>(mainHandler::post, new FilterPipeline.ResultListener<List<Event>>() {
+            /**
+             * Shows the events matched in the background
+             * @param result matching events in display order
+             */
+            @Override
+            public void onResult(List<Event> result) {
+                filteredEvents.setValue(result);
+            }
+
+            /**
+             * Keeps the previous events if matching failed
+             * @param e exception thrown while matching
+             */
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Filtering events failed", e);
+            }
+        });
+
         // Re-apply filters whenever the underlying events list changes.
-        filteredEvents.addSource(events, list -> applyFilters());
+        filteredEvents.addSource(events, list -> applyFilters(0));
     }
 
     /**
@@ -75,12 +130,17 @@ public class AvailableEventsViewModel extends ViewModel {
     }
 
     /**
-     * Updates the keyword filter used to filter events by name/description.
-     * Called from the Fragment when the user changes the keyword.
+     * Updates the keyword filter used to search events by name, description, location and
+     * organizer name. Called from the Fragment when the user changes the keyword. Matching waits
+     * {@link #KEYWORD_DEBOUNCE_MS} for further changes, unless another filter is applied first.
      */
     public void setKeywordFilter(String keyword) {
-        this.currentKeyword = (keyword == null) ? "" : keyword.trim();
-        applyFilters();
+        String trimmed = (keyword == null) ? "" : keyword.trim();
+        if (trimmed.equals(currentKeyword)) {
+            return;
+        }
+        this.currentKeyword = trimmed;
+        applyFilters(KEYWORD_DEBOUNCE_MS);
     }
 
     /**
@@ -88,8 +148,18 @@ public class AvailableEventsViewModel extends ViewModel {
      * Called from the Fragment when the user toggles the button.
      */
     public void setFilterAvailableToday(boolean filterAvailableToday) {
-        this.filterAvailableToday = filterAvailableToday;
-        applyFilters();
+        filter.setAvailableNow(filterAvailableToday);
+        applyFilters(0);
+    }
+
+    /**
+     * Updates the facets and sort order, keeping the keyword. Called from the Fragment when the
+     * user applies the filter dialog.
+     * @param filter facets and order to show events in, copied so later changes have no effect
+     */
+    public void setFilter(EventFilter filter) {
+        this.filter = new EventFilter(filter);
+        applyFilters(0);
     }
 
     /**
@@ -121,92 +191,64 @@ public class AvailableEventsViewModel extends ViewModel {
     }
 
     /**
-     * Applies the current filters (keyword + "available today") to the
-     * underlying list of events and updates {@link #filteredEvents}.
+     * Called by the UI when the user scrolls close to the end of the list, or when the filtered
+     * list is too short to fill the screen, to load the next page.
      */
-    private void applyFilters() {
-        List<Event> source = events.getValue();
-
-        if (source == null) {
-            filteredEvents.setValue(Collections.emptyList());
-            return;
-        }
-
-        String keywordLower = (currentKeyword == null ? "" : currentKeyword.trim().toLowerCase());
-        boolean filterByKeyword = !keywordLower.isEmpty();
-
-        List<Event> result = new ArrayList<>();
-
-        for (Event event : source) {
-
-            // Keyword / interest filter
-            if (filterByKeyword) {
-                String nameLower = event.getName() == null ? "" : event.getName().toLowerCase();
-                String descLower = event.getDescription() == null ? "" : event.getDescription().toLowerCase();
-
-                if (!nameLower.contains(keywordLower) && !descLower.contains(keywordLower)) {
-                    continue;
-                }
-            }
-
-            // Available Today filter: only include events that you can still register for
-            if (filterAvailableToday && !isEventCurrentlyAvailable(event)) {
-                continue;
-            }
-
-            result.add(event);
-        }
-
-        filteredEvents.setValue(result);
+    public void onScrolledNearEnd() {
+        availableEventsRepository.loadMoreEvents();
     }
 
     /**
-     * Rules:
-     * 1. Event must be open (not finalized).
-     * 2. Registration start date has passed.
-     * 3. Registration end date has not passed.
-     * 4. Event end date has not passed.
-     * @param event
-     * @return boolean: true if event is available, false otherwise
+     * Called by the UI when scrolling settles, so pages far below the visible events can be dropped.
+     * Nothing is dropped while a keyword or facet is set: the matches are spread over the loaded
+     * pages rather than following the visible ones, and dropping them would shrink the results
+     * until the pages were loaded again.
+     * @param lastVisibleEvent the last event on screen
      */
-    private boolean isEventCurrentlyAvailable(Event event) {
-        // 1. Event is open (not finalized)
-        String status = event.getStatus();
-        if (status != null && status.equalsIgnoreCase("finalized")) {
-            return false;
+    public void onScrollSettled(Event lastVisibleEvent) {
+        if (lastVisibleEvent != null && currentKeyword.isEmpty() && !filter.isNarrowing()) {
+            availableEventsRepository.evictEventsBelow(lastVisibleEvent.getEventId());
         }
+    }
 
-        // Check registration and event dates
-        Timestamp regStartTs = event.getRegistrationStartDateTime();
-        Timestamp regEndTs = event.getRegistrationEndDateTime();
-        Timestamp eventEndTs = event.getEventEndDateTime();
-
-        Date now = new Date();
-
-        // 2. Registration start date: if specified and in the future, registration hasn't opened yet
-        if (regStartTs != null) {
-            Date regStart = regStartTs.toDate();
-            if (now.before(regStart)) {
-                return false;
-            }
-        }
+    /**
+     * Removes the index listener from the repository and stops background filtering
+     */
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        availableEventsRepository.removeOnEventsChangedListener(indexUpdater);
+        filterPipeline.shutdown();
+    }
 
-        // 3. Registration end date: if specified and in the past, registration has closed
-        if (regEndTs != null) {
-            Date regEnd = regEndTs.toDate();
-            if (now.after(regEnd)) {
-                return false;
-            }
+    /**
+     * Applies the current keyword and facets to the underlying list of events and updates
+     * {@link #filteredEvents}. Both are evaluated by {@link #eventIndex}, which returns the
+     * matches in the selected order.
+     * <p>
+     * Small lists are matched right away on the main thread. Delayed or large matches run on
+     * {@link #filterPipeline} against a snapshot of the filters, and any request made meanwhile
+     * outdates them, so only the latest result is shown.
+     * @param delayMs time to wait for further changes before matching
+     */
+    private void applyFilters(long delayMs) {
+        if (events.getValue() == null) {
+            filterPipeline.cancel();
+            filteredEvents.setValue(Collections.emptyList());
+            return;
         }
-
-        // 4. Event end date: if specified and in the past, the event is over
-        if (eventEndTs != null) {
-            Date eventEnd = eventEndTs.toDate();
-            if (now.after(eventEnd)) {
-                return false;
-            }
+        String keyword = currentKeyword;
+        EventFilter snapshot = new EventFilter(filter);
+        if (delayMs == 0 && eventIndex.size() <= INLINE_LIMIT) {
+            filterPipeline.cancel();
+            filteredEvents.setValue(eventIndex.query(keyword, snapshot, System.currentTimeMillis()));
+            return;
         }
-
-        return true;
+        /**
+         * Matches the snapshot against the index on the pipeline's worker
+         * @return matching events in display order
+         */
+        Callable<List<Event>> match = () -> eventIndex.query(keyword, snapshot, System.currentTimeMillis());
+        filterPipeline.submit(match, delayMs);
     }
 }
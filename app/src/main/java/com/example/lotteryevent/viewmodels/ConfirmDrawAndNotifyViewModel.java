@@ -2,6 +2,7 @@ package com.example.lotteryevent.viewmodels;
 
 import android.content.Context;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
@@ -11,17 +12,18 @@ import androidx.lifecycle.ViewModel;
 
 import com.example.lotteryevent.BottomUiState;
 import com.example.lotteryevent.NotificationCustomManager;
-import com.example.lotteryevent.data.Entrant;
 import com.example.lotteryevent.data.Event;
+import com.example.lotteryevent.data.NotificationTemplate;
 import com.example.lotteryevent.repository.IEventRepository;
+import com.example.lotteryevent.utilities.BatchWriter;
+import com.example.lotteryevent.utilities.DrawSessionStore;
+import com.example.lotteryevent.utilities.NotificationBroadcaster;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
-import com.google.firebase.firestore.DocumentReference;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ViewModel for ConfirmDrawAndNotifyFragment
@@ -30,6 +32,16 @@ import java.util.Objects;
 public class ConfirmDrawAndNotifyViewModel extends ViewModel {
     private final NotificationCustomManager notifManager;
     private final IEventRepository repository;
+    /**
+     * Number of waiting entrants loaded and notified at a time when the draw did not record the
+     * entrants not drawn
+     */
+    public static final int WAITING_PAGE_SIZE = BatchWriter.MAX_BATCH_SIZE;
+
+    private final DrawSessionStore drawSessionStore = DrawSessionStore.getInstance();
+    private String drawId;
+    // Result of the draw being confirmed, taken from the store or rebuilt from its journal
+    private DrawSessionStore.DrawSession session;
 
     public LiveData<Event> event;
 
@@ -37,12 +49,14 @@ public class ConfirmDrawAndNotifyViewModel extends ViewModel {
 
     private final MediatorLiveData<String> _waitingListCount = new MediatorLiveData<>();
     private final MediatorLiveData<String> _availableSpaceCount = new MediatorLiveData<>();
+    private final MutableLiveData<String> _selectedCount = new MutableLiveData<>();
     private final MutableLiveData<Boolean> _navigateBack = new MutableLiveData<>();
     private final SingleLiveEvent<String> _toastMessage = new SingleLiveEvent<>();
 
     public LiveData<Boolean> navigateBack = _navigateBack;
     public LiveData<String> waitingListCount = _waitingListCount;
     public LiveData<String> availableSpaceCount = _availableSpaceCount;
+    public LiveData<String> selectedCount = _selectedCount;
     public LiveData<String> toastMessage = _toastMessage;
 
     /**
@@ -126,6 +140,49 @@ public class ConfirmDrawAndNotifyViewModel extends ViewModel {
         repository.fetchEventAndEntrantCounts(eventId);
     }
 
+    /**
+     * Takes the result of a draw from the draw session store and keeps it for as long as this
+     * screen lives, so a configuration change does not load it again.
+     * If the session is not in the store (e.g. the process was restarted, or another draw was run
+     * since), it is rebuilt from the draw journal; the entrants not drawn are then resolved from
+     * the waiting list when notifying.
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     */
+    public void loadDrawSession(String eventId, String drawId) {
+        if (session != null && Objects.equals(this.drawId, drawId)) {
+            _selectedCount.setValue(String.valueOf(session.getChosenCount()));
+            return;
+        }
+        this.drawId = drawId;
+        session = drawSessionStore.take(eventId, drawId);
+        if (session != null) {
+            _selectedCount.setValue(String.valueOf(session.getChosenCount()));
+            return;
+        }
+        if (eventId == null || drawId == null) {
+            return;
+        }
+        repository.fetchDrawJournal(eventId, drawId)
+            /**
+             * Rebuilds the session from the invited entrants recorded in the journal
+             * @param journal the draw journal
+             */
+            .addOnSuccessListener(journal -> {
+                DrawSessionStore.DrawSession restored = new DrawSessionStore.DrawSession(
+                        eventId, journal.getInvitedEntrantIds().toArray(new String[0]), null);
+                if (drawId.equals(this.drawId)) {
+                    session = restored;
+                }
+                _selectedCount.postValue(String.valueOf(restored.getChosenCount()));
+            })
+            /**
+             * Shows error when the draw cannot be loaded
+             * @param e exception thrown
+             */
+            .addOnFailureListener(e -> _toastMessage.postValue("Failed to load draw"));
+    }
+
     /**
      * Calculates and updates the waiting list, selected users list, and available space left list
      */
@@ -172,84 +229,232 @@ public class ConfirmDrawAndNotifyViewModel extends ViewModel {
     }
 
     /**
-     * Notifies selected entrants to accept, notifies of lottery loss, navigates back to event details screen
+     * Confirms the draw, notifies selected entrants to accept, notifies of lottery loss, navigates back to event details screen.
+     * Entrants are only notified once the draw is confirmed; if confirming fails, an error is shown
+     * and the buttons come back so the organizer can retry or cancel the draw.
+     * If the draw did not load the entrants not drawn, everyone still on the waiting list is notified of the loss.
      */
-    public void onPositiveButtonClicked(ArrayList<String> newChosenEntrants, ArrayList<String> newUnchosenEntrants) {
+    public void onPositiveButtonClicked() {
         if (notifManager == null) {
             _bottomUiState.setValue(BottomUiState.infoText("Error: Notifications not set up."));
             return;
         }
-        ArrayList<Task<DocumentReference>> tasks = new ArrayList<>();
-
-        for (String entrant : newChosenEntrants) {
-            tasks.add(sendWinNotification(entrant));
+        DrawSessionStore.DrawSession session = this.session;
+        if (session == null) {
+            _toastMessage.postValue("Draw results not loaded");
+            return;
         }
+        String eventId = Objects.requireNonNull(event.getValue()).getEventId();
+        _bottomUiState.setValue(BottomUiState.infoText("Confirming draw..."));
+        repository.confirmDraw(eventId, drawId)
+            /**
+             * Notifies the entrants once the draw can no longer be rolled back
+             * @param unused unusable data
+             */
+            .addOnSuccessListener(unused -> notifyConfirmedDraw(eventId, session))
+            /**
+             * Shows error and restores the buttons when the draw cannot be confirmed
+             * @param e exception thrown
+             */
+            .addOnFailureListener(e -> {
+                _toastMessage.postValue("Failed to confirm draw");
+                calculateUiState();
+            });
+    }
 
-        for (String entrant : newUnchosenEntrants) {
-            tasks.add(sendLossNotification(entrant));
-        }
+    /**
+     * Notifies the entrants of a confirmed draw. Win and loss notifications are broadcast in
+     * batches, showing progress, then the screen navigates back once both finish. If the draw did
+     * not record the entrants not drawn, everyone still on the waiting list is loaded and notified
+     * one page at a time.
+     * @param eventId event the draw was run for
+     * @param session result of the draw
+     */
+    private void notifyConfirmedDraw(String eventId, DrawSessionStore.DrawSession session) {
+        List<String> newChosenEntrants = session.getChosenEntrantIds();
+        List<String> newUnchosenEntrants = session.getUnchosenEntrantIds();
+        int total = newUnchosenEntrants == null ? -1 : newChosenEntrants.size() + newUnchosenEntrants.size();
+        AtomicInteger winsDone = new AtomicInteger();
+        AtomicInteger lossesDone = new AtomicInteger();
+        AtomicInteger lossesFailed = new AtomicInteger();
+        /**
+         * Shows how many notifications have been written so far
+         */
+        Runnable showProgress = () -> postNotifyProgress(winsDone.get() + lossesDone.get(), total);
+        showProgress.run();
 
-        Tasks.whenAllComplete(tasks)
+        /**
+         * Shows how many win notifications have been written
+         * @param committed notifications written so far
+         * @param failed notifications that failed so far
+         * @param queued win notifications queued
+         */
+        Task<NotificationBroadcaster.Result> wins = notifManager.sendBroadcast(newChosenEntrants, createWinTemplate(),
+                (committed, failed, queued) -> {
+                    winsDone.set(committed + failed);
+                    showProgress.run();
+                });
+        NotificationTemplate lossTemplate = createLossTemplate();
+        Task<Void> losses = newUnchosenEntrants != null
+                ? notifyLosers(newUnchosenEntrants, lossTemplate, lossesDone, lossesFailed, showProgress)
+                : notifyWaitingLosers(eventId, null, lossTemplate, lossesDone, lossesFailed, showProgress);
+
+        Tasks.whenAllComplete(wins, losses)
             /**
-             * Navigates back when all tasks complete
-             * @param allTask contains all tasks
+             * Reports how many entrants were notified and navigates back
+             * @param allTask contains both broadcasts
              */
             .addOnCompleteListener(allTask -> {
-                _toastMessage.postValue("Entrants notified successfully");
+                int notified = newChosenEntrants.size() + lossesDone.get();
+                int failed = countFailed(wins, newChosenEntrants.size()) + lossesFailed.get();
+                if (!losses.isSuccessful()) {
+                    _toastMessage.postValue("Failed to load waiting list; " + (notified - failed) + " entrants notified");
+                } else if (failed == 0) {
+                    _toastMessage.postValue("Entrants notified successfully");
+                } else {
+                    _toastMessage.postValue("Failed to notify " + failed + " of " + notified + " entrants");
+                }
                 _navigateBack.postValue(true);
             });
     }
 
     /**
-     * Notifies chosen entrants of lottery win
-     * @param entrant ID of chosen entrant
-     * @return task of sending notif
+     * Loads the entrants still on the waiting list one page at a time, notifying each page of the
+     * loss before loading the next, so the list is never read in a single query
+     * @param eventId event the draw was run for
+     * @param startAfterId last entrant ID of the previous page, or null to start from the first page
+     * @param template loss notification
+     * @param done number of loss notifications written or failed so far
+     * @param failed number of loss notifications that failed so far
+     * @param showProgress called whenever {@code done} changes
+     * @return task completing once every page is notified, failing if a page cannot be loaded
      */
-    public Task<DocumentReference> sendWinNotification(String entrant) {
-        String eventId = Objects.requireNonNull(event.getValue()).getEventId();
-        String eventName = Objects.requireNonNull(event.getValue()).getName();
-        String organizerId = event.getValue().getOrganizerId();
+    private Task<Void> notifyWaitingLosers(String eventId, @Nullable String startAfterId, NotificationTemplate template,
+                                           AtomicInteger done, AtomicInteger failed, Runnable showProgress) {
+        return repository.fetchEntrantIdsByStatus(eventId, "waiting", startAfterId, WAITING_PAGE_SIZE)
+            /**
+             * Notifies the page, then moves on to the next one unless this was the last
+             * @param page IDs of the entrants in this page
+             */
+            .onSuccessTask(page -> notifyLosers(page, template, done, failed, showProgress)
+                /**
+                 * Loads the next page once this one is notified
+                 * @param unused unusable data
+                 */
+                .onSuccessTask(unused -> page.size() < WAITING_PAGE_SIZE
+                        ? Tasks.<Void>forResult(null)
+                        : notifyWaitingLosers(eventId, page.get(page.size() - 1), template, done, failed, showProgress)));
+    }
+
+    /**
+     * Broadcasts the loss notification to some of the entrants not drawn
+     * @param entrantIds IDs of the entrants to notify
+     * @param template loss notification
+     * @param done number of loss notifications written or failed so far, including earlier pages
+     * @param failed number of loss notifications that failed so far, including earlier pages
+     * @param showProgress called whenever {@code done} changes
+     * @return task completing once the broadcast finished; it never fails, failed notifications are counted instead
+     */
+    private Task<Void> notifyLosers(List<String> entrantIds, NotificationTemplate template,
+                                    AtomicInteger done, AtomicInteger failed, Runnable showProgress) {
+        if (entrantIds.isEmpty()) {
+            return Tasks.forResult(null);
+        }
+        int before = done.get();
+        /**
+         * Shows how many loss notifications have been written
+         * @param committed notifications of this broadcast written so far
+         * @param batchFailed notifications of this broadcast that failed so far
+         * @param queued notifications of this broadcast queued
+         */
+        return notifManager.sendBroadcast(entrantIds, template, (committed, batchFailed, queued) -> {
+                    done.set(before + committed + batchFailed);
+                    showProgress.run();
+                })
+                /**
+                 * Counts the notifications this broadcast did not write
+                 * @param broadcast finished broadcast
+                 */
+                .continueWith(broadcast -> {
+                    failed.addAndGet(countFailed(broadcast, entrantIds.size()));
+                    done.set(before + entrantIds.size());
+                    showProgress.run();
+                    return null;
+                });
+    }
+
+    /**
+     * Shows notification progress in place of the buttons
+     * @param done notifications written or failed so far
+     * @param total notifications to write, or -1 while the waiting list is still being loaded
+     */
+    private void postNotifyProgress(int done, int total) {
+        String progress = total < 0 ? String.valueOf(done) : done + "/" + total;
+        _bottomUiState.postValue(BottomUiState.infoText("Notifying entrants... " + progress));
+    }
+
+    /**
+     * Counts the recipients a broadcast did not reach
+     * @param broadcast finished broadcast
+     * @param recipients number of recipients of the broadcast
+     * @return number of failed notifications, or every recipient if the broadcast failed outright
+     */
+    private static int countFailed(Task<NotificationBroadcaster.Result> broadcast, int recipients) {
+        if (!broadcast.isSuccessful() || broadcast.getResult() == null) {
+            return recipients;
+        }
+        return broadcast.getResult().getFailed();
+    }
+
+    /**
+     * Builds the notification sent to chosen entrants on winning the lottery
+     * @return template of the win notification
+     */
+    public NotificationTemplate createWinTemplate() {
+        Event currentEvent = Objects.requireNonNull(event.getValue());
+        String eventName = currentEvent.getName();
         String organizerName = repository.getOrganizerName().getValue();
         String title = "Congratulations!";
         String message = "You've been selected for " + eventName + "! Tap to accept or decline.";
-        String type = "lottery_win";
-        return notifManager.sendNotification(entrant, title, message, type, eventId, eventName, organizerId, organizerName);
+        return new NotificationTemplate(title, message, "lottery_win", currentEvent.getEventId(), eventName,
+                currentEvent.getOrganizerId(), organizerName);
     }
 
     /**
-     * Notifies unchosen entrants of lottery loss
-     * @param entrant ID of unchosen entrant
-     * @return task of sending notif
+     * Builds the notification sent to unchosen entrants on losing the lottery
+     * @return template of the loss notification
      */
-    public Task<DocumentReference> sendLossNotification(String entrant) {
-        String eventId = Objects.requireNonNull(event.getValue()).getEventId();
-        String eventName = Objects.requireNonNull(event.getValue()).getName();
-        String organizerId = event.getValue().getOrganizerId();
-        String organizerName = event.getValue().getOrganizerName();
+    public NotificationTemplate createLossTemplate() {
+        Event currentEvent = Objects.requireNonNull(event.getValue());
+        String eventName = currentEvent.getName();
         String title = "Thank you for joining!";
         String message = "You weren't selected for " + eventName + " in this draw, but you're still on the waiting list and may be chosen in a future redraw.";
-        String type = "lottery_loss";
-        return notifManager.sendNotification(entrant, title, message, type, eventId, eventName, organizerId, organizerName);
+        return new NotificationTemplate(title, message, "lottery_loss", currentEvent.getEventId(), eventName,
+                currentEvent.getOrganizerId(), currentEvent.getOrganizerName());
     }
 
     /**
-     * Moves invited entrants back to waiting list and navigates back to event details screen
+     * Moves the entrants invited by the draw back to waiting list and navigates back to event details screen
      */
-    public void onNegativeButtonClicked(Map<String, String> oldEntrantsStatus) {
-        ArrayList<Task<Void>> tasks = new ArrayList<>();
-        for (Map.Entry<String, String> entry : oldEntrantsStatus.entrySet()) {
-            Task<Void> task = repository.updateEntrantAttribute(Objects.requireNonNull(event.getValue()).getEventId(), entry.getKey(), "status", entry.getValue());
-            tasks.add(task);
+    public void onNegativeButtonClicked() {
+        if (drawId == null) {
+            _toastMessage.postValue("Failed to cancel draw");
+            return;
         }
-        Tasks.whenAllComplete(tasks)
+        repository.rollbackDraw(Objects.requireNonNull(event.getValue()).getEventId(), drawId)
             /**
-             * Navigates back when all tasks complete
-             * @param allTask contains all tasks
+             * Navigates back once the draw is rolled back
+             * @param unused unusable data
              */
-            .addOnCompleteListener(allTask -> {
+            .addOnSuccessListener(unused -> {
                 _toastMessage.postValue("Cancelled Draw. Entrants returned to waitlist");
                 _navigateBack.postValue(true);
-            });
+            })
+            /**
+             * Shows error when the draw cannot be rolled back
+             * @param e exception thrown
+             */
+            .addOnFailureListener(e -> _toastMessage.postValue("Failed to cancel draw"));
     }
 
     public class SingleLiveEvent<T> extends MutableLiveData<T> {
@@ -4,6 +4,7 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModel;
 import com.example.lotteryevent.data.Event;
 import com.example.lotteryevent.repository.IEventRepository;
+import com.example.lotteryevent.utilities.EntrantCounters;
 import com.google.firebase.Timestamp;
 import java.util.Calendar;
 import java.util.Date;
@@ -105,6 +106,8 @@ public class CreateEventViewModel extends ViewModel {
         newEvent.setPrice(price);
         newEvent.setCapacity(capacity);
         newEvent.setWaitingListLimit(waitingListLimit);
+        // Events that can draw a large crowd spread their entrant counters over more shards
+        newEvent.setCounterShards(EntrantCounters.recommendedShards(waitingListLimit));
         newEvent.setGeoLocationRequired(isGeoLocationRequired);
         newEvent.setEventStartDateTime(eventStartTimestamp);
         newEvent.setEventEndDateTime(eventEndTimestamp);
@@ -114,6 +117,7 @@ public class CreateEventViewModel extends ViewModel {
         // Set the creation timestamp for sorting purposes in the repository.
         newEvent.setCreatedAt(new Timestamp(new Date()));
 
+        // The poster is handed over inline; the repository moves it to the poster store.
         if (posterBase64 != null) {
             newEvent.setPosterImageUrl(posterBase64);
         }
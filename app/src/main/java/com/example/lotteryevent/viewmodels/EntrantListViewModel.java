@@ -125,9 +125,8 @@ public class EntrantListViewModel extends ViewModel {
     }
 
     /**
-     * Sends a notification message to all entrants in the provided list. Iterates
-     * through each entrant and delegates the notification sending to the repository.
-     * Only valid entrants with non-null user IDs are processed.
+     * Sends a notification message to all entrants in the displayed list with a single
+     * bulk request to the repository. Only valid entrants with non-null user IDs are included.
      * @param organizerMessage the message content written by the event organizer
      */
     public void notifyAllEntrants(String organizerMessage) {
@@ -143,11 +142,18 @@ public class EntrantListViewModel extends ViewModel {
             return;
         }
 
+        List<String> uids = new ArrayList<>();
         for (Entrant e : currentList) {
             if (e != null && e.getUserId() != null) {
-                entrantListRepo.notifyEntrant(e.getUserId(), this.eventId, organizerMessage);
+                uids.add(e.getUserId());
             }
         }
+
+        if (uids.isEmpty()) {
+            entrantListRepo.setUserMessage("No entrants to notify.");
+            return;
+        }
+        entrantListRepo.notifyEntrants(uids, this.eventId, organizerMessage);
     }
 
     /**
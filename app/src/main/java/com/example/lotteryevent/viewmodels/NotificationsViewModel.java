@@ -37,6 +37,13 @@ public class NotificationsViewModel extends ViewModel {
         return notificationRepository.getNotifications();
     }
 
+    /**
+     * Loads the next page of older notifications, called as the user scrolls near the end of the list
+     */
+    public void onScrolledNearEnd() {
+        notificationRepository.loadMoreNotifications();
+    }
+
     /**
      * Exposes the navigation event as a LiveData object. The Fragment will observe this
      * to know when to navigate to the EventDetailsFragment.
@@ -64,18 +71,10 @@ public class NotificationsViewModel extends ViewModel {
     // --- Business Logic ---
 
     /**
-     * Marks all unseen notifications as seen
+     * Marks all unseen notifications as seen, including those on pages not loaded yet
      */
     public void onMarkAllSeenClicked(NotificationCustomManager notificationCustomManager) {
-        List<Notification> notifs = getNotifications().getValue();
-        if (notifs != null) {
-            for (Notification notif : notifs) {
-                // If the notification hasn't been seen, tell the repository to update it.
-                if (notif.getSeen() != Boolean.TRUE) {
-                    notificationRepository.markNotificationAsSeen(notif.getNotificationId(), notificationCustomManager);
-                }
-            }
-        }
+        notificationRepository.markAllNotificationsAsSeen(notificationCustomManager);
     }
 
     /**
@@ -140,4 +139,4 @@ public class NotificationsViewModel extends ViewModel {
     public void fetchUserName(String userId, INotificationRepository.UserNameCallback callback) {
         notificationRepository.getUserName(userId, callback);
     }
-}
\ No newline at end of file
+}
@@ -33,9 +33,7 @@ public class RunDrawViewModel extends ViewModel {
     public LiveData<String> message;
     public LiveData<Boolean> drawSuccess;
 
-    public LiveData<String> oldEntrantsStatus;
-    public LiveData<String> newChosenEntrants;
-    public LiveData<String> newUnchosenEntrants;
+    public LiveData<String> drawId;
 
     public LiveData<Boolean> cancelSuccess;
 
@@ -52,9 +50,7 @@ public class RunDrawViewModel extends ViewModel {
         availableSpaceCount = repo.getAvailableSpaceCount();
         isLoading = repo.isLoading();
         message = repo.getMessage();
-        oldEntrantsStatus = repo.getOldEntrantsStatus();
-        newChosenEntrants = repo.getNewChosenEntrants();
-        newUnchosenEntrants = repo.getNewUnchosenEntrants();
+        drawId = repo.getDrawId();
         drawSuccess = repo.getDrawSuccess();
         cancelSuccess = repo.getCancelSuccess();
     }
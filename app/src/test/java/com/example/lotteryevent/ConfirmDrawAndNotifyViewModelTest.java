@@ -3,27 +3,34 @@ package com.example.lotteryevent;
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.lotteryevent.data.Entrant;
 import com.example.lotteryevent.data.Event;
+import com.example.lotteryevent.data.NotificationTemplate;
 import com.example.lotteryevent.repository.FakeEventRepository;
+import com.example.lotteryevent.utilities.DrawSessionStore;
+import com.example.lotteryevent.utilities.NotificationBroadcaster;
 import com.example.lotteryevent.viewmodels.ConfirmDrawAndNotifyViewModel;
 import com.google.android.gms.tasks.Tasks;
-import com.google.firebase.firestore.DocumentReference;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -64,13 +71,22 @@ public class ConfirmDrawAndNotifyViewModelTest {
         // 1. Init Fake Repository and notif manager
         fakeRepository = new FakeEventRepository();
         notificationCustomManager = mock(NotificationCustomManager.class);
-        when(notificationCustomManager.sendNotification(any(), any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(Tasks.forResult(mock(DocumentReference.class)));
+        when(notificationCustomManager.sendBroadcast(any(), any(), any()))
+                .thenReturn(Tasks.forResult(new NotificationBroadcaster.Result(1, 1, 0, 0, Collections.emptyList())));
 
         // 2. Init ViewModel with Fake Repo
         viewModel = new ConfirmDrawAndNotifyViewModel(fakeRepository, notificationCustomManager);
     }
 
+    /**
+     * Clears draw sessions so tests do not share state through the process-wide store
+     */
+    @After
+    public void tearDown() {
+        DrawSessionStore.getInstance().remove("draw-0");
+        DrawSessionStore.getInstance().remove("draw-1");
+    }
+
     /**
      * Tests for repository's loadEventAndEntrantCounts called successfully
      */
@@ -97,37 +113,263 @@ public class ConfirmDrawAndNotifyViewModelTest {
     @Test
     public void testNotificationsNotSetUpOnPosBtnClick() {
         ConfirmDrawAndNotifyViewModel customViewModel = new ConfirmDrawAndNotifyViewModel(fakeRepository, null);
-        customViewModel.onPositiveButtonClicked(new ArrayList<>(), new ArrayList<>());
+        customViewModel.onPositiveButtonClicked();
 
         assertEquals("Error: Notifications not set up.", Objects.requireNonNull(customViewModel.bottomUiState.getValue()).infoText);
     }
 
     /**
-     * Tests for valid send notif parameters for lottery win
+     * Tests that the selected count is read from the draw session store without touching the
+     * repository, and that the session is taken out of the store
+     */
+    @Test
+    public void testLoadDrawSessionFromStore() {
+        DrawSessionStore.getInstance().put("draw-1", new DrawSessionStore.DrawSession("fake-event-id",
+                new String[]{"1", "2"}, new String[0]));
+
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        assertEquals("2", viewModel.selectedCount.getValue());
+        assertNull(DrawSessionStore.getInstance().take("fake-event-id", "draw-1"));
+    }
+
+    /**
+     * Tests that a missing draw session is rebuilt from the draw journal
+     */
+    @Test
+    public void testLoadDrawSessionFromJournal() {
+        fakeRepository.addDraw("draw-1", Collections.singletonList("1"));
+
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        assertEquals("1", viewModel.selectedCount.getValue());
+    }
+
+    /**
+     * Tests that a session stored for another event is not used, and the draw is rebuilt from its journal
+     */
+    @Test
+    public void testLoadDrawSessionIgnoresOtherEvent() {
+        fakeRepository.addDraw("draw-1", Collections.singletonList("1"));
+        DrawSessionStore.getInstance().put("draw-1", new DrawSessionStore.DrawSession("other-event-id",
+                new String[]{"1", "2"}, new String[0]));
+
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        assertEquals("1", viewModel.selectedCount.getValue());
+    }
+
+    /**
+     * Tests that a draw never confirmed is dropped from the store by the next draw
+     */
+    @Test
+    public void testLaterDrawReplacesUntakenSession() {
+        DrawSessionStore.getInstance().put("draw-0", new DrawSessionStore.DrawSession("other-event-id",
+                new String[]{"1"}, new String[0]));
+        DrawSessionStore.getInstance().put("draw-1", new DrawSessionStore.DrawSession("fake-event-id",
+                new String[]{"2"}, new String[0]));
+
+        assertNull(DrawSessionStore.getInstance().take("other-event-id", "draw-0"));
+        assertNotNull(DrawSessionStore.getInstance().take("fake-event-id", "draw-1"));
+    }
+
+    /**
+     * Tests that loading the draw again, such as after a configuration change, keeps the session
+     * taken from the store, including the entrants not drawn
+     */
+    @Test
+    public void testReloadKeepsTakenSession() {
+        fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
+        DrawSessionStore.getInstance().put("draw-1", new DrawSessionStore.DrawSession("fake-event-id",
+                new String[]{"1"}, new String[]{"2"}));
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+        viewModel.onPositiveButtonClicked();
+
+        assertEquals("1", viewModel.selectedCount.getValue());
+        verify(notificationCustomManager).sendBroadcast(eq(Collections.singletonList("2")),
+                argThat(template -> "lottery_loss".equals(template.getType())), any());
+    }
+
+    /**
+     * Tests that confirming notifies winners and losers from the session and discards it
+     */
+    @Test
+    public void testPosBtnClickNotifiesFromSession() {
+        fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
+        DrawSessionStore.getInstance().put("draw-1", new DrawSessionStore.DrawSession("fake-event-id",
+                new String[]{"1"}, new String[]{"2"}));
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        viewModel.onPositiveButtonClicked();
+
+        verify(notificationCustomManager).sendBroadcast(eq(Collections.singletonList("1")),
+                argThat(template -> "lottery_win".equals(template.getType())), any());
+        verify(notificationCustomManager).sendBroadcast(eq(Collections.singletonList("2")),
+                argThat(template -> "lottery_loss".equals(template.getType())), any());
+        assertEquals(true, viewModel.navigateBack.getValue());
+        assertEquals("Entrants notified successfully", viewModel.toastMessage.getValue());
+    }
+
+    /**
+     * Tests that a draw rebuilt from its journal notifies everyone still waiting of the loss
+     */
+    @Test
+    public void testPosBtnClickNotifiesWaitingListFromJournal() {
+        fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
+        fakeRepository.addDraw("draw-1", Collections.singletonList("1"));
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        viewModel.onPositiveButtonClicked();
+
+        verify(notificationCustomManager).sendBroadcast(eq(Collections.singletonList("1")),
+                argThat(template -> "lottery_win".equals(template.getType())), any());
+        verify(notificationCustomManager).sendBroadcast(eq(Collections.singletonList("2")),
+                argThat(template -> "lottery_loss".equals(template.getType())), any());
+        assertEquals(true, viewModel.navigateBack.getValue());
+        assertEquals("Entrants notified successfully", viewModel.toastMessage.getValue());
+    }
+
+    /**
+     * Tests that a waiting list longer than a page is notified one page at a time
+     */
+    @Test
+    public void testPosBtnClickNotifiesWaitingListInPages() {
+        fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
+        fakeRepository.addDraw("draw-1", Collections.singletonList("1"));
+        List<String> waiting = new ArrayList<>();
+        waiting.add("2");
+        for (int i = 0; i < ConfirmDrawAndNotifyViewModel.WAITING_PAGE_SIZE; i++) {
+            String userId = String.format("w%04d", i);
+            Entrant entrant = new Entrant();
+            entrant.setUserId(userId);
+            entrant.setStatus("waiting");
+            fakeRepository.getInMemoryEntrants().add(entrant);
+            waiting.add(userId);
+        }
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        viewModel.onPositiveButtonClicked();
+
+        int pageSize = ConfirmDrawAndNotifyViewModel.WAITING_PAGE_SIZE;
+        verify(notificationCustomManager).sendBroadcast(eq(waiting.subList(0, pageSize)),
+                argThat(template -> "lottery_loss".equals(template.getType())), any());
+        verify(notificationCustomManager).sendBroadcast(eq(waiting.subList(pageSize, waiting.size())),
+                argThat(template -> "lottery_loss".equals(template.getType())), any());
+        assertEquals("Entrants notified successfully", viewModel.toastMessage.getValue());
+    }
+
+    /**
+     * Tests that nobody is notified when the draw cannot be confirmed, and the buttons come back
+     */
+    @Test
+    public void testPosBtnClickConfirmFailure() {
+        fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
+        DrawSessionStore.getInstance().put("draw-1", new DrawSessionStore.DrawSession("fake-event-id",
+                new String[]{"1"}, new String[]{"2"}));
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+        fakeRepository.setShouldReturnError(true);
+
+        viewModel.onPositiveButtonClicked();
+
+        verify(notificationCustomManager, never()).sendBroadcast(any(), any(), any());
+        assertEquals("Failed to confirm draw", viewModel.toastMessage.getValue());
+        assertNull(viewModel.navigateBack.getValue());
+        assertEquals(BottomUiState.StateType.SHOW_TWO_BUTTONS, Objects.requireNonNull(viewModel.bottomUiState.getValue()).type);
+
+        // the session is kept so the organizer can retry
+        fakeRepository.setShouldReturnError(false);
+        viewModel.onPositiveButtonClicked();
+
+        verify(notificationCustomManager).sendBroadcast(eq(Collections.singletonList("1")),
+                argThat(template -> "lottery_win".equals(template.getType())), any());
+    }
+
+    /**
+     * Tests that cancelling a draw returns only the journaled entrants to the waiting list
+     */
+    @Test
+    public void testNegativeBtnClickRollsBackDraw() {
+        fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
+        fakeRepository.addDraw("draw-1", Collections.singletonList("1"));
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        viewModel.onNegativeButtonClicked();
+
+        for (Entrant entrant : fakeRepository.getInMemoryEntrants()) {
+            assertEquals("waiting", entrant.getStatus());
+        }
+        assertEquals(true, viewModel.navigateBack.getValue());
+        assertEquals("Cancelled Draw. Entrants returned to waitlist", viewModel.toastMessage.getValue());
+    }
+
+    /**
+     * Tests that cancelling an unknown draw reports an error and stays on screen
+     */
+    @Test
+    public void testNegativeBtnClickUnknownDraw() {
+        fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
+
+        viewModel.loadDrawSession("fake-event-id", "missing-draw");
+
+        viewModel.onNegativeButtonClicked();
+
+        assertNull(viewModel.navigateBack.getValue());
+        assertEquals("Failed to cancel draw", viewModel.toastMessage.getValue());
+    }
+
+    /**
+     * Tests that a failed broadcast is reported with the number of entrants not notified
+     */
+    @Test
+    public void testPosBtnClickReportsFailedNotifications() {
+        when(notificationCustomManager.sendBroadcast(any(), any(), any()))
+                .thenReturn(Tasks.forResult(new NotificationBroadcaster.Result(1, 0, 1, 0, Collections.emptyList())));
+        fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
+        DrawSessionStore.getInstance().put("draw-1", new DrawSessionStore.DrawSession("fake-event-id",
+                new String[]{"1"}, new String[]{"2"}));
+        viewModel.loadDrawSession("fake-event-id", "draw-1");
+
+        viewModel.onPositiveButtonClicked();
+
+        assertEquals("Failed to notify 2 of 2 entrants", viewModel.toastMessage.getValue());
+        assertEquals(true, viewModel.navigateBack.getValue());
+    }
+
+    /**
+     * Tests for valid notif content for lottery win
      */
     @Test
-    public void sendWinNotification_callsNotifManagerWithCorrectParams() {
+    public void createWinTemplate_hasCorrectContent() {
         fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
 
-        viewModel.sendWinNotification("user123");
+        NotificationTemplate template = viewModel.createWinTemplate();
 
-        verify(notificationCustomManager).sendNotification(eq("user123"), eq("Congratulations!"),
-                eq("You've been selected for Event 1! Tap to accept or decline."), eq("lottery_win"),
-                eq("fake-event-id"), eq("Event 1"), eq(null), any());
+        assertEquals("Congratulations!", template.getTitle());
+        assertEquals("You've been selected for Event 1! Tap to accept or decline.", template.getMessage());
+        assertEquals("lottery_win", template.getType());
+        assertEquals("fake-event-id", template.getEventId());
+        assertEquals("Event 1", template.getEventName());
+        assertNull(template.getSenderId());
     }
 
     /**
-     * Tests for valid send notif parameters for lottery loss
+     * Tests for valid notif content for lottery loss
      */
     @Test
-    public void sendLossNotification_callsNotifManagerWithCorrectParams() {
+    public void createLossTemplate_hasCorrectContent() {
         fakeRepository.fetchEventAndEntrantCounts("fake-event-id");
 
-        viewModel.sendLossNotification(("user123"));
+        NotificationTemplate template = viewModel.createLossTemplate();
 
-        verify(notificationCustomManager).sendNotification(eq("user123"), eq("Thank you for joining!"),
-                eq("You weren't selected for Event 1 in this draw, but you're still on the waiting list and may be chosen in a future redraw."),
-                eq("lottery_loss"), eq("fake-event-id"), eq("Event 1"), eq(null), any());
+        assertEquals("Thank you for joining!", template.getTitle());
+        assertEquals("You weren't selected for Event 1 in this draw, but you're still on the waiting list and may be chosen in a future redraw.",
+                template.getMessage());
+        assertEquals("lottery_loss", template.getType());
+        assertEquals("fake-event-id", template.getEventId());
+        assertEquals("Event 1", template.getEventName());
+        assertNull(template.getSenderId());
     }
 
     /**
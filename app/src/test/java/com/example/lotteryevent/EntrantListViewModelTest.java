@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -85,7 +86,7 @@ public class EntrantListViewModelTest {
         viewModel.notifyAllEntrants("Hello");
 
         // Assert
-        verify(repository, never()).notifyEntrant(anyString(), anyString(), anyString());
+        verify(repository, never()).notifyEntrants(anyList(), anyString(), anyString());
         verify(repository).setUserMessage("No entrants to notify.");
     }
 
@@ -98,7 +99,7 @@ public class EntrantListViewModelTest {
         viewModel.notifyAllEntrants("Hello");
 
         // Assert
-        verify(repository, never()).notifyEntrant(anyString(), anyString(), anyString());
+        verify(repository, never()).notifyEntrants(anyList(), anyString(), anyString());
         verify(repository).setUserMessage("No entrants to notify.");
     }
 
@@ -114,7 +115,7 @@ public class EntrantListViewModelTest {
         viewModel.notifyAllEntrants("");
 
         // Assert
-        verify(repository, never()).notifyEntrant(anyString(), anyString(), anyString());
+        verify(repository, never()).notifyEntrants(anyList(), anyString(), anyString());
         verify(repository).setUserMessage("No message provided.");
     }
 
@@ -142,11 +143,9 @@ public class EntrantListViewModelTest {
         viewModel.notifyAllEntrants(message);
 
         // Assert
-        verify(repository).notifyEntrant("user1", TEST_EVENT_ID, message);
-        verify(repository).notifyEntrant("user2", TEST_EVENT_ID, message);
-
-        // Ensure user3 (wrong status) was NOT notified
-        verify(repository, never()).notifyEntrant(eq("user3"), anyString(), anyString());
+        // One bulk request for the displayed entrants; user3 (wrong status) is NOT included
+        verify(repository).notifyEntrants(Arrays.asList("user1", "user2"), TEST_EVENT_ID, message);
+        verify(repository, never()).notifyEntrant(anyString(), anyString(), anyString());
     }
 
     /**
@@ -2,6 +2,7 @@ package com.example.lotteryevent;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 
 import com.example.lotteryevent.data.Notification;
@@ -96,4 +97,27 @@ public class NotificationTest {
         assertEquals("12345abcde", notification.getNotificationId());
         assertEquals(notifBannerID, notification.getNotifBannerId());
     }
+
+    /**
+     * tests that a copy keeps every field and changes independently of the original
+     */
+    @Test
+    public void testCopy() {
+        Notification notification = new Notification(uid, title, message, type, eventId, eventName, senderId, senderName, notifBannerID);
+        notification.setNotificationId("12345abcde");
+        notification.setBroadcastId("broadcast1");
+
+        Notification copy = notification.copy();
+        copy.setSeen(true);
+
+        assertNotSame(notification, copy);
+        assertEquals("12345abcde", copy.getNotificationId());
+        assertEquals("broadcast1", copy.getBroadcastId());
+        assertEquals(uid, copy.getRecipientId());
+        assertEquals(message, copy.getMessage());
+        assertEquals(notification.getTimestamp(), copy.getTimestamp());
+        assertEquals(notifBannerID, copy.getNotifBannerId());
+        assertEquals(true, copy.getSeen());
+        assertEquals(false, notification.getSeen());
+    }
 }
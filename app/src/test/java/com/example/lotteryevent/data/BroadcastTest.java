@@ -0,0 +1,54 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Broadcast data class.
+ * These tests verify how a broadcast's content is merged into a recipient's pointer.
+ */
+public class BroadcastTest {
+
+    /**
+     * Tests the public no-argument constructor required for Firestore deserialization.
+     */
+    @Test
+    public void testNoArgumentConstructor() {
+        Broadcast broadcast = new Broadcast();
+        assertNull("broadcastId should be null initially", broadcast.getBroadcastId());
+        assertNull("title should be null initially", broadcast.getTitle());
+        assertEquals(0, broadcast.getRecipientCount());
+    }
+
+    /**
+     * Tests that applying a broadcast fills in the content and keeps the pointer's own fields.
+     */
+    @Test
+    public void testApplyToKeepsPointerFields() {
+        Timestamp sentAt = new Timestamp(1000, 0);
+        Broadcast broadcast = new Broadcast("Title", "Message", "custom_message", "event1", "Event 1",
+                "organizer1", "Organizer", 5000, sentAt);
+
+        Notification pointer = new Notification();
+        pointer.setNotificationId("notif1");
+        pointer.setRecipientId("user1");
+        pointer.setBroadcastId("broadcast1");
+        pointer.setSeen(true);
+        pointer.setTimestamp(sentAt);
+
+        broadcast.applyTo(pointer);
+
+        assertEquals("Title", pointer.getTitle());
+        assertEquals("Message", pointer.getMessage());
+        assertEquals("custom_message", pointer.getType());
+        assertEquals("Event 1", pointer.getEventName());
+        assertEquals("Organizer", pointer.getSenderName());
+        assertEquals("notif1", pointer.getNotificationId());
+        assertEquals("user1", pointer.getRecipientId());
+        assertEquals("broadcast1", pointer.getBroadcastId());
+        assertTrue(pointer.getSeen());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the DeleteJob data class.
+ * These tests verify the steps each kind of job runs and how the job moves through them.
+ */
+public class DeleteJobTest {
+
+    /**
+     * Tests the public no-argument constructor required for Firestore deserialization.
+     */
+    @Test
+    public void testNoArgumentConstructor() {
+        DeleteJob job = new DeleteJob();
+        assertNull("jobId should be null initially", job.getJobId());
+        assertNull("steps should be null initially", job.getSteps());
+        assertEquals(0, job.getDeletedCount());
+        assertTrue("a job without steps has nothing left to do", job.isFinished());
+    }
+
+    /**
+     * Tests that an event job deletes the entrants first and the event document last.
+     */
+    @Test
+    public void testEventJobDeletesDocumentLast() {
+        DeleteJob job = DeleteJob.forEvent("event1", "admin");
+        List<String> steps = job.getSteps();
+
+        assertEquals(DeleteJob.TYPE_EVENT, job.getType());
+        assertEquals(DeleteJob.STATUS_RUNNING, job.getStatus());
+        assertEquals("entrants:event1", steps.get(0));
+        assertEquals("doc:events/event1", steps.get(steps.size() - 1));
+        assertEquals("entrants:event1", job.getCurrentStep());
+    }
+
+    /**
+     * Tests that an event job releases its poster before deleting the event document.
+     */
+    @Test
+    public void testEventJobReleasesPoster() {
+        List<String> steps = DeleteJob.forEvent("event1", "admin").getSteps();
+
+        assertEquals("releasePoster:event1", steps.get(steps.size() - 2));
+    }
+
+    /**
+     * Tests that a user's own delete clears the profile first and keeps the user document.
+     */
+    @Test
+    public void testUserJobKeepsUserDocument() {
+        DeleteJob job = DeleteJob.forUser("user1");
+
+        assertEquals("clearProfile:user1", job.getCurrentStep());
+        assertEquals("user1", job.getStartedBy());
+        assertFalse(job.getSteps().contains("doc:users/user1"));
+    }
+
+    /**
+     * Tests that advancing clears the cursor and that the job finishes after its last step.
+     */
+    @Test
+    public void testAdvanceThroughSteps() {
+        DeleteJob job = DeleteJob.forEvent("event1", "admin");
+        job.setCursor("entrant200");
+        job.addDeleted(200);
+
+        job.advance();
+        assertNull(job.getCursor());
+        assertEquals(1, job.getStepIndex());
+
+        while (!job.isFinished()) {
+            job.advance();
+        }
+        assertNull(job.getCurrentStep());
+        assertEquals(200, job.getDeletedCount());
+    }
+
+    /**
+     * Tests that an organizer's events are spliced in to run before the current step.
+     */
+    @Test
+    public void testInsertStepsRunBeforeCurrentStep() {
+        DeleteJob job = DeleteJob.forOrganizer("organizer1", "admin");
+        while (!job.getCurrentStep().startsWith(DeleteJob.STEP_ORGANIZED_EVENTS)) {
+            job.advance();
+        }
+        int remaining = job.getSteps().size() - job.getStepIndex();
+
+        job.insertSteps(DeleteJob.eventSteps("event1"));
+
+        assertEquals("entrants:event1", job.getCurrentStep());
+        assertEquals(remaining + DeleteJob.eventSteps("event1").size(), job.getSteps().size());
+        assertEquals("organizedEvents:organizer1",
+                job.getSteps().get(job.getStepIndex() + DeleteJob.eventSteps("event1").size()));
+    }
+
+    /**
+     * Tests that expanding an organizer's events page after page drops the steps already run,
+     * so the saved job does not grow with the number of events.
+     */
+    @Test
+    public void testStepsStayBoundedAcrossExpansions() {
+        DeleteJob job = DeleteJob.forOrganizer("organizer1", "admin");
+        while (!job.getCurrentStep().startsWith(DeleteJob.STEP_ORGANIZED_EVENTS)) {
+            job.advance();
+        }
+        int remaining = job.getSteps().size() - job.getStepIndex();
+        int eventsPerPage = 200;
+        int pageSteps = eventsPerPage * DeleteJob.eventSteps("event").size();
+
+        for (int page = 0; page < 20; page++) {
+            List<String> steps = new ArrayList<>();
+            for (int e = 0; e < eventsPerPage; e++) {
+                steps.addAll(DeleteJob.eventSteps("event" + page + "_" + e));
+            }
+            job.insertSteps(steps);
+            assertTrue(job.getSteps().size() <= pageSteps + remaining);
+            for (int i = 0; i < pageSteps; i++) {
+                job.advance();
+            }
+            assertEquals("organizedEvents:organizer1", job.getCurrentStep());
+        }
+
+        assertTrue(job.getSteps().size() <= pageSteps + remaining);
+    }
+
+    /**
+     * Tests that a failed job waits longer before each retry and is abandoned after its last attempt.
+     */
+    @Test
+    public void testFailedJobBacksOffThenIsAbandoned() {
+        DeleteJob job = DeleteJob.forEvent("event1", "admin");
+        job.startAttempt();
+        job.fail("permission denied");
+        job.setUpdatedAt(new Timestamp(new Date(0)));
+
+        assertEquals(DeleteJob.STATUS_FAILED, job.getStatus());
+        assertEquals("permission denied", job.getError());
+        assertFalse(job.isDueForRetry(DeleteJob.RETRY_BASE_DELAY_MS - 1));
+        assertTrue(job.isDueForRetry(DeleteJob.RETRY_BASE_DELAY_MS));
+
+        long firstDelay = job.getRetryDelayMillis();
+        job.startAttempt();
+        job.fail("permission denied");
+        assertEquals(2 * firstDelay, job.getRetryDelayMillis());
+
+        while (job.hasAttemptsLeft()) {
+            job.startAttempt();
+            job.fail("permission denied");
+        }
+        assertEquals(DeleteJob.MAX_ATTEMPTS, job.getAttempts());
+        assertEquals(DeleteJob.STATUS_ABANDONED, job.getStatus());
+        assertFalse(job.isDueForRetry(Long.MAX_VALUE));
+    }
+
+    /**
+     * Tests that a job saved before attempts were counted can be resumed right away.
+     */
+    @Test
+    public void testJobWithoutAttemptsIsDue() {
+        DeleteJob job = new DeleteJob();
+
+        assertEquals(0, job.getRetryDelayMillis());
+        assertTrue(job.isDueForRetry(0));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.lotteryevent.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the DrawJournal data class.
+ * These tests verify the constructors, that the journal keeps its own copy of the invited IDs,
+ * and which status transitions confirming and rolling back allow in either order.
+ */
+public class DrawJournalTest {
+
+    /**
+     * Tests the public no-argument constructor required for Firestore deserialization.
+     */
+    @Test
+    public void testNoArgumentConstructor() {
+        DrawJournal journal = new DrawJournal();
+        assertNull("drawId should be null initially", journal.getDrawId());
+        assertNull("invitedEntrantIds should be null initially", journal.getInvitedEntrantIds());
+        assertNull("status should be null initially", journal.getStatus());
+        assertNull("createdAt should be null initially", journal.getCreatedAt());
+    }
+
+    /**
+     * Tests that a new journal is pending and records the invited entrants and their previous status.
+     */
+    @Test
+    public void testConstructorRecordsDelta() {
+        List<String> invited = Arrays.asList("a", "b");
+        DrawJournal journal = new DrawJournal(invited, "waiting");
+
+        assertEquals(invited, journal.getInvitedEntrantIds());
+        assertEquals("waiting", journal.getPreviousStatus());
+        assertEquals(DrawJournal.STATUS_PENDING, journal.getStatus());
+        assertNotNull(journal.getCreatedAt());
+    }
+
+    /**
+     * Tests that later changes to the caller's list do not alter the journal.
+     */
+    @Test
+    public void testConstructorCopiesIds() {
+        List<String> invited = new ArrayList<>(Arrays.asList("a", "b"));
+        DrawJournal journal = new DrawJournal(invited, "waiting");
+        invited.add("c");
+
+        assertEquals(2, journal.getInvitedEntrantIds().size());
+    }
+
+    /**
+     * Tests that a pending draw can be confirmed.
+     */
+    @Test
+    public void testConfirmPending() {
+        DrawJournal journal = new DrawJournal(Arrays.asList("a"), "waiting");
+
+        journal.confirm();
+
+        assertEquals(DrawJournal.STATUS_CONFIRMED, journal.getStatus());
+    }
+
+    /**
+     * Tests that a draw whose rollback has started can no longer be confirmed.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testConfirmRefusedWhileRollingBack() {
+        DrawJournal journal = new DrawJournal(Arrays.asList("a"), "waiting");
+        assertTrue(journal.startRollback());
+        assertEquals(DrawJournal.STATUS_ROLLING_BACK, journal.getStatus());
+
+        journal.confirm();
+    }
+
+    /**
+     * Tests that a rolled back draw can no longer be confirmed.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testConfirmRefusedAfterRollback() {
+        DrawJournal journal = new DrawJournal(Arrays.asList("a"), "waiting");
+        journal.setStatus(DrawJournal.STATUS_ROLLED_BACK);
+
+        journal.confirm();
+    }
+
+    /**
+     * Tests that a confirmed draw cannot be rolled back.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testRollbackRefusedAfterConfirm() {
+        DrawJournal journal = new DrawJournal(Arrays.asList("a"), "waiting");
+        journal.confirm();
+
+        journal.startRollback();
+    }
+
+    /**
+     * Tests that an interrupted rollback can be started again and a finished one is a no-op.
+     */
+    @Test
+    public void testRollbackResumesAndIsIdempotent() {
+        DrawJournal journal = new DrawJournal(Arrays.asList("a"), "waiting");
+        journal.setStatus(DrawJournal.STATUS_ROLLING_BACK);
+        assertTrue(journal.startRollback());
+
+        journal.setStatus(DrawJournal.STATUS_ROLLED_BACK);
+        assertFalse(journal.startRollback());
+        assertEquals(DrawJournal.STATUS_ROLLED_BACK, journal.getStatus());
+    }
+}
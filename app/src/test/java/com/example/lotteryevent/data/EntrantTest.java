@@ -88,6 +88,20 @@ public class EntrantTest {
         assertEquals("The status should match the value that was set", expectedStatus, entrant.getStatus());
     }
 
+    /**
+     * Tests the getters and setters for the 'drawShard' and 'drawSeq' properties.
+     */
+    @Test
+    public void testGetAndSetDrawRank() {
+        Entrant entrant = new Entrant();
+        assertNull("drawShard should be null initially", entrant.getDrawShard());
+        assertNull("drawSeq should be null initially", entrant.getDrawSeq());
+        entrant.setDrawShard(3);
+        entrant.setDrawSeq(42L);
+        assertEquals("The drawShard should match the value that was set", Integer.valueOf(3), entrant.getDrawShard());
+        assertEquals("The drawSeq should match the value that was set", Long.valueOf(42), entrant.getDrawSeq());
+    }
+
     /**
      * A comprehensive test that sets all properties at once and then verifies them.
      * This ensures that setting one property does not unintentionally affect another.
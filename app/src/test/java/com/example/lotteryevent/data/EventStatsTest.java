@@ -0,0 +1,79 @@
+package com.example.lotteryevent.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the EventStats data class.
+ * These tests verify the default state and the status based count accessors.
+ */
+public class EventStatsTest {
+
+    /**
+     * Tests that a new EventStats starts with zero counts and is not initialized,
+     * so counts documents created only by increments are recomputed on first load.
+     */
+    @Test
+    public void testNoArgumentConstructor() {
+        EventStats stats = new EventStats();
+        for (String status : new String[]{"waiting", "invited", "accepted", "declined", "cancelled"}) {
+            assertEquals(0, stats.getCount(status));
+        }
+        assertFalse(stats.isInitialized());
+    }
+
+    /**
+     * Tests that setCount and getCount map each status to its own field.
+     */
+    @Test
+    public void testCountByStatus() {
+        EventStats stats = new EventStats();
+        stats.setCount("waiting", 5);
+        stats.setCount("invited", 3);
+        stats.setCount("accepted", 2);
+        stats.setCount("declined", 1);
+        stats.setCount("cancelled", 4);
+
+        assertEquals(5, stats.getWaiting());
+        assertEquals(3, stats.getInvited());
+        assertEquals(2, stats.getAccepted());
+        assertEquals(1, stats.getDeclined());
+        assertEquals(4, stats.getCancelled());
+        assertEquals(3, stats.getCount("invited"));
+    }
+
+    /**
+     * Tests that unknown or null statuses are ignored.
+     */
+    @Test
+    public void testUntrackedStatus() {
+        EventStats stats = new EventStats();
+        stats.setCount("finalized", 7);
+        stats.setCount(null, 7);
+
+        assertEquals(0, stats.getCount("finalized"));
+        assertEquals(0, stats.getCount(null));
+        assertEquals(0, stats.getWaiting());
+    }
+
+    /**
+     * Tests that adding shards sums each count and leaves the initialized flag alone.
+     */
+    @Test
+    public void testAddShards() {
+        EventStats total = new EventStats();
+        EventStats shard = new EventStats();
+        shard.setWaiting(3);
+        shard.setCancelled(-1);
+        shard.setInitialized(true);
+
+        total.add(shard);
+        total.add(shard);
+
+        assertEquals(6, total.getWaiting());
+        assertEquals(-2, total.getCancelled());
+        assertEquals(0, total.getAccepted());
+        assertFalse(total.isInitialized());
+    }
+}
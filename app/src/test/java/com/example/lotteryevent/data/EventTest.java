@@ -35,6 +35,7 @@ public class EventTest {
         assertNull("registrationEndDateTime should be null", event.getRegistrationEndDateTime());
         assertNull("capacity should be null", event.getCapacity());
         assertNull("waitinglistlimit should be null", event.getWaitingListLimit());
+        assertNull("counterShards should be null", event.getCounterShards());
         assertNull("status should be null", event.getStatus());
         assertNull("createdAt should be null", event.getCreatedAt());
 
@@ -107,6 +108,10 @@ public class EventTest {
         event.setPosterImageUrl(posterImageUrl);
         assertEquals(posterImageUrl, event.getPosterImageUrl());
 
+        String posterId = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        event.setPosterId(posterId);
+        assertEquals(posterId, event.getPosterId());
+
         String status = "open";
         event.setStatus(status);
         assertEquals(status, event.getStatus());
@@ -124,6 +129,10 @@ public class EventTest {
         event.setWaitingListLimit(waitinglistlimit);
         assertEquals(waitinglistlimit, event.getWaitingListLimit());
 
+        Integer counterShards = 10;
+        event.setCounterShards(counterShards);
+        assertEquals(counterShards, event.getCounterShards());
+
         // Test Boolean property
         event.setGeoLocationRequired(true);
         assertTrue(event.getGeoLocationRequired());
@@ -0,0 +1,79 @@
+package com.example.lotteryevent.data;
+
+import com.google.firebase.Timestamp;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the NotificationTemplate data class.
+ * These tests verify that notifications created from a template only differ by recipient.
+ */
+public class NotificationTemplateTest {
+
+    /**
+     * Tests that the created notification copies the template and is unseen.
+     */
+    @Test
+    public void testToNotificationCopiesTemplate() {
+        NotificationTemplate template = new NotificationTemplate("Title", "Message", "lottery_win",
+                "event1", "Event 1", "organizer1", "Organizer");
+        Timestamp sentAt = new Timestamp(1000, 0);
+
+        Notification notification = template.toNotification("user1", sentAt);
+
+        assertEquals("user1", notification.getRecipientId());
+        assertEquals("Title", notification.getTitle());
+        assertEquals("Message", notification.getMessage());
+        assertEquals("lottery_win", notification.getType());
+        assertEquals("event1", notification.getEventId());
+        assertEquals("Event 1", notification.getEventName());
+        assertEquals("organizer1", notification.getSenderId());
+        assertEquals("Organizer", notification.getSenderName());
+        assertEquals(sentAt, notification.getTimestamp());
+        assertFalse(notification.getSeen());
+    }
+
+    /**
+     * Tests that notifications from the same template are independent objects.
+     */
+    @Test
+    public void testToNotificationPerRecipient() {
+        NotificationTemplate template = new NotificationTemplate("Title", "Message", "lottery_loss",
+                "event1", "Event 1", null, null);
+        Timestamp sentAt = Timestamp.now();
+
+        Notification first = template.toNotification("user1", sentAt);
+        Notification second = template.toNotification("user2", sentAt);
+
+        assertNotSame(first, second);
+        assertEquals("user2", second.getRecipientId());
+        assertEquals(first.getTimestamp(), second.getTimestamp());
+    }
+
+    /**
+     * Tests that a pointer only holds what the inbox filters and routes on, and that the
+     * broadcast holds the shared content.
+     */
+    @Test
+    public void testPointerAndBroadcast() {
+        NotificationTemplate template = new NotificationTemplate("Title", "Message", "custom_message",
+                "event1", "Event 1", "organizer1", "Organizer");
+        Timestamp sentAt = new Timestamp(1000, 0);
+
+        Map<String, Object> pointer = template.toPointer("user1", "broadcast1", sentAt);
+        Broadcast broadcast = template.toBroadcast(2, sentAt);
+
+        assertEquals("user1", pointer.get("recipientId"));
+        assertEquals("broadcast1", pointer.get("broadcastId"));
+        assertEquals("event1", pointer.get("eventId"));
+        assertEquals(false, pointer.get("seen"));
+        assertFalse(pointer.containsKey("message"));
+        assertEquals("Message", broadcast.getMessage());
+        assertEquals(2, broadcast.getRecipientCount());
+        assertEquals(sentAt, broadcast.getTimestamp());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.lotteryevent.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Registration data class.
+ * These tests verify the constructors and accessors of a registration index entry.
+ */
+public class RegistrationTest {
+
+    /**
+     * Tests the public no-argument constructor required for Firestore deserialization.
+     */
+    @Test
+    public void testNoArgumentConstructor() {
+        Registration registration = new Registration();
+        assertNull("eventId should be null initially", registration.getEventId());
+        assertNull("eventName should be null initially", registration.getEventName());
+        assertNull("status should be null initially", registration.getStatus());
+        assertNull("updatedAt should be null initially", registration.getUpdatedAt());
+    }
+
+    /**
+     * Tests that the constructor records the event and the entrant's status.
+     */
+    @Test
+    public void testConstructor() {
+        Registration registration = new Registration("event1", "Swim Lessons", "waiting");
+
+        assertEquals("event1", registration.getEventId());
+        assertEquals("Swim Lessons", registration.getEventName());
+        assertEquals("waiting", registration.getStatus());
+    }
+
+    /**
+     * Tests that the setters update the status and name.
+     */
+    @Test
+    public void testSetters() {
+        Registration registration = new Registration("event1", "Swim Lessons", "waiting");
+        registration.setStatus("invited");
+        registration.setEventName("Swim Lessons (Beginner)");
+
+        assertEquals("invited", registration.getStatus());
+        assertEquals("Swim Lessons (Beginner)", registration.getEventName());
+    }
+}
@@ -3,6 +3,7 @@ package com.example.lotteryevent.repository;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.lotteryevent.data.DrawJournal;
 import com.example.lotteryevent.data.Entrant;
 import com.example.lotteryevent.data.Event;
 import com.google.android.gms.tasks.Task;
@@ -12,7 +13,10 @@ import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -34,6 +38,7 @@ public class FakeEventRepository implements IEventRepository {
     // These lists hold the state of our fake repository.
     private ArrayList<Event> inMemoryEvents = new ArrayList<>();
     private final ArrayList<Entrant> inMemoryEntrants = new ArrayList<>();
+    private final Map<String, List<String>> inMemoryDraws = new HashMap<>();
 
     // --- Test control flags ---
     private boolean shouldReturnError = false;
@@ -194,6 +199,77 @@ public class FakeEventRepository implements IEventRepository {
         return Tasks.forResult(null);
     }
 
+    /**
+     * Simulates fetching a page of the IDs of entrants with a given status from the in-memory list
+     * @param eventId event to access its entrants
+     * @param status status entrants must have
+     * @param startAfterId last ID of the previous page, or null for the first page
+     * @param limit maximum number of IDs in the page
+     * @return completed task holding the matching entrant IDs, ordered by ID
+     */
+    @Override
+    public Task<List<String>> fetchEntrantIdsByStatus(String eventId, String status, String startAfterId, int limit) {
+        List<String> ids = new ArrayList<>();
+        for (Entrant entrant : inMemoryEntrants) {
+            if (Objects.equals(entrant.getStatus(), status)
+                    && (startAfterId == null || entrant.getUserId().compareTo(startAfterId) > 0)) {
+                ids.add(entrant.getUserId());
+            }
+        }
+        Collections.sort(ids);
+        return Tasks.forResult(new ArrayList<>(ids.subList(0, Math.min(limit, ids.size()))));
+    }
+
+    /**
+     * Simulates fetching a draw journal from the in-memory draws
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return completed task holding the journal, or a failed task if the draw is unknown
+     */
+    @Override
+    public Task<DrawJournal> fetchDrawJournal(String eventId, String drawId) {
+        List<String> invited = inMemoryDraws.get(drawId);
+        if (invited == null) {
+            return Tasks.forException(new IllegalStateException("Draw " + drawId + " not found"));
+        }
+        DrawJournal journal = new DrawJournal(invited, "waiting");
+        journal.setDrawId(drawId);
+        return Tasks.forResult(journal);
+    }
+
+    /**
+     * Simulates confirming a draw by discarding its in-memory journal
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return completed task, or a failed task if errors are simulated
+     */
+    @Override
+    public Task<Void> confirmDraw(String eventId, String drawId) {
+        if (shouldReturnError) {
+            return Tasks.forException(new IllegalStateException("Test Error: Could not confirm draw."));
+        }
+        inMemoryDraws.remove(drawId);
+        return Tasks.forResult(null);
+    }
+
+    /**
+     * Simulates rolling back a draw by returning its journaled entrants to the waiting list
+     * @param eventId event the draw was run for
+     * @param drawId ID of the draw journal
+     * @return completed task, or a failed task if the draw is unknown
+     */
+    @Override
+    public Task<Void> rollbackDraw(String eventId, String drawId) {
+        List<String> invited = inMemoryDraws.remove(drawId);
+        if (invited == null) {
+            return Tasks.forException(new IllegalStateException("Draw " + drawId + " not found"));
+        }
+        for (String entrantId : invited) {
+            updateEntrantAttribute(eventId, entrantId, "status", "waiting");
+        }
+        return Tasks.forResult(null);
+    }
+
     /**
      * Simulates creating a new event by adding it to the in-memory list
      * and updating the LiveData to notify observers of the change.
@@ -241,4 +317,16 @@ public class FakeEventRepository implements IEventRepository {
     }
 
     public ArrayList<Entrant> getInMemoryEntrants() { return inMemoryEntrants; }
+
+    /**
+     * A helper for tests to simulate a draw, inviting the given entrants and journaling them
+     * @param drawId ID of the draw journal
+     * @param entrantIds IDs of the entrants to invite
+     */
+    public void addDraw(String drawId, List<String> entrantIds) {
+        for (String entrantId : entrantIds) {
+            updateEntrantAttribute("fake-event-id", entrantId, "status", "invited");
+        }
+        inMemoryDraws.put(drawId, new ArrayList<>(entrantIds));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.lotteryevent.utilities;
+
+import com.example.lotteryevent.data.Notification;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for BannerCoalescer.
+ * These tests verify how a burst of notifications is grouped and how banner IDs are derived.
+ */
+public class BannerCoalescerTest {
+
+    /**
+     * Creates a notification for an event
+     * @param id notification ID
+     * @param eventId event ID, may be null
+     * @return the notification
+     */
+    private Notification notification(String id, String eventId) {
+        Notification notification = new Notification();
+        notification.setNotificationId(id);
+        notification.setEventId(eventId);
+        return notification;
+    }
+
+    /**
+     * Tests that only the first notification of a burst opens a window
+     */
+    @Test
+    public void testFirstAddOpensWindow() {
+        BannerCoalescer coalescer = new BannerCoalescer();
+
+        assertTrue(coalescer.add(notification("n1", "event1")));
+        assertFalse(coalescer.add(notification("n2", "event1")));
+
+        coalescer.drain();
+        assertTrue("a drained coalescer starts a new window", coalescer.add(notification("n3", "event1")));
+    }
+
+    /**
+     * Tests that a burst is grouped by event in order of arrival
+     */
+    @Test
+    public void testDrainGroupsByEvent() {
+        BannerCoalescer coalescer = new BannerCoalescer();
+        coalescer.add(notification("n1", "event1"));
+        coalescer.add(notification("n2", null));
+        coalescer.add(notification("n3", "event1"));
+
+        Map<String, List<Notification>> burst = coalescer.drain();
+
+        assertEquals(2, burst.size());
+        List<Notification> event1 = burst.get(BannerCoalescer.groupKey("event1"));
+        assertEquals("n1", event1.get(0).getNotificationId());
+        assertEquals("n3", event1.get(1).getNotificationId());
+        assertEquals(1, burst.get(BannerCoalescer.GENERAL_GROUP).size());
+        assertTrue(coalescer.drain().isEmpty());
+    }
+
+    /**
+     * Tests that banner IDs are stable and stay clear of sequential IDs
+     */
+    @Test
+    public void testBannerIdsStable() {
+        int id = BannerCoalescer.bannerId("n1");
+
+        assertEquals(id, BannerCoalescer.bannerId("n1"));
+        assertTrue(id >= 0x40000000);
+        assertTrue(BannerCoalescer.summaryId(BannerCoalescer.groupKey("event1")) >= 0x40000000);
+        assertNotEquals(id, BannerCoalescer.summaryId("n1"));
+    }
+}
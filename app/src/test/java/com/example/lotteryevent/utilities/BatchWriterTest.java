@@ -0,0 +1,92 @@
+package com.example.lotteryevent.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.google.firebase.firestore.DocumentReference;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for how {@link BatchWriter} splits queued writes into batches.
+ * Batches are never committed here, so no Firestore instance is needed.
+ */
+public class BatchWriterTest {
+
+    /**
+     * Tests that an empty writer produces no batches
+     */
+    @Test
+    public void testEmptyWriterHasNoBatches() {
+        BatchWriter writer = new BatchWriter(null);
+
+        assertTrue(writer.isEmpty());
+        assertEquals(0, writer.getBatchCount());
+    }
+
+    /**
+     * Tests that writes are split into batches of at most 500 operations
+     */
+    @Test
+    public void testSplitsPastFirestoreLimit() {
+        BatchWriter writer = new BatchWriter(null);
+        DocumentReference ref = mock(DocumentReference.class);
+        for (int i = 0; i < 1201; i++) {
+            writer.delete(ref);
+        }
+
+        assertEquals(1201, writer.size());
+        assertEquals(3, writer.getBatchCount());
+    }
+
+    /**
+     * Tests that exactly 500 writes fit in one batch
+     */
+    @Test
+    public void testExactlyOneFullBatch() {
+        BatchWriter writer = new BatchWriter(null);
+        DocumentReference ref = mock(DocumentReference.class);
+        for (int i = 0; i < BatchWriter.MAX_BATCH_SIZE; i++) {
+            writer.update(ref, "status", "invited");
+        }
+
+        assertEquals(1, writer.getBatchCount());
+    }
+
+    /**
+     * Tests that a grouped operation is never split across two batches
+     */
+    @Test
+    public void testGroupedOperationStaysInOneBatch() {
+        BatchWriter writer = new BatchWriter(null, 10, 2);
+        DocumentReference ref = mock(DocumentReference.class);
+        for (int i = 0; i < 9; i++) {
+            writer.delete(ref);
+        }
+        // 9 + 2 exceeds the batch size, so the pair must start a new batch
+        writer.add(2, batch -> {
+            batch.delete(ref);
+            batch.delete(ref);
+        });
+
+        assertEquals(11, writer.size());
+        assertEquals(2, writer.getBatchCount());
+    }
+
+    /**
+     * Tests that invalid configurations are rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsBatchSizeOverLimit() {
+        new BatchWriter(null, BatchWriter.MAX_BATCH_SIZE + 1, 1);
+    }
+
+    /**
+     * Tests that an operation larger than a batch is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsOversizedOperation() {
+        new BatchWriter(null, 10, 1).add(11, batch -> { });
+    }
+}
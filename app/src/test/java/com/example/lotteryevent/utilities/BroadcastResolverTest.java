@@ -0,0 +1,81 @@
+package com.example.lotteryevent.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.lotteryevent.data.Broadcast;
+import com.example.lotteryevent.data.Notification;
+import com.google.firebase.Timestamp;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for how {@link BroadcastResolver} merges cached broadcasts into pointers.
+ * Nothing here reads Firestore.
+ */
+public class BroadcastResolverTest {
+
+    /**
+     * Empties the shared cache between tests
+     */
+    @After
+    public void tearDown() {
+        BroadcastResolver.clear();
+    }
+
+    /**
+     * Creates a pointer to a broadcast
+     * @param id notification ID
+     * @param broadcastId broadcast the pointer refers to
+     * @return the pointer
+     */
+    private Notification pointer(String id, String broadcastId) {
+        Notification notification = new Notification();
+        notification.setNotificationId(id);
+        notification.setBroadcastId(broadcastId);
+        return notification;
+    }
+
+    /**
+     * Tests that pointers without a cached broadcast are kept with placeholder content and reported
+     */
+    @Test
+    public void testUnfetchedPointersAreKept() {
+        BroadcastResolver.put("b1", new Broadcast("Title", "Message", "custom_message", "event1", "Event 1",
+                "organizer1", "Organizer", 2, new Timestamp(1000, 0)));
+        Notification inline = new Notification();
+        inline.setTitle("Inline");
+
+        List<Notification> merged = BroadcastResolver.merge(Arrays.asList(
+                pointer("n1", "b1"), pointer("n2", "b2"), inline));
+
+        assertEquals(3, merged.size());
+        assertEquals("Title", merged.get(0).getTitle());
+        assertEquals(BroadcastResolver.UNAVAILABLE_TITLE, merged.get(1).getTitle());
+        assertEquals(BroadcastResolver.UNRESOLVED_MESSAGE, merged.get(1).getMessage());
+        assertEquals("Inline", merged.get(2).getTitle());
+        assertTrue(BroadcastResolver.isUnresolved(merged.get(1)));
+        assertFalse(BroadcastResolver.isUnresolved(merged.get(0)));
+        assertFalse(BroadcastResolver.isUnresolved(inline));
+        assertTrue(BroadcastResolver.hasUnresolved(merged));
+    }
+
+    /**
+     * Tests that a broadcast known to be gone is shown as such and is not fetched again
+     */
+    @Test
+    public void testGoneBroadcastIsNotUnresolved() {
+        BroadcastResolver.putGone("b1");
+
+        List<Notification> merged = BroadcastResolver.merge(Arrays.asList(pointer("n1", "b1")));
+
+        assertEquals(1, merged.size());
+        assertEquals(BroadcastResolver.GONE_MESSAGE, merged.get(0).getMessage());
+        assertFalse(BroadcastResolver.hasUnresolved(merged));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.lotteryevent.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.lotteryevent.data.DeleteJob;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Unit tests for the decisions {@link CascadeDeleter} makes without touching Firestore:
+ * which unfinished jobs are resumed and which documents a page counts as deleted.
+ */
+public class CascadeDeleterTest {
+
+    /**
+     * Creates a job that failed a number of times, last checkpointed at time zero
+     * @param id job ID
+     * @param failures number of failed runs
+     * @return the failed job
+     */
+    private DeleteJob failedJob(String id, int failures) {
+        DeleteJob job = DeleteJob.forEvent("event-" + id, "admin");
+        job.setJobId(id);
+        for (int i = 0; i < failures; i++) {
+            job.startAttempt();
+            job.fail("unavailable");
+        }
+        job.setUpdatedAt(new Timestamp(new Date(0)));
+        return job;
+    }
+
+    /**
+     * Tests that only jobs past their retry delay are resumed
+     */
+    @Test
+    public void testResumeWaitsForRetryDelay() {
+        DeleteJob once = failedJob("once", 1);
+        DeleteJob twice = failedJob("twice", 2);
+        long now = DeleteJob.RETRY_BASE_DELAY_MS;
+
+        List<DeleteJob> due = CascadeDeleter.resumable(Arrays.asList(once, twice), now);
+
+        assertEquals(1, due.size());
+        assertEquals("once", due.get(0).getJobId());
+        assertEquals(2, CascadeDeleter.resumable(Arrays.asList(once, twice), 2 * now).size());
+    }
+
+    /**
+     * Tests that a job out of attempts is never resumed, however long ago it failed
+     */
+    @Test
+    public void testResumeSkipsAbandonedJobs() {
+        DeleteJob abandoned = failedJob("abandoned", DeleteJob.MAX_ATTEMPTS);
+
+        assertEquals(DeleteJob.STATUS_ABANDONED, abandoned.getStatus());
+        assertTrue(CascadeDeleter.resumable(Arrays.asList(abandoned), Long.MAX_VALUE).isEmpty());
+    }
+
+    /**
+     * Tests that the registration index marker is skipped and not counted as deleted
+     */
+    @Test
+    public void testRegistrationMarkerIsNotCounted() {
+        DocumentSnapshot marker = mock(DocumentSnapshot.class);
+        when(marker.getId()).thenReturn(RegistrationIndex.MARKER_ID);
+        DocumentSnapshot registration = mock(DocumentSnapshot.class);
+        when(registration.getId()).thenReturn("event1");
+
+        assertEquals(Arrays.asList("event1"), CascadeDeleter.registeredEventIds(Arrays.asList(marker, registration)));
+    }
+}
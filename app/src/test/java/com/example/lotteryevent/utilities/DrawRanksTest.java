@@ -0,0 +1,152 @@
+package com.example.lotteryevent.utilities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link DrawRanks}, including how often each entrant wins when draws are run
+ * the way RunDrawRepositoryImpl probes Firestore.
+ */
+public class DrawRanksTest {
+
+    /**
+     * Probe rounds a draw may run, as in RunDrawRepositoryImpl
+     */
+    private static final int ROUNDS = 8;
+
+    /**
+     * Tests that positions of the dense range map to each shard's ranks in order
+     */
+    @Test
+    public void testAtWalksShardsInOrder() {
+        long[] joins = {2, 0, 3};
+
+        assertEquals(5, DrawRanks.total(joins));
+        assertArrayEquals(new long[]{0, 0}, DrawRanks.at(joins, 0));
+        assertArrayEquals(new long[]{0, 1}, DrawRanks.at(joins, 1));
+        assertArrayEquals(new long[]{2, 0}, DrawRanks.at(joins, 2));
+        assertArrayEquals(new long[]{2, 2}, DrawRanks.at(joins, 4));
+    }
+
+    /**
+     * Tests that a position past the last rank is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAtRejectsPastLastRank() {
+        DrawRanks.at(new long[]{2, 3}, 5);
+    }
+
+    /**
+     * Tests when a draw probes ranks and when it falls back to a full scan
+     */
+    @Test
+    public void testWorthProbing() {
+        assertTrue(DrawRanks.worthProbing(100, 100, 150, 10, ROUNDS));
+        // an entrant without a rank could never be drawn
+        assertFalse(DrawRanks.worthProbing(100, 99, 150, 10, ROUNDS));
+        // more than half of the waiting list
+        assertFalse(DrawRanks.worthProbing(100, 100, 150, 51, ROUNDS));
+        // most ranks freed by entrants who left or were invited
+        assertFalse(DrawRanks.worthProbing(100, 100, 100 * DrawRanks.MIN_DENSITY_DIVISOR + 1, 10, ROUNDS));
+        assertFalse(DrawRanks.worthProbing(0, 0, 0, 0, ROUNDS));
+    }
+
+    /**
+     * Tests that large draws whose probes would not fit in the rounds go straight to a full scan
+     */
+    @Test
+    public void testWorthProbingRespectsProbeBudget() {
+        int budget = ROUNDS * DrawRanks.MAX_PROBES_PER_ROUND;
+
+        // each accepted probe picks one winner, so more winners than the budget can never succeed
+        assertFalse(DrawRanks.worthProbing(100000, 100000, 100000, budget + 1, ROUNDS));
+        // a draw of 1000 with a quarter of the ranks still waiting needs about 4 probes per winner
+        assertFalse(DrawRanks.worthProbing(10000, 10000, 40000, 1000, ROUNDS));
+        // the same draw with every rank still waiting fits
+        assertTrue(DrawRanks.worthProbing(10000, 10000, 10000, 1000, ROUNDS));
+        // the largest draw that fits with headroom
+        assertTrue(DrawRanks.worthProbing(1000000, 1000000, 1000000, budget / DrawRanks.PROBE_HEADROOM - 10, ROUNDS));
+    }
+
+    /**
+     * Tests the bound on the expected number of probes
+     */
+    @Test
+    public void testExpectedProbes() {
+        // the 10th winner is picked from 21 waiting entrants, so at most 20 / 20 probes per winner
+        assertEquals(10.0, DrawRanks.expectedProbes(30, 20, 10), 1e-9);
+        assertEquals(0.0, DrawRanks.expectedProbes(100, 150, 0), 1e-9);
+    }
+
+    /**
+     * Tests that a round sends enough probes to expect every missing winner, within the cap
+     */
+    @Test
+    public void testProbesFor() {
+        assertEquals(0, DrawRanks.probesFor(0, 100, 50));
+        assertEquals(10, DrawRanks.probesFor(10, 100, 100));
+        assertEquals(20, DrawRanks.probesFor(10, 100, 50));
+        assertEquals(30, DrawRanks.probesFor(10, 101, 50));
+        assertEquals(DrawRanks.MAX_PROBES_PER_ROUND, DrawRanks.probesFor(1000, 400, 100));
+    }
+
+    /**
+     * Tests that every waiting entrant wins equally often, whatever the layout of the ranks.
+     * Shards hand out different numbers of ranks and many ranks are freed, which is where
+     * picking the first key after a random pivot favoured entrants after large gaps.
+     */
+    @Test
+    public void testSelectionFrequencyIsUniform() {
+        long[] joins = {7, 1, 12, 0, 5};
+        Map<String, String> holders = new HashMap<>();
+        for (int shard = 0; shard < joins.length; shard++) {
+            for (long seq = 0; seq < joins[shard]; seq++) {
+                // every third rank was freed by an entrant leaving or being invited
+                if ((shard + seq) % 3 != 0) {
+                    holders.put(shard + ":" + seq, "entrant" + shard + "_" + seq);
+                }
+            }
+        }
+        int waiting = holders.size();
+        int winners = 3;
+        int trials = 60000;
+        Random random = new Random(301);
+        Map<String, Integer> wins = new HashMap<>();
+
+        for (int t = 0; t < trials; t++) {
+            Set<String> chosen = new LinkedHashSet<>();
+            while (chosen.size() < winners) {
+                long[] rank = DrawRanks.sample(joins, random);
+                String holder = holders.get(rank[0] + ":" + rank[1]);
+                if (holder != null) {
+                    chosen.add(holder);
+                }
+            }
+            for (String winner : chosen) {
+                wins.merge(winner, 1, Integer::sum);
+            }
+        }
+
+        double expected = (double) trials * winners / waiting;
+        List<String> skewed = new ArrayList<>();
+        for (String entrant : holders.values()) {
+            int count = wins.getOrDefault(entrant, 0);
+            if (Math.abs(count - expected) > expected * 0.05) {
+                skewed.add(entrant + " won " + count + " times, expected " + expected);
+            }
+        }
+        assertTrue(skewed.toString(), skewed.isEmpty());
+    }
+}
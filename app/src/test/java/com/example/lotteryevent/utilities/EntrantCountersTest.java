@@ -0,0 +1,467 @@
+package com.example.lotteryevent.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.lotteryevent.data.EventStats;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link EntrantCounters}: the pure helpers, and the transaction bodies of joins,
+ * backfills, publishes and bulk moves run against a mocked {@link Transaction} whose reads return
+ * fixed shard documents.
+ */
+public class EntrantCountersTest {
+
+    /**
+     * Creates a mocked shard reference
+     * @param id document ID of the shard
+     * @return the reference
+     */
+    private static DocumentReference shardRef(String id) {
+        DocumentReference ref = mock(DocumentReference.class);
+        when(ref.getId()).thenReturn(id);
+        return ref;
+    }
+
+    /**
+     * Makes a transaction read return a shard document
+     * @param transaction mocked transaction
+     * @param ref shard reference
+     * @param stats shard contents, or null if the shard does not exist
+     * @throws Exception never, the read is mocked
+     */
+    private static void givenShard(Transaction transaction, DocumentReference ref, EventStats stats) throws Exception {
+        DocumentSnapshot doc = mock(DocumentSnapshot.class);
+        when(doc.exists()).thenReturn(stats != null);
+        when(doc.toObject(EventStats.class)).thenReturn(stats);
+        when(transaction.get(ref)).thenReturn(doc);
+    }
+
+    /**
+     * Creates shard contents
+     * @param waiting waiting count
+     * @param updates number of counter writes applied
+     * @param initialized whether the counts were initialized
+     * @return the shard contents
+     */
+    private static EventStats stats(long waiting, long updates, boolean initialized) {
+        EventStats stats = new EventStats();
+        stats.setWaiting(waiting);
+        stats.setUpdates(updates);
+        stats.setInitialized(initialized);
+        return stats;
+    }
+
+    /**
+     * Tests that a status change decrements the old status and increments the new one
+     */
+    @Test
+    public void testTransitionMovesBetweenStatuses() {
+        Map<String, Object> increments = EntrantCounters.transition("waiting", "invited", 3);
+
+        assertEquals(2, increments.size());
+        assertTrue(increments.containsKey("waiting"));
+        assertTrue(increments.containsKey("invited"));
+    }
+
+    /**
+     * Tests that unchanged or untracked statuses produce no increments
+     */
+    @Test
+    public void testTransitionWithoutChange() {
+        assertTrue(EntrantCounters.transition("waiting", "waiting", 1).isEmpty());
+        assertTrue(EntrantCounters.transition("waiting", "invited", 0).isEmpty());
+        assertTrue(EntrantCounters.transition(null, "finalized", 1).isEmpty());
+    }
+
+    /**
+     * Tests that a limit is reached once the count equals it, and never without a limit
+     */
+    @Test
+    public void testIsFull() {
+        assertFalse(EntrantCounters.isFull(null, 1000));
+        assertFalse(EntrantCounters.isFull(10, 9));
+        assertTrue(EntrantCounters.isFull(10, 10));
+        assertTrue(EntrantCounters.isFull(10L, 11));
+    }
+
+    /**
+     * Tests that small capped events get one shard and large or uncapped events get more
+     */
+    @Test
+    public void testRecommendedShards() {
+        assertEquals(EntrantCounters.DEFAULT_SHARDS, EntrantCounters.recommendedShards(50));
+        assertEquals(EntrantCounters.HOT_EVENT_SHARDS, EntrantCounters.recommendedShards(5000));
+        assertEquals(EntrantCounters.HOT_EVENT_SHARDS, EntrantCounters.recommendedShards(null));
+    }
+
+    /**
+     * Tests that a reached limit is recognized even when wrapped by the task that failed
+     */
+    @Test
+    public void testLimitReachedIsFoundInCauses() {
+        EntrantCounters.LimitReachedException full = new EntrantCounters.LimitReachedException("full", 10);
+
+        assertTrue(EntrantCounters.LimitReachedException.isCause(full));
+        assertTrue(EntrantCounters.LimitReachedException.isCause(new RuntimeException(full)));
+        assertFalse(EntrantCounters.LimitReachedException.isCause(new IllegalStateException("other")));
+        assertFalse(EntrantCounters.LimitReachedException.isCause(null));
+        assertEquals(10, full.getLimit());
+    }
+
+    /**
+     * Tests that the quotas of the extra shards add up to the room left, differing by at most one
+     */
+    @Test
+    public void testShardQuotasSumToAvailable() {
+        long[] available = {0, 1, 7, 100, 1001};
+        for (long room : available) {
+            long sum = 0;
+            for (int i = 0; i < 9; i++) {
+                long quota = EntrantCounters.shardQuota(room, 9, i);
+                assertTrue(quota == room / 9 || quota == room / 9 + 1);
+                sum += quota;
+            }
+            assertEquals(room, sum);
+        }
+        assertEquals(0, EntrantCounters.shardQuota(-5, 9, 0));
+    }
+
+    /**
+     * Tests that single entrant writes avoid the base document unless it is the only shard
+     */
+    @Test
+    public void testRandomShardSkipsBase() {
+        assertEquals(0, EntrantCounters.randomShard(1));
+        for (int i = 0; i < 100; i++) {
+            int shard = EntrantCounters.randomShard(EntrantCounters.HOT_EVENT_SHARDS);
+            assertTrue(shard >= 1 && shard < EntrantCounters.HOT_EVENT_SHARDS);
+        }
+    }
+
+    /**
+     * Tests that a backfill stores the counts net of the extra shards when nothing changed while counting
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBackfillStoresCountsNetOfShards() throws Exception {
+        Transaction transaction = mock(Transaction.class);
+        DocumentReference base = shardRef("counts");
+        DocumentReference shard = shardRef("shard_1");
+        givenShard(transaction, base, null);
+        givenShard(transaction, shard, stats(2, 2, false));
+        Map<String, EventStats> before = new HashMap<>();
+        before.put("shard_1", stats(2, 2, false));
+
+        EventStats stored = EntrantCounters.storeBackfill(transaction, Arrays.asList(base, shard), before, stats(5, 0, false));
+
+        ArgumentCaptor<Map<String, Object>> written = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).set(eq(base), written.capture(), any(SetOptions.class));
+        assertEquals(3L, written.getValue().get("waiting"));
+        assertEquals(true, written.getValue().get("initialized"));
+        assertEquals(5, stored.getWaiting());
+        assertTrue(stored.isInitialized());
+    }
+
+    /**
+     * Tests that a join counted after the entrants were counted makes the backfill start over
+     * instead of being overwritten, even if a leave brought the count back to its old value
+     */
+    @Test
+    public void testBackfillNeverOverwritesConcurrentJoin() throws Exception {
+        Transaction transaction = mock(Transaction.class);
+        DocumentReference base = shardRef("counts");
+        DocumentReference shard = shardRef("shard_1");
+        givenShard(transaction, base, null);
+        givenShard(transaction, shard, stats(2, 4, false));
+        Map<String, EventStats> before = new HashMap<>();
+        before.put("shard_1", stats(2, 2, false));
+
+        try {
+            EntrantCounters.storeBackfill(transaction, Arrays.asList(base, shard), before, stats(5, 0, false));
+            fail("Expected the backfill to detect the join");
+        } catch (EntrantCounters.CountsChangedException e) {
+            assertTrue(EntrantCounters.CountsChangedException.isCause(new RuntimeException(e)));
+        }
+        verify(transaction, never()).set(any(DocumentReference.class), anyMap(), any(SetOptions.class));
+    }
+
+    /**
+     * Tests that the client losing a race to backfill keeps the other client's counts
+     */
+    @Test
+    public void testBackfillKeepsCountsInitializedByAnotherClient() throws Exception {
+        Transaction transaction = mock(Transaction.class);
+        DocumentReference base = shardRef("counts");
+        givenShard(transaction, base, stats(7, 1, true));
+        List<DocumentReference> refs = Arrays.asList(base);
+
+        EventStats stored = EntrantCounters.storeBackfill(transaction, refs, new HashMap<>(), stats(6, 0, false));
+
+        verify(transaction, never()).set(any(DocumentReference.class), anyMap(), any(SetOptions.class));
+        assertEquals(7, stored.getWaiting());
+        assertTrue(stored.isInitialized());
+    }
+
+    /**
+     * Tests that a shard missing before and after counts as unchanged, and any write does not
+     */
+    @Test
+    public void testSameShard() {
+        assertTrue(EntrantCounters.sameShard(null, null));
+        assertTrue(EntrantCounters.sameShard(null, stats(0, 0, false)));
+        assertFalse(EntrantCounters.sameShard(null, stats(1, 1, false)));
+        assertFalse(EntrantCounters.sameShard(stats(1, 1, false), stats(1, 3, false)));
+    }
+
+    /**
+     * Gets a shard of event e1 from a deep-stubbed Firestore, which returns the same mocked
+     * reference for the same path every time
+     * @param db deep-stubbed Firestore
+     * @param index shard index, 0 being the base counts document
+     * @return the shard reference
+     */
+    private static DocumentReference shardOf(FirebaseFirestore db, int index) {
+        return index == 0 ? EntrantCounters.countsRef(db, "e1")
+                : db.collection("events").document("e1").collection("stats").document("shard_" + index);
+    }
+
+    /**
+     * Tests that a join takes a shard still under its quota, and that its transaction reads only
+     * counter documents: a publish writing the event document therefore never aborts it
+     */
+    @Test
+    public void testReserveWaitingSlotReadsOnlyCounters() throws Exception {
+        FirebaseFirestore db = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
+        Transaction transaction = mock(Transaction.class);
+        givenShard(transaction, shardOf(db, 0), stats(4, 1, true));
+        // 6 places left over two extra shards: shard_1 is at its quota of 3, shard_2 has room
+        givenShard(transaction, shardOf(db, 1), stats(3, 3, false));
+        givenShard(transaction, shardOf(db, 2), stats(1, 1, false));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(2, EntrantCounters.reserveWaitingSlot(transaction, db, "e1", 3, 10));
+        }
+        verify(transaction, never()).get(db.collection("events").document("e1"));
+    }
+
+    /**
+     * Tests that a join fails once every shard is at its quota
+     */
+    @Test(expected = EntrantCounters.LimitReachedException.class)
+    public void testReserveWaitingSlotFailsWhenEveryShardIsFull() throws Exception {
+        FirebaseFirestore db = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
+        Transaction transaction = mock(Transaction.class);
+        givenShard(transaction, shardOf(db, 0), stats(4, 1, true));
+        givenShard(transaction, shardOf(db, 1), stats(3, 3, false));
+        givenShard(transaction, shardOf(db, 2), stats(3, 3, false));
+
+        EntrantCounters.reserveWaitingSlot(transaction, db, "e1", 3, 10);
+    }
+
+    /**
+     * Tests that a join refuses to check a limit against counts that were never backfilled
+     */
+    @Test(expected = EntrantCounters.CountsUnavailableException.class)
+    public void testReserveWaitingSlotRequiresInitializedCounts() throws Exception {
+        FirebaseFirestore db = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
+        Transaction transaction = mock(Transaction.class);
+        givenShard(transaction, shardOf(db, 0), stats(4, 1, false));
+
+        EntrantCounters.reserveWaitingSlot(transaction, db, "e1", 3, 10);
+    }
+
+    /**
+     * Makes a transaction read return event e1 with a published waiting count
+     * @param db deep-stubbed Firestore
+     * @param transaction mocked transaction
+     * @param published waiting count on the event document, or null if never published
+     * @return the event reference
+     * @throws Exception never, the read is mocked
+     */
+    private static DocumentReference givenEvent(FirebaseFirestore db, Transaction transaction, Long published)
+            throws Exception {
+        DocumentReference eventRef = db.collection("events").document("e1");
+        when(eventRef.getId()).thenReturn("e1");
+        DocumentSnapshot eventDoc = mock(DocumentSnapshot.class);
+        when(eventDoc.exists()).thenReturn(true);
+        when(eventDoc.getLong("counterShards")).thenReturn(2L);
+        when(eventDoc.getLong("waitingListCount")).thenReturn(published);
+        when(transaction.get(eventRef)).thenReturn(eventDoc);
+        return eventRef;
+    }
+
+    /**
+     * Tests that a publish writes the sum of every shard when the event's copy is out of date
+     */
+    @Test
+    public void testPublishWritesSummedWaitingCount() throws Exception {
+        FirebaseFirestore db = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
+        Transaction transaction = mock(Transaction.class);
+        DocumentReference eventRef = givenEvent(db, transaction, 3L);
+        givenShard(transaction, shardOf(db, 0), stats(4, 1, true));
+        givenShard(transaction, shardOf(db, 1), stats(2, 2, false));
+
+        assertTrue(EntrantCounters.publishWaitingCount(transaction, db, eventRef));
+        verify(transaction).update(eventRef, "waitingListCount", 6L);
+    }
+
+    /**
+     * Tests that a publish leaves the event document alone when its copy is already current, so
+     * browsing clients are not notified for nothing
+     */
+    @Test
+    public void testPublishSkipsUnchangedWaitingCount() throws Exception {
+        FirebaseFirestore db = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
+        Transaction transaction = mock(Transaction.class);
+        DocumentReference eventRef = givenEvent(db, transaction, 6L);
+        givenShard(transaction, shardOf(db, 0), stats(4, 1, true));
+        givenShard(transaction, shardOf(db, 1), stats(2, 2, false));
+
+        assertFalse(EntrantCounters.publishWaitingCount(transaction, db, eventRef));
+        verify(transaction, never()).update(any(DocumentReference.class), any(String.class), any());
+    }
+
+    /**
+     * Tests that a publish never copies counts that were not backfilled yet
+     */
+    @Test
+    public void testPublishSkipsUninitializedCounts() throws Exception {
+        FirebaseFirestore db = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
+        Transaction transaction = mock(Transaction.class);
+        DocumentReference eventRef = givenEvent(db, transaction, null);
+        givenShard(transaction, shardOf(db, 0), null);
+        givenShard(transaction, shardOf(db, 1), stats(2, 2, false));
+
+        assertFalse(EntrantCounters.publishWaitingCount(transaction, db, eventRef));
+    }
+
+    /**
+     * Tests that publishes of one event are spaced by the throttle interval
+     */
+    @Test
+    public void testPublishDelay() {
+        long now = 100_000;
+
+        assertEquals(0, EntrantCounters.publishDelay(null, now));
+        assertEquals(EntrantCounters.PUBLISH_INTERVAL_MS, EntrantCounters.publishDelay(now, now));
+        assertEquals(1000, EntrantCounters.publishDelay(now - EntrantCounters.PUBLISH_INTERVAL_MS + 1000, now));
+        assertEquals(0, EntrantCounters.publishDelay(now - EntrantCounters.PUBLISH_INTERVAL_MS - 1, now));
+    }
+
+    /**
+     * Tests that every group runs in exactly one lane, in order, with no more lanes than allowed
+     */
+    @Test
+    public void testLanesCoverEveryGroupOnce() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            ids.add("user" + i);
+        }
+        List<List<String>> groups = EntrantCounters.split(ids, EntrantCounters.TRANSACTION_GROUP);
+        assertEquals(9, groups.size());
+        assertEquals(2000 - 8 * EntrantCounters.TRANSACTION_GROUP, groups.get(8).size());
+
+        List<List<Integer>> lanes = EntrantCounters.lanes(groups.size(), BatchWriter.DEFAULT_MAX_IN_FLIGHT);
+        assertEquals(BatchWriter.DEFAULT_MAX_IN_FLIGHT, lanes.size());
+        Set<Integer> seen = new HashSet<>();
+        for (List<Integer> lane : lanes) {
+            for (int i = 1; i < lane.size(); i++) {
+                assertTrue(lane.get(i) > lane.get(i - 1));
+            }
+            for (int g : lane) {
+                assertTrue(seen.add(g));
+            }
+        }
+        assertEquals(groups.size(), seen.size());
+        assertEquals(1, EntrantCounters.lanes(1, BatchWriter.DEFAULT_MAX_IN_FLIGHT).size());
+        assertTrue(EntrantCounters.lanes(0, BatchWriter.DEFAULT_MAX_IN_FLIGHT).isEmpty());
+    }
+
+    /**
+     * Tests that a group only moves entrants still in the expected status, and counts exactly those
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMoveGroupSkipsEntrantsThatChanged() throws Exception {
+        FirebaseFirestore db = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
+        Transaction transaction = mock(Transaction.class);
+        String[] statuses = {"waiting", "invited", null};
+        for (int i = 0; i < statuses.length; i++) {
+            DocumentSnapshot entrant = mock(DocumentSnapshot.class);
+            when(entrant.exists()).thenReturn(statuses[i] != null);
+            when(entrant.getString("status")).thenReturn(statuses[i]);
+            when(transaction.get(db.collection("events").document("e1").collection("entrants").document("u" + i)))
+                    .thenReturn(entrant);
+        }
+
+        List<String> moved = EntrantCounters.moveGroup(transaction, db, "e1", Arrays.asList("u0", "u1", "u2"),
+                "waiting", "invited");
+
+        assertEquals(Arrays.asList("u0"), moved);
+        ArgumentCaptor<Map<String, Object>> counted = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).set(eq(shardOf(db, 0)), counted.capture(), any(SetOptions.class));
+        assertTrue(counted.getValue().containsKey("waiting"));
+        assertTrue(counted.getValue().containsKey("invited"));
+        assertTrue(counted.getValue().containsKey("updates"));
+    }
+
+    /**
+     * Tests that deleting a user's entrants decrements each event by the status read in the
+     * transaction, and that an entrant already gone only has its registration removed
+     */
+    @Test
+    public void testDeleteGroupUsesStatusReadInTransaction() throws Exception {
+        FirebaseFirestore db = mock(FirebaseFirestore.class, RETURNS_DEEP_STUBS);
+        Transaction transaction = mock(Transaction.class);
+        // e1's entrant was invited by a draw after the registration page said waiting; e2's left
+        String[] statuses = {"invited", null};
+        for (int i = 0; i < statuses.length; i++) {
+            DocumentSnapshot entrant = mock(DocumentSnapshot.class);
+            when(entrant.exists()).thenReturn(statuses[i] != null);
+            when(entrant.getString("status")).thenReturn(statuses[i]);
+            when(transaction.get(db.collection("events").document("e" + (i + 1)).collection("entrants").document("u1")))
+                    .thenReturn(entrant);
+        }
+
+        Map<String, String> deleted = EntrantCounters.deleteGroup(transaction, db, "u1", Arrays.asList("e1", "e2"));
+
+        assertEquals(Collections.singletonMap("e1", "invited"), deleted);
+        verify(transaction).delete(db.collection("events").document("e1").collection("entrants").document("u1"));
+        verify(transaction, never()).delete(db.collection("events").document("e2").collection("entrants").document("u1"));
+        verify(transaction).delete(RegistrationIndex.ref(db, "u1", "e1"));
+        verify(transaction).delete(RegistrationIndex.ref(db, "u1", "e2"));
+        ArgumentCaptor<Map<String, Object>> counted = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).set(eq(shardOf(db, 0)), counted.capture(), any(SetOptions.class));
+        assertTrue(counted.getValue().containsKey("invited"));
+        assertFalse(counted.getValue().containsKey("waiting"));
+        verify(transaction, never()).set(eq(EntrantCounters.countsRef(db, "e2")), any(), any(SetOptions.class));
+    }
+}
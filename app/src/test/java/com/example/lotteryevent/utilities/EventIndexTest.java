@@ -0,0 +1,311 @@
+package com.example.lotteryevent.utilities;
+
+import com.example.lotteryevent.data.Event;
+import com.google.firebase.Timestamp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for EventIndex.
+ * These tests verify keyword matching, ranking and incremental updates of the event index.
+ */
+public class EventIndexTest {
+
+    // a recent time, creation times in the tests are offsets from it
+    private static final long NOW_SECONDS = 1760000000L;
+
+    private EventIndex index;
+
+    /**
+     * Creates an empty index
+     */
+    @Before
+    public void setUp() {
+        index = new EventIndex();
+    }
+
+    /**
+     * Creates an event with the searchable fields
+     * @param createdSeconds creation time in seconds after {@link #NOW_SECONDS}
+     */
+    private static Event event(String id, String name, String description, long createdSeconds) {
+        Event event = new Event();
+        event.setEventId(id);
+        event.setName(name);
+        event.setDescription(description);
+        event.setCreatedAt(new Timestamp(NOW_SECONDS + createdSeconds, 0));
+        return event;
+    }
+
+    /**
+     * Gets the IDs of events, in order
+     */
+    private static List<String> ids(List<Event> events) {
+        List<String> ids = new ArrayList<>();
+        for (Event event : events) {
+            ids.add(event.getEventId());
+        }
+        return ids;
+    }
+
+    /**
+     * Tests that words are matched whole, by prefix and inside words, in any case
+     */
+    @Test
+    public void testMatchesWordsPrefixesAndInfixes() {
+        index.apply(Arrays.asList(
+                event("games", "Board Games Night", "An evening of board games.", 1),
+                event("cook", "Cooking Workshop", "Learn to cook with friends.", 2)
+        ), Collections.emptyList(), true);
+
+        assertEquals(Collections.singletonList("games"), ids(index.search("GAME")));
+        assertEquals(Collections.singletonList("games"), ids(index.search("ames")));
+        assertEquals(Collections.singletonList("cook"), ids(index.search("friends")));
+        assertEquals(Collections.singletonList("cook"), ids(index.search("wo")));
+        assertTrue(index.search("ookx").isEmpty());
+        assertTrue(index.search("   ").isEmpty());
+    }
+
+    /**
+     * Tests that every query word has to match, in any field
+     */
+    @Test
+    public void testAllTermsMustMatch() {
+        Event concert = event("concert", "Jazz Concert", "Live music", 1);
+        concert.setLocation("Winspear Centre");
+        concert.setOrganizerName("Edmonton Jazz Society");
+        index.apply(Arrays.asList(concert, event("jam", "Jazz Jam", "Open stage", 2)),
+                Collections.emptyList(), true);
+
+        assertEquals(Collections.singletonList("concert"), ids(index.search("jazz winspear")));
+        assertEquals(Collections.singletonList("concert"), ids(index.search("edmonton music")));
+        assertEquals(Arrays.asList("jam", "concert"), ids(index.search("jazz")));
+        assertTrue(index.search("jazz piano").isEmpty());
+    }
+
+    /**
+     * Tests that name matches rank above description matches, and exact words above prefixes
+     */
+    @Test
+    public void testRanking() {
+        index.apply(Arrays.asList(
+                event("desc", "Evening Social", "Bring your yoga mat", 3),
+                event("prefix", "Yogathon", "Stretching", 2),
+                event("exact", "Morning Yoga", "Stretching", 1)
+        ), Collections.emptyList(), true);
+
+        assertEquals(Arrays.asList("exact", "prefix", "desc"), ids(index.search("yoga")));
+    }
+
+    /**
+     * Tests that events with equal scores are listed newest first
+     */
+    @Test
+    public void testTiesNewestFirst() {
+        index.apply(Arrays.asList(
+                event("old", "Chess Club", null, 10),
+                event("new", "Chess Club", null, 30),
+                event("mid", "Chess Club", null, 20)
+        ), Collections.emptyList(), true);
+
+        assertEquals(Arrays.asList("new", "mid", "old"), ids(index.search("chess")));
+    }
+
+    /**
+     * Tests that changed and removed events are reindexed from deltas
+     */
+    @Test
+    public void testIncrementalUpdates() {
+        index.apply(Arrays.asList(
+                event("a", "Pottery Class", null, 1),
+                event("b", "Pottery Market", null, 2)
+        ), Collections.emptyList(), true);
+
+        index.apply(Collections.singletonList(event("a", "Painting Class", null, 1)),
+                Collections.singletonList("b"), false);
+
+        assertTrue(index.search("pottery").isEmpty());
+        assertEquals(Collections.singletonList("a"), ids(index.search("painting")));
+        assertEquals(1, index.size());
+
+        // a freed slot is reused without mixing up postings
+        index.apply(Collections.singletonList(event("c", "Pottery Market", null, 3)),
+                Collections.emptyList(), false);
+        assertEquals(Collections.singletonList("c"), ids(index.search("pottery")));
+        assertEquals(Collections.singletonList("a"), ids(index.search("class")));
+
+        index.apply(Collections.emptyList(), Collections.emptyList(), true);
+        assertEquals(0, index.size());
+        assertTrue(index.search("class").isEmpty());
+    }
+
+    /**
+     * Tests that the index grows past its initial capacity
+     */
+    @Test
+    public void testManyEvents() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            events.add(event("e" + i, "Event number" + i, i % 2 == 0 ? "alpha" : "beta", i));
+        }
+        index.apply(events, Collections.emptyList(), true);
+
+        assertEquals(500, index.search("alpha").size());
+        assertEquals(Collections.singletonList("e999"), ids(index.search("number999")));
+        assertEquals(11, index.search("number99").size());
+    }
+
+    /**
+     * Tests that text is split into lowercase words of letters and digits
+     */
+    @Test
+    public void testTokenize() {
+        assertEquals(Arrays.asList("board", "games", "2025"),
+                new ArrayList<>(EventIndex.tokenize("Board-Games, 2025! board")));
+    }
+
+    /**
+     * Creates a timestamp a number of seconds after {@link #NOW_SECONDS}
+     */
+    private static Timestamp at(long offsetSeconds) {
+        return new Timestamp(NOW_SECONDS + offsetSeconds, 0);
+    }
+
+    /**
+     * Creates an event with a waiting list, for the facet tests
+     */
+    private static Event facetEvent(String id, double price, long startOffset, int waiting, Integer limit) {
+        Event event = new Event("Event " + id, null, "org1", "Organizer", 10, waiting);
+        event.setEventId(id);
+        event.setPrice(price);
+        event.setEventStartDateTime(at(startOffset));
+        event.setWaitingListLimit(limit);
+        event.setStatus("open");
+        event.setCreatedAt(at(0));
+        return event;
+    }
+
+    /**
+     * Tests the price, start window and spots left facets and their intersection
+     */
+    @Test
+    public void testRangeFacets() {
+        Event noStart = facetEvent("nostart", 5, 0, 0, null);
+        noStart.setEventStartDateTime(null);
+        index.apply(Arrays.asList(
+                facetEvent("free", 0, 100, 3, 3),
+                facetEvent("cheap", 9.99, 200, 1, 5),
+                facetEvent("pricey", 50, 300, 0, null),
+                noStart
+        ), Collections.emptyList(), true);
+        long now = (NOW_SECONDS + 1000) * 1000;
+
+        EventFilter filter = new EventFilter();
+        filter.setPriceRange(null, 10.0);
+        filter.setSort(EventFilter.Sort.START_TIME);
+        assertEquals(Arrays.asList("free", "cheap", "nostart"), ids(index.query("", filter, now)));
+
+        filter.setStartWindow((NOW_SECONDS + 100) * 1000, (NOW_SECONDS + 300) * 1000);
+        assertEquals(Arrays.asList("free", "cheap"), ids(index.query(null, filter, now)));
+
+        filter.setSpotsLeftOnly(true);
+        assertEquals(Collections.singletonList("cheap"), ids(index.query(null, filter, now)));
+
+        filter = new EventFilter();
+        filter.setPriceRange(9.99, 9.99);
+        assertEquals(Collections.singletonList("cheap"), ids(index.query(null, filter, now)));
+
+        // the window edges are exact to the millisecond
+        filter = new EventFilter();
+        filter.setStartWindow((NOW_SECONDS + 100) * 1000 + 1, null);
+        filter.setSort(EventFilter.Sort.START_TIME);
+        assertEquals(Arrays.asList("cheap", "pricey"), ids(index.query(null, filter, now)));
+    }
+
+    /**
+     * Tests the yes/no, status and organizer facets
+     */
+    @Test
+    public void testValueFacets() {
+        Event geo = facetEvent("geo", 0, 0, 0, null);
+        geo.setGeoLocationRequired(true);
+        Event finalized = facetEvent("done", 0, 0, 0, null);
+        finalized.setStatus("Finalized");
+        finalized.setOrganizerId("org2");
+        index.apply(Arrays.asList(geo, finalized, facetEvent("plain", 0, 0, 0, null)),
+                Collections.emptyList(), true);
+
+        EventFilter filter = new EventFilter();
+        filter.setGeoLocationRequired(false);
+        filter.setStatus("OPEN");
+        assertEquals(Collections.singletonList("plain"), ids(index.query(null, filter, 0)));
+
+        filter = new EventFilter();
+        filter.setOrganizerId("org2");
+        assertEquals(Collections.singletonList("done"), ids(index.query(null, filter, 0)));
+
+        filter.setOrganizerId("nobody");
+        assertTrue(index.query(null, filter, 0).isEmpty());
+    }
+
+    /**
+     * Tests that only events open for registration right now are available
+     */
+    @Test
+    public void testAvailableNow() {
+        Event open = facetEvent("open", 0, 500, 0, null);
+        open.setRegistrationStartDateTime(at(-100));
+        open.setRegistrationEndDateTime(at(100));
+        Event notYet = facetEvent("notyet", 0, 500, 0, null);
+        notYet.setRegistrationStartDateTime(at(50));
+        Event closed = facetEvent("closed", 0, 500, 0, null);
+        closed.setRegistrationEndDateTime(at(-1));
+        Event over = facetEvent("over", 0, -500, 0, null);
+        over.setEventEndDateTime(at(-400));
+        Event finalized = facetEvent("finalized", 0, 500, 0, null);
+        finalized.setStatus("finalized");
+        index.apply(Arrays.asList(open, notYet, closed, over, finalized), Collections.emptyList(), true);
+
+        EventFilter filter = new EventFilter();
+        filter.setAvailableNow(true);
+        assertEquals(Collections.singletonList("open"), ids(index.query(null, filter, NOW_SECONDS * 1000)));
+    }
+
+    /**
+     * Tests sorting by popularity and newest first, with and without keywords
+     */
+    @Test
+    public void testSorts() {
+        Event quiet = facetEvent("quiet", 0, 0, 1, null);
+        quiet.setName("Yoga Morning");
+        quiet.setCreatedAt(at(30));
+        Event busy = facetEvent("busy", 0, 0, 40, null);
+        busy.setName("Evening Social");
+        busy.setDescription("yoga");
+        busy.setCreatedAt(at(10));
+        Event middle = facetEvent("middle", 0, 0, 7, null);
+        middle.setCreatedAt(at(20));
+        index.apply(Arrays.asList(quiet, busy, middle), Collections.emptyList(), true);
+
+        EventFilter filter = new EventFilter();
+        assertEquals(Arrays.asList("quiet", "middle", "busy"), ids(index.query("", filter, 0)));
+        assertEquals(Arrays.asList("quiet", "busy"), ids(index.query("yoga", filter, 0)));
+
+        filter.setSort(EventFilter.Sort.POPULARITY);
+        assertEquals(Arrays.asList("busy", "middle", "quiet"), ids(index.query("", filter, 0)));
+        assertEquals(Arrays.asList("busy", "quiet"), ids(index.query("yoga", filter, 0)));
+
+        // an update moves the event in the sort order
+        Event quieter = facetEvent("busy", 0, 0, 0, null);
+        index.apply(Collections.singletonList(quieter), Collections.emptyList(), false);
+        assertEquals(Arrays.asList("middle", "quiet", "busy"), ids(index.query("", filter, 0)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.lotteryevent.utilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for FilterPipeline.
+ * These tests verify that requests are debounced and that only the latest result is delivered.
+ */
+public class FilterPipelineTest {
+
+    private ScheduledExecutorService worker;
+    private final List<String> results = new CopyOnWriteArrayList<>();
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+    private FilterPipeline<String> pipeline;
+
+    /**
+     * Creates a pipeline delivering results on the worker thread
+     */
+    @Before
+    public void setUp() {
+        worker = Executors.newSingleThreadScheduledExecutor();
+        pipeline = new FilterPipeline<>(worker, Runnable::run, new FilterPipeline.ResultListener<String>() {
+            @Override
+            public void onResult(String result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errors.add(e);
+            }
+        });
+    }
+
+    /**
+     * Stops the worker
+     */
+    @After
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    /**
+     * Waits until every task queued on the worker so far has run
+     */
+    private void drain() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        worker.execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that a burst of delayed requests is computed once, for the last request
+     */
+    @Test
+    public void testBurstCollapsesIntoLastRequest() throws Exception {
+        pipeline.submit(() -> "b", 50);
+        pipeline.submit(() -> "bo", 50);
+        long last = pipeline.submit(() -> "boa", 50);
+
+        Thread.sleep(150);
+        drain();
+
+        assertEquals(1, results.size());
+        assertEquals("boa", results.get(0));
+        assertTrue(pipeline.isCurrent(last));
+    }
+
+    /**
+     * Tests that a result computed for an outdated request is dropped
+     */
+    @Test
+    public void testOutdatedResultIsDropped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline.submit(() -> {
+            started.countDown();
+            release.await();
+            return "slow";
+        }, 0);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long now = pipeline.cancel();
+        release.countDown();
+        drain();
+
+        assertTrue(results.isEmpty());
+        assertTrue(pipeline.isCurrent(now));
+    }
+
+    /**
+     * Tests that a failed computation reports its exception instead of a result
+     */
+    @Test
+    public void testErrorIsDelivered() throws Exception {
+        pipeline.submit(() -> {
+            throw new IllegalStateException("index closed");
+        }, 0);
+        drain();
+
+        assertTrue(results.isEmpty());
+        assertEquals(1, errors.size());
+        assertEquals("index closed", errors.get(0).getMessage());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.lotteryevent.utilities;
+
+import com.google.android.gms.tasks.Task;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for NotificationPreferences.
+ * These tests verify the cached opt-out preference without a Firestore listener.
+ */
+public class NotificationPreferencesTest {
+
+    /**
+     * Clears the process-wide cache so tests do not share state
+     */
+    @After
+    public void tearDown() {
+        NotificationPreferences.getInstance().stop();
+    }
+
+    /**
+     * Tests that no banner is allowed before the preference has loaded
+     */
+    @Test
+    public void testOptedOutUntilLoaded() {
+        NotificationPreferences preferences = NotificationPreferences.getInstance();
+
+        assertTrue(preferences.isOptedOut());
+        assertFalse(preferences.getOptOut().isComplete());
+    }
+
+    /**
+     * Tests that a pending request for the preference completes once it is set
+     */
+    @Test
+    public void testPendingRequestCompletesWhenSet() {
+        NotificationPreferences preferences = NotificationPreferences.getInstance();
+        Task<Boolean> pending = preferences.getOptOut();
+
+        preferences.setOptOut(false);
+
+        assertTrue(pending.isComplete());
+        assertFalse(pending.getResult());
+        assertFalse(preferences.isOptedOut());
+    }
+
+    /**
+     * Tests that a later change is returned instead of the first loaded value
+     */
+    @Test
+    public void testLatestValueReturned() {
+        NotificationPreferences preferences = NotificationPreferences.getInstance();
+        preferences.setOptOut(false);
+
+        preferences.setOptOut(true);
+
+        assertTrue(preferences.isOptedOut());
+        assertTrue(preferences.getOptOut().getResult());
+    }
+}
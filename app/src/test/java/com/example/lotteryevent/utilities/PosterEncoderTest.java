@@ -0,0 +1,49 @@
+package com.example.lotteryevent.utilities;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PosterEncoder.
+ * These tests verify the sizing rules without encoding any image.
+ */
+public class PosterEncoderTest {
+
+    /**
+     * Tests that a large image is scaled to the maximum dimension, keeping its aspect ratio
+     */
+    @Test
+    public void testScaledSizeKeepsAspectRatio() {
+        assertArrayEquals(new int[] {1080, 540}, PosterEncoder.scaledSize(4000, 2000, 1080));
+        assertArrayEquals(new int[] {240, 480}, PosterEncoder.scaledSize(1000, 2000, 480));
+    }
+
+    /**
+     * Tests that an image already within the maximum dimension is not scaled up
+     */
+    @Test
+    public void testScaledSizeNeverUpscales() {
+        assertArrayEquals(new int[] {100, 80}, PosterEncoder.scaledSize(100, 80, 160));
+    }
+
+    /**
+     * Tests that a very thin image keeps at least one pixel on each side
+     */
+    @Test
+    public void testScaledSizeKeepsOnePixel() {
+        assertArrayEquals(new int[] {160, 1}, PosterEncoder.scaledSize(5000, 2, 160));
+    }
+
+    /**
+     * Tests that the variants grow in size and budget from thumbnail to detail
+     */
+    @Test
+    public void testVariantsOrderedBySize() {
+        PosterEncoder.Variant[] variants = PosterEncoder.Variant.values();
+        for (int i = 1; i < variants.length; i++) {
+            assertTrue(variants[i].getMaxDimension() > variants[i - 1].getMaxDimension());
+            assertTrue(variants[i].getByteBudget() > variants[i - 1].getByteBudget());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.lotteryevent.utilities;
+
+import com.example.lotteryevent.data.Event;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PosterModel.
+ * These tests verify the keys posters are cached under.
+ */
+public class PosterModelTest {
+
+    /**
+     * Tests that a stored poster is keyed by its content hash and variant
+     */
+    @Test
+    public void testStoredPosterKeyedByContentHash() {
+        Event event = new Event();
+        event.setEventId("event1");
+        event.setPosterId("abc123");
+
+        assertEquals("poster/abc123/card", PosterModel.of(event, PosterEncoder.Variant.CARD).getCacheKey());
+        assertNotEquals(PosterModel.of(event, PosterEncoder.Variant.CARD).getCacheKey(),
+                PosterModel.of(event, PosterEncoder.Variant.THUMBNAIL).getCacheKey());
+    }
+
+    /**
+     * Tests that an inline poster is keyed by its event and the hash of its payload
+     */
+    @Test
+    public void testInlinePosterKeyedByEventAndHash() {
+        Event event = new Event();
+        event.setEventId("event1");
+        event.setPosterImageUrl("aGVsbG8=");
+
+        assertEquals("event/event1/" + PosterStore.hash("aGVsbG8="),
+                PosterModel.of(event, PosterEncoder.Variant.DETAIL).getCacheKey());
+
+        event.setPosterImageUrl("d29ybGQ=");
+        assertNotEquals("event/event1/" + PosterStore.hash("aGVsbG8="),
+                PosterModel.of(event, PosterEncoder.Variant.DETAIL).getCacheKey());
+    }
+
+    /**
+     * Tests that models of the same poster are equal, so Glide's memory cache hits
+     */
+    @Test
+    public void testEquality() {
+        PosterModel a = new PosterModel("event1", "abc123", null, PosterEncoder.Variant.CARD);
+        PosterModel b = new PosterModel("event1", "abc123", null, PosterEncoder.Variant.CARD);
+        PosterModel c = new PosterModel("event1", "abc123", null, PosterEncoder.Variant.DETAIL);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.lotteryevent.utilities;
+
+import com.example.lotteryevent.data.Event;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PosterStore.
+ * These tests verify content addressing and the poster cache without querying Firestore.
+ */
+public class PosterStoreTest {
+
+    /**
+     * Clears the process-wide cache so tests do not share state
+     */
+    @After
+    public void tearDown() {
+        PosterStore.clear();
+    }
+
+    /**
+     * Tests that a poster is stored under the SHA-256 hash of its payload
+     */
+    @Test
+    public void testHashIsSha256OfPayload() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                PosterStore.hash("abc"));
+    }
+
+    /**
+     * Tests that identical uploads map to the same poster and different ones do not
+     */
+    @Test
+    public void testIdenticalPostersShareId() {
+        assertEquals(PosterStore.hash("aGVsbG8="), PosterStore.hash("aGVsbG8="));
+        assertNotEquals(PosterStore.hash("aGVsbG8="), PosterStore.hash("d29ybGQ="));
+    }
+
+    /**
+     * Tests that an upload is stored under the same ID as its content hash
+     */
+    @Test
+    public void testUploadIsStoredUnderHash() {
+        PosterStore.Upload upload = new PosterStore.Upload("aGVsbG8=", Collections.emptyMap());
+
+        assertEquals(PosterStore.hash("aGVsbG8="), upload.getPosterId());
+    }
+
+    /**
+     * Tests that an older event's inline poster is used as is
+     */
+    @Test
+    public void testLoadInlinePoster() {
+        Event event = new Event();
+        event.setPosterImageUrl("aGVsbG8=");
+
+        assertTrue(event.hasPoster());
+        assertEquals("aGVsbG8=", PosterStore.load(event, PosterEncoder.Variant.DETAIL).getResult());
+    }
+
+    /**
+     * Tests that a cached stored poster is served without reading Firestore
+     */
+    @Test
+    public void testLoadCachedStoredPoster() {
+        String posterId = PosterStore.hash("aGVsbG8=");
+        PosterStore.cache(PosterStore.cacheKey(posterId, PosterEncoder.Variant.DETAIL), "aGVsbG8=");
+        Event event = new Event();
+        event.setPosterId(posterId);
+
+        assertTrue(event.hasPoster());
+        assertEquals("aGVsbG8=", PosterStore.load(event, PosterEncoder.Variant.DETAIL).getResult());
+    }
+
+    /**
+     * Tests that each variant of a poster is cached separately
+     */
+    @Test
+    public void testVariantsCachedSeparately() {
+        String posterId = PosterStore.hash("aGVsbG8=");
+        PosterStore.cache(PosterStore.cacheKey(posterId, PosterEncoder.Variant.THUMBNAIL), "dGh1bWI=");
+        PosterStore.cache(PosterStore.cacheKey(posterId, PosterEncoder.Variant.DETAIL), "aGVsbG8=");
+
+        assertEquals("dGh1bWI=", PosterStore.load(posterId, null, PosterEncoder.Variant.THUMBNAIL).getResult());
+        assertEquals("aGVsbG8=", PosterStore.load(posterId, null, PosterEncoder.Variant.DETAIL).getResult());
+    }
+
+    /**
+     * Tests that an inline poster is returned for every variant
+     */
+    @Test
+    public void testInlinePosterServesEveryVariant() {
+        for (PosterEncoder.Variant variant : PosterEncoder.Variant.values()) {
+            assertEquals("aGVsbG8=", PosterStore.load(null, "aGVsbG8=", variant).getResult());
+        }
+    }
+
+    /**
+     * Tests that an event without a poster resolves to null
+     */
+    @Test
+    public void testLoadWithoutPoster() {
+        Event event = new Event();
+
+        assertFalse(event.hasPoster());
+        assertNull(PosterStore.load(event, PosterEncoder.Variant.DETAIL).getResult());
+    }
+}
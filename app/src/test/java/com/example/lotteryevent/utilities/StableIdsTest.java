@@ -0,0 +1,44 @@
+package com.example.lotteryevent.utilities;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for StableIds.
+ * These tests verify that document IDs map to consistent, distinct item IDs.
+ */
+public class StableIdsTest {
+
+    /**
+     * Tests that the same document always gets the same item ID
+     */
+    @Test
+    public void testSameIdIsStable() {
+        assertEquals(StableIds.of("2HY5fqDbrNjxiTGjNh8J"), StableIds.of(new String("2HY5fqDbrNjxiTGjNh8J")));
+    }
+
+    /**
+     * Tests that different documents get different item IDs
+     */
+    @Test
+    public void testDifferentIdsDiffer() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(StableIds.of("event" + i));
+        }
+        assertEquals(1000, ids.size());
+        assertNotEquals(StableIds.of("ab"), StableIds.of("ba"));
+    }
+
+    /**
+     * Tests that items without a document ID report no ID
+     */
+    @Test
+    public void testNullHasNoId() {
+        assertEquals(StableIds.NO_ID, StableIds.of(null));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.lotteryevent.utilities;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for UnreadNotifications.
+ * These tests verify how the local unread set decides which banners to clear.
+ */
+public class UnreadNotificationsTest {
+
+    /**
+     * Clears the process-wide set so tests do not share state
+     */
+    @After
+    public void tearDown() {
+        UnreadNotifications.getInstance().clear();
+    }
+
+    /**
+     * Tests that removing a notification returns the banner shown for it
+     */
+    @Test
+    public void testRemoveReturnsBanner() {
+        UnreadNotifications unread = UnreadNotifications.getInstance();
+        unread.add("notif1");
+        unread.setBanner("notif1", 7);
+        unread.add("notif1");
+
+        assertEquals(Integer.valueOf(7), unread.remove("notif1"));
+        assertNull(unread.remove("notif1"));
+    }
+
+    /**
+     * Tests that all notifications only count as seen once the set is complete
+     */
+    @Test
+    public void testAllSeenRequiresSeededSet() {
+        UnreadNotifications unread = UnreadNotifications.getInstance();
+        assertFalse("an incomplete set cannot tell that nothing is unseen", unread.isAllSeen());
+
+        unread.add("notif1");
+        unread.markSeeded();
+        assertFalse(unread.isAllSeen());
+
+        unread.remove("notif1");
+        assertTrue(unread.isAllSeen());
+    }
+
+    /**
+     * Tests that clearing forgets the notifications and the seeded state
+     */
+    @Test
+    public void testClear() {
+        UnreadNotifications unread = UnreadNotifications.getInstance();
+        unread.add("notif1");
+        unread.markSeeded();
+
+        unread.clear();
+
+        assertTrue(unread.getIds().isEmpty());
+        assertFalse(unread.isSeeded());
+    }
+}
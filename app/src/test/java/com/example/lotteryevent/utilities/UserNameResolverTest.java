@@ -0,0 +1,78 @@
+package com.example.lotteryevent.utilities;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for UserNameResolver.
+ * These tests verify the shared name cache without querying Firestore.
+ */
+public class UserNameResolverTest {
+
+    /**
+     * Clears the process-wide cache so tests do not share state
+     */
+    @After
+    public void tearDown() {
+        UserNameResolver.clear();
+    }
+
+    /**
+     * Tests that a fetched name is served from cache
+     */
+    @Test
+    public void testPeekCachedName() {
+        UserNameResolver.put(Collections.singletonMap("user1", "Alice"), System.currentTimeMillis());
+
+        assertEquals("Alice", UserNameResolver.peek("user1"));
+        assertNull(UserNameResolver.peek("user2"));
+    }
+
+    /**
+     * Tests that a name older than the TTL is no longer trusted
+     */
+    @Test
+    public void testExpiredNameIgnored() {
+        long fetchedAt = System.currentTimeMillis() - UserNameResolver.TTL_MS - 1;
+        UserNameResolver.put(Collections.singletonMap("user1", "Alice"), fetchedAt);
+
+        assertNull(UserNameResolver.peek("user1"));
+    }
+
+    /**
+     * Tests that invalidating a user drops only their name
+     */
+    @Test
+    public void testInvalidate() {
+        Map<String, String> names = new HashMap<>();
+        names.put("user1", "Alice");
+        names.put("user2", "Bob");
+        UserNameResolver.put(names, System.currentTimeMillis());
+
+        UserNameResolver.invalidate("user1");
+
+        assertNull(UserNameResolver.peek("user1"));
+        assertEquals("Bob", UserNameResolver.peek("user2"));
+    }
+
+    /**
+     * Tests that the least recently used names are evicted once the cache is full
+     */
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        long now = System.currentTimeMillis();
+        UserNameResolver.put(Collections.singletonMap("first", "First"), now);
+        for (int i = 0; i < UserNameResolver.CACHE_SIZE; i++) {
+            UserNameResolver.put(Collections.singletonMap("user" + i, "User " + i), now);
+        }
+
+        assertNull(UserNameResolver.peek("first"));
+        assertEquals("User 0", UserNameResolver.peek("user0"));
+    }
+}